@@ -4,6 +4,8 @@ import events.dewdrop.api.result.Result;
 import events.dewdrop.api.validators.ValidationException;
 import events.dewdrop.config.DewdropSettings;
 import events.dewdrop.structure.api.Command;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Dewdrop is a simple, fast, and powerful java based event sourcing framework. The idea of Dewdrop
@@ -63,6 +65,45 @@ public class Dewdrop {
         return settings.getAggregateStateOrchestrator().executeSubsequentCommand(command, previous);
     }
 
+    /**
+     * The non-blocking version of `executeCommand()`. The returned future completes once the events
+     * have been saved, without parking the calling thread while the AggregateRoot is read and written.
+     * Instead of throwing, a failure (including a ValidationException) completes the future with a
+     * Result that holds the exception.
+     *
+     * @param <T> The type of command that you are executing.
+     * @param command The command to execute.
+     * @return {@code CompletableFuture<Result<Boolean>>}
+     */
+    public <T extends Command> CompletableFuture<Result<Boolean>> executeCommandAsync(T command) {
+        return settings.getAggregateStateOrchestrator().executeCommandAsync(command);
+    }
+
+    /**
+     * The non-blocking version of `executeSubsequentCommand()`.
+     *
+     * @param <T> The type of command that you are executing.
+     * @param command The command to execute.
+     * @param previous The previous command that was executed.
+     * @return {@code CompletableFuture<Result<Boolean>>}
+     */
+    public <T extends Command> CompletableFuture<Result<Boolean>> executeSubsequentCommandAsync(T command, Command previous) {
+        return settings.getAggregateStateOrchestrator().executeSubsequentCommandAsync(command, previous);
+    }
+
+    /**
+     * Executes a batch of commands, for example everything a queue consumer received in one poll.
+     * Commands for the same aggregate are run in the order they appear in the list against a single
+     * read of the aggregate, and their events are saved in one write. Different aggregates are
+     * processed in parallel.
+     *
+     * @param commands The commands to execute.
+     * @return One {@code Result<Boolean>} per command, in the same order as the commands.
+     */
+    public List<Result<Boolean>> executeCommands(List<? extends Command> commands) {
+        return settings.getAggregateStateOrchestrator().executeCommands(commands);
+    }
+
     /**
      * This is the query entry point for the Dewdrop framework. It is used to execute a query against a
      * ReadModel and return the Result. To have this work correctly, you'll need a ReadModel class that
@@ -6,7 +6,11 @@ import events.dewdrop.command.CommandMapper;
 import events.dewdrop.streamstore.process.AggregateStateCommandProcessor;
 import events.dewdrop.utils.AssignCorrelationAndCausation;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.log4j.Log4j2;
 import events.dewdrop.structure.api.Command;
 import events.dewdrop.structure.events.CorrelationCausation;
@@ -63,4 +67,66 @@ public class AggregateStateOrchestrator {
         return aggregateStateCommandProcessor.processCommand(command, commandHandlerMethod.get());
     }
 
+    /**
+     * The non-blocking version of {@link #executeCommand(Command)}.
+     *
+     * @param <T> The type of the result of the command handler method
+     * @param command The command to execute.
+     * @return {@code CompletableFuture<Result<Boolean>>}
+     */
+    public <T extends Command> CompletableFuture<Result<Boolean>> executeCommandAsync(T command) {
+        Optional<Method> commandHandlerMethod = commandMapper.getCommandHandlersThatSupportCommand(command);
+
+        if (commandHandlerMethod.isEmpty()) { return CompletableFuture.completedFuture(Result.empty()); }
+
+        return aggregateStateCommandProcessor.processCommandAsync(command, commandHandlerMethod.get());
+    }
+
+    /**
+     * The non-blocking version of {@link #executeSubsequentCommand(Command, CorrelationCausation)}.
+     *
+     * @param <T> The type of the result of the command handler method
+     * @param command The command to execute
+     * @param previous The previous command that was executed.
+     * @return {@code CompletableFuture<Result<Boolean>>}
+     */
+    public <T extends Command> CompletableFuture<Result<Boolean>> executeSubsequentCommandAsync(T command, CorrelationCausation previous) {
+        Optional<Method> commandHandlerMethod = commandMapper.getCommandHandlersThatSupportCommand(command);
+
+        if (commandHandlerMethod.isEmpty()) { return CompletableFuture.completedFuture(Result.empty()); }
+
+        command = AssignCorrelationAndCausation.assignTo(previous, command);
+        return aggregateStateCommandProcessor.processCommandAsync(command, commandHandlerMethod.get());
+    }
+
+    /**
+     * Retrieves the command handler method of every command and processes them as a batch, grouped by
+     * the aggregate they are for. Commands without a command handler get an empty {@code Result}.
+     *
+     * @param commands The commands to execute
+     * @return One {@code Result<Boolean>} per command, in the same order as the commands
+     */
+    public List<Result<Boolean>> executeCommands(List<? extends Command> commands) {
+        List<Result<Boolean>> results = new ArrayList<>(Collections.nCopies(commands.size(), Result.empty()));
+        List<Integer> handled = new ArrayList<>();
+        List<Command> handledCommands = new ArrayList<>();
+        List<Method> commandHandlerMethods = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            Optional<Method> commandHandlerMethod = commandMapper.getCommandHandlersThatSupportCommand(commands.get(i));
+            if (commandHandlerMethod.isEmpty()) {
+                continue;
+            }
+
+            handled.add(i);
+            handledCommands.add(commands.get(i));
+            commandHandlerMethods.add(commandHandlerMethod.get());
+        }
+        if (handled.isEmpty()) { return results; }
+
+        List<Result<Boolean>> processed = aggregateStateCommandProcessor.processCommands(handledCommands, commandHandlerMethods);
+        for (int i = 0; i < handled.size(); i++) {
+            results.set(handled.get(i), processed.get(i));
+        }
+        return results;
+    }
 }
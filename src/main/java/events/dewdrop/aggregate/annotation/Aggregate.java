@@ -10,4 +10,6 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface Aggregate {
+    // Write a snapshot of the aggregate every n events - 0 disables snapshotting
+    int snapshotInterval() default 0;
 }
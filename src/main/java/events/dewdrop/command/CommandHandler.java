@@ -12,4 +12,7 @@ import java.lang.annotation.Target;
 public @interface CommandHandler {
     Class<?> value() default void.class;
 
+    // The command creates the aggregate - it is not read first and the append expects the stream not to
+    // exist
+    boolean creates() default false;
 }
@@ -1,5 +1,6 @@
 package events.dewdrop.config;
 
+import events.dewdrop.read.readmodel.stream.subscription.OverflowPolicy;
 import java.util.List;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -21,4 +22,49 @@ public class DewdropProperties {
     private String packageToScan;
     @Singular("packageToExclude")
     private List<String> packageToExclude;
+    // The number of hydrated aggregates to keep between commands - 0 disables the cache
+    private int aggregateCacheSize;
+    // How many times a command is retried after a concurrency conflict - 0 disables retries
+    private int commandRetryAttempts;
+    // The initial backoff between retries, it grows exponentially and is jittered
+    private long commandRetryBackoffMillis;
+    // How long appends are collected before they are dispatched together - 0 sends every append on its
+    // own
+    private long appendCoalesceWindowMillis;
+    // Dispatch the collected appends early once this many are pending
+    private int appendCoalesceBatchSize;
+    // The most appends that are outstanding at the same time when appends are coalesced
+    private int appendMaxInFlight;
+    // Write event and snapshot payloads as Smile instead of JSON - events in either format are always
+    // readable
+    private boolean binaryEvents;
+    // Event and snapshot payloads at least this many bytes long are compressed - 0 disables compression
+    private int compressionThresholdBytes;
+    // Read models subscribed to the same stream share one subscription and each event is deserialized
+    // once for all of them
+    private boolean sharedSubscriptions;
+    // Read models that replay a category or event type stream are fed from one filtered subscription to
+    // $all instead - the other read models share their subscriptions as with sharedSubscriptions
+    private boolean subscribeToAll;
+    // Events of a subscription are queued for a consumer thread that runs the read model's handlers - 0
+    // runs the handlers on the subscription callback
+    private int subscriptionBufferCapacity;
+    // The most events the consumer thread takes from the queue at a time
+    private int subscriptionBatchSize;
+    // What to do with an event that arrives while the queue is full, BLOCK when not set - the DROP
+    // policies cannot be used with checkpointFile or cacheSnapshotDirectory
+    private OverflowPolicy subscriptionOverflowPolicy;
+    // A local file the read model streams record their checkpoints in, so a restart resumes them
+    // instead of replaying - not set disables checkpoints. Delivery is at-least-once, the events
+    // after the last saved checkpoint are handled again
+    private String checkpointFile;
+    // Checkpoints are written to the file after this many are saved, 1000 when not set
+    private int checkpointFlushEvents;
+    // and at least this often, 1000 when not set
+    private long checkpointFlushIntervalMillis;
+    // A local directory the read model caches are snapshotted to, so a restart loads them and
+    // resumes their streams from the snapshot - not set disables snapshots
+    private String cacheSnapshotDirectory;
+    // How often each cache is snapshotted, 60000 when not set
+    private long cacheSnapshotIntervalMillis;
 }
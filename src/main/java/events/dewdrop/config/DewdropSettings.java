@@ -7,16 +7,28 @@ import events.dewdrop.command.CommandMapper;
 import events.dewdrop.config.ascii.Ascii;
 import events.dewdrop.read.readmodel.DefaultAnnotationReadModelMapper;
 import events.dewdrop.read.readmodel.ReadModelMapper;
+import events.dewdrop.read.readmodel.cache.CacheSnapshotSettings;
 import events.dewdrop.read.readmodel.stream.StreamFactory;
+import events.dewdrop.read.readmodel.stream.subscription.AllSubscriptionHub;
+import events.dewdrop.read.readmodel.stream.subscription.SubscriptionBufferSettings;
+import events.dewdrop.read.readmodel.stream.subscription.SubscriptionHub;
 import events.dewdrop.streamstore.process.AggregateStateCommandProcessor;
 import events.dewdrop.structure.StreamNameGenerator;
 import events.dewdrop.utils.ReflectionsConfigUtils;
 import events.dewdrop.read.readmodel.QueryStateOrchestrator;
 import events.dewdrop.read.readmodel.ReadModelFactory;
+import events.dewdrop.streamstore.checkpoint.FileCheckpointStore;
 import events.dewdrop.streamstore.eventstore.EventStore;
 import events.dewdrop.streamstore.process.AggregateRootLifecycle;
+import events.dewdrop.streamstore.process.RetryPolicy;
+import events.dewdrop.streamstore.repository.AggregateRootCache;
+import events.dewdrop.streamstore.serialize.CompressingEventSerializer;
+import events.dewdrop.streamstore.serialize.EventTypeRegistry;
 import events.dewdrop.streamstore.serialize.JsonSerializer;
+import events.dewdrop.streamstore.serialize.SmileSerializer;
 import events.dewdrop.streamstore.stream.PrefixStreamNameGenerator;
+import events.dewdrop.streamstore.write.CoalescingStreamStore;
+import events.dewdrop.structure.datastore.CheckpointStore;
 import events.dewdrop.structure.datastore.StreamStore;
 import events.dewdrop.structure.serialize.EventSerializer;
 import events.dewdrop.utils.DependencyInjectionUtils;
@@ -27,10 +39,12 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.nio.file.Path;
 import java.util.Optional;
 import lombok.Builder;
 import lombok.Data;
 import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
 
 @Data
 @Log4j2
@@ -49,6 +63,8 @@ public class DewdropSettings {
     private CommandMapper commandMapper;
     private ReadModelMapper readModelMapper;
     private StreamFactory streamFactory;
+    private CheckpointStore checkpointStore;
+    private CacheSnapshotSettings cacheSnapshotSettings;
     private ReadModelFactory readModelFactory;
     private AggregateRootLifecycle streamProcessor;
 
@@ -61,23 +77,32 @@ public class DewdropSettings {
         try {
             if (properties == null) { throw new IllegalArgumentException("properties cannot be null"); }
             this.eventStoreDBClient = Optional.ofNullable(eventStoreDBClient).orElse(eventStoreDBClient(properties));
-            this.streamStore = new EventStore(getEventStoreDBClient());
+            this.streamStore = streamStore(new EventStore(getEventStoreDBClient()), properties);
         } catch (Exception e) {
             throw new IllegalArgumentException("Unable to parse EventStore connection", e);
         }
         DependencyInjectionUtils.setDependencyInjection(dependencyInjectionAdapter);
         ReflectionsConfigUtils.init(getProperties().getPackageToScan(), getProperties().getPackageToExclude());
-        this.eventSerializer = Optional.ofNullable(eventSerializer).orElse(new JsonSerializer(getObjectMapper()));
+        this.eventSerializer = Optional.ofNullable(eventSerializer).orElseGet(() -> eventSerializer(EventTypeRegistry.fromScannedEvents(getObjectMapper()), properties));
         this.streamNameGenerator = new PrefixStreamNameGenerator(getProperties().getStreamPrefix());
 
         // Streams
-        this.streamFactory = new StreamFactory(getStreamStore(), getEventSerializer(), getStreamNameGenerator());
-        this.streamProcessor = new AggregateRootLifecycle(getStreamFactory());
+        AllSubscriptionHub allSubscriptionHub = getProperties().isSubscribeToAll() ? AllSubscriptionHub.getInstance(getStreamStore(), getEventSerializer(), null) : null;
+        SubscriptionHub subscriptionHub = allSubscriptionHub == null && getProperties().isSharedSubscriptions() ? SubscriptionHub.getInstance(getStreamStore(), getEventSerializer()) : allSubscriptionHub;
+        SubscriptionBufferSettings subscriptionBufferSettings = subscriptionBufferSettings(properties);
+        this.checkpointStore = checkpointStore(properties);
+        this.streamFactory = new StreamFactory(getStreamStore(), getEventSerializer(), getStreamNameGenerator(), subscriptionHub, subscriptionBufferSettings, getCheckpointStore());
+        RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(getProperties().getCommandRetryAttempts() + 1).initialBackoffMillis(getProperties().getCommandRetryBackoffMillis()).create();
+        this.streamProcessor = new AggregateRootLifecycle(getStreamFactory(), AggregateRootCache.getInstance(getProperties().getAggregateCacheSize()), retryPolicy);
 
         // Read Models (before commands)
         this.readModelMapper = Optional.ofNullable(readModelMapper).orElse(new DefaultAnnotationReadModelMapper());
-        this.readModelFactory = new ReadModelFactory(getStreamStore(), getEventSerializer(), getStreamFactory());
+        this.cacheSnapshotSettings = cacheSnapshotSettings(properties);
+        this.readModelFactory = new ReadModelFactory(getStreamStore(), getEventSerializer(), getStreamFactory(), getCacheSnapshotSettings());
         getReadModelMapper().init(getReadModelFactory());
+        if (allSubscriptionHub != null) {
+            allSubscriptionHub.start();
+        }
         this.queryStateOrchestrator = new QueryStateOrchestrator(getReadModelMapper());
 
         this.aggregateStateCommandProcessor = new AggregateStateCommandProcessor(getStreamProcessor());
@@ -85,6 +110,47 @@ public class DewdropSettings {
         this.aggregateStateOrchestrator = new AggregateStateOrchestrator(getCommandMapper(), getAggregateStateCommandProcessor());
     }
 
+    private EventSerializer eventSerializer(EventTypeRegistry eventTypeRegistry, DewdropProperties properties) {
+        EventSerializer serializer = properties.isBinaryEvents() ? new SmileSerializer(eventTypeRegistry) : new JsonSerializer(eventTypeRegistry);
+        if (properties.getCompressionThresholdBytes() <= 0) { return serializer; }
+        return CompressingEventSerializer.builder().eventSerializer(serializer).objectMapper(getObjectMapper()).thresholdBytes(properties.getCompressionThresholdBytes()).create();
+    }
+
+    private StreamStore streamStore(StreamStore eventStore, DewdropProperties properties) {
+        if (properties.getAppendCoalesceWindowMillis() <= 0) { return eventStore; }
+        CoalescingStreamStore store =
+                        CoalescingStreamStore.builder().streamStore(eventStore).windowMillis(properties.getAppendCoalesceWindowMillis()).batchSize(properties.getAppendCoalesceBatchSize()).maxInFlight(properties.getAppendMaxInFlight()).create();
+        // send the appends still waiting in the window before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(store::close, "dewdrop-append-coalescer-shutdown"));
+        return store;
+    }
+
+    private SubscriptionBufferSettings subscriptionBufferSettings(DewdropProperties properties) {
+        SubscriptionBufferSettings settings =
+                        SubscriptionBufferSettings.builder().capacity(properties.getSubscriptionBufferCapacity()).batchSize(properties.getSubscriptionBatchSize()).overflowPolicy(properties.getSubscriptionOverflowPolicy()).create();
+        if (settings.isEnabled()) {
+            // stop the consumer thread of each subscription buffer before the JVM exits
+            Runtime.getRuntime().addShutdownHook(new Thread(settings::close, "dewdrop-subscription-buffers-shutdown"));
+        }
+        return settings;
+    }
+
+    private CheckpointStore checkpointStore(DewdropProperties properties) {
+        if (StringUtils.isBlank(properties.getCheckpointFile())) { return null; }
+        CheckpointStore store = FileCheckpointStore.builder().path(Path.of(properties.getCheckpointFile())).flushEvery(properties.getCheckpointFlushEvents()).flushIntervalMillis(properties.getCheckpointFlushIntervalMillis()).create();
+        // write the checkpoints saved since the last flush before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(store::close, "dewdrop-checkpoints-shutdown"));
+        return store;
+    }
+
+    private CacheSnapshotSettings cacheSnapshotSettings(DewdropProperties properties) {
+        if (StringUtils.isBlank(properties.getCacheSnapshotDirectory())) { return null; }
+        CacheSnapshotSettings settings = CacheSnapshotSettings.builder().directory(Path.of(properties.getCacheSnapshotDirectory())).intervalMillis(properties.getCacheSnapshotIntervalMillis()).objectMapper(getObjectMapper()).create();
+        // snapshot what was processed since the last snapshot before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(settings::close, "dewdrop-snapshots-shutdown"));
+        return settings;
+    }
+
     private EventStoreDBClient eventStoreDBClient(DewdropProperties properties) {
         EventStoreDBClientSettings settings = EventStoreDBConnectionString.parseOrThrow(properties.getConnectionString());
         return EventStoreDBClient.create(settings);
@@ -0,0 +1,18 @@
+package events.dewdrop.read.readmodel;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an event handler of a read model throws. The handler's exception has already been
+ * logged, this only tells the stream that the event was not handled, so its checkpoint is not moved
+ * past it.
+ */
+@Getter
+public class EventHandlerFailedException extends RuntimeException {
+    private final String readModel;
+
+    public EventHandlerFailedException(String readModel, String eventType) {
+        super("ReadModel:" + readModel + " failed to handle event:" + eventType);
+        this.readModel = readModel;
+    }
+}
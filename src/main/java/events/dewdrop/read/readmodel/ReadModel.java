@@ -1,9 +1,11 @@
 package events.dewdrop.read.readmodel;
 
 import events.dewdrop.utils.CacheUtils;
+import events.dewdrop.read.readmodel.cache.CacheSnapshotter;
 import events.dewdrop.read.readmodel.cache.InMemoryCacheProcessor;
 import events.dewdrop.read.readmodel.stream.Stream;
 import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.read.EventBatch;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +20,8 @@ public class ReadModel<T extends Event> {
     private ReadModelWrapper readModelWrapper;
     private Optional<InMemoryCacheProcessor> inMemoryCacheProcessor;
     protected List<Stream<T>> streams = new ArrayList<>();
+    // Snapshots the in-memory cache with the position of each stream, null when not snapshotted
+    private CacheSnapshotter<?> cacheSnapshotter;
 
     public ReadModel(ReadModelWrapper readModelWrapper, Optional<InMemoryCacheProcessor> inMemoryCacheProcessor) {
         this.readModelWrapper = readModelWrapper;
@@ -39,13 +43,30 @@ public class ReadModel<T extends Event> {
         log.info("ReadModel:{}, Received event type:{} - id:{}, version:{}", readModelWrapper.getOriginalReadModelClass().getSimpleName(), message.getClass().getSimpleName(), cacheRootKey.orElse(null), message.getVersion());
 
         inMemoryCacheProcessor.ifPresent(memoryCacheProcessor -> memoryCacheProcessor.process(message));
-        readModelWrapper.callEventHandlers(message);
+        if (!readModelWrapper.callEventHandlers(message)) { throw new EventHandlerFailedException(readModelWrapper.toString(), message.getClass().getSimpleName()); }
     }
 
     public Consumer<T> handler() {
         return this::process;
     }
 
+    // The consumer of the events of one stream, which records the position of each event in the cache
+    // snapshot when the cache is snapshotted
+    public Consumer<T> handler(String streamName) {
+        if (cacheSnapshotter == null) { return handler(); }
+        return message -> cacheSnapshotter.process(streamName, message, this::process);
+    }
+
+    protected void processBatch(EventBatch<T> batch) {
+        if (!readModelWrapper.callBatchEventHandlers(batch)) { throw new EventHandlerFailedException(readModelWrapper.toString(), EventBatch.class.getSimpleName()); }
+    }
+
+    // The consumer of micro-batches, or null when the read model has no batch event handlers
+    public Consumer<EventBatch<T>> batchHandler() {
+        if (!readModelWrapper.hasBatchEventHandlers()) { return null; }
+        return this::processBatch;
+    }
+
     public void handle(T message) {
         process(message);
     }
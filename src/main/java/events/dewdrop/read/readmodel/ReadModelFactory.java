@@ -1,5 +1,6 @@
 package events.dewdrop.read.readmodel;
 
+import events.dewdrop.read.readmodel.cache.CacheSnapshotSettings;
 import events.dewdrop.read.readmodel.stream.StreamAnnotationDetails;
 import events.dewdrop.read.readmodel.stream.StreamFactory;
 import events.dewdrop.structure.api.Event;
@@ -22,15 +23,34 @@ public class ReadModelFactory {
     StreamStore streamStore;
     EventSerializer eventSerializer;
     StreamFactory streamFactory;
+    CacheSnapshotSettings cacheSnapshotSettings;
 
     public ReadModelFactory(StreamStore streamStore, EventSerializer eventSerializer, StreamFactory streamFactory) {
+        this(streamStore, eventSerializer, streamFactory, null);
+    }
+
+    /**
+     * Creates a factory whose read models snapshot their in-memory cache and load the snapshot when
+     * they are constructed.
+     *
+     * @param streamStore The StreamStore to read with
+     * @param eventSerializer The EventSerializer for the events
+     * @param streamFactory The StreamFactory for the read model streams
+     * @param cacheSnapshotSettings Where the caches are snapshotted, or null to rebuild them from their
+     *        streams on every start
+     * @throws IllegalArgumentException if the caches are snapshotted while the subscription buffers
+     *         drop events
+     */
+    public ReadModelFactory(StreamStore streamStore, EventSerializer eventSerializer, StreamFactory streamFactory, CacheSnapshotSettings cacheSnapshotSettings) {
         requireNonNull(streamStore, "streamStore is required");
         requireNonNull(eventSerializer, "eventSerializer is required");
         requireNonNull(streamFactory, "streamFactory is required");
+        if (cacheSnapshotSettings != null && streamFactory.dropsEvents()) { throw new IllegalArgumentException("The subscription overflow policy drops events, which the cache snapshots would skip - use BLOCK with cache snapshots"); }
 
         this.streamStore = streamStore;
         this.eventSerializer = eventSerializer;
         this.streamFactory = streamFactory;
+        this.cacheSnapshotSettings = cacheSnapshotSettings;
     }
 
     /**
@@ -62,6 +82,11 @@ public class ReadModelFactory {
      */
     <T extends Event> ReadModel<T> construct(ReadModelWrapper readModelWrapper) {
         ReadModel<T> readModel = ReadModelUtils.createReadModel(readModelWrapper);
+        Class<?> readModelClass = readModelWrapper.getOriginalReadModelClass();
+        if (cacheSnapshotSettings != null && !ReadModelUtils.isEphemeral(readModelClass)) {
+            // the snapshot is loaded before the streams are created so they resume from its positions
+            readModel.getInMemoryCacheProcessor().flatMap(processor -> cacheSnapshotSettings.snapshotterFor(readModelClass, processor)).ifPresent(readModel::setCacheSnapshotter);
+        }
 
         List<StreamAnnotationDetails> streams = readModelWrapper.getStreamAnnotations();
         if (streams.isEmpty()) {
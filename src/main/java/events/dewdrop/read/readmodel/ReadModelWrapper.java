@@ -2,6 +2,7 @@ package events.dewdrop.read.readmodel;
 
 import events.dewdrop.read.readmodel.stream.StreamAnnotationDetails;
 import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.read.EventBatch;
 import events.dewdrop.utils.DependencyInjectionUtils;
 import events.dewdrop.utils.DewdropReflectionUtils;
 import events.dewdrop.utils.EventHandlerUtils;
@@ -12,11 +13,15 @@ import lombok.extern.log4j.Log4j2;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 
@@ -27,6 +32,7 @@ public class ReadModelWrapper {
     private Object readModel;
     private Map<Class<? extends Event>, Method> eventToReadModelEventHandler = new ConcurrentHashMap<>();
     private Map<Class<? extends Event>, Method> eventToOnEventEventHandler = new ConcurrentHashMap<>();
+    private Map<Class<? extends Event>, Method> eventToBatchEventHandler = new ConcurrentHashMap<>();
     private Optional<Field> cacheField;
 
     private ReadModelWrapper(Class<?> originalReadModelClass, Object readModel) {
@@ -36,6 +42,7 @@ public class ReadModelWrapper {
         this.cacheField = ReadModelUtils.getMatchingReadModelCacheField(this);
         assignEventHandlers(this.eventToReadModelEventHandler, () -> EventHandlerUtils.getEventToEventHandlerMethod(this.originalReadModelClass), originalReadModelClass, readModel);
         assignEventHandlers(this.eventToOnEventEventHandler, () -> EventHandlerUtils.getEventToOnEventHandlerMethod(this.originalReadModelClass), originalReadModelClass, readModel);
+        assignEventHandlers(this.eventToBatchEventHandler, () -> EventHandlerUtils.getEventToBatchEventHandlerMethod(this.originalReadModelClass), originalReadModelClass, readModel);
     }
 
     private void assignEventHandlers(final Map<Class<? extends Event>, Method> eventToHandler, Supplier<Map<Class<? extends Event>, Method>> getEventToHandlers, Class<?> originalReadModelClass, Object readModel) {
@@ -63,15 +70,58 @@ public class ReadModelWrapper {
         return StreamUtils.getStreamAnnotationDetails(originalReadModelClass);
     }
 
-    public <T extends Event> void callEventHandlers(T message) {
+    /**
+     * Calls the @EventHandler and @OnEvent methods of the event. A method that throws is logged and the
+     * other one is still called.
+     *
+     * @param message the event
+     * @return true if none of the methods threw
+     */
+    public <T extends Event> boolean callEventHandlers(T message) {
+        boolean handled = true;
         if (eventToReadModelEventHandler.containsKey(message.getClass())) {
             Method method = eventToReadModelEventHandler.get(message.getClass());
-            DewdropReflectionUtils.callMethod(readModel, method, message);
+            handled = !DewdropReflectionUtils.callMethod(readModel, method, message).isExceptionPresent();
         }
         if (eventToOnEventEventHandler.containsKey(message.getClass())) {
             Method method = eventToOnEventEventHandler.get(message.getClass());
-            DewdropReflectionUtils.callMethod(readModel, method, message);
+            handled &= !DewdropReflectionUtils.callMethod(readModel, method, message).isExceptionPresent();
         }
+        return handled;
+    }
+
+    /**
+     * Calls each batch event handler with the events of the batch it handles, in the order they were
+     * read. The handlers are called one after the other, so the order across event types is not kept,
+     * and each handler gets the position of the last event it was given rather than that of the whole
+     * batch - a handler that saves its position with its events never claims an event of another type
+     * it has not seen handled.
+     *
+     * @param batch the micro-batch of events
+     * @return true if none of the batch event handlers threw
+     */
+    public <T extends Event> boolean callBatchEventHandlers(EventBatch<T> batch) {
+        if (eventToBatchEventHandler.isEmpty() || batch.isEmpty()) { return true; }
+
+        Map<Class<?>, List<T>> eventsByClass = new LinkedHashMap<>();
+        Map<Class<?>, List<Long>> positionsByClass = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            T event = batch.getEvents().get(i);
+            if (eventToBatchEventHandler.containsKey(event.getClass())) {
+                eventsByClass.computeIfAbsent(event.getClass(), eventClass -> new ArrayList<>()).add(event);
+                positionsByClass.computeIfAbsent(event.getClass(), eventClass -> new ArrayList<>()).add(batch.getPosition(i));
+            }
+        }
+        boolean handled = true;
+        for (Map.Entry<Class<?>, List<T>> events : eventsByClass.entrySet()) {
+            long[] positions = positionsByClass.get(events.getKey()).stream().mapToLong(Long::longValue).toArray();
+            handled &= !DewdropReflectionUtils.callMethod(readModel, eventToBatchEventHandler.get(events.getKey()), new EventBatch<>(events.getValue(), positions)).isExceptionPresent();
+        }
+        return handled;
+    }
+
+    public boolean hasBatchEventHandlers() {
+        return !eventToBatchEventHandler.isEmpty();
     }
 
     public <T> void updateReadModelCache(T cache) {
@@ -82,7 +132,7 @@ public class ReadModelWrapper {
 
     // Returning a list of all the events that the read model supports.
     public List<Class<? extends Event>> getSupportedEvents() {
-        return eventToReadModelEventHandler.keySet().stream().collect(toList());
+        return Stream.concat(eventToReadModelEventHandler.keySet().stream(), eventToBatchEventHandler.keySet().stream()).distinct().collect(toList());
     }
 
     public String toString() {
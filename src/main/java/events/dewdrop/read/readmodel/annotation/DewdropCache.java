@@ -10,4 +10,6 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface DewdropCache {
+    // Keep the items of a Map cache serialized in off-heap memory instead of on the heap
+    boolean offHeap() default false;
 }
@@ -0,0 +1,194 @@
+package events.dewdrop.read.readmodel.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import events.dewdrop.structure.api.Message;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.Getter;
+
+/**
+ * Writes and reads the snapshot of an ImprovedMapBackedInMemoryCacheProcessor as Smile, the binary
+ * form of JSON. The cache items, the foreign key index and the stashed messages are written one at
+ * a time, so a snapshot is never held in memory as a whole. Stashed messages are written with their
+ * class name so they can be read back as the same type.
+ */
+public class CacheSnapshotCodec {
+    static final int FORMAT = 1;
+
+    private final ObjectMapper objectMapper;
+    // flushing after each item would write the snapshot to disk one item at a time
+    private final ObjectWriter writer;
+    private final SmileFactory smileFactory = new SmileFactory();
+
+    public CacheSnapshotCodec(ObjectMapper objectMapper) {
+        requireNonNull(objectMapper, "ObjectMapper is required");
+
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // the caller forces the file to disk once the snapshot is written, so it closes the stream
+        this.smileFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.smileFactory.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    }
+
+    public <R> void write(OutputStream out, ImprovedMapBackedInMemoryCacheProcessor<R> processor, Map<String, Long> positions) throws IOException {
+        try (JsonGenerator generator = smileFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("format", FORMAT);
+            generator.writeStringField("cachedStateObjectType", processor.getCachedStateObjectType().getName());
+
+            generator.writeObjectFieldStart("positions");
+            for (Map.Entry<String, Long> position : positions.entrySet()) {
+                generator.writeNumberField(position.getKey(), position.getValue());
+            }
+            generator.writeEndObject();
+
+            generator.writeObjectFieldStart("cache");
+            for (Map.Entry<UUID, R> item : processor.getCache().entrySet()) {
+                generator.writeFieldName(item.getKey().toString());
+                writer.writeValue(generator, item.getValue());
+            }
+            generator.writeEndObject();
+
+            generator.writeObjectFieldStart("foreignCacheIndex");
+            for (Map.Entry<UUID, UUID> entry : processor.getForeignCacheIndex().entrySet()) {
+                generator.writeStringField(entry.getKey().toString(), entry.getValue().toString());
+            }
+            generator.writeEndObject();
+
+            writeStash(generator, "primaryStashedMessages", processor.getPrimaryStashedMessages());
+            writeStash(generator, "foreignStashedMessages", processor.getForeignStashedMessages());
+            generator.writeEndObject();
+        }
+    }
+
+    public <R> CacheSnapshot<R> read(InputStream in, Class<R> cachedStateObjectType) throws IOException {
+        CacheSnapshot<R> snapshot = new CacheSnapshot<>();
+        try (JsonParser parser = smileFactory.createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "format":
+                        if (parser.getIntValue() != FORMAT) { throw new IOException("Unsupported snapshot format " + parser.getIntValue()); }
+                        break;
+                    case "cachedStateObjectType":
+                        if (!cachedStateObjectType.getName().equals(parser.getText())) { throw new IOException("The snapshot is of " + parser.getText() + " not " + cachedStateObjectType.getName()); }
+                        break;
+                    case "positions":
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String streamName = parser.currentName();
+                            parser.nextToken();
+                            snapshot.positions.put(streamName, parser.getLongValue());
+                        }
+                        break;
+                    case "cache":
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            UUID id = UUID.fromString(parser.currentName());
+                            parser.nextToken();
+                            snapshot.cache.put(id, objectMapper.readValue(parser, cachedStateObjectType));
+                        }
+                        break;
+                    case "foreignCacheIndex":
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            UUID foreignKey = UUID.fromString(parser.currentName());
+                            parser.nextToken();
+                            snapshot.foreignCacheIndex.put(foreignKey, UUID.fromString(parser.getText()));
+                        }
+                        break;
+                    case "primaryStashedMessages":
+                        readStash(parser, snapshot.primaryStashedMessages);
+                        break;
+                    case "foreignStashedMessages":
+                        readStash(parser, snapshot.foreignStashedMessages);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private void writeStash(JsonGenerator generator, String name, Map<UUID, List<Message>> stash) throws IOException {
+        generator.writeObjectFieldStart(name);
+        for (Map.Entry<UUID, List<Message>> entry : stash.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            generator.writeArrayFieldStart(entry.getKey().toString());
+            for (Message message : entry.getValue()) {
+                generator.writeStartObject();
+                generator.writeStringField("type", message.getClass().getName());
+                generator.writeFieldName("message");
+                writer.writeValue(generator, message);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private void readStash(JsonParser parser, Map<UUID, List<Message>> stash) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            UUID id = UUID.fromString(parser.currentName());
+            expect(parser.nextToken(), JsonToken.START_ARRAY);
+            List<Message> messages = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Class<?> type = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("type".equals(field)) {
+                        type = messageType(parser.getText());
+                    } else if ("message".equals(field) && type != null) {
+                        messages.add((Message) objectMapper.readValue(parser, type));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            stash.put(id, messages);
+        }
+    }
+
+    private Class<?> messageType(String className) throws IOException {
+        try {
+            Class<?> type = Class.forName(className);
+            if (!Message.class.isAssignableFrom(type)) { throw new IOException("The stashed message type " + className + " is not a Message"); }
+            return type;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unable to find the stashed message type " + className, e);
+        }
+    }
+
+    private void expect(JsonToken token, JsonToken expected) throws IOException {
+        if (token != expected) { throw new IOException("Corrupt snapshot - expected " + expected + " but found " + token); }
+    }
+
+    /**
+     * The state read back from a snapshot, with the position of each stream it reflects.
+     */
+    @Getter
+    public static class CacheSnapshot<R> {
+        private final Map<String, Long> positions = new HashMap<>();
+        private final Map<UUID, R> cache = new HashMap<>();
+        private final Map<UUID, UUID> foreignCacheIndex = new HashMap<>();
+        private final Map<UUID, List<Message>> primaryStashedMessages = new HashMap<>();
+        private final Map<UUID, List<Message>> foreignStashedMessages = new HashMap<>();
+    }
+}
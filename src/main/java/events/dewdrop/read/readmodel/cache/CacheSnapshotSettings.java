@@ -0,0 +1,73 @@
+package events.dewdrop.read.readmodel.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Where and how often the in-memory caches of the read models are snapshotted. Each read model gets
+ * its own CacheSnapshotter writing to {@code <directory>/<read model class>.snapshot}, and one
+ * thread takes the snapshots of all of them.
+ */
+@Log4j2
+@Getter
+public class CacheSnapshotSettings {
+    private static final long DEFAULT_INTERVAL_MILLIS = 60000L;
+
+    private final Path directory;
+    private final long intervalMillis;
+    private final CacheSnapshotCodec codec;
+    private final List<CacheSnapshotter<?>> snapshotters = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+
+    @Builder(buildMethodName = "create")
+    public CacheSnapshotSettings(Path directory, Long intervalMillis, ObjectMapper objectMapper) {
+        requireNonNull(directory, "Directory is required");
+        requireNonNull(objectMapper, "ObjectMapper is required");
+
+        this.directory = directory;
+        this.intervalMillis = Optional.ofNullable(intervalMillis).filter(millis -> millis > 0).orElse(DEFAULT_INTERVAL_MILLIS);
+        this.codec = new CacheSnapshotCodec(objectMapper);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dewdrop-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates the snapshotter of a read model cache, loads its last snapshot and schedules it to be
+     * snapshotted.
+     *
+     * @param readModelClass the read model the cache belongs to
+     * @param inMemoryCacheProcessor the cache processor of the read model
+     * @return the snapshotter, or empty if the cache processor cannot be snapshotted
+     */
+    public Optional<CacheSnapshotter<?>> snapshotterFor(Class<?> readModelClass, InMemoryCacheProcessor inMemoryCacheProcessor) {
+        if (!(inMemoryCacheProcessor instanceof ImprovedMapBackedInMemoryCacheProcessor)) {
+            log.info("The cache of ReadModel:{} is not a map - it is rebuilt from its streams on restart", readModelClass.getSimpleName());
+            return Optional.empty();
+        }
+        CacheSnapshotter<?> snapshotter = CacheSnapshotter.builder().path(directory.resolve(readModelClass.getName() + ".snapshot")).processor((ImprovedMapBackedInMemoryCacheProcessor) inMemoryCacheProcessor).codec(codec).create();
+        snapshotter.load();
+        snapshotters.add(snapshotter);
+        scheduler.scheduleWithFixedDelay(snapshotter::snapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        return Optional.of(snapshotter);
+    }
+
+    // Takes a last snapshot of every cache
+    public void close() {
+        scheduler.shutdownNow();
+        snapshotters.forEach(CacheSnapshotter::close);
+    }
+}
@@ -0,0 +1,232 @@
+package events.dewdrop.read.readmodel.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import events.dewdrop.read.readmodel.cache.CacheSnapshotCodec.CacheSnapshot;
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.datastore.CheckpointStore;
+import events.dewdrop.structure.subscribe.AllPosition;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.Builder;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Keeps a snapshot of the in-memory cache of one read model on local disk, so a restart loads the
+ * cache and resumes its streams where the snapshot left off instead of replaying them from the
+ * start.
+ * <p>
+ * The snapshotter is the CheckpointStore of the read model streams, keyed by stream name. Every
+ * event of the read model is processed into the cache through
+ * {@link #process(String, Event, Consumer)}, and the position of its stream is the checkpoint the
+ * stream saves once the event was handled. That is the revision in the stream the read model
+ * subscribed to, such as the link in a $ce- stream, or the $all position of a stream read from $all
+ * - never the revision of the event in its aggregate stream.
+ * <p>
+ * A snapshot is taken under the lock the cache is updated with, and only once the position of every
+ * event in the cache has been saved, so the cache, the foreign key index, the stashed messages and
+ * the stream positions it holds always match. A snapshot that finds events still waiting for their
+ * position waits for them for a moment, and is otherwise left to the next interval. Once a stream
+ * holds its checkpoint after a failed event no more snapshots are taken, and a restart resumes from
+ * the last one. The snapshot is written to a temporary file which then replaces the previous one,
+ * so a crash while writing leaves the previous snapshot in place.
+ */
+@Log4j2
+public class CacheSnapshotter<R> implements CheckpointStore {
+    private static final long SAVE_WAIT_MILLIS = 1000L;
+
+    private final Path path;
+    private final ImprovedMapBackedInMemoryCacheProcessor<R> processor;
+    private final CacheSnapshotCodec codec;
+    private final Object lock = new Object();
+    private final Map<String, Long> positions = new HashMap<>();
+    // Streams with an event in the cache whose position has not been saved yet
+    private final Set<String> unsaved = new HashSet<>();
+    private final AtomicLong snapshots = new AtomicLong();
+    private boolean changed;
+
+    @Builder(buildMethodName = "create")
+    public CacheSnapshotter(Path path, ImprovedMapBackedInMemoryCacheProcessor<R> processor, CacheSnapshotCodec codec) {
+        requireNonNull(path, "Path is required");
+        requireNonNull(processor, "Processor is required");
+        requireNonNull(codec, "CacheSnapshotCodec is required");
+
+        this.path = path;
+        this.processor = processor;
+        this.codec = codec;
+    }
+
+    /**
+     * Loads the snapshot into the cache processor. A snapshot that cannot be read is ignored, and the
+     * streams are then read from the start.
+     *
+     * @return true if a snapshot was loaded
+     */
+    public boolean load() {
+        if (!Files.exists(path)) { return false; }
+
+        CacheSnapshot<R> snapshot;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            snapshot = codec.read(in, (Class<R>) processor.getCachedStateObjectType());
+        } catch (IOException | RuntimeException e) {
+            log.error("Unable to load the snapshot {} - the cache will be rebuilt from the start of its streams", path, e);
+            return false;
+        }
+        synchronized (lock) {
+            processor.getCache().putAll(snapshot.getCache());
+            processor.getForeignCacheIndex().putAll(snapshot.getForeignCacheIndex());
+            processor.getPrimaryStashedMessages().putAll(snapshot.getPrimaryStashedMessages());
+            processor.getForeignStashedMessages().putAll(snapshot.getForeignStashedMessages());
+            positions.putAll(snapshot.getPositions());
+        }
+        log.info("Loaded the snapshot {} of {} cached items at positions:{}", path, snapshot.getCache().size(), snapshot.getPositions());
+        return true;
+    }
+
+    /**
+     * Processes an event of the stream into the cache. The position of the stream is saved once the
+     * event was handled.
+     *
+     * @param streamName the stream the event was read from
+     * @param event the event
+     * @param handler what processes the event into the cache
+     */
+    public <T extends Event> void process(String streamName, T event, Consumer<T> handler) {
+        synchronized (lock) {
+            handler.accept(event);
+            changed = true;
+        }
+    }
+
+    /**
+     * Writes a snapshot if anything was processed since the last one and the positions of the events
+     * processed have been saved.
+     */
+    public void snapshot() {
+        synchronized (lock) {
+            if (!changed) { return; }
+            if (!awaitSaved()) {
+                log.debug("Skipping the snapshot {} - waiting for the positions of streams:{}", path, unsaved);
+                return;
+            }
+
+            Path written = path.resolveSibling(path.getFileName() + ".tmp");
+            try {
+                Path parent = path.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                try (FileOutputStream file = new FileOutputStream(written.toFile()); OutputStream out = new BufferedOutputStream(file, 1 << 16)) {
+                    codec.write(out, processor, positions);
+                    out.flush();
+                    file.getChannel().force(false);
+                }
+                Files.move(written, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                changed = false;
+                snapshots.incrementAndGet();
+                log.debug("Wrote the snapshot {} of {} cached items at positions:{}", path, processor.getCache().size(), positions);
+            } catch (IOException | RuntimeException e) {
+                log.error("Unable to write the snapshot {}", path, e);
+            }
+        }
+    }
+
+    // Waits on the lock, which lets the events being handled save their positions
+    private boolean awaitSaved() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SAVE_WAIT_MILLIS);
+        while (!unsaved.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) { return false; }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Optional<Long> position(String streamName) {
+        synchronized (lock) {
+            return Optional.ofNullable(positions.get(streamName));
+        }
+    }
+
+    public long getSnapshots() {
+        return snapshots.get();
+    }
+
+    @Override
+    public Optional<Long> load(String key) {
+        return position(key);
+    }
+
+    @Override
+    public void handling(String key) {
+        synchronized (lock) {
+            unsaved.add(key);
+        }
+    }
+
+    @Override
+    public void save(String key, long position) {
+        synchronized (lock) {
+            record(key, position);
+            saved(key);
+        }
+    }
+
+    // Both parts of the position are recorded under the lock, so a snapshot never holds half of it
+    @Override
+    public void saveAll(String key, AllPosition position) {
+        synchronized (lock) {
+            Optional<AllPosition> current = loadAll(key);
+            if (current.isEmpty() || position.compareTo(current.get()) > 0) {
+                positions.put(key + ALL_COMMIT_SUFFIX, position.getCommit());
+                positions.put(key + ALL_PREPARE_SUFFIX, position.getPrepare());
+                changed = true;
+            }
+            saved(key);
+        }
+    }
+
+    private void record(String key, long position) {
+        Long current = positions.get(key);
+        if (current == null || position > current) {
+            positions.put(key, position);
+            changed = true;
+        }
+    }
+
+    private void saved(String key) {
+        if (unsaved.remove(key)) {
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void flush() {
+        snapshot();
+    }
+
+    @Override
+    public void close() {
+        snapshot();
+    }
+}
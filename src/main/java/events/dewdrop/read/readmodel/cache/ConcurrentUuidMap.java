@@ -0,0 +1,458 @@
+package events.dewdrop.read.readmodel.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A concurrent map keyed by UUID that keeps each key as two longs inline in one array, instead of a
+ * UUID object and a node per entry. The table uses open addressing with linear probing, and
+ * removing an entry shifts the entries after it back, so there are no tombstones.
+ * <p>
+ * Writes take a lock and reads are optimistic, falling back to the read lock when a write happened
+ * while they ran. Like ConcurrentHashMap it rejects null keys and values, and its iterators are
+ * weakly consistent: they never throw ConcurrentModificationException, and they may or may not see
+ * the changes made while they run. Unlike ConcurrentHashMap, a removal made during an iteration can
+ * move another entry to a slot the iterator has already passed.
+ *
+ * @param <V> the type of the values
+ */
+public class ConcurrentUuidMap<V> extends AbstractMap<UUID, V> implements ConcurrentMap<UUID, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    // the keys take two longs per slot, which has to fit in one array
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Table table;
+    private volatile int size;
+    private Set<Map.Entry<UUID, V>> entrySet;
+
+    public ConcurrentUuidMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ConcurrentUuidMap(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof UUID)) { return null; }
+        UUID uuid = (UUID) key;
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+
+        long stamp = lock.tryOptimisticRead();
+        Object value = find(table, msb, lsb);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(table, msb, lsb);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return (V) value;
+    }
+
+    @Override
+    public V put(UUID key, V value) {
+        requireNonNull(key, "Key is required");
+        requireNonNull(value, "Value is required");
+
+        long stamp = lock.writeLock();
+        try {
+            return insert(key.getMostSignificantBits(), key.getLeastSignificantBits(), value, false);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V putIfAbsent(UUID key, V value) {
+        requireNonNull(key, "Key is required");
+        requireNonNull(value, "Value is required");
+
+        long stamp = lock.writeLock();
+        try {
+            return insert(key.getMostSignificantBits(), key.getLeastSignificantBits(), value, true);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!(key instanceof UUID)) { return null; }
+        UUID uuid = (UUID) key;
+
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int slot = slotOf(current, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (slot < 0) { return null; }
+            V removed = (V) current.values[slot];
+            delete(current, slot);
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!(key instanceof UUID) || value == null) { return false; }
+        UUID uuid = (UUID) key;
+
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int slot = slotOf(current, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (slot < 0 || !value.equals(current.values[slot])) { return false; }
+            delete(current, slot);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean replace(UUID key, V oldValue, V newValue) {
+        requireNonNull(key, "Key is required");
+        requireNonNull(oldValue, "OldValue is required");
+        requireNonNull(newValue, "NewValue is required");
+
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int slot = slotOf(current, key.getMostSignificantBits(), key.getLeastSignificantBits());
+            if (slot < 0 || !oldValue.equals(current.values[slot])) { return false; }
+            current.values[slot] = newValue;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V replace(UUID key, V value) {
+        requireNonNull(key, "Key is required");
+        requireNonNull(value, "Value is required");
+
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int slot = slotOf(current, key.getMostSignificantBits(), key.getLeastSignificantBits());
+            if (slot < 0) { return null; }
+            V previous = (V) current.values[slot];
+            current.values[slot] = value;
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(DEFAULT_CAPACITY);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<UUID, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    // The number of slots in the table, exposed for the tests
+    int capacity() {
+        return table.values.length;
+    }
+
+    // Called with the write lock held
+    private V insert(long msb, long lsb, V value, boolean onlyIfAbsent) {
+        Table current = table;
+        int mask = current.values.length - 1;
+        for (int slot = hash(msb, lsb) & mask;; slot = (slot + 1) & mask) {
+            Object existing = current.values[slot];
+            if (existing == null) {
+                break;
+            }
+            if (current.keys[slot * 2] == msb && current.keys[slot * 2 + 1] == lsb) {
+                if (!onlyIfAbsent) {
+                    current.values[slot] = value;
+                }
+                return (V) existing;
+            }
+        }
+        if (size + 1 > current.threshold) {
+            current = resize(current);
+        }
+        place(current, msb, lsb, value);
+        size = size + 1;
+        return null;
+    }
+
+    // Called with the write lock held. The new table is filled before it is published, so readers see
+    // either the old or the new table complete
+    private Table resize(Table current) {
+        if (current.values.length >= MAX_CAPACITY) { throw new IllegalStateException("ConcurrentUuidMap is full"); }
+        Table resized = new Table(current.values.length * 2);
+        for (int slot = 0; slot < current.values.length; slot++) {
+            if (current.values[slot] != null) {
+                place(resized, current.keys[slot * 2], current.keys[slot * 2 + 1], current.values[slot]);
+            }
+        }
+        table = resized;
+        return resized;
+    }
+
+    private static void place(Table target, long msb, long lsb, Object value) {
+        int mask = target.values.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (target.values[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        target.keys[slot * 2] = msb;
+        target.keys[slot * 2 + 1] = lsb;
+        target.values[slot] = value;
+    }
+
+    // Called with the write lock held. Empties the slot and moves back each entry after it that would
+    // otherwise no longer be reachable from its home slot
+    private void delete(Table current, int slot) {
+        int mask = current.values.length - 1;
+        int empty = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (current.values[next] == null) {
+                break;
+            }
+            int home = hash(current.keys[next * 2], current.keys[next * 2 + 1]) & mask;
+            // leave the entry when its home slot lies cyclically after the empty slot, up to its slot
+            boolean reachable = empty <= next ? empty < home && home <= next : empty < home || home <= next;
+            if (!reachable) {
+                current.keys[empty * 2] = current.keys[next * 2];
+                current.keys[empty * 2 + 1] = current.keys[next * 2 + 1];
+                current.values[empty] = current.values[next];
+                empty = next;
+            }
+        }
+        current.values[empty] = null;
+        size = size - 1;
+    }
+
+    private static int slotOf(Table current, long msb, long lsb) {
+        int mask = current.values.length - 1;
+        for (int slot = hash(msb, lsb) & mask;; slot = (slot + 1) & mask) {
+            if (current.values[slot] == null) { return -1; }
+            if (current.keys[slot * 2] == msb && current.keys[slot * 2 + 1] == lsb) { return slot; }
+        }
+    }
+
+    // May run while a write changes the table, so it stops after one pass over the slots and its result
+    // is only used once the read is validated
+    private static Object find(Table current, long msb, long lsb) {
+        int mask = current.values.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            Object value = current.values[slot];
+            if (value == null) { return null; }
+            if (current.keys[slot * 2] == msb && current.keys[slot * 2 + 1] == lsb) { return value; }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    // The 64 bit finalizer of MurmurHash3, the random part of a UUID alone is not spread well enough
+    // over the low bits
+    static int hash(long msb, long lsb) {
+        long hash = msb ^ Long.rotateLeft(lsb, 32);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(DEFAULT_CAPACITY, (long) Math.ceil(Math.max(expectedSize, 0) / 0.75));
+        long capacity = Long.highestOneBit(needed - 1) << 1;
+        return (int) Math.min(capacity, MAX_CAPACITY);
+    }
+
+    /**
+     * The slots of the map - the key of slot i is {@code keys[2i]} and {@code keys[2i + 1]}, and a null
+     * value marks an empty slot.
+     */
+    private static class Table {
+        private final long[] keys;
+        private final Object[] values;
+        private final int threshold;
+
+        Table(int capacity) {
+            this.keys = new long[capacity * 2];
+            this.values = new Object[capacity];
+            this.threshold = (int) (capacity * 0.75);
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<UUID, V>> {
+        @Override
+        public Iterator<Map.Entry<UUID, V>> iterator() {
+            return new EntryIterator(table);
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentUuidMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object object) {
+            if (!(object instanceof Map.Entry)) { return false; }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            V value = get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object object) {
+            if (!(object instanceof Map.Entry)) { return false; }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            return ConcurrentUuidMap.this.remove(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentUuidMap.this.clear();
+        }
+    }
+
+    /**
+     * Walks the slots of the table the map had when the iteration started, from just after an empty
+     * slot all the way round to it. No run of entries crosses that empty slot, so when the iterator
+     * removes an entry, the entries shifted back by the removal all land in slots it has not read yet
+     * once it reads the slot of the removed entry again.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<UUID, V>> {
+        private final Table current;
+        private final int start;
+        private int visited;
+        private Map.Entry<UUID, V> next;
+        private int nextVisited;
+        private Map.Entry<UUID, V> last;
+        private int lastVisited;
+
+        EntryIterator(Table current) {
+            this.current = current;
+            this.start = emptySlot();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<UUID, V> next() {
+            if (!hasNext()) { throw new NoSuchElementException(); }
+            last = next;
+            lastVisited = nextVisited;
+            next = null;
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) { throw new IllegalStateException(); }
+            ConcurrentUuidMap.this.remove(last.getKey());
+            if (table == current) {
+                visited = lastVisited - 1;
+            }
+            last = null;
+        }
+
+        private void advance() {
+            int mask = current.values.length - 1;
+            while (next == null && visited < current.values.length) {
+                int slot = (start + 1 + visited) & mask;
+                visited++;
+                long stamp = lock.tryOptimisticRead();
+                Object value = current.values[slot];
+                long msb = current.keys[slot * 2];
+                long lsb = current.keys[slot * 2 + 1];
+                if (!lock.validate(stamp)) {
+                    stamp = lock.readLock();
+                    try {
+                        value = current.values[slot];
+                        msb = current.keys[slot * 2];
+                        lsb = current.keys[slot * 2 + 1];
+                    } finally {
+                        lock.unlockRead(stamp);
+                    }
+                }
+                if (value != null) {
+                    next = new Entry(new UUID(msb, lsb), (V) value);
+                    nextVisited = visited;
+                }
+            }
+        }
+
+        // The load factor keeps at least a quarter of the slots empty
+        private int emptySlot() {
+            long stamp = lock.readLock();
+            try {
+                for (int slot = 0; slot < current.values.length; slot++) {
+                    if (current.values[slot] == null) { return slot; }
+                }
+                return 0;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    private class Entry extends AbstractMap.SimpleEntry<UUID, V> {
+        Entry(UUID key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            V previous = super.setValue(value);
+            put(getKey(), value);
+            return previous;
+        }
+    }
+}
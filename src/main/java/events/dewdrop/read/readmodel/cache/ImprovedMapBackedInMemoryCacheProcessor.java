@@ -2,7 +2,6 @@ package events.dewdrop.read.readmodel.cache;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -30,12 +29,12 @@ public class ImprovedMapBackedInMemoryCacheProcessor<R> implements InMemoryCache
 
     public ImprovedMapBackedInMemoryCacheProcessor(Class<?> cachedStateObjectType) {
         this.cachedStateObjectType = cachedStateObjectType;
-        this.cache = new ConcurrentHashMap<>();
+        this.cache = new ConcurrentUuidMap<>();
         this.primaryEvent = CacheUtils.getCreationEventClass(cachedStateObjectType);
         this.foreignCacheKeyFields = CacheUtils.getForeignCacheKeyFields(cachedStateObjectType);
         this.primaryStashedMessages = new ConcurrentHashMap();
         this.foreignStashedMessages = new ConcurrentHashMap();
-        this.foreignCacheIndex = new ConcurrentHashMap<>();
+        this.foreignCacheIndex = new ConcurrentUuidMap<>();
     }
 
     @Override
@@ -46,8 +45,8 @@ public class ImprovedMapBackedInMemoryCacheProcessor<R> implements InMemoryCache
         optId.ifPresent(uuid -> {
             boolean isPrimary = isPrimary(message);
             boolean isCreationEvent = isCreationEvent(message);
-            boolean cacheHasKey = cache.containsKey(uuid);
             R dto = cache.get(uuid);
+            boolean cacheHasKey = dto != null;
             if (isPrimary && isCreationEvent) {
                 dto = initializePrimaryCache(message, uuid);
             } else if (isPrimary && cacheHasKey) {
@@ -58,58 +57,35 @@ public class ImprovedMapBackedInMemoryCacheProcessor<R> implements InMemoryCache
                 foreignCache(message, uuid);
             }
             if (dto != null) {
+                releasePrimaryStashedMessages(dto, uuid);
                 updateForeignCacheIndex(dto, uuid);
             }
-            processStashedMessages(dto, message, uuid);
         });
     }
 
-    private <T extends Message> void processStashedMessages(R dto, T message, UUID uuid) {
-        processForeignStashedMessages();
-        processPrimaryStashedMessages(uuid);
+    // Applies the messages that arrived for the item before it was created, in the order they arrived
+    private void releasePrimaryStashedMessages(R dto, UUID uuid) {
+        List<Message> stashedMessages = primaryStashedMessages.remove(uuid);
+        if (stashedMessages == null) { return; }
+        stashedMessages.forEach(message -> updatePrimaryCache(dto, message, uuid));
     }
 
-    private <T extends Message> void processForeignStashedMessages() {
-        if (foreignStashedMessages.isEmpty()) { return; }
-        Collection<List<Message>> values = foreignStashedMessages.values();
-        values.forEach(stashedMessages -> {
-            List<Message> toRemove = new ArrayList<>();
-            stashedMessages.forEach(message -> {
-                foreignCacheKeyFields.forEach(field -> {
-                    processForeignCache(message, field, false).ifPresent(uuid -> toRemove.add(message));
-                });
-
-            });
-            stashedMessages.removeAll(toRemove);
-        });
-    }
-
-    private <T extends Message> void processPrimaryStashedMessages(UUID uuid) {
-        if (primaryStashedMessages.isEmpty()) { return; }
-        Collection<List<Message>> values = primaryStashedMessages.values();
-        values.forEach(stashedMessages -> {
-            List<Message> toRemove = new ArrayList<>();
-            stashedMessages.forEach(message -> {
-                Optional<UUID> cacheRootKey = CacheUtils.getCacheRootKey(message);
-
-                if (cacheRootKey.isPresent() && uuid.equals(cacheRootKey.get())) {
-                    R dto = cache.get(cacheRootKey.get());
-                    if (dto != null) {
-                        updatePrimaryCache(dto, message, cacheRootKey.get());
-                        toRemove.add(message);
-                    }
-                }
-            });
-            stashedMessages.removeAll(toRemove);
-        });
+    // Applies the messages that arrived for a foreign key before any item referenced it, in the order
+    // they arrived
+    private void releaseForeignStashedMessages(UUID foreignCacheKey) {
+        List<Message> stashedMessages = foreignStashedMessages.remove(foreignCacheKey);
+        if (stashedMessages == null) { return; }
+        stashedMessages.forEach(message -> processForeignKeyMessage(message, foreignCacheKey));
     }
 
-    // If we see that we have found a foreignKey in our dto field make sure to add it to index
+    // If we see that we have found a foreignKey in our dto field make sure to add it to index, and
+    // release the messages that were waiting on it
     private void updateForeignCacheIndex(R dto, UUID uuid) {
         foreignCacheKeyFields.stream().forEach(field -> {
             UUID dtoForeignKeyValue = DewdropReflectionUtils.readFieldValue(field, dto);
             if (dtoForeignKeyValue != null) {
                 foreignCacheIndex.put(dtoForeignKeyValue, uuid);
+                releaseForeignStashedMessages(dtoForeignKeyValue);
             }
         });
     }
@@ -125,10 +101,15 @@ public class ImprovedMapBackedInMemoryCacheProcessor<R> implements InMemoryCache
     <T extends Message> R updatePrimaryCache(R dto, Message message, UUID id) {
         log.debug("Processing message: {} for primary cache", message);
         ReadModelUtils.processOnEvent(dto, message);
-        cache.put(id, dto);
+        putInCache(id, dto);
         return dto;
     }
 
+    // Puts an item back once it is updated, which matters to a cache that hands out copies of its items
+    protected void putInCache(UUID id, R dto) {
+        cache.put(id, dto);
+    }
+
     <T extends Message> R initializePrimaryCache(T message, UUID id) {
         Optional<R> instance = DewdropReflectionUtils.createInstance(cachedStateObjectType);
         if (instance.isPresent()) {
@@ -141,10 +122,11 @@ public class ImprovedMapBackedInMemoryCacheProcessor<R> implements InMemoryCache
     }
 
     <T extends Message> void foreignCache(T message, UUID id) {
-        foreignCacheKeyFields.forEach(foreignCacheKeyName -> processForeignCache(message, foreignCacheKeyName, true));
+        foreignCacheKeyFields.forEach(foreignCacheKeyName -> processForeignCache(message, foreignCacheKeyName));
     }
 
-    <T extends Message> Optional<Boolean> processForeignCache(T message, Field foreignCacheKeyField, boolean cache) {
+    // Stashes the message under its foreign key when no item references that key yet
+    <T extends Message> void processForeignCache(T message, Field foreignCacheKeyField) {
         log.debug("Received message: {} in foreign cache", message);
         Optional<UUID> optForeignCacheKey = CacheUtils.getForeignCacheEventKeyValue(message, foreignCacheKeyField);
 
@@ -152,12 +134,10 @@ public class ImprovedMapBackedInMemoryCacheProcessor<R> implements InMemoryCache
             UUID uuidFromMessage = optForeignCacheKey.get();
             if (isForeignKeyValueInIndex(uuidFromMessage)) {
                 processForeignKeyMessage(message, uuidFromMessage);
-                return Optional.of(true);
-            } else if (cache) {
+            } else {
                 notFoundInCacheIndex(uuidFromMessage, message);
             }
         }
-        return Optional.empty();
     }
 
     <T extends Message> void notFoundInCacheIndex(UUID uuidFromMessage, Message message) {
@@ -177,6 +157,7 @@ public class ImprovedMapBackedInMemoryCacheProcessor<R> implements InMemoryCache
             log.debug("Processing foreignKey message:{}", message);
             if (dto != null) {
                 ReadModelUtils.processOnEvent(dto, message);
+                putInCache(key, dto);
                 return true;
             }
         }
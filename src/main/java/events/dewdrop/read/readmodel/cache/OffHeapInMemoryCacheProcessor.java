@@ -0,0 +1,30 @@
+package events.dewdrop.read.readmodel.cache;
+
+import java.util.UUID;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * An ImprovedMapBackedInMemoryCacheProcessor whose cache is an OffHeapUuidMap, so the cached items
+ * live serialized off the heap. Each item is deserialized when a message for it is processed and
+ * serialized again once it is updated, and queries get a copy of the items they read.
+ */
+@Log4j2
+public class OffHeapInMemoryCacheProcessor<R> extends ImprovedMapBackedInMemoryCacheProcessor<R> {
+    private final OffHeapUuidMap<R> offHeapCache;
+
+    public OffHeapInMemoryCacheProcessor(Class<R> cachedStateObjectType) {
+        this(OffHeapUuidMap.<R>builder().valueType(cachedStateObjectType).create());
+    }
+
+    public OffHeapInMemoryCacheProcessor(OffHeapUuidMap<R> offHeapCache) {
+        super(offHeapCache.getValueType());
+        this.offHeapCache = offHeapCache;
+        setCache(offHeapCache);
+        log.info("Caching {} off the heap", offHeapCache.getValueType().getSimpleName());
+    }
+
+    @Override
+    protected void putInCache(UUID id, R dto) {
+        offHeapCache.set(id, dto);
+    }
+}
@@ -0,0 +1,515 @@
+package events.dewdrop.read.readmodel.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.Builder;
+
+/**
+ * A concurrent map keyed by UUID that keeps its values serialized as Smile in direct ByteBuffers,
+ * so they take no heap and add nothing for the garbage collector to trace. The keys and the
+ * location of each value are kept in a UuidLongIndex of primitive arrays.
+ * <p>
+ * A value is serialized when it is put and deserialized each time it is read, so
+ * {@link #get(Object)} returns a copy - changing it does not change the map until it is put back.
+ * The values are serialized field by field, whatever getters and setters they have.
+ * <p>
+ * The buffers are allocated {@code chunkSize} bytes at a time and each value is written after the
+ * last. A value that grows past the room it was given is written again at the end, and once the
+ * space left behind by replaced and removed values is more than half of what is allocated, the live
+ * values are copied to new buffers and the old ones are left to the garbage collector.
+ * <p>
+ * Iterators are weakly consistent. They walk a copy of the keys taken when the iteration starts, so
+ * each entry that is still in the map when its key is reached is seen once, whatever is put,
+ * removed or resized in the meantime, and entries put after the iteration started are not seen. The
+ * copy takes 16 bytes of heap per entry for as long as the iterator is used.
+ *
+ * @param <V> the type of the values
+ */
+public class OffHeapUuidMap<V> extends AbstractMap<UUID, V> implements ConcurrentMap<UUID, V> {
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+    // each value is preceded by the room it was given and its length
+    private static final int HEADER = 8;
+
+    private final Class<V> valueType;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final UuidLongIndex index;
+    private final AtomicLong compactions = new AtomicLong();
+    private List<ByteBuffer> chunks = new ArrayList<>();
+    private long allocatedBytes;
+    private long garbageBytes;
+    private Set<Map.Entry<UUID, V>> entrySet;
+
+    @Builder(buildMethodName = "create")
+    public OffHeapUuidMap(Class<V> valueType, ObjectMapper objectMapper, Integer chunkSize, Integer expectedSize) {
+        requireNonNull(valueType, "ValueType is required");
+
+        this.valueType = valueType;
+        this.objectMapper = Optional.ofNullable(objectMapper).orElseGet(OffHeapUuidMap::defaultObjectMapper);
+        this.chunkSize = Optional.ofNullable(chunkSize).filter(size -> size > HEADER).orElse(DEFAULT_CHUNK_SIZE);
+        this.index = new UuidLongIndex(Optional.ofNullable(expectedSize).orElse(0));
+    }
+
+    /**
+     * The ObjectMapper values are serialized with by default - Smile, reading and writing every field
+     * and nothing else, and ignoring fields a value no longer has.
+     *
+     * @return the ObjectMapper
+     */
+    public static ObjectMapper defaultObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper(new SmileFactory());
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.setVisibility(PropertyAccessor.ALL, Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return objectMapper;
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof UUID)) { return false; }
+        UUID uuid = (UUID) key;
+
+        lock.readLock().lock();
+        try {
+            return index.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) != UuidLongIndex.EMPTY;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof UUID)) { return null; }
+        UUID uuid = (UUID) key;
+
+        byte[] bytes;
+        lock.readLock().lock();
+        try {
+            long location = index.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (location == UuidLongIndex.EMPTY) { return null; }
+            bytes = read(location);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return deserialize(bytes);
+    }
+
+    @Override
+    public V put(UUID key, V value) {
+        requireNonNull(key, "Key is required");
+        requireNonNull(value, "Value is required");
+
+        byte[] bytes = serialize(value);
+        lock.writeLock().lock();
+        try {
+            long existing = index.get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+            V previous = existing == UuidLongIndex.EMPTY ? null : deserialize(read(existing));
+            store(key, bytes);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Puts the value like {@link #put(UUID, Object)}, without reading the value it replaces.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void set(UUID key, V value) {
+        requireNonNull(key, "Key is required");
+        requireNonNull(value, "Value is required");
+
+        byte[] bytes = serialize(value);
+        lock.writeLock().lock();
+        try {
+            store(key, bytes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public V putIfAbsent(UUID key, V value) {
+        requireNonNull(key, "Key is required");
+        requireNonNull(value, "Value is required");
+
+        byte[] bytes = serialize(value);
+        lock.writeLock().lock();
+        try {
+            long existing = index.get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+            if (existing != UuidLongIndex.EMPTY) { return deserialize(read(existing)); }
+            store(key, bytes);
+            return null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!(key instanceof UUID)) { return null; }
+        UUID uuid = (UUID) key;
+
+        lock.writeLock().lock();
+        try {
+            long location = index.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (location == UuidLongIndex.EMPTY) { return null; }
+            V removed = deserialize(read(location));
+            release(location);
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!(key instanceof UUID) || value == null) { return false; }
+        UUID uuid = (UUID) key;
+
+        lock.writeLock().lock();
+        try {
+            long location = index.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (location == UuidLongIndex.EMPTY || !value.equals(deserialize(read(location)))) { return false; }
+            index.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            release(location);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(UUID key, V oldValue, V newValue) {
+        requireNonNull(key, "Key is required");
+        requireNonNull(oldValue, "OldValue is required");
+        requireNonNull(newValue, "NewValue is required");
+
+        byte[] bytes = serialize(newValue);
+        lock.writeLock().lock();
+        try {
+            long location = index.get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+            if (location == UuidLongIndex.EMPTY || !oldValue.equals(deserialize(read(location)))) { return false; }
+            store(key, bytes);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public V replace(UUID key, V value) {
+        requireNonNull(key, "Key is required");
+        requireNonNull(value, "Value is required");
+
+        byte[] bytes = serialize(value);
+        lock.writeLock().lock();
+        try {
+            long location = index.get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+            if (location == UuidLongIndex.EMPTY) { return null; }
+            V previous = deserialize(read(location));
+            store(key, bytes);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            chunks = new ArrayList<>();
+            allocatedBytes = 0;
+            garbageBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<UUID, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    public Class<V> getValueType() {
+        return valueType;
+    }
+
+    // The bytes allocated off the heap
+    public long getOffHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return allocatedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The bytes left behind by replaced and removed values, reclaimed by the next compaction
+    public long getGarbageBytes() {
+        lock.readLock().lock();
+        try {
+            return garbageBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getCompactions() {
+        return compactions.get();
+    }
+
+    // Called with the write lock held. Writes the value over the previous one when it fits in its room,
+    // otherwise at the end
+    private void store(UUID key, byte[] bytes) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        long previous = index.get(msb, lsb);
+        if (previous != UuidLongIndex.EMPTY && room(previous) >= bytes.length) {
+            write(previous, bytes);
+            return;
+        }
+        long location = allocate(bytes.length);
+        write(location, bytes);
+        index.put(msb, lsb, location);
+        if (previous != UuidLongIndex.EMPTY) {
+            release(previous);
+        }
+    }
+
+    // Called with the write lock held, once the value at the location is no longer needed
+    private void release(long location) {
+        garbageBytes += HEADER + room(location);
+        if (garbageBytes > chunkSize && garbageBytes * 2 > allocatedBytes) {
+            compact();
+        }
+    }
+
+    // Called with the write lock held. Copies every live value to new chunks
+    private void compact() {
+        List<ByteBuffer> previous = chunks;
+        chunks = new ArrayList<>();
+        allocatedBytes = 0;
+        garbageBytes = 0;
+        for (int slot = 0; slot < index.capacity(); slot++) {
+            long location = index.value(slot);
+            if (location == UuidLongIndex.EMPTY) {
+                continue;
+            }
+            byte[] bytes = read(previous, location);
+            long moved = allocate(bytes.length);
+            write(moved, bytes);
+            index.setValue(slot, moved);
+        }
+        compactions.incrementAndGet();
+    }
+
+    // Gives a value a little more room than it needs, so it can grow a bit in place
+    private long allocate(int length) {
+        int room = (length + 15) & ~7;
+        int needed = HEADER + room;
+        ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || chunk.remaining() < needed) {
+            chunk = ByteBuffer.allocateDirect(Math.max(chunkSize, needed));
+            chunks.add(chunk);
+            allocatedBytes += chunk.capacity();
+        }
+        int offset = chunk.position();
+        chunk.putInt(offset, room);
+        chunk.position(offset + needed);
+        return ((long) (chunks.size() - 1) << 32) | offset;
+    }
+
+    private void write(long location, byte[] bytes) {
+        ByteBuffer chunk = chunks.get((int) (location >>> 32));
+        int offset = (int) location;
+        chunk.putInt(offset + 4, bytes.length);
+        ByteBuffer target = chunk.duplicate();
+        target.position(offset + HEADER);
+        target.put(bytes);
+    }
+
+    private int room(long location) {
+        return chunks.get((int) (location >>> 32)).getInt((int) location);
+    }
+
+    private byte[] read(long location) {
+        return read(chunks, location);
+    }
+
+    private static byte[] read(List<ByteBuffer> from, long location) {
+        ByteBuffer chunk = from.get((int) (location >>> 32));
+        int offset = (int) location;
+        byte[] bytes = new byte[chunk.getInt(offset + 4)];
+        ByteBuffer source = chunk.duplicate();
+        source.position(offset + HEADER);
+        source.get(bytes);
+        return bytes;
+    }
+
+    private byte[] serialize(V value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to serialize " + valueType.getName(), e);
+        }
+    }
+
+    private V deserialize(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, valueType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to deserialize " + valueType.getName(), e);
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<UUID, V>> {
+        @Override
+        public Iterator<Map.Entry<UUID, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return OffHeapUuidMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object object) {
+            if (!(object instanceof Map.Entry)) { return false; }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            V value = get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object object) {
+            if (!(object instanceof Map.Entry)) { return false; }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            return OffHeapUuidMap.this.remove(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void clear() {
+            OffHeapUuidMap.this.clear();
+        }
+    }
+
+    /**
+     * Walks a copy of the keys of the index and reads the value of each key that is still in the map
+     * when it is reached, so a resize or a compaction during the iteration does not end it early.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<UUID, V>> {
+        private final long[] keys;
+        private int position;
+        private Map.Entry<UUID, V> next;
+        private Map.Entry<UUID, V> last;
+
+        EntryIterator() {
+            lock.readLock().lock();
+            try {
+                this.keys = index.keys();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<UUID, V> next() {
+            if (!hasNext()) { throw new NoSuchElementException(); }
+            last = next;
+            next = null;
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) { throw new IllegalStateException(); }
+            OffHeapUuidMap.this.remove(last.getKey());
+            last = null;
+        }
+
+        private void advance() {
+            while (next == null && position < keys.length) {
+                long msb = keys[position];
+                long lsb = keys[position + 1];
+                position += 2;
+                byte[] bytes = null;
+                lock.readLock().lock();
+                try {
+                    long location = index.get(msb, lsb);
+                    if (location != UuidLongIndex.EMPTY) {
+                        bytes = read(location);
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+                if (bytes != null) {
+                    next = new Entry(new UUID(msb, lsb), deserialize(bytes));
+                }
+            }
+        }
+    }
+
+    private class Entry extends AbstractMap.SimpleEntry<UUID, V> {
+        Entry(UUID key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            V previous = super.setValue(value);
+            put(getKey(), value);
+            return previous;
+        }
+    }
+}
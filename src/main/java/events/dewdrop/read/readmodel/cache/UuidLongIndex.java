@@ -0,0 +1,154 @@
+package events.dewdrop.read.readmodel.cache;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing table from UUID to a non-negative long, kept in two primitive arrays so it
+ * adds no objects per entry for the garbage collector to trace. The key of slot i is
+ * {@code keys[2i]} and {@code keys[2i + 1]}, and an EMPTY value marks an empty slot. It uses linear
+ * probing with backward-shift deletion like ConcurrentUuidMap, but it is not thread safe - the
+ * caller locks.
+ */
+class UuidLongIndex {
+    static final long EMPTY = -1L;
+    private static final int MIN_CAPACITY = 16;
+    // the keys take two longs per slot, which has to fit in one array
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int threshold;
+
+    UuidLongIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return values.length;
+    }
+
+    long get(long msb, long lsb) {
+        int slot = slotOf(msb, lsb);
+        return slot < 0 ? EMPTY : values[slot];
+    }
+
+    // Returns the previous value, or EMPTY when the key is new
+    long put(long msb, long lsb, long value) {
+        if (value < 0) { throw new IllegalArgumentException("Value must not be negative"); }
+        int slot = slotOf(msb, lsb);
+        if (slot >= 0) {
+            long previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        if (size + 1 > threshold) {
+            grow();
+        }
+        place(msb, lsb, value);
+        size++;
+        return EMPTY;
+    }
+
+    // Returns the removed value, or EMPTY when the key was not there
+    long remove(long msb, long lsb) {
+        int slot = slotOf(msb, lsb);
+        if (slot < 0) { return EMPTY; }
+        long removed = values[slot];
+        int mask = values.length - 1;
+        int empty = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (values[next] == EMPTY) {
+                break;
+            }
+            int home = ConcurrentUuidMap.hash(keys[next * 2], keys[next * 2 + 1]) & mask;
+            // leave the entry when its home slot lies cyclically after the empty slot, up to its slot
+            boolean reachable = empty <= next ? empty < home && home <= next : empty < home || home <= next;
+            if (!reachable) {
+                keys[empty * 2] = keys[next * 2];
+                keys[empty * 2 + 1] = keys[next * 2 + 1];
+                values[empty] = values[next];
+                empty = next;
+            }
+        }
+        values[empty] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    long value(int slot) {
+        return values[slot];
+    }
+
+    void setValue(int slot, long value) {
+        values[slot] = value;
+    }
+
+    // A copy of the keys in the index, the msb and lsb of each key one after the other
+    long[] keys() {
+        long[] copy = new long[size * 2];
+        int next = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != EMPTY) {
+                copy[next++] = keys[slot * 2];
+                copy[next++] = keys[slot * 2 + 1];
+            }
+        }
+        return copy;
+    }
+
+    private int slotOf(long msb, long lsb) {
+        int mask = values.length - 1;
+        for (int slot = ConcurrentUuidMap.hash(msb, lsb) & mask;; slot = (slot + 1) & mask) {
+            if (values[slot] == EMPTY) { return -1; }
+            if (keys[slot * 2] == msb && keys[slot * 2 + 1] == lsb) { return slot; }
+        }
+    }
+
+    private void place(long msb, long lsb, long value) {
+        int mask = values.length - 1;
+        int slot = ConcurrentUuidMap.hash(msb, lsb) & mask;
+        while (values[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot * 2] = msb;
+        keys[slot * 2 + 1] = lsb;
+        values[slot] = value;
+    }
+
+    private void grow() {
+        if (values.length >= MAX_CAPACITY) { throw new IllegalStateException("UuidLongIndex is full"); }
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldValues.length * 2);
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != EMPTY) {
+                place(oldKeys[slot * 2], oldKeys[slot * 2 + 1], oldValues[slot]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity * 2];
+        this.values = new long[capacity];
+        Arrays.fill(values, EMPTY);
+        this.threshold = (int) (capacity * 0.75);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) Math.ceil(Math.max(expectedSize, 0) / 0.75));
+        long capacity = Long.highestOneBit(needed - 1) << 1;
+        return (int) Math.min(capacity, MAX_CAPACITY);
+    }
+}
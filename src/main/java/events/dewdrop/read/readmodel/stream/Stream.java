@@ -2,15 +2,20 @@ package events.dewdrop.read.readmodel.stream;
 
 import events.dewdrop.aggregate.AggregateRoot;
 import events.dewdrop.read.readmodel.stream.subscription.Subscription;
+import events.dewdrop.read.readmodel.stream.subscription.SubscriptionBufferSettings;
+import events.dewdrop.read.readmodel.stream.subscription.SubscriptionHub;
 import events.dewdrop.streamstore.repository.StreamStoreGetByIDRequest;
 import events.dewdrop.streamstore.write.StreamWriter;
 import events.dewdrop.structure.api.Event;
 import events.dewdrop.structure.datastore.StreamStore;
+import events.dewdrop.structure.events.WriteEventData;
+import events.dewdrop.structure.read.EventBatch;
 import events.dewdrop.structure.read.Handler;
 import events.dewdrop.structure.serialize.EventSerializer;
 import lombok.Data;
 import lombok.extern.log4j.Log4j2;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -32,6 +37,10 @@ public class Stream<T extends Event> implements Handler<T> {
     StreamDetails streamDetails;
     private AtomicLong streamPosition;
     private final ScheduledExecutorService executorService;
+    // Shared by the streams of every read model when subscriptions are shared, otherwise null
+    private SubscriptionHub subscriptionHub;
+    // How the subscription buffers events between the callback and the handlers, null for no buffer
+    private SubscriptionBufferSettings subscriptionBufferSettings;
 
     public Stream(StreamDetails streamDetails, StreamStore streamStore, EventSerializer eventSerializer) {
         requireNonNull(streamDetails, "StreamDetails needed for a valid stream");
@@ -49,6 +58,9 @@ public class Stream<T extends Event> implements Handler<T> {
         if (!streamDetails.isSubscribed()) { return; }
         log.debug("Creating Subscription for:{} - direction: {}, type: {}, messageType:{}", streamDetails.getStreamName(), streamDetails.getDirection(), streamDetails.getStreamType(),
                         streamDetails.getMessageTypes().stream().map(event -> event.getClass().getSimpleName()).collect(joining(",")));
+        if (subscription != null) {
+            subscription.close();
+        }
         subscription = Subscription.getInstance(this);
         StreamReader streamReader = StreamReader.getInstance(streamStore, eventSerializer, streamDetails);
 
@@ -59,6 +71,16 @@ public class Stream<T extends Event> implements Handler<T> {
         }
     }
 
+    /**
+     * Closes the subscription of the stream and stops polling for the stream.
+     */
+    public void close() {
+        if (subscription != null) {
+            subscription.close();
+        }
+        executorService.shutdownNow();
+    }
+
     /**
      * When the stream has not been found create a poll task to subscribe to the stream.
      */
@@ -106,18 +128,49 @@ public class Stream<T extends Event> implements Handler<T> {
         this.streamPosition = streamReader.getStreamPosition();
     }
 
+    // A handler that throws holds the checkpoint, so the checkpoint never passes an event that was not
+    // handled
     @Override
     public void handle(T event) {
-        streamDetails.getEventHandler().accept(event);
+        if (streamDetails.getCheckpoint() != null) {
+            streamDetails.getCheckpoint().handling();
+        }
+        try {
+            streamDetails.getEventHandler().accept(event);
+        } catch (RuntimeException e) {
+            holdCheckpoint();
+            throw e;
+        }
+    }
+
+    @Override
+    public void handleBatch(EventBatch<T> batch) {
+        if (streamDetails.getBatchEventHandler() != null) {
+            try {
+                streamDetails.getBatchEventHandler().accept(batch);
+            } catch (RuntimeException e) {
+                holdCheckpoint();
+                throw e;
+            }
+        }
+        if (streamDetails.getCheckpoint() != null) {
+            streamDetails.getCheckpoint().save(batch.getLastPosition());
+        }
+    }
+
+    private void holdCheckpoint() {
+        if (streamDetails.getCheckpoint() != null) {
+            streamDetails.getCheckpoint().hold();
+        }
     }
 
     // If we don't have a subscription we can call read to catch up to where we need to be in our
     // version
     public void updateQueryState(Optional<UUID> aggregateId) {
         if (aggregateId.isPresent()) {
-            StreamDetails idDetails = StreamDetails.builder().streamType(streamDetails.getStreamType()).direction(streamDetails.getDirection()).eventHandler(streamDetails.getEventHandler()).aggregateName(streamDetails.getStreamName())
-                            .streamNameGenerator(streamDetails.getStreamNameGenerator()).messageTypes(streamDetails.getMessageTypes()).name(streamDetails.getStreamName()).id(aggregateId.get()).subscribed(streamDetails.isSubscribed())
-                            .startPositionMethod(streamDetails.getStartPositionMethod()).create();
+            StreamDetails idDetails = StreamDetails.builder().streamType(streamDetails.getStreamType()).direction(streamDetails.getDirection()).eventHandler(streamDetails.getEventHandler()).batchEventHandler(streamDetails.getBatchEventHandler())
+                            .aggregateName(streamDetails.getStreamName()).streamNameGenerator(streamDetails.getStreamNameGenerator()).messageTypes(streamDetails.getMessageTypes()).name(streamDetails.getStreamName()).id(aggregateId.get())
+                            .subscribed(streamDetails.isSubscribed()).startPositionMethod(streamDetails.getStartPositionMethod()).create();
             this.read(idDetails, this.streamPosition.get(), null);
         } else if (!streamDetails.isSubscribed()) {
             this.read(this.streamPosition.get(), null);
@@ -133,8 +186,32 @@ public class Stream<T extends Event> implements Handler<T> {
         return streamReader.getById(request);
     }
 
+    public CompletableFuture<AggregateRoot> getByIdAsync(StreamStoreGetByIDRequest request) {
+        requireNonNull(request, "A StreamStoreGetByIDRequest is required");
+
+        if (streamDetails.getStreamType() != StreamType.AGGREGATE) { return CompletableFuture.failedFuture(new IllegalStateException("Stream is not an aggregate - we cannot get by id")); }
+
+        StreamReader streamReader = StreamReader.getInstance(streamStore, eventSerializer, streamDetails);
+        return streamReader.getByIdAsync(request);
+    }
+
     public void save(AggregateRoot aggregateRoot) {
         StreamWriter streamWriter = StreamWriter.getInstance(streamDetails, streamStore, eventSerializer);
         streamWriter.save(aggregateRoot);
     }
+
+    public CompletableFuture<Long> saveAsync(AggregateRoot aggregateRoot) {
+        StreamWriter streamWriter = StreamWriter.getInstance(streamDetails, streamStore, eventSerializer);
+        return streamWriter.saveAsync(aggregateRoot);
+    }
+
+    public List<WriteEventData> takeEventsToSave(AggregateRoot aggregateRoot) {
+        StreamWriter streamWriter = StreamWriter.getInstance(streamDetails, streamStore, eventSerializer);
+        return streamWriter.takeEventsToSave(aggregateRoot);
+    }
+
+    public CompletableFuture<Long> saveAsync(AggregateRoot aggregateRoot, long expectedVersion, List<WriteEventData> events) {
+        StreamWriter streamWriter = StreamWriter.getInstance(streamDetails, streamStore, eventSerializer);
+        return streamWriter.saveAsync(aggregateRoot, expectedVersion, events);
+    }
 }
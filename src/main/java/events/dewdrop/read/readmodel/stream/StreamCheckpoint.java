@@ -0,0 +1,68 @@
+package events.dewdrop.read.readmodel.stream;
+
+import static java.util.Objects.requireNonNull;
+
+import events.dewdrop.structure.datastore.CheckpointStore;
+import events.dewdrop.structure.subscribe.AllPosition;
+import java.util.Optional;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * The checkpoint of one read model stream in a CheckpointStore. Each read model keeps its own
+ * checkpoint per stream, so read models on the same stream resume independently.
+ * <p>
+ * Delivery is at-least-once. Once an event of the stream fails to be handled the checkpoint is held
+ * before it for the rest of the run, so a restart resumes from there and handles it, and the events
+ * after it, again.
+ */
+@Getter
+@Log4j2
+public class StreamCheckpoint {
+    private final CheckpointStore checkpointStore;
+    private final String key;
+    private volatile boolean held;
+
+    public StreamCheckpoint(CheckpointStore checkpointStore, String key) {
+        requireNonNull(checkpointStore, "CheckpointStore is required");
+        requireNonNull(key, "Key is required");
+
+        this.checkpointStore = checkpointStore;
+        this.key = key;
+    }
+
+    public static StreamCheckpoint of(CheckpointStore checkpointStore, Class<?> readModelClass, String streamName) {
+        return new StreamCheckpoint(checkpointStore, readModelClass.getName() + "/" + streamName);
+    }
+
+    public Optional<Long> load() {
+        return checkpointStore.load(key);
+    }
+
+    public void save(long position) {
+        if (position < 0 || held) { return; }
+        checkpointStore.save(key, position);
+    }
+
+    // Called before an event of the stream is handled, its position is saved afterwards
+    public void handling() {
+        checkpointStore.handling(key);
+    }
+
+    // The $all position of the last event handled, for a stream that is read from $all
+    public Optional<AllPosition> loadAll() {
+        return checkpointStore.loadAll(key);
+    }
+
+    public void saveAll(AllPosition position) {
+        if (position == null || held) { return; }
+        checkpointStore.saveAll(key, position);
+    }
+
+    // Called when an event of the stream failed to be handled, after which nothing is saved
+    public void hold() {
+        if (held) { return; }
+        held = true;
+        log.warn("Holding the checkpoint:{} - an event failed to be handled, and it is handled again from the last saved checkpoint after a restart", key);
+    }
+}
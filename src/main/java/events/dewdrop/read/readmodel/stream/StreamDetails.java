@@ -3,6 +3,7 @@ package events.dewdrop.read.readmodel.stream;
 import events.dewdrop.structure.StreamNameGenerator;
 import events.dewdrop.structure.api.Event;
 import events.dewdrop.structure.read.Direction;
+import events.dewdrop.structure.read.EventBatch;
 import lombok.Builder;
 import lombok.Data;
 import org.apache.commons.collections4.CollectionUtils;
@@ -23,20 +24,25 @@ public class StreamDetails<T extends Event> {
     private List<Class<? extends Event>> messageTypes = new ArrayList<>();
     private String streamName;
     private Consumer<T> eventHandler;
+    // Called with each page read and each micro-batch of the subscription, null when not needed
+    private Consumer<EventBatch<T>> batchEventHandler;
     private StreamNameGenerator streamNameGenerator;
     private boolean subscribed;
     private SubscriptionStartStrategy subscriptionStartStrategy;
     private Optional<Method> startPositionMethod;
+    // Where the stream records how far it has been handled, null when it is not checkpointed
+    private StreamCheckpoint checkpoint;
 
 
     @Builder(buildMethodName = "create")
-    public StreamDetails(StreamType streamType, String name, List<Class<? extends Event>> messageTypes, Consumer<T> eventHandler, Direction direction, String aggregateName, UUID id, Boolean subscribed, StreamNameGenerator streamNameGenerator,
-                    SubscriptionStartStrategy subscriptionStartStrategy, Optional<Method> startPositionMethod) {
+    public StreamDetails(StreamType streamType, String name, List<Class<? extends Event>> messageTypes, Consumer<T> eventHandler, Consumer<EventBatch<T>> batchEventHandler, Direction direction, String aggregateName, UUID id, Boolean subscribed,
+                    StreamNameGenerator streamNameGenerator, SubscriptionStartStrategy subscriptionStartStrategy, Optional<Method> startPositionMethod) {
         this.streamType = streamType;
         if (CollectionUtils.isNotEmpty(messageTypes)) {
             this.messageTypes.addAll(messageTypes);
         }
         this.eventHandler = eventHandler;
+        this.batchEventHandler = batchEventHandler;
         this.direction = direction;
         this.streamNameGenerator = streamNameGenerator;
         this.subscribed = Optional.ofNullable(subscribed).orElse(true);
@@ -2,8 +2,12 @@ package events.dewdrop.read.readmodel.stream;
 
 import events.dewdrop.aggregate.AggregateRoot;
 import events.dewdrop.read.readmodel.ReadModel;
+import events.dewdrop.read.readmodel.cache.CacheSnapshotter;
+import events.dewdrop.read.readmodel.stream.subscription.SubscriptionBufferSettings;
+import events.dewdrop.read.readmodel.stream.subscription.SubscriptionHub;
 import events.dewdrop.structure.StreamNameGenerator;
 import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.datastore.CheckpointStore;
 import events.dewdrop.structure.datastore.StreamStore;
 import events.dewdrop.structure.read.Direction;
 import events.dewdrop.structure.serialize.EventSerializer;
@@ -35,16 +39,58 @@ public class StreamFactory {
     private StreamNameGenerator streamNameGenerator;
     private StreamStore streamStore;
     private EventSerializer eventSerializer;
+    private SubscriptionHub subscriptionHub;
+    private SubscriptionBufferSettings subscriptionBufferSettings;
+    private CheckpointStore checkpointStore;
 
 
     public StreamFactory(StreamStore streamStore, EventSerializer eventSerializer, StreamNameGenerator streamNameGenerator) {
+        this(streamStore, eventSerializer, streamNameGenerator, null, null);
+    }
+
+    /**
+     * Creates a factory whose read model streams share their subscriptions through the hub and buffer
+     * their events. A null hub gives every stream its own subscription.
+     *
+     * @param streamStore The StreamStore to read and write with
+     * @param eventSerializer The EventSerializer for the events
+     * @param streamNameGenerator The StreamNameGenerator for the stream names
+     * @param subscriptionHub The SubscriptionHub the subscriptions are shared through, or null
+     * @param subscriptionBufferSettings How the subscriptions buffer their events, or null to handle
+     *        them on the subscription callback
+     */
+    public StreamFactory(StreamStore streamStore, EventSerializer eventSerializer, StreamNameGenerator streamNameGenerator, SubscriptionHub subscriptionHub, SubscriptionBufferSettings subscriptionBufferSettings) {
+        this(streamStore, eventSerializer, streamNameGenerator, subscriptionHub, subscriptionBufferSettings, null);
+    }
+
+    /**
+     * Creates a factory whose read model streams without an in-memory cache or a @StreamStartPosition
+     * method resume from their checkpoint in the CheckpointStore.
+     *
+     * @param streamStore The StreamStore to read and write with
+     * @param eventSerializer The EventSerializer for the events
+     * @param streamNameGenerator The StreamNameGenerator for the stream names
+     * @param subscriptionHub The SubscriptionHub the subscriptions are shared through, or null
+     * @param subscriptionBufferSettings How the subscriptions buffer their events, or null to handle
+     *        them on the subscription callback
+     * @param checkpointStore Where the read model streams record their checkpoints, or null
+     * @throws IllegalArgumentException if the subscription buffers drop events while there are
+     *         checkpoints
+     */
+    public StreamFactory(StreamStore streamStore, EventSerializer eventSerializer, StreamNameGenerator streamNameGenerator, SubscriptionHub subscriptionHub, SubscriptionBufferSettings subscriptionBufferSettings, CheckpointStore checkpointStore) {
         requireNonNull(streamStore, "streamStore is required");
         requireNonNull(eventSerializer, "eventSerializer is required");
         requireNonNull(streamNameGenerator, "StreamNameGenerator is required");
+        if (checkpointStore != null && subscriptionBufferSettings != null && subscriptionBufferSettings.dropsEvents()) {
+            throw new IllegalArgumentException("The subscription overflow policy " + subscriptionBufferSettings.getOverflowPolicy() + " drops events, which the checkpoints would skip - use BLOCK with checkpoints");
+        }
 
         this.streamStore = streamStore;
         this.eventSerializer = eventSerializer;
         this.streamNameGenerator = streamNameGenerator;
+        this.subscriptionHub = subscriptionHub;
+        this.subscriptionBufferSettings = subscriptionBufferSettings;
+        this.checkpointStore = checkpointStore;
     }
 
     /**
@@ -66,9 +112,11 @@ public class StreamFactory {
         Direction direction = streamAnnotation.getDirection();
 
         Optional<Method> streamStartPositionMethod = Optional.empty();
+        boolean checkpointed = false;
         if (readModel.getInMemoryCacheProcessor().isEmpty()) {
             streamStartPositionMethod = StreamUtils.getStreamStartPositionMethod(streamName, streamType, readModel);
-            if (streamStartPositionMethod.isEmpty()) {
+            checkpointed = streamStartPositionMethod.isEmpty() && checkpointStore != null;
+            if (streamStartPositionMethod.isEmpty() && !checkpointed) {
                 String simpleName = readModel.getReadModelWrapper().getOriginalReadModelClass().getSimpleName();
                 log.error("Unable to create a valid stream for the ReadModel: {} - @Stream(name={}, streamType={}) - Create a method decorated with @StreamStartPosition(name = {}, streamType = {}) with the same name and streamType for the stream, which is required if the inMemoryCacheProcessor is not set. This should return a long which is your last position for that stream.",
                                 simpleName, streamName, streamType, streamName, streamType);
@@ -77,9 +125,26 @@ public class StreamFactory {
                                 simpleName, streamName, streamType, streamName, streamType));
             }
         }
-        return StreamDetails.builder().streamType(streamType).direction(direction).eventHandler(eventHandler).streamNameGenerator(streamNameGenerator).messageTypes(eventHandlers).name(streamName).aggregateName(streamName).subscribed(subscribed)
-                        .startPositionMethod(streamStartPositionMethod).create();
+        StreamDetails streamDetails = StreamDetails.builder().streamType(streamType).direction(direction).eventHandler(eventHandler).batchEventHandler(readModel.batchHandler()).streamNameGenerator(streamNameGenerator).messageTypes(eventHandlers)
+                        .name(streamName).aggregateName(streamName).subscribed(subscribed).startPositionMethod(streamStartPositionMethod).create();
+        if (checkpointed) {
+            streamDetails.setSubscriptionStartStrategy(SubscriptionStartStrategy.START_FROM_CHECKPOINT);
+            streamDetails.setCheckpoint(StreamCheckpoint.of(checkpointStore, readModel.getReadModelWrapper().getOriginalReadModelClass(), streamDetails.getStreamName()));
+        }
+        CacheSnapshotter<?> cacheSnapshotter = readModel.getCacheSnapshotter();
+        if (cacheSnapshotter != null) {
+            // resume from the position the loaded cache snapshot reflects
+            streamDetails.setEventHandler(readModel.handler(streamDetails.getStreamName()));
+            streamDetails.setSubscriptionStartStrategy(SubscriptionStartStrategy.START_FROM_CHECKPOINT);
+            streamDetails.setCheckpoint(new StreamCheckpoint(cacheSnapshotter, streamDetails.getStreamName()));
+        }
+        return streamDetails;
+
+    }
 
+    // Whether the subscription buffers of the streams drop events when they are full
+    public boolean dropsEvents() {
+        return subscriptionBufferSettings != null && subscriptionBufferSettings.dropsEvents();
     }
 
     /**
@@ -111,8 +176,8 @@ public class StreamFactory {
             subscriptionStartStrategy = SubscriptionStartStrategy.START_FROM_POSITION;
         }
 
-        return StreamDetails.builder().streamType(StreamType.EVENT).direction(Direction.FORWARD).eventHandler((Consumer<Event>) readModel.handler()).streamNameGenerator(streamNameGenerator).messageTypes(List.of(eventClass)).name(streamName)
-                        .subscribed(true).subscriptionStartStrategy(subscriptionStartStrategy).startPositionMethod(streamStartPositionMethod).create();
+        return StreamDetails.builder().streamType(StreamType.EVENT).direction(Direction.FORWARD).eventHandler((Consumer<Event>) readModel.handler()).batchEventHandler((Consumer) readModel.batchHandler()).streamNameGenerator(streamNameGenerator)
+                        .messageTypes(List.of(eventClass)).name(streamName).subscribed(true).subscriptionStartStrategy(subscriptionStartStrategy).startPositionMethod(streamStartPositionMethod).create();
     }
 
     /**
@@ -141,6 +206,8 @@ public class StreamFactory {
     public <T extends Event> events.dewdrop.read.readmodel.stream.Stream constructStreamFromStream(StreamAnnotationDetails streamAnnotation, ReadModel<T> readModel) {
         StreamDetails streamDetails = fromStreamAnnotation(streamAnnotation, readModel);
         events.dewdrop.read.readmodel.stream.Stream stream = new events.dewdrop.read.readmodel.stream.Stream(streamDetails, streamStore, eventSerializer);
+        stream.setSubscriptionHub(subscriptionHub);
+        stream.setSubscriptionBufferSettings(subscriptionBufferSettings);
         return stream;
     }
 
@@ -154,6 +221,8 @@ public class StreamFactory {
     public <T extends Event> events.dewdrop.read.readmodel.stream.Stream constructStreamForEvent(ReadModel<T> readModel, Class<? extends Event> eventClass) {
         StreamDetails streamDetails = fromEvent(readModel, eventClass);
         events.dewdrop.read.readmodel.stream.Stream stream = new events.dewdrop.read.readmodel.stream.Stream(streamDetails, streamStore, eventSerializer);
+        stream.setSubscriptionHub(subscriptionHub);
+        stream.setSubscriptionBufferSettings(subscriptionBufferSettings);
         return stream;
     }
 }
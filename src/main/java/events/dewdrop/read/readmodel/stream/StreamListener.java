@@ -1,5 +1,7 @@
 package events.dewdrop.read.readmodel.stream;
 
+import static java.util.stream.Collectors.toUnmodifiableSet;
+
 import events.dewdrop.read.readmodel.stream.subscription.Subscription;
 import events.dewdrop.structure.NoStreamException;
 import events.dewdrop.structure.datastore.StreamStore;
@@ -7,7 +9,9 @@ import events.dewdrop.structure.events.ReadEventData;
 import events.dewdrop.structure.serialize.EventSerializer;
 import events.dewdrop.structure.subscribe.SubscribeRequest;
 import events.dewdrop.structure.api.Event;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import lombok.Data;
@@ -20,11 +24,16 @@ public class StreamListener<T extends Event> {
     private EventSerializer serializer;
     private String streamName;
     private AtomicLong streamPosition;
+    // Events whose type the subscription does not handle, skipped without being deserialized
+    private AtomicLong skippedEvents;
+    private AtomicLong deserializedEvents;
 
     private StreamListener(StreamStore streamStore, EventSerializer serializer) {
         this.streamStore = streamStore;
         this.serializer = serializer;
         this.streamPosition = new AtomicLong(0L);
+        this.skippedEvents = new AtomicLong(0L);
+        this.deserializedEvents = new AtomicLong(0L);
     }
 
     public static StreamListener getInstance(StreamStore streamStore, EventSerializer serializer) {
@@ -37,10 +46,18 @@ public class StreamListener<T extends Event> {
     }
 
     protected Consumer<ReadEventData> onEvent(Subscription<T> subscription) {
+        Set<String> handledEventTypes = handledEventTypes(subscription);
         return readEventData -> {
+            if (handledEventTypes != null && readEventData.getEventType() != null && !handledEventTypes.contains(readEventData.getEventType())) {
+                skippedEvents.incrementAndGet();
+                streamPosition.setRelease(readEventData.getEventNumber());
+                return;
+            }
+
             Optional<T> deserializedEvent = serializer.deserialize(readEventData);
+            deserializedEvents.incrementAndGet();
             if (deserializedEvent.isPresent()) {
-                subscription.publish(deserializedEvent.get());
+                subscription.publish(deserializedEvent.get(), readEventData.getEventNumber());
                 streamPosition.setRelease(readEventData.getEventNumber());
                 return;
             } else {
@@ -49,6 +66,17 @@ public class StreamListener<T extends Event> {
         };
     }
 
+    /**
+     * The event types (the simple class names EventStore records) the subscription has handlers for, or
+     * null when it does not say and every event has to be deserialized. Shared with the SubscriptionHub
+     * so a shared subscription skips the same events a listener of its own would.
+     */
+    public static Set<String> handledEventTypes(Subscription<?> subscription) {
+        List<Class<? extends Event>> messageTypes = subscription.getMessageTypes();
+        if (messageTypes == null) { return null; }
+        return messageTypes.stream().map(Class::getSimpleName).collect(toUnmodifiableSet());
+    }
+
     boolean subscribe(Long lastCheckpoint, Consumer<ReadEventData> eventHandler) throws NoStreamException {
         SubscribeRequest subscribeRequest = new SubscribeRequest(streamName, lastCheckpoint, eventHandler);
         return streamStore.subscribeToStream(subscribeRequest);
@@ -4,6 +4,8 @@ import static java.util.stream.Collectors.toList;
 
 import events.dewdrop.aggregate.AggregateRoot;
 import events.dewdrop.api.result.Result;
+import events.dewdrop.streamstore.repository.AggregateSnapshotRepository;
+import events.dewdrop.structure.events.AggregateSnapshot;
 import events.dewdrop.structure.NoStreamException;
 import events.dewdrop.structure.events.StreamReadResults;
 import events.dewdrop.structure.read.ReadRequest;
@@ -11,8 +13,11 @@ import events.dewdrop.utils.DependencyInjectionUtils;
 import events.dewdrop.utils.DewdropReflectionUtils;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 
 import lombok.Data;
@@ -23,6 +28,7 @@ import events.dewdrop.structure.api.Message;
 import events.dewdrop.structure.datastore.StreamStore;
 import events.dewdrop.structure.events.ReadEventData;
 import events.dewdrop.structure.read.Direction;
+import events.dewdrop.structure.read.EventBatch;
 import events.dewdrop.structure.serialize.EventSerializer;
 
 @Data
@@ -77,24 +83,74 @@ public class StreamReader {
             remaining -= readResults.getEvents().size();
             sliceStart = readResults.getNextEventPosition();
 
-            readResults.getEvents().forEach(this::eventRead);
+            if (streamDetails.getBatchEventHandler() == null) {
+                readResults.getEvents().forEach(this::eventRead);
+            } else {
+                readBatch(readResults);
+            }
             streamPosition.setRelease(readResults.getNextEventPosition());
+            checkpoint(readResults);
 
         } while (!readResults.isEndOfStream() && remaining != 0);
         return this.firstEventRead;
     }
 
+    void checkpoint(StreamReadResults readResults) {
+        StreamCheckpoint checkpoint = streamDetails.getCheckpoint();
+        if (checkpoint == null || streamDetails.getDirection() != Direction.FORWARD || readResults.getEvents().isEmpty()) { return; }
+        checkpoint.save(readResults.getLastEventPosition());
+    }
+
     protected void eventRead(ReadEventData readEventData) {
+        readEvent(readEventData);
+    }
+
+    // Handles each event of the page one at a time and then hands the whole page to the batch event
+    // handler with the position of each event
+    void readBatch(StreamReadResults readResults) {
+        List<Event> events = new ArrayList<>(readResults.getEvents().size());
+        long[] positions = new long[readResults.getEvents().size()];
+        for (ReadEventData readEventData : readResults.getEvents()) {
+            Optional<Event> event = readEvent(readEventData);
+            if (event.isPresent()) {
+                positions[events.size()] = readEventData.getPosition();
+                events.add(event.get());
+            }
+        }
+        if (events.isEmpty()) { return; }
+
+        try {
+            streamDetails.getBatchEventHandler().accept(new EventBatch<>(events, Arrays.copyOf(positions, events.size())));
+        } catch (Exception e) {
+            log.error("problem handling a batch of {} events from stream:{}", events.size(), streamName, e);
+            holdCheckpoint();
+        }
+    }
+
+    private Optional<Event> readEvent(ReadEventData readEventData) {
         try {
             streamPosition.setRelease(readEventData.getEventNumber());
             this.firstEventRead = true;
 
             Optional<Event> event = eventSerializer.deserialize(readEventData);
             if (event.isPresent()) {
+                if (streamDetails.getCheckpoint() != null && streamDetails.getDirection() == Direction.FORWARD) {
+                    streamDetails.getCheckpoint().handling();
+                }
                 streamDetails.getEventHandler().accept(event.get());
             }
+            return event;
         } catch (Exception e) {
             log.error("problem reading event - eventType:{}", readEventData.getEventType(), e);
+            holdCheckpoint();
+            return Optional.empty();
+        }
+    }
+
+    // The checkpoint is not moved past an event that was not handled
+    private void holdCheckpoint() {
+        if (streamDetails.getCheckpoint() != null) {
+            streamDetails.getCheckpoint().hold();
         }
     }
 
@@ -115,6 +171,8 @@ public class StreamReader {
                 return readFromPosition();
             case START_END_ONLY:
                 return startFromEnd();
+            case START_FROM_CHECKPOINT:
+                return readFromCheckpoint();
             case READ_ALL_START_END:
             default:
                 return readAll();
@@ -139,6 +197,21 @@ public class StreamReader {
         return nameAndPosition;
     }
 
+    // Resumes after the last event handled before the restart, or reads the whole stream when there is
+    // no checkpoint yet
+    NameAndPosition readFromCheckpoint() {
+        StreamCheckpoint checkpoint = streamDetails.getCheckpoint();
+        if (checkpoint == null) { throw new IllegalStateException("checkpoint is not set"); }
+
+        Optional<Long> position = checkpoint.load();
+        if (position.isEmpty()) { return readAll(); }
+
+        log.info("Resuming stream:{} from checkpoint:{}", streamName, position.get());
+        streamPosition.set(position.get());
+        firstEventRead = true;
+        return nameAndPosition.completeTask(streamName, getPosition());
+    }
+
     NameAndPosition startFromEnd() {
         ReadRequest request = new ReadRequest(streamName, 0L, 1L, Direction.BACKWARD);
         StreamReadResults readResults = streamStore.read(request);
@@ -165,7 +238,9 @@ public class StreamReader {
             aggregateRoot.setSource(getByIDRequest.getCommand());
         }
 
-        Long sliceStart = 0L;
+        aggregateRoot = restoreFromSnapshot(getByIDRequest, aggregateRoot, version);
+
+        Long sliceStart = aggregateRoot.getVersion() + 1;
         StreamReadResults streamReadResults;
         Long appliedEventCount = 0L;
         do {
@@ -183,12 +258,7 @@ public class StreamReader {
             sliceStart = streamReadResults.getNextEventPosition();
 
             appliedEventCount += streamReadResults.getEvents().size();
-            List<Message> messages = streamReadResults.getEvents().stream().map(evt -> {
-                Optional<Event> deserialize = eventSerializer.deserialize(evt);
-                if (deserialize.isPresent()) { return deserialize.get(); }
-                return null;
-            }).filter(e -> e != null).collect(toList());
-            aggregateRoot.restoreFromEvents(messages);
+            aggregateRoot.restoreFromEvents(toMessages(streamReadResults));
             log.info("version:{}, nextEventPosition:{}, endOfStream:{}", version, streamReadResults.getNextEventPosition(), streamReadResults.isEndOfStream());
         } while (moreToRead(version, streamReadResults.getNextEventPosition(), streamReadResults.isEndOfStream()));
         //
@@ -201,6 +271,85 @@ public class StreamReader {
         return aggregateRoot;
     }
 
+    /**
+     * The non-blocking version of {@link #getById(StreamStoreGetByIDRequest)}. Each page is requested
+     * once the previous one has been applied, so no thread is parked while waiting on the stream store.
+     *
+     * @param getByIDRequest The request
+     * @return A future that completes with the hydrated aggregateRoot
+     */
+    public CompletableFuture<AggregateRoot> getByIdAsync(StreamStoreGetByIDRequest getByIDRequest) {
+        AggregateRoot aggregateRoot = getByIDRequest.getAggregateRoot();
+        log.debug("Getting by ID async for aggregateRoot:{}, with ID:{}", aggregateRoot.getTargetClassName(), getByIDRequest.getId());
+        int version = getByIDRequest.getVersion();
+        if (version <= 0) { return CompletableFuture.failedFuture(new IllegalArgumentException("Cannot get version <= 0")); }
+        if (getByIDRequest.getCommand() != null) {
+            aggregateRoot.setSource(getByIDRequest.getCommand());
+        }
+
+        return restoreFromSnapshotAsync(getByIDRequest, aggregateRoot, version).thenCompose(root -> readAggregateAsync(root, root.getVersion() + 1, version));
+    }
+
+    CompletableFuture<AggregateRoot> readAggregateAsync(AggregateRoot aggregateRoot, long sliceStart, int version) {
+        long sliceCount = sliceStart + READ_PAGE_SIZE <= version ? READ_PAGE_SIZE : version - sliceStart;
+        ReadRequest request = new ReadRequest(streamName, sliceStart, sliceCount, Direction.FORWARD);
+        return streamStore.readAsync(request).thenCompose(streamReadResults -> {
+            if (!streamReadResults.isStreamExists()) { return CompletableFuture.completedFuture(aggregateRoot); }
+
+            aggregateRoot.restoreFromEvents(toMessages(streamReadResults));
+            if (moreToRead(version, streamReadResults.getNextEventPosition(), streamReadResults.isEndOfStream())) { return readAggregateAsync(aggregateRoot, streamReadResults.getNextEventPosition(), version); }
+            return CompletableFuture.completedFuture(aggregateRoot);
+        });
+    }
+
+    List<Message> toMessages(StreamReadResults streamReadResults) {
+        return streamReadResults.getEvents().stream().map(evt -> {
+            Optional<Event> deserialize = eventSerializer.deserialize(evt);
+            if (deserialize.isPresent()) { return deserialize.get(); }
+            return null;
+        }).filter(e -> e != null).collect(toList());
+    }
+
+    AggregateRoot restoreFromSnapshot(StreamStoreGetByIDRequest getByIDRequest, AggregateRoot aggregateRoot, int version) {
+        AggregateSnapshotRepository snapshotRepository = snapshotRepository();
+        // an aggregateRoot that is already hydrated only needs the tail of the stream
+        if (aggregateRoot.getVersion() >= 0 || !snapshotRepository.isEnabled(aggregateRoot)) { return aggregateRoot; }
+
+        try {
+            Optional<AggregateSnapshot> snapshot = snapshotRepository.getLatest(aggregateRoot, getByIDRequest.getId());
+            return fromSnapshot(getByIDRequest, aggregateRoot, snapshot, version);
+        } catch (Exception e) {
+            log.warn("Unable to restore aggregateRoot:{}, with ID:{} from snapshot - replaying the stream", aggregateRoot.getTargetClassName(), getByIDRequest.getId(), e);
+            return aggregateRoot;
+        }
+    }
+
+    CompletableFuture<AggregateRoot> restoreFromSnapshotAsync(StreamStoreGetByIDRequest getByIDRequest, AggregateRoot aggregateRoot, int version) {
+        AggregateSnapshotRepository snapshotRepository = snapshotRepository();
+        if (aggregateRoot.getVersion() >= 0 || !snapshotRepository.isEnabled(aggregateRoot)) { return CompletableFuture.completedFuture(aggregateRoot); }
+
+        return snapshotRepository.getLatestAsync(aggregateRoot, getByIDRequest.getId()).thenApply(snapshot -> fromSnapshot(getByIDRequest, aggregateRoot, snapshot, version)).exceptionally(e -> {
+            log.warn("Unable to restore aggregateRoot:{}, with ID:{} from snapshot - replaying the stream", aggregateRoot.getTargetClassName(), getByIDRequest.getId(), e);
+            return aggregateRoot;
+        });
+    }
+
+    AggregateRoot fromSnapshot(StreamStoreGetByIDRequest getByIDRequest, AggregateRoot aggregateRoot, Optional<AggregateSnapshot> snapshot, int version) {
+        if (snapshot.isEmpty() || snapshot.get().getVersion() >= version) { return aggregateRoot; }
+
+        AggregateRoot restored = new AggregateRoot(snapshot.get().getState());
+        restored.setVersion(snapshot.get().getVersion());
+        if (getByIDRequest.getCommand() != null) {
+            restored.setSource(getByIDRequest.getCommand());
+        }
+        log.debug("Restored aggregateRoot:{}, with ID:{} from snapshot at version:{}", aggregateRoot.getTargetClassName(), getByIDRequest.getId(), restored.getVersion());
+        return restored;
+    }
+
+    AggregateSnapshotRepository snapshotRepository() {
+        return AggregateSnapshotRepository.getInstance(streamStore, eventSerializer, streamDetails.getStreamNameGenerator());
+    }
+
     boolean moreToRead(long version, long nextEventPosition, boolean isEndOfStream) {
         return version > nextEventPosition && !isEndOfStream;
     }
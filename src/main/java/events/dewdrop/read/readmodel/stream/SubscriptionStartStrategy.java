@@ -1,5 +1,5 @@
 package events.dewdrop.read.readmodel.stream;
 
 public enum SubscriptionStartStrategy {
-    START_FROM_POSITION, READ_ALL_START_END, START_END_ONLY;
+    START_FROM_POSITION, READ_ALL_START_END, START_END_ONLY, START_FROM_CHECKPOINT;
 }
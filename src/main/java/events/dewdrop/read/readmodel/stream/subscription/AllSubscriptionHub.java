@@ -0,0 +1,224 @@
+package events.dewdrop.read.readmodel.stream.subscription;
+
+import static events.dewdrop.read.readmodel.stream.StreamListener.handledEventTypes;
+import static java.util.stream.Collectors.toList;
+
+import events.dewdrop.read.readmodel.stream.Stream;
+import events.dewdrop.read.readmodel.stream.StreamCheckpoint;
+import events.dewdrop.structure.NoStreamException;
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.datastore.StreamStore;
+import events.dewdrop.structure.events.ReadEventData;
+import events.dewdrop.structure.read.EventBatch;
+import events.dewdrop.structure.serialize.EventSerializer;
+import events.dewdrop.structure.subscribe.AllPosition;
+import events.dewdrop.structure.subscribe.SubscribeToAllRequest;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * A SubscriptionHub that feeds read models from a single subscription to $all instead of the $ce-
+ * and $et- projection streams. The server filters $all down to the event types the read models
+ * handle, so there are no links to resolve, and one connection serves every read model.
+ * <p>
+ * Subscriptions to a category ($ce-) or event type ($et-) stream that replay it from the start
+ * register with the hub until {@link #start()} opens the $all subscription with the combined
+ * filter. Every other subscription, and any that joins after the hub has started, is handed to the
+ * shared per-stream subscriptions of SubscriptionHub.
+ * <p>
+ * Positions in $all are tracked as commit/prepare checkpoints. The checkpoint moves with every
+ * event and with the server's checkpoints while it skips over events that do not match the filter.
+ * <p>
+ * An event from $all has no revision in the member's $ce- or $et- stream, so it is published with
+ * EventBatch.NO_POSITION. A member whose stream is checkpointed saves the $all position of each
+ * event to its StreamCheckpoint once the event is handled instead, and after a restart the $all
+ * subscription starts from the member furthest behind while each member skips what it already
+ * handled.
+ */
+@Log4j2
+public class AllSubscriptionHub extends SubscriptionHub {
+    private static final String CATEGORY_PREFIX = "$ce-";
+    private static final String EVENT_TYPE_PREFIX = "$et-";
+
+    private final StreamStore streamStore;
+    private final EventSerializer serializer;
+    private final List<AllMember> members = new CopyOnWriteArrayList<>();
+    private final AtomicReference<AllPosition> checkpoint;
+    private final AllPosition startPosition;
+    private volatile boolean started;
+
+    private AllSubscriptionHub(StreamStore streamStore, EventSerializer serializer, AllPosition startPosition) {
+        super(streamStore, serializer);
+        this.streamStore = streamStore;
+        this.serializer = serializer;
+        this.checkpoint = new AtomicReference<>(startPosition);
+        this.startPosition = startPosition;
+    }
+
+    /**
+     * Creates a hub whose $all subscription starts after the given position.
+     *
+     * @param streamStore the StreamStore to subscribe with
+     * @param serializer the EventSerializer to deserialize the events with
+     * @param startPosition the position of the last event already handled by the members without a
+     *        saved $all position, null to start them from the beginning of $all
+     * @return the hub
+     */
+    public static AllSubscriptionHub getInstance(StreamStore streamStore, EventSerializer serializer, AllPosition startPosition) {
+        return new AllSubscriptionHub(streamStore, serializer, startPosition);
+    }
+
+    @Override
+    public synchronized <T extends Event> boolean join(String streamName, Long position, Subscription<T> subscription) throws NoStreamException {
+        Optional<Predicate<ReadEventData>> fromStream = streamFilter(streamName);
+        Set<String> eventTypes = handledEventTypes(subscription);
+        boolean fromStart = position == null || position == 0L;
+        if (started || fromStream.isEmpty() || eventTypes == null || eventTypes.isEmpty() || !fromStart) { return super.join(streamName, position, subscription); }
+
+        AllMember member = new AllMember(streamName, (Subscription<Event>) subscription, fromStream.get(), eventTypes, checkpointOf(subscription), startPosition);
+        members.add(member);
+        log.debug("Stream:{} will be read from $all after position:{}", streamName, member.lastHandled);
+        return true;
+    }
+
+    /**
+     * Opens the $all subscription for the subscriptions that have joined so far. If it cannot be opened
+     * they fall back to the shared per-stream subscriptions.
+     *
+     * @return true if the $all subscription was opened or nothing had joined
+     */
+    public synchronized boolean start() {
+        if (started) { return true; }
+        started = true;
+        if (members.isEmpty()) { return true; }
+
+        Set<String> eventTypes = new TreeSet<>();
+        members.forEach(member -> eventTypes.addAll(member.eventTypes));
+        checkpoint.set(startFrom());
+        SubscribeToAllRequest request = SubscribeToAllRequest.builder().eventTypes(List.copyOf(eventTypes)).lastCheckpoint(checkpoint.get()).consumeEvent(this::onEvent).checkpointReached(this::advance).create();
+        boolean subscribed = false;
+        try {
+            subscribed = streamStore.subscribeToAll(request);
+        } catch (RuntimeException e) {
+            log.error("Unable to subscribe to $all", e);
+        }
+        if (subscribed) {
+            log.info("Subscribed to $all for {} streams and {} event types from position:{}", members.size(), eventTypes.size(), checkpoint.get());
+            return true;
+        }
+
+        log.warn("Unable to subscribe to $all - subscribing to each stream instead");
+        List<AllMember> unsubscribed = List.copyOf(members);
+        members.clear();
+        unsubscribed.forEach(member -> super.join(member.streamName, 0L, member.subscription));
+        return false;
+    }
+
+    // The position of the member furthest behind, or null when one of them starts from the beginning
+    AllPosition startFrom() {
+        AllPosition from = null;
+        for (AllMember member : members) {
+            if (member.lastHandled == null) { return null; }
+            if (from == null || member.lastHandled.compareTo(from) < 0) {
+                from = member.lastHandled;
+            }
+        }
+        return from;
+    }
+
+    public Optional<AllPosition> getCheckpoint() {
+        return Optional.ofNullable(checkpoint.get());
+    }
+
+    public int memberCount() {
+        return members.size();
+    }
+
+    void onEvent(ReadEventData readEventData, AllPosition position) {
+        try {
+            List<AllMember> receivers = members.stream().filter(member -> member.accepts(readEventData) && !member.hasHandled(position)).collect(toList());
+            if (receivers.isEmpty()) { return; }
+
+            Optional<Event> event = serializer.deserialize(readEventData);
+            if (event.isEmpty()) {
+                log.error("Failed to deserialize event:{} from $all", readEventData.getEventType());
+                return;
+            }
+            for (AllMember member : receivers) {
+                try {
+                    member.subscription.publish(event.get(), EventBatch.NO_POSITION, () -> member.handled(position));
+                } catch (RuntimeException e) {
+                    log.error("Failed to handle event:{} from $all for stream:{}", readEventData.getEventType(), member.streamName, e);
+                }
+            }
+        } finally {
+            advance(position);
+        }
+    }
+
+    void advance(AllPosition position) {
+        if (position == null) { return; }
+        checkpoint.accumulateAndGet(position, (current, next) -> current == null || next.compareTo(current) > 0 ? next : current);
+    }
+
+    // Which events of $all belong to the stream - the streams of a category start with its name and a
+    // dash, and an event type stream holds the events of that type
+    static Optional<Predicate<ReadEventData>> streamFilter(String streamName) {
+        if (streamName == null) { return Optional.empty(); }
+        if (streamName.startsWith(CATEGORY_PREFIX)) {
+            String category = streamName.substring(CATEGORY_PREFIX.length()) + "-";
+            return Optional.of(readEventData -> readEventData.getEventStreamId() != null && readEventData.getEventStreamId().startsWith(category));
+        }
+        if (streamName.startsWith(EVENT_TYPE_PREFIX)) {
+            String eventType = streamName.substring(EVENT_TYPE_PREFIX.length());
+            return Optional.of(readEventData -> eventType.equals(readEventData.getEventType()));
+        }
+        return Optional.empty();
+    }
+
+    // The checkpoint of the stream the subscription feeds, or null when it is not checkpointed
+    static StreamCheckpoint checkpointOf(Subscription<?> subscription) {
+        if (!(subscription.getHandler() instanceof Stream)) { return null; }
+        return ((Stream<?>) subscription.getHandler()).getStreamDetails().getCheckpoint();
+    }
+
+    private static class AllMember {
+        private final String streamName;
+        private final Subscription<Event> subscription;
+        private final Predicate<ReadEventData> fromStream;
+        private final Set<String> eventTypes;
+        private final StreamCheckpoint checkpoint;
+        // The $all position of the last event handled before the hub started, null for none
+        private final AllPosition lastHandled;
+
+        AllMember(String streamName, Subscription<Event> subscription, Predicate<ReadEventData> fromStream, Set<String> eventTypes, StreamCheckpoint checkpoint, AllPosition startPosition) {
+            this.streamName = streamName;
+            this.subscription = subscription;
+            this.fromStream = fromStream;
+            this.eventTypes = eventTypes;
+            this.checkpoint = checkpoint;
+            this.lastHandled = checkpoint == null ? startPosition : checkpoint.loadAll().orElse(startPosition);
+        }
+
+        boolean accepts(ReadEventData readEventData) {
+            return eventTypes.contains(readEventData.getEventType()) && fromStream.test(readEventData);
+        }
+
+        boolean hasHandled(AllPosition position) {
+            return position != null && lastHandled != null && position.compareTo(lastHandled) <= 0;
+        }
+
+        // Runs once the event at the position was handled, so a restart resumes after it
+        void handled(AllPosition position) {
+            if (checkpoint != null) {
+                checkpoint.saveAll(position);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package events.dewdrop.read.readmodel.stream.subscription;
+
+/**
+ * What a SubscriptionBuffer does with an event that arrives while it is full. BLOCK holds up the
+ * subscription callback until there is room, which pushes back on the server. The DROP policies
+ * keep the subscription moving at the cost of the read model missing the dropped events, so they
+ * cannot be used with checkpoints or cache snapshots, which only guarantee at-least-once delivery
+ * if no event is skipped.
+ */
+public enum OverflowPolicy {
+    BLOCK, DROP_NEWEST, DROP_OLDEST;
+}
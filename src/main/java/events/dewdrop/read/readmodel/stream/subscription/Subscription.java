@@ -9,6 +9,7 @@ import events.dewdrop.read.readmodel.stream.Stream;
 import events.dewdrop.read.readmodel.stream.StreamListener;
 import events.dewdrop.read.readmodel.stream.StreamReader;
 import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.read.EventBatch;
 import events.dewdrop.structure.read.Handler;
 import java.util.ArrayList;
 import java.util.List;
@@ -31,17 +32,30 @@ public class Subscription<T extends Event> {
     private final List<Class<? extends Event>> messageTypes;
     private final Handler<T> handler;
     private final ScheduledExecutorService executorService;
+    // When set the subscription joins the hub's shared subscription instead of opening its own
+    private final SubscriptionHub subscriptionHub;
+    // When set the events are handled on the buffer's consumer thread instead of the subscription
+    // callback
+    private SubscriptionBuffer buffer;
 
     Subscription(Handler<T> handler, List<Class<? extends Event>> messageTypes, StreamListener<T> listener) {
+        this(handler, messageTypes, listener, null);
+    }
+
+    Subscription(Handler<T> handler, List<Class<? extends Event>> messageTypes, StreamListener<T> listener, SubscriptionHub subscriptionHub) {
         this.messageTypes = messageTypes;
         this.handler = handler;
         this.executorService = Executors.newSingleThreadScheduledExecutor();
         this.listener = listener;
+        this.subscriptionHub = subscriptionHub;
         registerHandlers();
     }
 
     public static Subscription getInstance(Stream stream) {
-        return new Subscription<>(stream, stream.getStreamDetails().getMessageTypes(), StreamListener.getInstance(stream.getStreamStore(), stream.getEventSerializer()));
+        Subscription subscription = new Subscription<>(stream, stream.getStreamDetails().getMessageTypes(), StreamListener.getInstance(stream.getStreamStore(), stream.getEventSerializer()), stream.getSubscriptionHub());
+        Optional.ofNullable(stream.getSubscriptionBufferSettings()).flatMap(settings -> settings.bufferFor(stream.getStreamDetails().getStreamName(), subscription::dispatch, batch -> subscription.getHandler().handleBatch(batch)))
+                        .ifPresent(subscription::setBuffer);
+        return subscription;
     }
 
     void registerToMessageType(EventProcessor<T> eventProcessor, Class<?> eventType) {
@@ -72,9 +86,54 @@ public class Subscription<T extends Event> {
         }
     }
 
+    /**
+     * Closes the buffer of the subscription, if it has one. The events it still holds are not handled
+     * and are read again when the stream resumes from its checkpoint.
+     */
+    public void close() {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
     public void publish(T event) {
+        publish(event, EventBatch.NO_POSITION);
+    }
+
+    /**
+     * Publishes the event to the handlers, and to the batch event handlers as a batch that ends at the
+     * given position. With a buffer the batch event handlers get the micro-batches the buffer drains.
+     *
+     * @param event the event to publish
+     * @param position the position of the event in the stream, or EventBatch.NO_POSITION if unknown
+     */
+    public void publish(T event, long position) {
+        publish(event, position, null);
+    }
+
+    /**
+     * Publishes the event like {@link #publish(Event, long)} and then runs onHandled, once the event
+     * and its batch have been handled without a handler throwing.
+     *
+     * @param event the event to publish
+     * @param position the position of the event in the stream, or EventBatch.NO_POSITION if unknown
+     * @param onHandled what to run after the event was handled, may be null
+     */
+    public void publish(T event, long position, Runnable onHandled) {
         requireNonNull(event, "event is required");
 
+        if (buffer != null) {
+            buffer.offer(event, position, onHandled);
+            return;
+        }
+        dispatch(event);
+        handler.handleBatch(new EventBatch<>(List.of(event), position));
+        if (onHandled != null) {
+            onHandled.run();
+        }
+    }
+
+    void dispatch(T event) {
         log.debug("Publishing event:{}, handlers: {}", event.getClass().getSimpleName(), this.handlers.size());
         // Call each handler registered to the event type.
         List<EventProcessor<T>> eventProcessors = getHandlesFor(event.getClass());
@@ -86,7 +145,7 @@ public class Subscription<T extends Event> {
         if (!streamReader.validateStreamName(streamReader.getStreamName())) { return false; }
         NameAndPosition nameAndPosition = streamReader.nameAndPosition();
         if (!streamReader.isStreamExists()) { return false; }
-        boolean subscribed = listener.start(nameAndPosition.getStreamName(), nameAndPosition.getPosition(), this);
+        boolean subscribed = subscriptionHub != null ? subscriptionHub.join(nameAndPosition.getStreamName(), nameAndPosition.getPosition(), this) : listener.start(nameAndPosition.getStreamName(), nameAndPosition.getPosition(), this);
         if (subscribed) {
             log.info("Completed subscription to stream: {} from position:{}", nameAndPosition.getStreamName(), nameAndPosition.getPosition());
         }
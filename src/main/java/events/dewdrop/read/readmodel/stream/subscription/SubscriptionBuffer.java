@@ -0,0 +1,268 @@
+package events.dewdrop.read.readmodel.stream.subscription;
+
+import static java.util.Objects.requireNonNull;
+
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.read.EventBatch;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.Builder;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * A bounded ring of events between the subscription callback and the read model's handlers. The
+ * callback only enqueues the event, and a dedicated consumer thread drains the ring in
+ * micro-batches and runs the handlers, so a slow handler no longer stalls the subscription. Events
+ * are handled in the order they arrived, and a handler that throws is logged and counted without
+ * stopping the rest of the batch. When there is a batch handler it is then called with the whole
+ * micro-batch and the position of its last event. A checkpointed stream holds its checkpoint when
+ * one of its handlers throws, so the checkpoint saved with the batch never passes the failed event.
+ * The callbacks queued with the events run once their whole batch was handled without a failure.
+ * <p>
+ * When the ring is full the {@link OverflowPolicy} decides whether the callback waits for room or
+ * an event is dropped. Dropping is refused for checkpointed streams, whose checkpoint would skip
+ * the dropped event. The queue depth, handled, failed and dropped events, and the time spent in the
+ * handlers are kept as counters.
+ * <p>
+ * Closing the buffer stops its consumer thread. The events still queued are not handled, and since
+ * their checkpoint was not saved they are read again when the stream resumes. Events offered after
+ * the buffer was closed are refused.
+ */
+@Log4j2
+public class SubscriptionBuffer {
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final String name;
+    private final ArrayBlockingQueue<Entry> ring;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<Event> handler;
+    private final Consumer<EventBatch<Event>> batchHandler;
+    private final ExecutorService consumer;
+
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private final AtomicLong handledEvents = new AtomicLong();
+    private final AtomicLong failedEvents = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong handlerNanos = new AtomicLong();
+
+    @Builder(buildMethodName = "create")
+    public SubscriptionBuffer(String name, Integer capacity, Integer batchSize, OverflowPolicy overflowPolicy, Consumer<Event> handler, Consumer<EventBatch<Event>> batchHandler) {
+        requireNonNull(capacity, "Capacity is required");
+        requireNonNull(handler, "Handler is required");
+        if (capacity <= 0) { throw new IllegalArgumentException("Capacity must be greater than 0"); }
+
+        this.name = Optional.ofNullable(name).orElse("subscription");
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Optional.ofNullable(batchSize).filter(size -> size > 0).orElse(DEFAULT_BATCH_SIZE);
+        this.overflowPolicy = Optional.ofNullable(overflowPolicy).orElse(OverflowPolicy.BLOCK);
+        this.handler = handler;
+        this.batchHandler = batchHandler;
+        this.consumer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dewdrop-subscription-" + this.name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.consumer.execute(this::drain);
+    }
+
+    /**
+     * Hands the event to the consumer thread, applying the overflow policy when the ring is full.
+     *
+     * @param event the event to handle
+     * @return true if the event was queued, false if it was dropped
+     */
+    public boolean offer(Event event) {
+        return offer(event, EventBatch.NO_POSITION);
+    }
+
+    /**
+     * Hands the event and its position in the stream to the consumer thread, applying the overflow
+     * policy when the ring is full.
+     *
+     * @param event the event to handle
+     * @param position the position of the event, or EventBatch.NO_POSITION if unknown
+     * @return true if the event was queued, false if it was dropped
+     */
+    public boolean offer(Event event, long position) {
+        return offer(event, position, null);
+    }
+
+    /**
+     * Hands the event and its position in the stream to the consumer thread, and runs onHandled on the
+     * consumer thread once the batch of the event was handled without a failure.
+     *
+     * @param event the event to handle
+     * @param position the position of the event, or EventBatch.NO_POSITION if unknown
+     * @param onHandled what to run after the event was handled, may be null
+     * @return true if the event was queued, false if it was dropped
+     */
+    public boolean offer(Event event, long position, Runnable onHandled) {
+        requireNonNull(event, "Event is required");
+        if (isClosed()) {
+            log.debug("Subscription buffer {} is closed - refused event:{}", name, event.getClass().getSimpleName());
+            return false;
+        }
+
+        Entry entry = new Entry(event, position, onHandled);
+        boolean queued;
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                queued = ring.offer(entry);
+                if (!queued) {
+                    droppedEvents.incrementAndGet();
+                    log.warn("Subscription buffer {} is full - dropped event:{}", name, event.getClass().getSimpleName());
+                }
+                break;
+            case DROP_OLDEST:
+                while (!ring.offer(entry)) {
+                    Entry dropped = ring.poll();
+                    if (dropped != null) {
+                        droppedEvents.incrementAndGet();
+                        log.warn("Subscription buffer {} is full - dropped event:{}", name, dropped.event.getClass().getSimpleName());
+                    }
+                }
+                queued = true;
+                break;
+            case BLOCK:
+            default:
+                queued = put(entry);
+        }
+        maxQueueDepth.accumulateAndGet(ring.size(), Math::max);
+        return queued;
+    }
+
+    private boolean put(Entry entry) {
+        try {
+            ring.put(entry);
+            return true;
+        } catch (InterruptedException e) {
+            log.error("Interrupted while waiting for room in subscription buffer {}", name, e);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Runs on the consumer thread until the buffer is closed
+    void drain() {
+        List<Entry> entries = new ArrayList<>(batchSize);
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                entries.add(ring.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            ring.drainTo(entries, batchSize - 1);
+            entries.forEach(entry -> batch.add(entry.event));
+            if (handle(batch, entries.stream().mapToLong(entry -> entry.position).toArray())) {
+                entries.forEach(this::handled);
+            }
+            entries.clear();
+            batch.clear();
+        }
+    }
+
+    boolean handle(List<Event> batch) {
+        long[] positions = new long[batch.size()];
+        Arrays.fill(positions, EventBatch.NO_POSITION);
+        return handle(batch, positions);
+    }
+
+    // Returns true if neither a handler nor the batch handler threw
+    boolean handle(List<Event> batch, long[] positions) {
+        long start = System.nanoTime();
+        boolean handled = true;
+        for (Event event : batch) {
+            try {
+                handler.accept(event);
+                handledEvents.incrementAndGet();
+            } catch (Exception e) {
+                handled = false;
+                failedEvents.incrementAndGet();
+                log.error("Subscription buffer {} failed to handle event:{}", name, event.getClass().getSimpleName(), e);
+            }
+        }
+        if (batchHandler != null) {
+            try {
+                batchHandler.accept(new EventBatch<>(batch, positions));
+            } catch (Exception e) {
+                handled = false;
+                log.error("Subscription buffer {} failed to handle a batch of {} events", name, batch.size(), e);
+            }
+        }
+        handlerNanos.addAndGet(System.nanoTime() - start);
+        batches.incrementAndGet();
+        return handled;
+    }
+
+    private void handled(Entry entry) {
+        if (entry.onHandled == null) { return; }
+        try {
+            entry.onHandled.run();
+        } catch (Exception e) {
+            log.error("Subscription buffer {} failed to complete event:{}", name, entry.event.getClass().getSimpleName(), e);
+        }
+    }
+
+    public void close() {
+        consumer.shutdownNow();
+    }
+
+    public boolean isClosed() {
+        return consumer.isShutdown();
+    }
+
+    public int getQueueDepth() {
+        return ring.size();
+    }
+
+    public int getCapacity() {
+        return ring.size() + ring.remainingCapacity();
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getHandledEvents() {
+        return handledEvents.get();
+    }
+
+    public long getFailedEvents() {
+        return failedEvents.get();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getHandlerNanos() {
+        return handlerNanos.get();
+    }
+
+    private static class Entry {
+        private final Event event;
+        private final long position;
+        private final Runnable onHandled;
+
+        Entry(Event event, long position, Runnable onHandled) {
+            this.event = event;
+            this.position = position;
+            this.onHandled = onHandled;
+        }
+    }
+}
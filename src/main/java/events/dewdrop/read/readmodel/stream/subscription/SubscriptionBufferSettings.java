@@ -0,0 +1,76 @@
+package events.dewdrop.read.readmodel.stream.subscription;
+
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.read.EventBatch;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * How the SubscriptionBuffer of each subscription is sized. A capacity of 0 leaves subscriptions
+ * unbuffered, so the handlers run on the subscription callback. The settings keep the buffers they
+ * created until they are closed, which closes every buffer still open.
+ */
+@Getter
+public class SubscriptionBufferSettings {
+    private final int capacity;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    @Getter(AccessLevel.NONE)
+    private final Set<SubscriptionBuffer> buffers = ConcurrentHashMap.newKeySet();
+
+    @Builder(buildMethodName = "create")
+    public SubscriptionBufferSettings(int capacity, int batchSize, OverflowPolicy overflowPolicy) {
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    // Whether a full buffer drops events, which a checkpoint saved after them would skip
+    public boolean dropsEvents() {
+        return isEnabled() && overflowPolicy != null && overflowPolicy != OverflowPolicy.BLOCK;
+    }
+
+    /**
+     * Creates a buffer for one subscription.
+     *
+     * @param name the name of the buffer, used for its consumer thread and in the logs
+     * @param handler what is called with each event on the consumer thread
+     * @return the buffer, or empty if buffering is disabled
+     */
+    public Optional<SubscriptionBuffer> bufferFor(String name, Consumer<Event> handler) {
+        return bufferFor(name, handler, null);
+    }
+
+    /**
+     * Creates a buffer for one subscription that also hands each micro-batch it drains to the batch
+     * handler.
+     *
+     * @param name the name of the buffer, used for its consumer thread and in the logs
+     * @param handler what is called with each event on the consumer thread
+     * @param batchHandler what is called with each micro-batch after its events are handled, may be
+     *        null
+     * @return the buffer, or empty if buffering is disabled
+     */
+    public Optional<SubscriptionBuffer> bufferFor(String name, Consumer<Event> handler, Consumer<EventBatch<Event>> batchHandler) {
+        if (!isEnabled()) { return Optional.empty(); }
+        SubscriptionBuffer buffer = SubscriptionBuffer.builder().name(name).capacity(capacity).batchSize(batchSize).overflowPolicy(overflowPolicy).handler(handler).batchHandler(batchHandler).create();
+        // a buffer closed by its subscription is no longer kept
+        buffers.removeIf(SubscriptionBuffer::isClosed);
+        buffers.add(buffer);
+        return Optional.of(buffer);
+    }
+
+    public void close() {
+        buffers.forEach(SubscriptionBuffer::close);
+        buffers.clear();
+    }
+}
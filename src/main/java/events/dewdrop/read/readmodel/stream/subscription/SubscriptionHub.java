@@ -0,0 +1,242 @@
+package events.dewdrop.read.readmodel.stream.subscription;
+
+import static events.dewdrop.read.readmodel.stream.StreamListener.handledEventTypes;
+import static java.util.Objects.requireNonNull;
+
+import events.dewdrop.structure.NoStreamException;
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.datastore.StreamStore;
+import events.dewdrop.structure.events.ReadEventData;
+import events.dewdrop.structure.events.StreamReadResults;
+import events.dewdrop.structure.read.Direction;
+import events.dewdrop.structure.read.ReadRequest;
+import events.dewdrop.structure.serialize.EventSerializer;
+import events.dewdrop.structure.subscribe.SubscribeRequest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Shares one EventStore subscription per stream between every Subscription that listens to it. Each
+ * event that arrives is deserialized once and the same Event is published to every Subscription.
+ * <p>
+ * The first Subscription to join a stream opens the server subscription from its own position.
+ * Subscriptions that join later at or past the last event the shared subscription has received are
+ * fed from it straight away. Subscriptions that join from further back first catch up by reading
+ * the stream themselves up to its end, while the live events that arrive meanwhile are held for
+ * them, and then move over to the shared subscription, skipping the held events they already read.
+ * <p>
+ * Positions follow the SubscribeRequest checkpoint: the revision of the last event already handled,
+ * with 0 meaning the start of the stream.
+ */
+@Log4j2
+public class SubscriptionHub {
+    private static final long READ_PAGE_SIZE = 500L;
+
+    private final StreamStore streamStore;
+    private final EventSerializer serializer;
+    private final Map<String, SharedStream> streams = new ConcurrentHashMap<>();
+
+    protected SubscriptionHub(StreamStore streamStore, EventSerializer serializer) {
+        requireNonNull(streamStore, "StreamStore is required");
+        requireNonNull(serializer, "EventSerializer is required");
+
+        this.streamStore = streamStore;
+        this.serializer = serializer;
+    }
+
+    public static SubscriptionHub getInstance(StreamStore streamStore, EventSerializer serializer) {
+        return new SubscriptionHub(streamStore, serializer);
+    }
+
+    /**
+     * Adds the subscription to the shared subscription of the stream, opening the server subscription
+     * if this is the first subscription to join it.
+     *
+     * @param streamName the stream to listen to
+     * @param position the revision of the last event the subscription has handled, 0 for the start
+     * @param subscription the subscription to publish the events to
+     * @return true if the subscription is receiving events, false if the stream could not be subscribed
+     *         to
+     * @throws NoStreamException if the stream does not exist
+     */
+    public synchronized <T extends Event> boolean join(String streamName, Long position, Subscription<T> subscription) throws NoStreamException {
+        requireNonNull(streamName, "StreamName is required");
+        requireNonNull(subscription, "Subscription is required");
+
+        long checkpoint = Optional.ofNullable(position).orElse(0L);
+        Member member = new Member((Subscription<Event>) subscription, lastHandled(checkpoint));
+        SharedStream sharedStream = streams.get(streamName);
+        if (sharedStream == null) {
+            sharedStream = new SharedStream(streamName, member.lastHandled);
+            sharedStream.add(member);
+            member.goLive();
+            if (!streamStore.subscribeToStream(new SubscribeRequest(streamName, checkpoint, sharedStream::onEvent))) { return false; }
+
+            streams.put(streamName, sharedStream);
+            log.info("Opened the shared subscription to stream:{} from position:{}", streamName, checkpoint);
+            return true;
+        }
+
+        sharedStream.add(member);
+        // read after the member is added, so an event the shared subscription received without
+        // publishing it to the member is covered by the catch up
+        if (member.lastHandled < sharedStream.lastEventNumber) {
+            log.info("Catching up stream:{} from position:{} before joining the shared subscription", streamName, checkpoint);
+            catchUp(streamName, member);
+        }
+        member.goLive();
+        return true;
+    }
+
+    public int subscriptionCount(String streamName) {
+        return Optional.ofNullable(streams.get(streamName)).map(sharedStream -> sharedStream.members.size()).orElse(0);
+    }
+
+    // Reads the stream from after the member's position to its current end and publishes each event
+    // to the member alone
+    void catchUp(String streamName, Member member) {
+        StreamReadResults readResults;
+        do {
+            long start = member.lastHandled + 1;
+            readResults = streamStore.read(new ReadRequest(streamName, start, READ_PAGE_SIZE, Direction.FORWARD));
+            if (!readResults.isStreamExists() || readResults.isEmpty()) { return; }
+
+            List<ReadEventData> events = readResults.getEvents();
+            for (int i = 0; i < events.size(); i++) {
+                ReadEventData readEventData = events.get(i);
+                long eventNumber = start + i;
+                if (!member.handles(readEventData.getEventType())) {
+                    member.skip(eventNumber);
+                    continue;
+                }
+                Optional<Event> event = serializer.deserialize(readEventData);
+                if (event.isEmpty()) {
+                    log.error("Failed to deserialize event:{} while catching up stream:{}", readEventData.getEventType(), streamName);
+                    member.skip(eventNumber);
+                    continue;
+                }
+                member.deliver(eventNumber, event.get());
+            }
+        } while (!readResults.isEndOfStream());
+    }
+
+    private static long lastHandled(long checkpoint) {
+        return checkpoint == 0L ? -1L : checkpoint;
+    }
+
+    /**
+     * The shared server subscription of one stream and the subscriptions fed from it.
+     */
+    class SharedStream {
+        private final String streamName;
+        private final List<Member> members = new CopyOnWriteArrayList<>();
+        private volatile Set<String> handledEventTypes = new HashSet<>();
+        // the last event received from the server, starting at the position the stream was opened from
+        private volatile long lastEventNumber;
+
+        SharedStream(String streamName, long openedFrom) {
+            this.streamName = streamName;
+            this.lastEventNumber = openedFrom;
+        }
+
+        void add(Member member) {
+            members.add(member);
+            Set<String> eventTypes = null;
+            if (members.stream().allMatch(current -> current.handledEventTypes != null)) {
+                eventTypes = new HashSet<>();
+                for (Member current : members) {
+                    eventTypes.addAll(current.handledEventTypes);
+                }
+            }
+            this.handledEventTypes = eventTypes;
+        }
+
+        void onEvent(ReadEventData readEventData) {
+            // recorded before the members are read, see join()
+            lastEventNumber = Math.max(lastEventNumber, readEventData.getEventNumber());
+            Set<String> eventTypes = handledEventTypes;
+            if (eventTypes != null && readEventData.getEventType() != null && !eventTypes.contains(readEventData.getEventType())) { return; }
+
+            Optional<Event> event = serializer.deserialize(readEventData);
+            if (event.isEmpty()) {
+                log.error("Failed to deserialize event:{} from the shared subscription to stream:{}", readEventData.getEventType(), streamName);
+                return;
+            }
+            for (Member member : members) {
+                if (member.handles(readEventData.getEventType())) {
+                    member.accept(readEventData.getEventNumber(), event.get());
+                }
+            }
+        }
+    }
+
+    /**
+     * A subscription fed by a SharedStream. Until it has caught up the live events are held, and once
+     * it is live they are published in the order they arrive. Events at or before the last event it has
+     * handled are never published again.
+     */
+    static class Member {
+        private final Subscription<Event> subscription;
+        private final Set<String> handledEventTypes;
+        private final List<Pending> pending = new ArrayList<>();
+        private long lastHandled;
+        private boolean live;
+
+        Member(Subscription<Event> subscription, long lastHandled) {
+            this.subscription = subscription;
+            this.handledEventTypes = handledEventTypes(subscription);
+            this.lastHandled = lastHandled;
+        }
+
+        boolean handles(String eventType) {
+            return handledEventTypes == null || eventType == null || handledEventTypes.contains(eventType);
+        }
+
+        synchronized void accept(long eventNumber, Event event) {
+            if (!live) {
+                pending.add(new Pending(eventNumber, event));
+                return;
+            }
+            deliver(eventNumber, event);
+        }
+
+        // A handler that throws has held its own checkpoint, and must not keep the event from the other
+        // members
+        synchronized void deliver(long eventNumber, Event event) {
+            if (eventNumber <= lastHandled) { return; }
+            try {
+                subscription.publish(event, eventNumber);
+            } catch (RuntimeException e) {
+                log.error("Failed to handle event:{} at position:{}", event.getClass().getSimpleName(), eventNumber, e);
+            }
+            lastHandled = eventNumber;
+        }
+
+        synchronized void skip(long eventNumber) {
+            lastHandled = Math.max(lastHandled, eventNumber);
+        }
+
+        synchronized void goLive() {
+            pending.forEach(held -> deliver(held.eventNumber, held.event));
+            pending.clear();
+            live = true;
+        }
+    }
+
+    private static class Pending {
+        private final long eventNumber;
+        private final Event event;
+
+        Pending(long eventNumber, Event event) {
+            this.eventNumber = eventNumber;
+            this.event = event;
+        }
+    }
+}
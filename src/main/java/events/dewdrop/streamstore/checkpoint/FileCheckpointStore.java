@@ -0,0 +1,194 @@
+package events.dewdrop.streamstore.checkpoint;
+
+import static java.util.Objects.requireNonNull;
+
+import events.dewdrop.structure.datastore.CheckpointStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Builder;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * A CheckpointStore kept in an append-only file on local disk. Saving a checkpoint only updates
+ * memory. The checkpoints that changed are appended to the file, one {@code position key} line
+ * each, every {@code flushEvery} saves and every {@code flushIntervalMillis}, and the file is
+ * forced to disk after each append. When a key appears more than once the last line wins.
+ * <p>
+ * Once the file holds many more lines than there are keys it is compacted: the current checkpoints
+ * are written to a temporary file which then replaces it. A line cut short by a crash is dropped
+ * when the file is loaded, so at worst a stream resumes from the checkpoint flushed before it.
+ */
+@Log4j2
+public class FileCheckpointStore implements CheckpointStore {
+    private static final int DEFAULT_FLUSH_EVERY = 1000;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000L;
+    private static final int MIN_COMPACT_LINES = 1024;
+
+    private final Path path;
+    private final int flushEvery;
+    private final Map<String, Long> positions = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicLong unflushedSaves = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final ScheduledExecutorService flusher;
+    private FileChannel channel;
+    private long lines;
+
+    @Builder(buildMethodName = "create")
+    public FileCheckpointStore(Path path, Integer flushEvery, Long flushIntervalMillis) {
+        requireNonNull(path, "Path is required");
+
+        this.path = path;
+        this.flushEvery = Optional.ofNullable(flushEvery).filter(count -> count > 0).orElse(DEFAULT_FLUSH_EVERY);
+        long interval = Optional.ofNullable(flushIntervalMillis).filter(millis -> millis > 0).orElse(DEFAULT_FLUSH_INTERVAL_MILLIS);
+        try {
+            if (load()) {
+                compact();
+            } else {
+                this.channel = open();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open the checkpoint file " + path, e);
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dewdrop-checkpoints");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Optional<Long> load(String key) {
+        return Optional.ofNullable(positions.get(key));
+    }
+
+    @Override
+    public void save(String key, long position) {
+        requireNonNull(key, "Key is required");
+
+        positions.put(key, position);
+        dirty.add(key);
+        if (unflushedSaves.incrementAndGet() >= flushEvery) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        unflushedSaves.set(0);
+        if (dirty.isEmpty() || channel == null) { return; }
+
+        List<String> keys = new ArrayList<>(dirty);
+        dirty.removeAll(keys);
+        try {
+            write(channel, keys);
+            channel.force(false);
+            lines += keys.size();
+            flushes.incrementAndGet();
+            if (lines > Math.max(MIN_COMPACT_LINES, 4L * positions.size())) {
+                compact();
+            }
+        } catch (IOException e) {
+            dirty.addAll(keys);
+            log.error("Unable to write the checkpoints to {}", path, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        flusher.shutdownNow();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.error("Unable to close the checkpoint file {}", path, e);
+        }
+        channel = null;
+    }
+
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    // Writes every checkpoint to a new file and moves it over the current one
+    void compact() throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(out, new ArrayList<>(positions.keySet()));
+            out.force(false);
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open();
+        lines = positions.size();
+        log.debug("Compacted the checkpoint file {} to {} checkpoints", path, lines);
+    }
+
+    private void write(FileChannel out, List<String> keys) throws IOException {
+        StringBuilder builder = new StringBuilder(keys.size() * 64);
+        for (String key : keys) {
+            builder.append(positions.get(key)).append(' ').append(key).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    // Returns true when the file ends with a partial line, which has to be dropped before anything is
+    // appended after it
+    private boolean load() throws IOException {
+        if (!Files.exists(path)) { return false; }
+
+        String content = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        int start = 0;
+        int end;
+        // only complete lines count, the tail after the last newline was never fully written
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            String line = content.substring(start, end);
+            start = end + 1;
+            int separator = line.indexOf(' ');
+            if (separator <= 0 || separator == line.length() - 1) {
+                continue;
+            }
+            try {
+                positions.put(line.substring(separator + 1), Long.parseLong(line.substring(0, separator)));
+                lines++;
+            } catch (NumberFormatException e) {
+                log.warn("Skipping the corrupt checkpoint line:{} in {}", line, path);
+            }
+        }
+        log.info("Loaded {} checkpoints from {}", positions.size(), path);
+        return start < content.length();
+    }
+
+    private FileChannel open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
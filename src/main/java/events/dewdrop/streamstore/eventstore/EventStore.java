@@ -3,24 +3,33 @@ package events.dewdrop.streamstore.eventstore;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
+import events.dewdrop.structure.AppendFailedException;
 import events.dewdrop.structure.NoStreamException;
 import events.dewdrop.structure.datastore.StreamStore;
 import events.dewdrop.structure.events.StreamReadResults;
 import events.dewdrop.structure.events.WriteEventData;
 import events.dewdrop.structure.read.ReadRequest;
+import events.dewdrop.structure.subscribe.AllPosition;
 import events.dewdrop.structure.subscribe.SubscribeRequest;
+import events.dewdrop.structure.subscribe.SubscribeToAllRequest;
 import events.dewdrop.structure.write.WriteRequest;
+import events.dewdrop.utils.AsyncUtils;
 import com.eventstore.dbclient.AppendToStreamOptions;
+import com.eventstore.dbclient.ExpectedRevision;
 import com.eventstore.dbclient.EventData;
 import com.eventstore.dbclient.EventStoreDBClient;
+import com.eventstore.dbclient.Position;
 import com.eventstore.dbclient.ReadResult;
 import com.eventstore.dbclient.ReadStreamOptions;
 import com.eventstore.dbclient.StreamNotFoundException;
+import com.eventstore.dbclient.SubscribeToAllOptions;
 import com.eventstore.dbclient.SubscribeToStreamOptions;
 import com.eventstore.dbclient.SubscriptionListener;
+import com.eventstore.dbclient.WriteResult;
+import com.eventstore.dbclient.WrongExpectedVersionException;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.collections4.ListUtils;
@@ -57,6 +66,37 @@ public class EventStore implements StreamStore {
         return subscribeTo(subscribeRequest.getStreamName(), listener, options);
     }
 
+    /**
+     * Subscribes to $all with the event type or stream prefix filter of the request. There are no links
+     * to resolve, and the positions of the events and of the server's checkpoints are handed to the
+     * request.
+     *
+     * @param subscribeToAllRequest The filter, start position and callbacks
+     * @return true once the subscription is confirmed, false if it was interrupted
+     */
+    @Override
+    public boolean subscribeToAll(SubscribeToAllRequest subscribeToAllRequest) {
+        SubscribeToAllOptions options = SubscribeToAllOptions.get().filter(EventStoreUtils.filter(subscribeToAllRequest));
+        AllPosition lastCheckpoint = subscribeToAllRequest.getLastCheckpoint();
+        if (lastCheckpoint == null) {
+            options.fromStart();
+        } else {
+            options.fromPosition(new Position(lastCheckpoint.getCommit(), lastCheckpoint.getPrepare()));
+        }
+
+        try {
+            client.subscribeToAll(EventStoreUtils.createAllListener(subscribeToAllRequest.getConsumeEvent()), options).get();
+            return true;
+        } catch (InterruptedException e) {
+            log.error("Subscription to $all was interrupted", e);
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            log.error("There was an execution exception subscribing to $all, Is EventStore up?", e);
+            throw new RuntimeException(e);
+        }
+    }
+
     boolean subscribeTo(String stream, SubscriptionListener listener, SubscribeToStreamOptions options) throws NoStreamException {
         try {
             client.subscribeToStream(stream, listener, options).get();
@@ -72,31 +112,81 @@ public class EventStore implements StreamStore {
         }
     }
 
+    /**
+     * Appends the events of the request and waits for every batch to be acknowledged. Requests with
+     * more than {@link #BATCH_SIZE} events are written as a chain of batches, see
+     * {@link #appendBatches(WriteRequest)}.
+     *
+     * @param writeRequest The stream, expected version and events to write
+     * @return The revision of the last event written
+     * @throws AppendFailedException If the append failed for any reason other than a concurrency
+     *         conflict
+     */
     @Override
-    public void appendToStream(WriteRequest writeRequest) {
-        AppendToStreamOptions options = AppendToStreamOptions.get().expectedRevision(writeRequest.getExpectedVersion());
-        String streamName = writeRequest.getStreamName();
-        List<WriteEventData> events = writeRequest.getEvents();
-        List<EventData> data = events.stream().map(EventStoreUtils::toEventData).collect(toList());
+    public Long appendToStream(WriteRequest writeRequest) {
         try {
-            if (events.size() < BATCH_SIZE) {
-                ListIterator<EventData> iterator = data.listIterator();
-                log.info("Appending {} events to stream {}, events:{}", events.size(), streamName, events.stream().map(e -> e.getEventType()).collect(joining(",")));
-                client.appendToStream(streamName, options, iterator).get();
-            } else {
-                final List<List<EventData>> batch = ListUtils.partition(data, BATCH_SIZE);
-
-                for (List<EventData> eventDatas : batch) {
-                    ListIterator<EventData> iterator = eventDatas.listIterator();
-                    client.appendToStream(streamName, options, iterator);
-                }
-            }
+            return appendBatches(writeRequest).get().toRawLong();
         } catch (InterruptedException e) {
             log.error("Append was interrupted", e);
             Thread.currentThread().interrupt();
+            throw new AppendFailedException(writeRequest.getStreamName(), e);
         } catch (ExecutionException e) {
+            Throwable cause = AsyncUtils.unwrap(e);
+            if (cause instanceof WrongExpectedVersionException) { throw EventStoreUtils.toConcurrencyConflict((WrongExpectedVersionException) cause, writeRequest.getExpectedVersion()); }
             log.error("Append had an issue", e);
+            throw new AppendFailedException(writeRequest.getStreamName(), cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<StreamReadResults> readAsync(ReadRequest readRequest) {
+        String streamName = readRequest.getStreamName();
+        ReadStreamOptions readStreamOptions = EventStoreUtils.options(readRequest);
+        log.debug("ReadRequest: {}", readRequest);
+        return client.readStream(streamName, readStreamOptions).thenApply(result -> EventStoreUtils.toStreamReadResults(readRequest, result)).exceptionally(e -> {
+            Throwable cause = AsyncUtils.unwrap(e);
+            if (cause instanceof StreamNotFoundException) { return StreamReadResults.noStream(); }
+
+            log.error("There was an issue reading from stream: {}", streamName, cause);
+            return StreamReadResults.empty();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> appendToStreamAsync(WriteRequest writeRequest) {
+        return appendBatches(writeRequest).thenApply(ExpectedRevision::toRawLong).exceptionally(e -> {
+            Throwable cause = AsyncUtils.unwrap(e);
+            if (cause instanceof WrongExpectedVersionException) { throw EventStoreUtils.toConcurrencyConflict((WrongExpectedVersionException) cause, writeRequest.getExpectedVersion()); }
+            log.error("Append had an issue", cause);
+            throw new AppendFailedException(writeRequest.getStreamName(), cause);
+        });
+    }
+
+    /**
+     * Writes the events in batches of {@link #BATCH_SIZE}. Each batch is sent as soon as the previous
+     * one is acknowledged, with the revision it returned as the expected revision, so the whole request
+     * keeps the optimistic concurrency check of the first batch and no other writer can slip events in
+     * between two batches. Sending the batches without waiting isn't safe: separate appends can reach
+     * the server out of order and would fail each others expected revision.
+     *
+     * @param writeRequest The stream, expected version and events to write
+     * @return A future that completes with the revision the stream is at after the last batch
+     */
+    CompletableFuture<ExpectedRevision> appendBatches(WriteRequest writeRequest) {
+        String streamName = writeRequest.getStreamName();
+        List<WriteEventData> events = writeRequest.getEvents();
+        log.info("Appending {} events to stream {}, events:{}", events.size(), streamName, events.stream().map(e -> e.getEventType()).collect(joining(",")));
+
+        CompletableFuture<ExpectedRevision> revision = CompletableFuture.completedFuture(EventStoreUtils.expectedRevision(writeRequest.getExpectedVersion()));
+        for (List<WriteEventData> batch : ListUtils.partition(events, BATCH_SIZE)) {
+            // convert the next batch while the previous one is in flight
+            List<EventData> eventDatas = batch.stream().map(EventStoreUtils::toEventData).collect(toList());
+            revision = revision.thenCompose(expectedRevision -> {
+                AppendToStreamOptions options = AppendToStreamOptions.get().expectedRevision(expectedRevision);
+                return client.appendToStream(streamName, options, eventDatas.listIterator()).thenApply(WriteResult::getNextExpectedRevision);
+            });
         }
+        return revision;
     }
 
     StreamReadResults readFromStream(ReadRequest readRequest) {
@@ -1,53 +1,74 @@
 package events.dewdrop.streamstore.eventstore;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
 import com.eventstore.dbclient.EventData;
 import com.eventstore.dbclient.EventDataBuilder;
+import com.eventstore.dbclient.ExpectedRevision;
+import com.eventstore.dbclient.Position;
 import com.eventstore.dbclient.ReadResult;
 import com.eventstore.dbclient.ReadStreamOptions;
 import com.eventstore.dbclient.RecordedEvent;
 import com.eventstore.dbclient.ResolvedEvent;
 import com.eventstore.dbclient.StreamPosition;
 import com.eventstore.dbclient.Subscription;
+import com.eventstore.dbclient.SubscriptionFilter;
+import com.eventstore.dbclient.SubscriptionFilterBuilder;
 import com.eventstore.dbclient.SubscriptionListener;
+import com.eventstore.dbclient.WrongExpectedVersionException;
+import events.dewdrop.structure.ConcurrencyConflictException;
 import events.dewdrop.structure.events.ReadEventData;
 import events.dewdrop.structure.events.StreamReadResults;
 import events.dewdrop.structure.events.WriteEventData;
 import events.dewdrop.structure.read.Direction;
 import events.dewdrop.structure.read.ReadRequest;
+import events.dewdrop.structure.subscribe.AllPosition;
+import events.dewdrop.structure.subscribe.SubscribeToAllRequest;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
 import lombok.extern.log4j.Log4j2;
 
 @Log4j2
 public class EventStoreUtils {
+    private static final String BINARY_CONTENT_TYPE = "application/octet-stream";
+
     public static StreamReadResults toStreamReadResults(ReadRequest readRequest, ReadResult readResult) {
         requireNonNull(readResult);
 
         List<ResolvedEvent> events = readResult.getEvents();
-        List<ReadEventData> recordedEvents = events.stream().map(ResolvedEvent::getEvent).map(EventStoreUtils::toReadEventData).collect(toList());
-
-        Long currentRevision = events.stream().map(ResolvedEvent::getLink).mapToLong(link -> {
-            if (link == null) { return 0L; }
-            return link.getRevision();
-        }).max().orElse(0L);
+        // the original event is the link for projected streams and the event itself for aggregate streams
+        List<ReadEventData> recordedEvents = events.stream().map(event -> toReadEventData(event.getEvent(), originalRevision(event))).collect(toList());
+        Long currentRevision = events.stream().mapToLong(EventStoreUtils::originalRevision).max().orElse(0L);
 
         boolean isEndOfStream = readResult.getEvents().isEmpty() || readResult.getEvents().size() < readRequest.getCount();
         return new StreamReadResults(readRequest.getStreamName(), readRequest.getStart(), readRequest.getDirection(), recordedEvents, currentRevision + 1, currentRevision, isEndOfStream);
     }
 
     public static ReadEventData toReadEventData(RecordedEvent recordedEvent) {
-        return new ReadEventData(recordedEvent.getStreamId(), UUID.fromString(recordedEvent.getEventId().toString()), recordedEvent.getRevision(), recordedEvent.getEventType(), recordedEvent.getEventData(), recordedEvent.getUserMetadata(), true,
-                        recordedEvent.getCreated());
+        return toReadEventData(recordedEvent, recordedEvent.getRevision());
+    }
+
+    // The event as it is in its own stream, at the position it was read from
+    static ReadEventData toReadEventData(RecordedEvent recordedEvent, long position) {
+        return new ReadEventData(recordedEvent.getStreamId(), UUID.fromString(recordedEvent.getEventId().toString()), recordedEvent.getRevision(), position, recordedEvent.getEventType(), recordedEvent.getEventData(), recordedEvent.getUserMetadata(),
+                        isJson(recordedEvent), recordedEvent.getCreated());
+    }
+
+    private static long originalRevision(ResolvedEvent resolvedEvent) {
+        RecordedEvent original = resolvedEvent.getOriginalEvent();
+        return original == null ? 0L : original.getRevision();
     }
 
     public static ReadEventData toReadEventData(ResolvedEvent resolvedEvent) {
         RecordedEvent link = resolvedEvent.getLink();
         RecordedEvent event = resolvedEvent.getEvent();
-        return new ReadEventData(link.getStreamId(), UUID.fromString(link.getEventId().toString()), link.getRevision(), event.getEventType(), event.getEventData(), event.getUserMetadata(), true, event.getCreated());
+        return new ReadEventData(link.getStreamId(), UUID.fromString(link.getEventId().toString()), link.getRevision(), event.getEventType(), event.getEventData(), event.getUserMetadata(), isJson(event), event.getCreated());
     }
 
 
@@ -90,8 +111,79 @@ public class EventStoreUtils {
         };
     }
 
+    /**
+     * Creates the listener of a $all subscription. Events on $all are never links, so the event is read
+     * as it was written and handed over with its position in $all.
+     *
+     * @param eventAppeared the consumer of the events and their positions
+     * @return the listener
+     */
+    public static SubscriptionListener createAllListener(BiConsumer<ReadEventData, AllPosition> eventAppeared) {
+        return new SubscriptionListener() {
+            @Override
+            public void onEvent(Subscription subscription, ResolvedEvent event) {
+                RecordedEvent recordedEvent = event.getEvent();
+                log.debug("Received event:{}, from stream:{}, position:{}", recordedEvent.getEventType(), recordedEvent.getStreamId(), recordedEvent.getPosition());
+                try {
+                    eventAppeared.accept(toReadEventData(recordedEvent), toAllPosition(recordedEvent.getPosition()));
+                } catch (Exception e) {
+                    log.error("Unable to accept event:{}", recordedEvent.getEventType(), e);
+                }
+            }
+
+            @Override
+            public void onCancelled(Subscription subscription, Throwable exception) {
+                log.error("Cancelling subscription to $all id:" + subscription.getSubscriptionId(), exception);
+            }
+        };
+    }
+
+    /**
+     * Builds the server side filter of a $all subscription. The client only allows a single prefix per
+     * filter, so the event types or stream prefixes are combined into one regular expression, and the
+     * filter's checkpoints are passed on to the request.
+     *
+     * @param subscribeToAllRequest the request to filter for
+     * @return the filter
+     */
+    public static SubscriptionFilter filter(SubscribeToAllRequest subscribeToAllRequest) {
+        SubscriptionFilterBuilder builder = SubscriptionFilter.newBuilder();
+        if (!subscribeToAllRequest.getEventTypes().isEmpty()) {
+            builder.withEventTypeRegularExpression(subscribeToAllRequest.getEventTypes().stream().map(Pattern::quote).collect(joining("|", "^(?:", ")$")));
+        } else {
+            builder.withStreamNameRegularExpression(subscribeToAllRequest.getStreamPrefixes().stream().map(Pattern::quote).collect(joining("|", "^(?:", ")")));
+        }
+        return builder.withCheckpointer((subscription, position) -> {
+            subscribeToAllRequest.getCheckpointReached().accept(toAllPosition(position));
+            return CompletableFuture.completedFuture(null);
+        }).build();
+    }
+
+    public static AllPosition toAllPosition(Position position) {
+        return new AllPosition(position.getCommitUnsigned(), position.getPrepareUnsigned());
+    }
+
+    public static ExpectedRevision expectedRevision(Long expectedVersion) {
+        if (expectedVersion == null) { return ExpectedRevision.any(); }
+        if (expectedVersion < 0) { return ExpectedRevision.noStream(); }
+        return ExpectedRevision.expectedRevision(expectedVersion);
+    }
+
+    public static ConcurrencyConflictException toConcurrencyConflict(WrongExpectedVersionException e, Long expectedVersion) {
+        ExpectedRevision actualRevision = e.getActualVersion();
+        Long actualVersion = actualRevision == null ? null : actualRevision.toRawLong();
+        return new ConcurrencyConflictException(e.getStreamName(), expectedVersion, actualVersion);
+    }
+
     public static EventData toEventData(WriteEventData eventData) {
-        EventDataBuilder eventDataBuilder = EventDataBuilder.json(eventData.getEventId(), eventData.getEventType(), eventData.getData()).metadataAsBytes(eventData.getMetadata());
-        return eventDataBuilder.build();
+        EventDataBuilder eventDataBuilder =
+                        eventData.isJson() ? EventDataBuilder.json(eventData.getEventId(), eventData.getEventType(), eventData.getData()) : EventDataBuilder.binary(eventData.getEventId(), eventData.getEventType(), eventData.getData());
+        return eventDataBuilder.metadataAsBytes(eventData.getMetadata()).build();
+    }
+
+    // Events are JSON unless EventStore recorded them as binary, older servers leave the content type
+    // out
+    static boolean isJson(RecordedEvent recordedEvent) {
+        return !BINARY_CONTENT_TYPE.equals(recordedEvent.getContentType());
     }
 }
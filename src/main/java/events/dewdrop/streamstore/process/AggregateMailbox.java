@@ -0,0 +1,100 @@
+package events.dewdrop.streamstore.process;
+
+import events.dewdrop.utils.AsyncUtils;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Routes work by aggregate id so that commands for one aggregate run one after another while
+ * commands for different aggregates run in parallel. Each aggregate only has an entry while it has
+ * work queued, and that entry is the future of the last command in line. A new command waits on it
+ * and then takes its place.
+ */
+@Log4j2
+public class AggregateMailbox {
+    private final Map<UUID, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+    // The aggregates the current thread is working on, so a command handler that sends a command to
+    // its own aggregate, sync or async, runs it inline instead of waiting on itself
+    private final ThreadLocal<Set<UUID>> held = ThreadLocal.withInitial(HashSet::new);
+
+    @FunctionalInterface
+    public interface MailboxTask<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * Runs the task on the calling thread once every earlier command for the aggregate has finished.
+     *
+     * @param <T> The type returned by the task
+     * @param <E> The exception the task can throw
+     * @param aggregateId The id of the aggregate the task works on
+     * @param task The task to run
+     * @return The result of the task
+     * @throws E If the task throws
+     */
+    public <T, E extends Exception> T execute(UUID aggregateId, MailboxTask<T, E> task) throws E {
+        if (held.get().contains(aggregateId)) { return task.call(); }
+
+        CompletableFuture<T> turn = new CompletableFuture<>();
+        CompletableFuture<?> previous = tails.put(aggregateId, turn);
+        held.get().add(aggregateId);
+        try {
+            if (previous != null) {
+                previous.handle((value, error) -> null).join();
+            }
+            T value = task.call();
+            turn.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            turn.completeExceptionally(e);
+            throw e;
+        } finally {
+            held.get().remove(aggregateId);
+            tails.remove(aggregateId, turn);
+        }
+    }
+
+    /**
+     * Starts the task once every earlier command for the aggregate has finished, without blocking the
+     * calling thread. Called from a command running in {@link #execute} for the same aggregate, the
+     * task starts right away, since waiting for that command would never end.
+     *
+     * @param <T> The type the task completes with
+     * @param aggregateId The id of the aggregate the task works on
+     * @param task Supplies the future of the work for the aggregate
+     * @return A future that completes with the result of the task
+     */
+    public <T> CompletableFuture<T> submit(UUID aggregateId, Supplier<CompletableFuture<T>> task) {
+        if (held.get().contains(aggregateId)) {
+            try {
+                return task.get();
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        CompletableFuture<T> turn = new CompletableFuture<>();
+        CompletableFuture<?> previous = tails.put(aggregateId, turn);
+        CompletableFuture<?> start = previous == null ? CompletableFuture.completedFuture(null) : previous.handle((value, error) -> null);
+
+        start.thenCompose(ignored -> task.get()).whenComplete((value, error) -> {
+            tails.remove(aggregateId, turn);
+            if (error != null) {
+                turn.completeExceptionally(AsyncUtils.unwrap(error));
+            } else {
+                turn.complete(value);
+            }
+        });
+        return turn;
+    }
+
+    public int size() {
+        return tails.size();
+    }
+}
@@ -2,8 +2,18 @@ package events.dewdrop.streamstore.process;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
 
@@ -12,10 +22,19 @@ import events.dewdrop.api.result.Result;
 import events.dewdrop.api.validators.ValidationException;
 import events.dewdrop.read.readmodel.stream.Stream;
 import events.dewdrop.read.readmodel.stream.StreamFactory;
+import events.dewdrop.streamstore.repository.AggregateRootCache;
+import events.dewdrop.read.readmodel.stream.StreamDetails;
 import events.dewdrop.streamstore.repository.StreamStoreGetByIDRequest;
+import events.dewdrop.structure.AppendFailedException;
+import events.dewdrop.structure.ConcurrencyConflictException;
 import events.dewdrop.structure.api.Command;
 import events.dewdrop.structure.api.Event;
 import events.dewdrop.structure.api.validator.DewdropValidator;
+import events.dewdrop.structure.events.AggregateSnapshot;
+import events.dewdrop.structure.events.ReadEventData;
+import events.dewdrop.structure.events.WriteEventData;
+import events.dewdrop.utils.AggregateUtils;
+import events.dewdrop.utils.AsyncUtils;
 import events.dewdrop.utils.CommandHandlerUtils;
 import jakarta.validation.Valid;
 import lombok.extern.log4j.Log4j2;
@@ -28,17 +47,40 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 public class AggregateRootLifecycle {
     StreamFactory streamFactory;
+    AggregateRootCache aggregateRootCache;
+    RetryPolicy retryPolicy;
 
     public AggregateRootLifecycle(StreamFactory streamFactory) {
+        this(streamFactory, AggregateRootCache.disabled());
+    }
+
+    public AggregateRootLifecycle(StreamFactory streamFactory, AggregateRootCache aggregateRootCache) {
+        this(streamFactory, aggregateRootCache, RetryPolicy.none());
+    }
+
+    public AggregateRootLifecycle(StreamFactory streamFactory, AggregateRootCache aggregateRootCache, RetryPolicy retryPolicy) {
         requireNonNull(streamFactory, "StreamFactory is required");
+        requireNonNull(aggregateRootCache, "AggregateRootCache is required");
+        requireNonNull(retryPolicy, "RetryPolicy is required");
 
         this.streamFactory = streamFactory;
+        this.aggregateRootCache = aggregateRootCache;
+        this.retryPolicy = retryPolicy;
     }
 
 
     /**
      * Process a command by loading the aggregate root from the event stream, executing the command on
-     * the aggregate root, and saving the aggregate root back to the event stream
+     * the aggregate root, and saving the aggregate root back to the event stream. When the aggregate
+     * root cache is enabled, a cached aggregate root is used instead and only the events written after
+     * its version are read.
+     * <p>
+     * If the write is rejected with a {@link ConcurrencyConflictException} and the retry policy allows
+     * it, the aggregate root is restored to the state it had before the command ran, only the events
+     * written since then are read, and the command is executed again after a jittered backoff. Once the
+     * attempts run out the conflict is returned in the {@code Result}. Any other failed write is
+     * returned in the {@code Result} right away, and the aggregate root is not cached since its version
+     * counts events that were never written.
      *
      * @param <T> The type of event that is handled by the stream
      * @param command The command to be processed
@@ -58,12 +100,246 @@ public class AggregateRootLifecycle {
         log.debug("Processing command {}", command.getClass().getSimpleName());
         Stream<T> stream = streamFactory.constructStreamFromAggregateRoot(aggregateRoot, aggregateRootId);
         validateCommand(command, commandHandlerMethod);
-        aggregateRoot = getById(stream, command, aggregateRoot, aggregateRootId);
+        String cacheKey = cacheKey(stream);
+        if (CommandHandlerUtils.isCreationHandler(commandHandlerMethod)) { return create(stream, command, commandHandlerMethod, aggregateRoot, cacheKey); }
+
+        aggregateRoot = aggregateRootCache.checkout(cacheKey).orElse(aggregateRoot);
+        for (int attempt = 1;; attempt++) {
+            aggregateRoot = getById(stream, command, aggregateRoot, aggregateRootId);
+            Optional<WriteEventData> memento = memento(stream, aggregateRoot);
+            aggregateRoot = executeCommand(command, commandHandlerMethod, aggregateRoot);
+            try {
+                save(stream, aggregateRoot);
+                aggregateRootCache.checkin(cacheKey, aggregateRoot);
+                return Result.of(true);
+            } catch (AppendFailedException e) {
+                // the aggregate root already counts the events that were never written, so it is dropped
+                log.error("Unable to save aggregateRoot:{} - {}", aggregateRoot.getTargetClassName(), e.getMessage());
+                return Result.of(e);
+            } catch (ConcurrencyConflictException e) {
+                if (!retryPolicy.shouldRetry(attempt)) { return Result.of(e); }
+                log.info("Concurrency conflict on attempt:{} for stream:{} - retrying", attempt, e.getStream());
+                try {
+                    Thread.sleep(retryPolicy.backoffMillis(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return Result.of(e);
+                }
+                aggregateRoot = restore(stream, memento, aggregateRoot);
+            }
+        }
+    }
+
+    /**
+     * The non-blocking version of {@link #process(Command, Method, AggregateRoot, UUID)}. Reading the
+     * aggregate root and saving its events are composed on the futures of the stream store, so no
+     * thread waits on the network while the command is in flight. Any failure, including a
+     * ValidationException, completes the future with a {@code Result} that carries the exception.
+     *
+     * @param <T> The type of event that is handled by the stream
+     * @param command The command to be processed
+     * @param commandHandlerMethod The method that will be invoked on the aggregate root to process the
+     *        command.
+     * @param aggregateRoot The aggregate root that will be used to process the command.
+     * @param aggregateRootId The id of the aggregate root
+     * @return A {@code CompletableFuture<Result<Boolean>>}
+     */
+    public <T extends Event> CompletableFuture<Result<Boolean>> processAsync(Command command, Method commandHandlerMethod, AggregateRoot aggregateRoot, UUID aggregateRootId) {
+        requireNonNull(command, "command is required");
+        requireNonNull(commandHandlerMethod, "commandHandlerMethod is required");
+        requireNonNull(aggregateRoot, "aggregateRoot is required");
+        requireNonNull(aggregateRootId, "aggregateRootId is required");
+
+        log.debug("Processing command async {}", command.getClass().getSimpleName());
+        Stream<T> stream = streamFactory.constructStreamFromAggregateRoot(aggregateRoot, aggregateRootId);
+        try {
+            validateCommand(command, commandHandlerMethod);
+        } catch (ValidationException e) {
+            return CompletableFuture.completedFuture(Result.of(e));
+        }
+        String cacheKey = cacheKey(stream);
+        if (CommandHandlerUtils.isCreationHandler(commandHandlerMethod)) { return createAsync(stream, command, commandHandlerMethod, aggregateRoot, cacheKey); }
+
+        AggregateRoot startingRoot = aggregateRootCache.checkout(cacheKey).orElse(aggregateRoot);
+        return processAttemptAsync(stream, command, commandHandlerMethod, startingRoot, aggregateRootId, cacheKey, 1).exceptionally(e -> Result.of(AsyncUtils.toException(e)));
+    }
+
+    <T extends Event> CompletableFuture<Result<Boolean>> processAttemptAsync(Stream<T> stream, Command command, Method commandHandlerMethod, AggregateRoot aggregateRoot, UUID aggregateRootId, String cacheKey, int attempt) {
+        AtomicReference<Optional<WriteEventData>> memento = new AtomicReference<>(Optional.empty());
+        // start from a completed future so anything thrown while building the read fails the future
+        return CompletableFuture.completedFuture(aggregateRoot).thenCompose(root -> getByIdAsync(stream, command, root, aggregateRootId)).thenApply(hydrated -> {
+            memento.set(memento(stream, hydrated));
+            try {
+                return executeCommand(command, commandHandlerMethod, hydrated);
+            } catch (ValidationException e) {
+                throw new CompletionException(e);
+            }
+        }).thenCompose(executed -> saveAsync(stream, executed).thenApply(saved -> {
+            aggregateRootCache.checkin(cacheKey, saved);
+            return Result.of(true);
+        })).handle((result, e) -> {
+            if (e == null) { return CompletableFuture.completedFuture(result); }
+            Throwable cause = AsyncUtils.unwrap(e);
+            if (!(cause instanceof ConcurrencyConflictException) || !retryPolicy.shouldRetry(attempt)) { return CompletableFuture.<Result<Boolean>>failedFuture(cause); }
+
+            log.info("Concurrency conflict on attempt:{} for stream:{} - retrying", attempt, ((ConcurrencyConflictException) cause).getStream());
+            Executor delayed = CompletableFuture.delayedExecutor(retryPolicy.backoffMillis(attempt), TimeUnit.MILLISECONDS);
+            return CompletableFuture.supplyAsync(() -> restore(stream, memento.get(), aggregateRoot), delayed).thenCompose(restored -> processAttemptAsync(stream, command, commandHandlerMethod, restored, aggregateRootId, cacheKey, attempt + 1));
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Processes several commands for the same aggregate root with a single read and a single write. The
+     * aggregate root is hydrated once, the commands are executed in order and the events of every
+     * command that passed are appended together. A command that fails validation gets its own
+     * {@code Result} and adds no events; if the append fails every command that passed gets the
+     * failure. The events keep the correlation and causation of the command that raised them.
+     *
+     * @param commands The commands for the aggregate root, in the order they should be executed
+     * @param commandHandlerMethods The command handler method of each command
+     * @param aggregateRoot The aggregate root that will be used to process the commands
+     * @param aggregateRootId The id of the aggregate root
+     * @return A future with one {@code Result<Boolean>} per command, in the same order
+     */
+    public CompletableFuture<List<Result<Boolean>>> processBatchAsync(List<Command> commands, List<Method> commandHandlerMethods, AggregateRoot aggregateRoot, UUID aggregateRootId) {
+        requireNonNull(commands, "commands is required");
+        requireNonNull(commandHandlerMethods, "commandHandlerMethods is required");
+        requireNonNull(aggregateRoot, "aggregateRoot is required");
+        requireNonNull(aggregateRootId, "aggregateRootId is required");
+        if (commands.isEmpty() || commands.size() != commandHandlerMethods.size()) { throw new IllegalArgumentException("Every command needs a commandHandlerMethod"); }
+
+        log.debug("Processing {} commands for aggregateRoot:{}", commands.size(), aggregateRoot.getTargetClassName());
+        Stream<?> stream = streamFactory.constructStreamFromAggregateRoot(aggregateRoot, aggregateRootId);
+        String cacheKey = cacheKey(stream);
+        boolean creation = CommandHandlerUtils.isCreationHandler(commandHandlerMethods.get(0));
+        AggregateRoot startingRoot = creation ? aggregateRoot : aggregateRootCache.checkout(cacheKey).orElse(aggregateRoot);
+
+        CompletableFuture<AggregateRoot> hydrated = creation ? CompletableFuture.completedFuture(startingRoot) : CompletableFuture.completedFuture(startingRoot).thenCompose(root -> getByIdAsync(stream, commands.get(0), root, aggregateRootId));
+        return hydrated.thenCompose(root -> executeBatch(stream, commands, commandHandlerMethods, root, cacheKey)).exceptionally(e -> {
+            Result<Boolean> failure = Result.of(AsyncUtils.toException(e));
+            return new ArrayList<>(Collections.nCopies(commands.size(), failure));
+        });
+    }
+
+    CompletableFuture<List<Result<Boolean>>> executeBatch(Stream<?> stream, List<Command> commands, List<Method> commandHandlerMethods, AggregateRoot aggregateRoot, String cacheKey) {
+        long expectedVersion = aggregateRoot.getVersion();
+        List<Result<Boolean>> results = new ArrayList<>(Collections.nCopies(commands.size(), Result.of(true)));
+        List<Integer> executed = new ArrayList<>();
+        List<WriteEventData> events = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            try {
+                validateCommand(commands.get(i), commandHandlerMethods.get(i));
+                executeCommand(commands.get(i), commandHandlerMethods.get(i), aggregateRoot);
+                events.addAll(stream.takeEventsToSave(aggregateRoot));
+                executed.add(i);
+            } catch (ValidationException e) {
+                results.set(i, Result.of(e));
+            }
+        }
+
+        if (events.isEmpty()) {
+            aggregateRootCache.checkin(cacheKey, aggregateRoot);
+            return CompletableFuture.completedFuture(results);
+        }
+        return stream.saveAsync(aggregateRoot, expectedVersion, events).handle((revision, e) -> {
+            if (e != null) {
+                // the aggregate root already moved past the events that weren't saved, so it is not cached
+                Result<Boolean> failure = Result.of(AsyncUtils.toException(e));
+                executed.forEach(index -> results.set(index, failure));
+            } else {
+                aggregateRootCache.checkin(cacheKey, aggregateRoot);
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Runs a command handler marked with {@code @CommandHandler(creates = true)}. The aggregate root is
+     * new, so the stream is not read and the append expects the stream not to exist. If the stream is
+     * already there the append is rejected and the {@code Result} carries the
+     * ConcurrencyConflictException right away - a duplicate create is never retried.
+     *
+     * @param stream The stream of the aggregate root
+     * @param command The creation command
+     * @param commandHandlerMethod The method that creates the aggregate
+     * @param aggregateRoot A new aggregate root that has not read any events
+     * @param cacheKey The key of the aggregate root in the cache
+     * @return A {@code Result<Boolean>}
+     * @throws ValidationException If the command handler rejects the command
+     */
+    Result<Boolean> create(Stream<?> stream, Command command, Method commandHandlerMethod, AggregateRoot aggregateRoot, String cacheKey) throws ValidationException {
+        log.debug("Skipping the read of aggregateRoot:{} for creation command:{}", aggregateRoot.getTargetClassName(), command.getClass().getSimpleName());
         aggregateRoot = executeCommand(command, commandHandlerMethod, aggregateRoot);
-        save(stream, aggregateRoot);
+        try {
+            save(stream, aggregateRoot);
+        } catch (ConcurrencyConflictException | AppendFailedException e) {
+            log.info("Unable to create aggregateRoot:{} - {}", aggregateRoot.getTargetClassName(), e.getMessage());
+            return Result.of(e);
+        }
+        aggregateRootCache.checkin(cacheKey, aggregateRoot);
         return Result.of(true);
     }
 
+    CompletableFuture<Result<Boolean>> createAsync(Stream<?> stream, Command command, Method commandHandlerMethod, AggregateRoot aggregateRoot, String cacheKey) {
+        log.debug("Skipping the read of aggregateRoot:{} for creation command:{}", aggregateRoot.getTargetClassName(), command.getClass().getSimpleName());
+        return CompletableFuture.completedFuture(aggregateRoot).thenApply(root -> {
+            try {
+                return executeCommand(command, commandHandlerMethod, root);
+            } catch (ValidationException e) {
+                throw new CompletionException(e);
+            }
+        }).thenCompose(executed -> saveAsync(stream, executed)).thenApply(saved -> {
+            aggregateRootCache.checkin(cacheKey, saved);
+            return Result.<Boolean>of(true);
+        }).exceptionally(e -> Result.of(AsyncUtils.toException(e)));
+    }
+
+    /**
+     * Captures the state of the aggregate root before a command runs so a conflicting write can be
+     * retried by replaying only the tail of the stream instead of the whole stream.
+     *
+     * @param stream The stream of the aggregate root
+     * @param aggregateRoot The hydrated aggregate root
+     * @return The serialized state, or empty when retries are off or the state can't be serialized
+     */
+    Optional<WriteEventData> memento(Stream<?> stream, AggregateRoot aggregateRoot) {
+        if (!retryPolicy.isEnabled() || stream.getEventSerializer() == null || aggregateRoot.getTarget() == aggregateRoot) { return Optional.empty(); }
+        try {
+            return stream.getEventSerializer().serializeSnapshot(new AggregateSnapshot(aggregateRoot.getVersion(), aggregateRoot.getTarget()));
+        } catch (Exception e) {
+            log.debug("Unable to capture the state of aggregateRoot:{} - a conflict will replay the whole stream", aggregateRoot.getTargetClassName(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Rebuilds the aggregate root from the state captured before the command ran. When there is no
+     * captured state a fresh aggregate root is created so the whole stream is replayed.
+     *
+     * @param stream The stream of the aggregate root
+     * @param memento The state captured by {@link #memento(Stream, AggregateRoot)}
+     * @param aggregateRoot The aggregate root that failed to save
+     * @return An aggregate root without any recorded events
+     */
+    AggregateRoot restore(Stream<?> stream, Optional<WriteEventData> memento, AggregateRoot aggregateRoot) {
+        Optional<AggregateSnapshot> snapshot = memento.flatMap(data -> {
+            String streamName = Optional.ofNullable(stream.getStreamDetails()).map(StreamDetails::getStreamName).orElse(aggregateRoot.getTargetClassName());
+            ReadEventData readEventData = new ReadEventData(streamName, data.getEventId(), 0L, data.getEventType(), data.getData(), data.getMetadata(), data.isJson(), Instant.now());
+            return stream.getEventSerializer().deserializeSnapshot(readEventData);
+        });
+        if (snapshot.isPresent()) {
+            AggregateRoot restored = new AggregateRoot(snapshot.get().getState());
+            restored.setVersion(snapshot.get().getVersion());
+            return restored;
+        }
+        return AggregateUtils.create(aggregateRoot.getTarget().getClass()).orElseThrow(() -> new IllegalStateException("Unable to create aggregateRoot:" + aggregateRoot.getTargetClassName()));
+    }
+
+    String cacheKey(Stream<?> stream) {
+        if (!aggregateRootCache.isEnabled() || stream.getStreamDetails() == null) { return null; }
+        return stream.getStreamDetails().getStreamName();
+    }
+
     protected void validateCommand(Command command, Method commandHandlerMethod) throws ValidationException {
         Parameter[] parameters = commandHandlerMethod.getParameters();
         if (parameters != null && parameters.length > 0) {
@@ -147,4 +423,14 @@ public class AggregateRootLifecycle {
         stream.save(aggregateRoot);
         return aggregateRoot;
     }
+
+    protected CompletableFuture<AggregateRoot> getByIdAsync(Stream stream, Command command, AggregateRoot aggregateRoot, UUID aggregateRootId) {
+        StreamStoreGetByIDRequest request = StreamStoreGetByIDRequest.builder().aggregateRoot(aggregateRoot).id(aggregateRootId).command(command).create();
+        return stream.getByIdAsync(request);
+    }
+
+    protected CompletableFuture<AggregateRoot> saveAsync(Stream stream, AggregateRoot aggregateRoot) {
+        CompletableFuture<Long> saved = stream.saveAsync(aggregateRoot);
+        return saved.thenApply(revision -> aggregateRoot);
+    }
 }
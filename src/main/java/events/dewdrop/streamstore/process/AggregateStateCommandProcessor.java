@@ -1,6 +1,7 @@
 package events.dewdrop.streamstore.process;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
 
 import events.dewdrop.aggregate.AggregateRoot;
 import events.dewdrop.api.result.Result;
@@ -9,8 +10,15 @@ import events.dewdrop.utils.AggregateUtils;
 import events.dewdrop.structure.api.Command;
 import events.dewdrop.utils.AggregateIdUtils;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.log4j.Log4j2;
 
 /**
@@ -19,13 +27,20 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 public class AggregateStateCommandProcessor {
     AggregateRootLifecycle streamProcessor;
+    AggregateMailbox aggregateMailbox;
 
     private AggregateStateCommandProcessor() {}
 
     public AggregateStateCommandProcessor(AggregateRootLifecycle aggregateRootLifecycle) {
+        this(aggregateRootLifecycle, new AggregateMailbox());
+    }
+
+    public AggregateStateCommandProcessor(AggregateRootLifecycle aggregateRootLifecycle, AggregateMailbox aggregateMailbox) {
         requireNonNull(aggregateRootLifecycle, "StreamProcessor is required");
+        requireNonNull(aggregateMailbox, "AggregateMailbox is required");
 
         this.streamProcessor = aggregateRootLifecycle;
+        this.aggregateMailbox = aggregateMailbox;
     }
 
     /**
@@ -47,9 +62,77 @@ public class AggregateStateCommandProcessor {
         return Result.of(false);
     }
 
+    /**
+     * The non-blocking version of {@link #processCommand(Command, Method)}.
+     *
+     * @param command The command to be processed.
+     * @param commandHandlerMethod The method that will be invoked to process the command.
+     * @return A {@code CompletableFuture<Result<Boolean>>}
+     */
+    public CompletableFuture<Result<Boolean>> processCommandAsync(Command command, Method commandHandlerMethod) {
+        Optional<AggregateRoot> optAggregateRoot = AggregateUtils.createFromCommandHandlerMethod(commandHandlerMethod);
+        if (optAggregateRoot.isPresent()) {
+            AggregateRoot aggregateRoot = optAggregateRoot.get();
+            Optional<UUID> optAggregateId = AggregateIdUtils.getAggregateId(command);
+            if (optAggregateId.isPresent()) {
+                UUID aggregateId = optAggregateId.get();
+                return aggregateMailbox.submit(aggregateId, () -> streamProcessor.processAsync(command, commandHandlerMethod, aggregateRoot, aggregateId));
+            }
+        }
+        return CompletableFuture.completedFuture(Result.of(false));
+    }
+
+    /**
+     * Processes a batch of commands, grouped by the aggregate they are for. Each aggregate is read
+     * once, runs its commands in the order they appear in the batch and writes all of their events in
+     * one append. Aggregates are processed in parallel, each through its own mailbox.
+     *
+     * @param commands The commands to process
+     * @param commandHandlerMethods The command handler method of each command, in the same order
+     * @return One {@code Result<Boolean>} per command, in the same order as the commands
+     */
+    public List<Result<Boolean>> processCommands(List<Command> commands, List<Method> commandHandlerMethods) {
+        requireNonNull(commands, "commands is required");
+        requireNonNull(commandHandlerMethods, "commandHandlerMethods is required");
+        if (commands.size() != commandHandlerMethods.size()) { throw new IllegalArgumentException("Every command needs a commandHandlerMethod"); }
+
+        List<Result<Boolean>> results = new ArrayList<>(Collections.nCopies(commands.size(), Result.of(false)));
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        Map<String, AggregateRoot> aggregateRoots = new HashMap<>();
+        Map<String, UUID> aggregateIds = new HashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            Optional<AggregateRoot> optAggregateRoot = AggregateUtils.createFromCommandHandlerMethod(commandHandlerMethods.get(i));
+            Optional<UUID> optAggregateId = AggregateIdUtils.getAggregateId(commands.get(i));
+            if (optAggregateRoot.isEmpty() || optAggregateId.isEmpty()) {
+                continue;
+            }
+
+            String key = optAggregateRoot.get().getTargetClassName() + "-" + optAggregateId.get();
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            aggregateRoots.putIfAbsent(key, optAggregateRoot.get());
+            aggregateIds.putIfAbsent(key, optAggregateId.get());
+        }
+
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        groups.forEach((key, indexes) -> {
+            List<Command> groupCommands = indexes.stream().map(commands::get).collect(toList());
+            List<Method> groupMethods = indexes.stream().map(commandHandlerMethods::get).collect(toList());
+            UUID aggregateId = aggregateIds.get(key);
+            CompletableFuture<List<Result<Boolean>>> processed = aggregateMailbox.submit(aggregateId, () -> streamProcessor.processBatchAsync(groupCommands, groupMethods, aggregateRoots.get(key), aggregateId));
+            pending.add(processed.thenAccept(groupResults -> {
+                for (int i = 0; i < indexes.size(); i++) {
+                    results.set(indexes.get(i), groupResults.get(i));
+                }
+            }));
+        });
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        return results;
+    }
+
     /**
      * It takes a command, a command handler method, an aggregate root and an aggregate root id. Then it
-     * invokes the AggregateRoot lifecycle and returns a result of a boolean
+     * invokes the AggregateRoot lifecycle through the mailbox of the aggregate, so commands for the
+     * same aggregate never race each other, and returns a result of a boolean
      *
      * @param command The command to be processed
      * @param commandHandlerMethod The method that will be invoked to process the command.
@@ -60,6 +143,6 @@ public class AggregateStateCommandProcessor {
      */
     Result<Boolean> process(Command command, Method commandHandlerMethod, AggregateRoot aggregateRoot, UUID aggregateRootId) throws ValidationException {
         log.debug("Processing command {}", command.getClass().getSimpleName());
-        return streamProcessor.process(command, commandHandlerMethod, aggregateRoot, aggregateRootId);
+        return aggregateMailbox.execute(aggregateRootId, () -> streamProcessor.process(command, commandHandlerMethod, aggregateRoot, aggregateRootId));
     }
 }
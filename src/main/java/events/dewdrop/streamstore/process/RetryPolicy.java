@@ -0,0 +1,53 @@
+package events.dewdrop.streamstore.process;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * How often a command is retried after a concurrency conflict and how long to wait in between. The
+ * wait grows exponentially from the initial backoff up to the max backoff, and a random point in
+ * that window is picked so competing writers don't retry in lockstep.
+ */
+@Getter
+public class RetryPolicy {
+    private static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 10L;
+    private static final long DEFAULT_MAX_BACKOFF_MILLIS = 1000L;
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    @Builder(buildMethodName = "create")
+    public RetryPolicy(Integer maxAttempts, Long initialBackoffMillis, Long maxBackoffMillis) {
+        this.maxAttempts = Math.max(Optional.ofNullable(maxAttempts).orElse(1), 1);
+        this.initialBackoffMillis = Optional.ofNullable(initialBackoffMillis).filter(backoff -> backoff > 0).orElse(DEFAULT_INITIAL_BACKOFF_MILLIS);
+        this.maxBackoffMillis = Math.max(Optional.ofNullable(maxBackoffMillis).filter(backoff -> backoff > 0).orElse(DEFAULT_MAX_BACKOFF_MILLIS), this.initialBackoffMillis);
+    }
+
+    public static RetryPolicy none() {
+        return RetryPolicy.builder().maxAttempts(1).create();
+    }
+
+    public boolean isEnabled() {
+        return maxAttempts > 1;
+    }
+
+    /**
+     * @param attempt The attempt that just failed, starting at 1
+     * @return true if there is another attempt left
+     */
+    public boolean shouldRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    /**
+     * @param attempt The attempt that just failed, starting at 1
+     * @return A random wait between 0 and the exponential backoff for the attempt
+     */
+    public long backoffMillis(int attempt) {
+        long window = initialBackoffMillis << Math.min(Math.max(attempt - 1, 0), 20);
+        return ThreadLocalRandom.current().nextLong(Math.min(window, maxBackoffMillis) + 1);
+    }
+}
@@ -0,0 +1,82 @@
+package events.dewdrop.streamstore.repository;
+
+import events.dewdrop.aggregate.AggregateRoot;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * A bounded LRU cache of hydrated AggregateRoots keyed by stream name. Each cached AggregateRoot
+ * carries the version it was hydrated to, so a hit only has to read the events written after that
+ * version.
+ * <p>
+ * An AggregateRoot is removed from the cache while a command is working on it and only put back
+ * once its events have been saved. That way two commands never share an instance, and a command
+ * that fails leaves nothing behind.
+ */
+@Log4j2
+public class AggregateRootCache {
+    private final int maxSize;
+    private final Map<String, AggregateRoot> cache;
+
+    private AggregateRootCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AggregateRoot> eldest) {
+                return size() > AggregateRootCache.this.maxSize;
+            }
+        });
+    }
+
+    public static AggregateRootCache getInstance(int maxSize) {
+        return new AggregateRootCache(maxSize);
+    }
+
+    public static AggregateRootCache disabled() {
+        return new AggregateRootCache(0);
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Takes the cached AggregateRoot for the stream out of the cache.
+     *
+     * @param streamName The name of the aggregate stream
+     * @return The cached AggregateRoot, if there is one
+     */
+    public Optional<AggregateRoot> checkout(String streamName) {
+        if (!isEnabled() || streamName == null) { return Optional.empty(); }
+
+        Optional<AggregateRoot> aggregateRoot = Optional.ofNullable(cache.remove(streamName));
+        aggregateRoot.ifPresent(root -> log.debug("Using cached aggregateRoot for stream:{} at version:{}", streamName, root.getVersion()));
+        return aggregateRoot;
+    }
+
+    /**
+     * Puts a saved AggregateRoot back into the cache. If another command put back a newer version of
+     * the same stream in the meantime, the newer one is kept.
+     *
+     * @param streamName The name of the aggregate stream
+     * @param aggregateRoot The AggregateRoot after its events were saved
+     */
+    public void checkin(String streamName, AggregateRoot aggregateRoot) {
+        if (!isEnabled() || streamName == null || aggregateRoot == null) { return; }
+        if (aggregateRoot.getRecorder().hasRecordedEvents()) { return; }
+
+        cache.merge(streamName, aggregateRoot, (existing, candidate) -> candidate.getVersion() >= existing.getVersion() ? candidate : existing);
+    }
+
+    public void evict(String streamName) {
+        if (streamName == null) { return; }
+        cache.remove(streamName);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
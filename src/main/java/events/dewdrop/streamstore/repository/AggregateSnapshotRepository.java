@@ -0,0 +1,120 @@
+package events.dewdrop.streamstore.repository;
+
+import events.dewdrop.aggregate.AggregateRoot;
+import events.dewdrop.structure.StreamNameGenerator;
+import events.dewdrop.structure.datastore.StreamStore;
+import events.dewdrop.structure.events.AggregateSnapshot;
+import events.dewdrop.structure.events.StreamReadResults;
+import events.dewdrop.structure.events.WriteEventData;
+import events.dewdrop.structure.read.Direction;
+import events.dewdrop.structure.read.ReadRequest;
+import events.dewdrop.structure.serialize.EventSerializer;
+import events.dewdrop.structure.write.WriteRequest;
+import events.dewdrop.utils.AggregateUtils;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Reads and writes snapshots of aggregates annotated with {@code @Aggregate(snapshotInterval = n)}.
+ * Snapshots are written to their own stream, so the aggregate stream stays the source of truth and
+ * a missing or unreadable snapshot simply falls back to a full replay.
+ */
+@Log4j2
+public class AggregateSnapshotRepository {
+    private final StreamStore streamStore;
+    private final EventSerializer eventSerializer;
+    private final StreamNameGenerator streamNameGenerator;
+
+    private AggregateSnapshotRepository(StreamStore streamStore, EventSerializer eventSerializer, StreamNameGenerator streamNameGenerator) {
+        this.streamStore = streamStore;
+        this.eventSerializer = eventSerializer;
+        this.streamNameGenerator = streamNameGenerator;
+    }
+
+    public static AggregateSnapshotRepository getInstance(StreamStore streamStore, EventSerializer eventSerializer, StreamNameGenerator streamNameGenerator) {
+        return new AggregateSnapshotRepository(streamStore, eventSerializer, streamNameGenerator);
+    }
+
+    /**
+     * Snapshots are only taken for aggregates that opted in. An AggregateRoot subclass is its own
+     * target and carries the framework state with it, so it is never snapshotted.
+     *
+     * @param aggregateRoot the aggregateRoot
+     * @return true if the aggregate should be snapshotted
+     */
+    public boolean isEnabled(AggregateRoot aggregateRoot) {
+        if (aggregateRoot.getTarget() == aggregateRoot) { return false; }
+        return AggregateUtils.getSnapshotInterval(aggregateRoot.getTarget().getClass()) > 0;
+    }
+
+    /**
+     * Decides if the last save crossed a snapshot interval boundary. Versions are zero based, so
+     * version + 1 is the number of events in the stream.
+     *
+     * @param aggregateRoot the aggregateRoot after its events were taken
+     * @param previousVersion the version of the aggregateRoot before the save
+     * @return true if a snapshot should be written
+     */
+    public boolean isSnapshotDue(AggregateRoot aggregateRoot, long previousVersion) {
+        if (!isEnabled(aggregateRoot)) { return false; }
+        int interval = AggregateUtils.getSnapshotInterval(aggregateRoot.getTarget().getClass());
+        return (aggregateRoot.getVersion() + 1) / interval > (previousVersion + 1) / interval;
+    }
+
+    public Optional<AggregateSnapshot> getLatest(AggregateRoot aggregateRoot, UUID id) {
+        if (!isEnabled(aggregateRoot)) { return Optional.empty(); }
+
+        return toSnapshot(aggregateRoot, streamStore.read(latestRequest(aggregateRoot, id)));
+    }
+
+    public CompletableFuture<Optional<AggregateSnapshot>> getLatestAsync(AggregateRoot aggregateRoot, UUID id) {
+        if (!isEnabled(aggregateRoot)) { return CompletableFuture.completedFuture(Optional.empty()); }
+
+        return streamStore.readAsync(latestRequest(aggregateRoot, id)).thenApply(readResults -> toSnapshot(aggregateRoot, readResults));
+    }
+
+    ReadRequest latestRequest(AggregateRoot aggregateRoot, UUID id) {
+        return new ReadRequest(streamName(aggregateRoot, id), 0L, 1L, Direction.BACKWARD);
+    }
+
+    Optional<AggregateSnapshot> toSnapshot(AggregateRoot aggregateRoot, StreamReadResults readResults) {
+        if (!readResults.isStreamExists() || readResults.getEvents().isEmpty()) { return Optional.empty(); }
+
+        Optional<AggregateSnapshot> snapshot = eventSerializer.deserializeSnapshot(readResults.getEvents().get(0));
+        if (snapshot.isPresent() && snapshot.get().getState().getClass() != aggregateRoot.getTarget().getClass()) {
+            log.warn("Ignoring snapshot of type:{} for aggregate:{}", snapshot.get().getState().getClass().getName(), aggregateRoot.getTargetClassName());
+            return Optional.empty();
+        }
+        return snapshot;
+    }
+
+    public void save(AggregateRoot aggregateRoot, UUID id) {
+        Optional<WriteRequest> request = snapshotRequest(aggregateRoot, id);
+        request.ifPresent(streamStore::appendToStream);
+    }
+
+    public CompletableFuture<Void> saveAsync(AggregateRoot aggregateRoot, UUID id) {
+        Optional<WriteRequest> request = snapshotRequest(aggregateRoot, id);
+        if (request.isEmpty()) { return CompletableFuture.completedFuture(null); }
+        return streamStore.appendToStreamAsync(request.get()).thenAccept(revision -> log.debug("Saved snapshot for aggregate:{}, with ID:{} at revision:{}", aggregateRoot.getTargetClassName(), id, revision));
+    }
+
+    Optional<WriteRequest> snapshotRequest(AggregateRoot aggregateRoot, UUID id) {
+        AggregateSnapshot snapshot = new AggregateSnapshot(aggregateRoot.getVersion(), aggregateRoot.getTarget());
+        Optional<WriteEventData> snapshotData = eventSerializer.serializeSnapshot(snapshot);
+        if (snapshotData.isEmpty()) {
+            log.warn("Unable to serialize snapshot for aggregate:{}, with ID:{}", aggregateRoot.getTargetClassName(), id);
+            return Optional.empty();
+        }
+
+        // snapshots are advisory, so there is no expected version to enforce
+        return Optional.of(new WriteRequest(streamName(aggregateRoot, id), null, List.of(snapshotData.get())));
+    }
+
+    String streamName(AggregateRoot aggregateRoot, UUID id) {
+        return streamNameGenerator.generateForSnapshot(aggregateRoot.getTarget().getClass().getSimpleName(), id);
+    }
+}
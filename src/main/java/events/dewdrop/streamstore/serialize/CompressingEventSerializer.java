@@ -0,0 +1,213 @@
+package events.dewdrop.streamstore.serialize;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.events.AggregateSnapshot;
+import events.dewdrop.structure.events.ReadEventData;
+import events.dewdrop.structure.events.WriteEventData;
+import events.dewdrop.structure.serialize.EventSerializer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import lombok.Builder;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * An EventSerializer that compresses the payload of large events and snapshots with Deflate before
+ * they are written. Payloads smaller than the threshold, or that do not get smaller, are left as
+ * they are, so small events pay nothing.
+ * <p>
+ * A compressed payload is stored as binary and its metadata records the codec, whether the original
+ * payload was JSON, and its uncompressed length. On the read side only binary events can be
+ * compressed, so JSON events are handed straight to the wrapped serializer and binary events are
+ * only inflated when the metadata says so.
+ */
+@Log4j2
+public class CompressingEventSerializer implements EventSerializer {
+    public static final String COMPRESSION = "compression";
+    public static final String COMPRESSED_JSON = "compressedJson";
+    public static final String UNCOMPRESSED_LENGTH = "uncompressedLength";
+    static final String DEFLATE = "deflate";
+    private static final int DEFAULT_THRESHOLD_BYTES = 4096;
+
+    private final EventSerializer eventSerializer;
+    private final int thresholdBytes;
+    private final int level;
+    private final JsonFactory jsonFactory;
+    private final ObjectReader metadataReader;
+    private final ObjectWriter metadataWriter;
+
+    @Builder(buildMethodName = "create")
+    public CompressingEventSerializer(EventSerializer eventSerializer, ObjectMapper objectMapper, Integer thresholdBytes, Integer level) {
+        requireNonNull(eventSerializer, "EventSerializer is required");
+        requireNonNull(objectMapper, "ObjectMapper is required");
+
+        this.eventSerializer = eventSerializer;
+        this.thresholdBytes = Optional.ofNullable(thresholdBytes).filter(threshold -> threshold > 0).orElse(DEFAULT_THRESHOLD_BYTES);
+        this.level = Optional.ofNullable(level).filter(value -> value >= Deflater.DEFAULT_COMPRESSION && value <= Deflater.BEST_COMPRESSION).orElse(Deflater.BEST_SPEED);
+        this.jsonFactory = objectMapper.getFactory();
+        this.metadataReader = objectMapper.readerFor(LinkedHashMap.class);
+        this.metadataWriter = objectMapper.writerFor(Map.class);
+    }
+
+    @Override
+    public Optional<WriteEventData> serialize(Object event, Map<String, Object> headers) {
+        return eventSerializer.serialize(event, headers).map(this::compress);
+    }
+
+    @Override
+    public Optional<WriteEventData> serialize(Object event) {
+        return eventSerializer.serialize(event).map(this::compress);
+    }
+
+    @Override
+    public List<Optional<WriteEventData>> serializeAll(List<?> events, Map<String, Object> headers) {
+        return eventSerializer.serializeAll(events, headers).stream().map(serialized -> serialized.map(this::compress)).collect(toList());
+    }
+
+    @Override
+    public <T extends Event> Optional<T> deserialize(ReadEventData event) {
+        return decompress(event).flatMap(eventSerializer::deserialize);
+    }
+
+    @Override
+    public Optional<WriteEventData> serializeSnapshot(AggregateSnapshot snapshot) {
+        return eventSerializer.serializeSnapshot(snapshot).map(this::compress);
+    }
+
+    @Override
+    public Optional<AggregateSnapshot> deserializeSnapshot(ReadEventData snapshot) {
+        return decompress(snapshot).flatMap(eventSerializer::deserializeSnapshot);
+    }
+
+    WriteEventData compress(WriteEventData eventData) {
+        byte[] data = eventData.getData();
+        if (data == null || data.length < thresholdBytes) { return eventData; }
+
+        byte[] compressed = deflate(data);
+        if (compressed.length >= data.length) { return eventData; }
+
+        try {
+            Map<String, Object> metadata = Optional.ofNullable(eventData.getMetadata()).filter(bytes -> bytes.length > 0).map(this::readMetadata).orElseGet(LinkedHashMap::new);
+            metadata.put(COMPRESSION, DEFLATE);
+            metadata.put(COMPRESSED_JSON, eventData.isJson());
+            metadata.put(UNCOMPRESSED_LENGTH, data.length);
+            log.debug("Compressed {} from {} to {} bytes", eventData.getEventType(), data.length, compressed.length);
+            return new WriteEventData(eventData.getEventId(), eventData.getEventType(), false, compressed, metadataWriter.writeValueAsBytes(metadata));
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Unable to mark {} as compressed - writing it uncompressed", eventData.getEventType(), e);
+            return eventData;
+        }
+    }
+
+    Optional<ReadEventData> decompress(ReadEventData event) {
+        if (event.isJson() || event.getMetadata() == null) { return Optional.of(event); }
+
+        try {
+            Compression compression = readCompression(event.getMetadata());
+            if (compression == null) { return Optional.of(event); }
+
+            byte[] data = inflate(event.getData(), compression.uncompressedLength);
+            return Optional.of(new ReadEventData(event.getEventStreamId(), event.getEventId(), event.getEventNumber(), event.getEventType(), data, event.getMetadata(), compression.json, event.getCreated()));
+        } catch (IOException | DataFormatException e) {
+            log.error("Unable to decompress event {} - eventType:{}", event.getEventId(), event.getEventType(), e);
+            return Optional.empty();
+        }
+    }
+
+    private Map<String, Object> readMetadata(byte[] metadata) {
+        try {
+            return metadataReader.readValue(metadata);
+        } catch (IOException e) {
+            throw new IllegalStateException("Metadata is not a JSON object", e);
+        }
+    }
+
+    // Reads just the compression fields from the metadata, or null when the payload is not compressed
+    private Compression readCompression(byte[] metadata) throws IOException {
+        String codec = null;
+        boolean json = false;
+        int uncompressedLength = -1;
+        try (JsonParser parser = jsonFactory.createParser(metadata)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) { return null; }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (COMPRESSION.equals(name) && value == JsonToken.VALUE_STRING) {
+                    codec = parser.getText();
+                } else if (COMPRESSED_JSON.equals(name) && value.isBoolean()) {
+                    json = parser.getBooleanValue();
+                } else if (UNCOMPRESSED_LENGTH.equals(name) && value == JsonToken.VALUE_NUMBER_INT) {
+                    uncompressedLength = parser.getIntValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        if (codec == null) { return null; }
+        if (!DEFLATE.equals(codec)) { throw new IOException("Unsupported compression: " + codec); }
+        return new Compression(json, uncompressedLength);
+    }
+
+    private byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] data, int uncompressedLength) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] result = new byte[uncompressedLength > 0 ? uncompressedLength : Math.max(64, data.length * 4)];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+                int inflated = inflater.inflate(result, length, result.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) { throw new DataFormatException("Compressed payload is truncated"); }
+                length += inflated;
+            }
+            return length == result.length ? result : Arrays.copyOf(result, length);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static class Compression {
+        private final boolean json;
+        private final int uncompressedLength;
+
+        Compression(boolean json, int uncompressedLength) {
+            this.json = json;
+            this.uncompressedLength = uncompressedLength;
+        }
+    }
+}
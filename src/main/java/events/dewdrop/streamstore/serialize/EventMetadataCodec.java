@@ -0,0 +1,161 @@
+package events.dewdrop.streamstore.serialize;
+
+import static java.util.Objects.requireNonNull;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import events.dewdrop.streamstore.write.StreamWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Reads and writes the JSON metadata that is stored next to every event.
+ * <p>
+ * On the read side only the class name, causationId and correlationId are needed to rebuild an
+ * event, so {@link #decode(byte[])} pulls those three fields out with a streaming parser and skips
+ * everything else instead of building a Map. On the write side the headers of a commit are the same
+ * for every event in it, so {@link #encodeCommit(Map)} serializes them once and each event's
+ * metadata is the event's class name spliced in front of those bytes.
+ */
+public class EventMetadataCodec {
+    private final JsonFactory jsonFactory;
+    private final ObjectReader mapReader;
+    private final ObjectWriter mapWriter;
+
+    public EventMetadataCodec(ObjectMapper objectMapper) {
+        requireNonNull(objectMapper, "ObjectMapper is required");
+
+        this.jsonFactory = objectMapper.getFactory();
+        this.mapReader = objectMapper.readerFor(Map.class);
+        this.mapWriter = objectMapper.writerFor(Map.class);
+    }
+
+    public Map<String, Object> read(byte[] metadata) throws IOException {
+        return mapReader.readValue(metadata);
+    }
+
+    public byte[] write(Map<String, Object> metadata) throws JsonProcessingException {
+        return mapWriter.writeValueAsBytes(metadata);
+    }
+
+    /**
+     * Reads the class name, causationId and correlationId from the metadata of an event.
+     *
+     * @param metadata the metadata bytes
+     * @return the decoded metadata, with null for any field that is missing
+     * @throws IOException if the metadata is not a JSON object
+     */
+    public EventMetadata decode(byte[] metadata) throws IOException {
+        String className = null;
+        UUID causationId = null;
+        UUID correlationId = null;
+        try (JsonParser parser = jsonFactory.createParser(metadata)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) { return new EventMetadata(null, null, null); }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_STRING && JsonSerializer.EVENT_CLASS.equals(name)) {
+                    className = parser.getText();
+                } else if (value == JsonToken.VALUE_STRING && StreamWriter.CAUSATION_ID.equals(name)) {
+                    causationId = UUID.fromString(parser.getText());
+                } else if (value == JsonToken.VALUE_STRING && StreamWriter.CORRELATION_ID.equals(name)) {
+                    correlationId = UUID.fromString(parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new EventMetadata(className, causationId, correlationId);
+    }
+
+    /**
+     * Serializes the headers of a commit once so they can be shared by every event in it.
+     *
+     * @param headers the commit headers
+     * @return the encoded commit headers
+     * @throws JsonProcessingException if the headers cannot be serialized
+     */
+    public CommitMetadata encodeCommit(Map<String, Object> headers) throws JsonProcessingException {
+        if (headers.containsKey(JsonSerializer.EVENT_CLASS)) { return new CommitMetadata(write(headers), null); }
+
+        byte[] encoded = write(headers);
+        // the fields of the object without its braces, empty when there are no headers
+        byte[] fields = headers.isEmpty() ? new byte[0] : Arrays.copyOfRange(encoded, indexOf(encoded, '{') + 1, lastIndexOf(encoded, '}'));
+        return new CommitMetadata(null, fields);
+    }
+
+    /**
+     * The start of the metadata of an event of the given class: an open JSON object holding just the
+     * EventFullClassName field. It is computed once per event class.
+     *
+     * @param className the full class name of the event
+     * @return the bytes of the open object
+     * @throws JsonProcessingException if the class name cannot be serialized
+     */
+    byte[] classNameHeader(String className) throws JsonProcessingException {
+        byte[] encoded = write(Map.of(JsonSerializer.EVENT_CLASS, className));
+        return Arrays.copyOfRange(encoded, 0, lastIndexOf(encoded, '}'));
+    }
+
+    private static int indexOf(byte[] bytes, char c) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == c) { return i; }
+        }
+        throw new IllegalStateException("Metadata is not a JSON object");
+    }
+
+    private static int lastIndexOf(byte[] bytes, char c) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] == c) { return i; }
+        }
+        throw new IllegalStateException("Metadata is not a JSON object");
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class EventMetadata {
+        private final String className;
+        private final UUID causationId;
+        private final UUID correlationId;
+    }
+
+    /**
+     * The headers of one commit, serialized once. When the headers already carry the class name every
+     * event gets the same metadata, otherwise each event gets its class name header followed by the
+     * commit's fields.
+     */
+    public static class CommitMetadata {
+        private final byte[] complete;
+        private final byte[] fields;
+
+        CommitMetadata(byte[] complete, byte[] fields) {
+            this.complete = complete;
+            this.fields = fields;
+        }
+
+        public byte[] forEvent(byte[] classNameHeader) {
+            if (complete != null) { return complete; }
+
+            int length = classNameHeader.length + (fields.length > 0 ? fields.length + 1 : 0) + 1;
+            byte[] metadata = Arrays.copyOf(classNameHeader, length);
+            int position = classNameHeader.length;
+            if (fields.length > 0) {
+                metadata[position++] = ',';
+                System.arraycopy(fields, 0, metadata, position, fields.length);
+                position += fields.length;
+            }
+            metadata[position] = '}';
+            return metadata;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package events.dewdrop.streamstore.serialize;
+
+import static java.util.Objects.requireNonNull;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.utils.ReflectionsConfigUtils;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Holds an ObjectReader and ObjectWriter per event class, bound once to the ObjectMapper so Jackson
+ * does not have to look the (de)serializer up again for every event. Types are keyed by their full
+ * class name, which is what the EventFullClassName metadata carries, and by their event type (the
+ * simple name EventStore records the event under).
+ * <p>
+ * The registry is populated at startup from the scanned Event subclasses. A class name that is not
+ * registered yet, for example the state class of a snapshot, is resolved and registered the first
+ * time it is seen.
+ */
+@Log4j2
+public class EventTypeRegistry {
+    private final ObjectMapper objectMapper;
+    private final Map<String, Optional<EventType>> byClassName = new ConcurrentHashMap<>();
+    private final Map<String, EventType> byEventType = new ConcurrentHashMap<>();
+    private final Set<String> ambiguousEventTypes = ConcurrentHashMap.newKeySet();
+    @Getter
+    private final EventMetadataCodec metadataCodec;
+
+    public EventTypeRegistry(ObjectMapper objectMapper) {
+        requireNonNull(objectMapper, "ObjectMapper is required");
+
+        this.objectMapper = objectMapper;
+        this.metadataCodec = new EventMetadataCodec(objectMapper);
+    }
+
+    /**
+     * Creates a registry with every concrete Event subclass found by the classpath scan in
+     * ReflectionsConfigUtils.
+     *
+     * @param objectMapper the ObjectMapper to bind the readers and writers to
+     * @return the populated registry
+     */
+    public static EventTypeRegistry fromScannedEvents(ObjectMapper objectMapper) {
+        EventTypeRegistry registry = new EventTypeRegistry(objectMapper);
+        if (ReflectionsConfigUtils.REFLECTIONS == null) { return registry; }
+
+        Set<Class<? extends Event>> events = ReflectionsConfigUtils.REFLECTIONS.getSubTypesOf(Event.class);
+        events.stream().filter(event -> !ReflectionsConfigUtils.EXCLUDE_PACKAGES.contains(event.getPackageName())).filter(event -> !Modifier.isAbstract(event.getModifiers())).forEach(registry::register);
+        log.info("Registered {} event types", registry.size());
+        return registry;
+    }
+
+    public EventType register(Class<?> type) {
+        requireNonNull(type, "Type is required");
+
+        return byClassName.compute(type.getName(), (className, existing) -> existing != null && existing.isPresent() ? existing : Optional.of(create(type))).get();
+    }
+
+    /**
+     * Returns the registered type for the class, registering it if this is the first time it is seen.
+     *
+     * @param type the class of the event
+     * @return the event type
+     */
+    public EventType forClass(Class<?> type) {
+        Optional<EventType> eventType = byClassName.get(type.getName());
+        if (eventType != null && eventType.isPresent()) { return eventType.get(); }
+        return register(type);
+    }
+
+    /**
+     * Returns the registered type for the full class name. A class name that is not registered is
+     * loaded and registered, and a class name that cannot be loaded is remembered as missing.
+     *
+     * @param className the full class name of the event
+     * @return the event type, or empty if there is no such class
+     */
+    public Optional<EventType> forClassName(String className) {
+        return byClassName.computeIfAbsent(className, name -> {
+            try {
+                return Optional.of(create(Class.forName(name)));
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.error("Unable to find the event class:{}", name, e);
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Returns the registered type for the event type name. Event types that were registered by more
+     * than one class are ambiguous and are never returned.
+     *
+     * @param eventType the event type as stored in EventStore
+     * @return the event type, or empty if it is unknown or ambiguous
+     */
+    public Optional<EventType> forEventType(String eventType) {
+        if (eventType == null || ambiguousEventTypes.contains(eventType)) { return Optional.empty(); }
+        return Optional.ofNullable(byEventType.get(eventType));
+    }
+
+    public int size() {
+        return (int) byClassName.values().stream().filter(Optional::isPresent).count();
+    }
+
+    private EventType create(Class<?> type) {
+        EventType eventType = new EventType(type, objectMapper.readerFor(type), objectMapper.writerFor(type), classNameHeader(type));
+        EventType existing = byEventType.putIfAbsent(eventType.getEventType(), eventType);
+        if (existing != null && existing.getType() != type) {
+            log.warn("The event type {} is used by both {} and {} - it can only be resolved by its full class name", eventType.getEventType(), existing.getType().getName(), type.getName());
+            ambiguousEventTypes.add(eventType.getEventType());
+        }
+        return eventType;
+    }
+
+    private byte[] classNameHeader(Class<?> type) {
+        try {
+            return metadataCodec.classNameHeader(type.getName());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize the class name of " + type.getName(), e);
+        }
+    }
+
+    @Getter
+    public static class EventType {
+        private final Class<?> type;
+        private final String eventType;
+        private final ObjectReader reader;
+        private final ObjectWriter writer;
+        private final byte[] classNameHeader;
+
+        EventType(Class<?> type, ObjectReader reader, ObjectWriter writer, byte[] classNameHeader) {
+            this.type = type;
+            this.eventType = type.getSimpleName();
+            this.reader = reader;
+            this.writer = writer;
+            this.classNameHeader = classNameHeader;
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package events.dewdrop.streamstore.serialize;
 
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import events.dewdrop.streamstore.serialize.EventMetadataCodec.CommitMetadata;
+import events.dewdrop.streamstore.serialize.EventMetadataCodec.EventMetadata;
+import events.dewdrop.streamstore.serialize.EventTypeRegistry.EventType;
 import events.dewdrop.streamstore.write.StreamWriter;
 import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.events.AggregateSnapshot;
 import events.dewdrop.structure.events.ReadEventData;
 import events.dewdrop.structure.events.WriteEventData;
 import events.dewdrop.structure.serialize.EventSerializer;
@@ -18,11 +31,26 @@ import org.apache.commons.lang3.StringUtils;
 
 @Log4j2
 public class JsonSerializer implements EventSerializer {
-    private ObjectMapper objectMapper;
+    private final EventTypeRegistry eventTypeRegistry;
+    private final SmileFactory smileFactory = new SmileFactory();
+    private final boolean binary;
     public static final String EVENT_CLASS = "EventFullClassName";
+    public static final String SNAPSHOT_SUFFIX = "Snapshot";
+    private static final EventMetadata EMPTY_METADATA = new EventMetadata(null, null, null);
 
     public JsonSerializer(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this(new EventTypeRegistry(objectMapper));
+    }
+
+    public JsonSerializer(EventTypeRegistry eventTypeRegistry) {
+        this(eventTypeRegistry, false);
+    }
+
+    protected JsonSerializer(EventTypeRegistry eventTypeRegistry, boolean binary) {
+        requireNonNull(eventTypeRegistry, "EventTypeRegistry is required");
+
+        this.eventTypeRegistry = eventTypeRegistry;
+        this.binary = binary;
     }
 
     @Override
@@ -36,59 +64,175 @@ public class JsonSerializer implements EventSerializer {
 
         headers.computeIfAbsent(EVENT_CLASS, name -> event.getClass().getName());
 
-        String typeName = event.getClass().getSimpleName();
+        EventType eventType = eventTypeRegistry.forClass(event.getClass());
+        String typeName = eventType.getEventType();
 
         try {
-            byte[] metadata = objectMapper.writeValueAsBytes(headers);
-            byte[] data = objectMapper.writeValueAsBytes(event);
-            WriteEventData writeEventData = new WriteEventData(UUID.randomUUID(), typeName, true, data, metadata);
+            byte[] metadata = eventTypeRegistry.getMetadataCodec().write(headers);
+            byte[] data = writeData(eventType, event);
+            WriteEventData writeEventData = new WriteEventData(UUID.randomUUID(), typeName, !binary, data, metadata);
             return Optional.of(writeEventData);
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("problem serializing json for type:" + typeName, e);
             return Optional.empty();
         }
     }
 
+    /**
+     * Serializes the events of one commit. The headers are encoded once and shared by every event, each
+     * event only adds its own class name to them.
+     *
+     * @param events the events of the commit
+     * @param headers the commit headers
+     * @return the serialized events in the same order, empty for an event that could not be serialized
+     */
+    @Override
+    public List<Optional<WriteEventData>> serializeAll(List<?> events, Map<String, Object> headers) {
+        CommitMetadata commitMetadata;
+        try {
+            commitMetadata = eventTypeRegistry.getMetadataCodec().encodeCommit(Optional.ofNullable(headers).orElse(Map.of()));
+        } catch (JsonProcessingException e) {
+            log.error("problem serializing commit headers", e);
+            return events.stream().map(event -> Optional.<WriteEventData>empty()).collect(toList());
+        }
+
+        List<Optional<WriteEventData>> serialized = new ArrayList<>(events.size());
+        for (Object event : events) {
+            EventType eventType = eventTypeRegistry.forClass(event.getClass());
+            try {
+                byte[] data = writeData(eventType, event);
+                byte[] metadata = commitMetadata.forEvent(eventType.getClassNameHeader());
+                serialized.add(Optional.of(new WriteEventData(UUID.randomUUID(), eventType.getEventType(), !binary, data, metadata)));
+            } catch (IOException e) {
+                log.error("problem serializing json for type:" + eventType.getEventType(), e);
+                serialized.add(Optional.empty());
+            }
+        }
+        return serialized;
+    }
+
     @Override
     public <T extends Event> Optional<T> deserialize(ReadEventData event) {
-        Map<String, Object> metadata = new HashMap<>();
+        EventMetadata metadata = EMPTY_METADATA;
         try {
-            metadata = objectMapper.readValue(event.getMetadata(), Map.class);
-        } catch (IOException e) {
+            metadata = eventTypeRegistry.getMetadataCodec().decode(event.getMetadata());
+        } catch (IOException | IllegalArgumentException e) {
             Integer length = event.getMetadata() == null ? 0 : event.getMetadata().length;
 
             log.error("problem deserialize metadata for event {} - size of metaData:{}", event.getEventType(), length, e);
         }
-        String className = (String) metadata.get(EVENT_CLASS);
+        String className = metadata.getClassName();
         if (StringUtils.isBlank(className)) {
-            log.error("className not found for eventType:{}", event.getEventType());
-            return Optional.empty();
+            Optional<EventType> eventType = eventTypeRegistry.forEventType(event.getEventType());
+            if (eventType.isEmpty()) {
+                log.error("className not found for eventType:{}", event.getEventType());
+                return Optional.empty();
+            }
+            className = eventType.get().getType().getName();
         }
 
         return deserializeEvent(event, className, metadata);
     }
 
     public <T extends Event> Optional<T> deserializeEvent(ReadEventData event, String className, Map<String, Object> metadata) {
+        UUID causationId = metadata.containsKey(StreamWriter.CAUSATION_ID) ? UUID.fromString((String) metadata.get(StreamWriter.CAUSATION_ID)) : null;
+        UUID correlationId = metadata.containsKey(StreamWriter.CORRELATION_ID) ? UUID.fromString((String) metadata.get(StreamWriter.CORRELATION_ID)) : null;
+        return deserializeEvent(event, className, new EventMetadata(className, causationId, correlationId));
+    }
+
+    <T extends Event> Optional<T> deserializeEvent(ReadEventData event, String className, EventMetadata metadata) {
+        Optional<EventType> eventType = eventTypeRegistry.forClassName(className);
+        if (eventType.isEmpty()) {
+            log.error("Unable to deserialize data - class not found:" + className);
+            return Optional.empty();
+        }
+
         try {
-            T value = (T) objectMapper.readValue(event.getData(), Class.forName(className));
+            T value = readData(eventType.get(), event);
             value.setEventId(event.getEventId());
             value.setPosition(event.getEventNumber());
             value.setCreated(event.getCreated());
-            if (metadata.containsKey(StreamWriter.CAUSATION_ID)) {
-                String uuid = (String) metadata.get(StreamWriter.CAUSATION_ID);
-                value.setCausationId(UUID.fromString(uuid));
+            if (metadata.getCausationId() != null) {
+                value.setCausationId(metadata.getCausationId());
             }
-            if (metadata.containsKey(StreamWriter.CORRELATION_ID)) {
-                String uuid = (String) metadata.get(StreamWriter.CORRELATION_ID);
-                value.setCorrelationId(UUID.fromString(uuid));
+            if (metadata.getCorrelationId() != null) {
+                value.setCorrelationId(metadata.getCorrelationId());
             }
             return Optional.of(value);
         } catch (IOException e) {
             log.error("Unable to deserialize data for class:" + className, e);
             return Optional.empty();
-        } catch (ClassNotFoundException e) {
-            log.error("Unable to deserialize data - class not found:" + className, e);
+        }
+    }
+
+    @Override
+    public Optional<WriteEventData> serializeSnapshot(AggregateSnapshot snapshot) {
+        Object state = snapshot.getState();
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(EVENT_CLASS, state.getClass().getName());
+        headers.put(StreamWriter.AGGREGATE_VERSION, snapshot.getVersion());
+
+        EventType stateType = eventTypeRegistry.forClass(state.getClass());
+        String typeName = stateType.getEventType() + SNAPSHOT_SUFFIX;
+
+        try {
+            byte[] metadata = eventTypeRegistry.getMetadataCodec().write(headers);
+            byte[] data = writeData(stateType, state);
+            return Optional.of(new WriteEventData(UUID.randomUUID(), typeName, !binary, data, metadata));
+        } catch (IOException e) {
+            log.error("problem serializing snapshot for type:" + typeName, e);
             return Optional.empty();
         }
     }
+
+    @Override
+    public Optional<AggregateSnapshot> deserializeSnapshot(ReadEventData snapshot) {
+        String className = null;
+        try {
+            Map<String, Object> metadata = eventTypeRegistry.getMetadataCodec().read(snapshot.getMetadata());
+            className = (String) metadata.get(EVENT_CLASS);
+            Object version = metadata.get(StreamWriter.AGGREGATE_VERSION);
+            if (StringUtils.isBlank(className) || !(version instanceof Number)) {
+                log.error("snapshot metadata is incomplete for eventType:{}", snapshot.getEventType());
+                return Optional.empty();
+            }
+
+            Optional<EventType> stateType = eventTypeRegistry.forClassName(className);
+            if (stateType.isEmpty()) {
+                log.error("Unable to deserialize snapshot - class not found:" + className);
+                return Optional.empty();
+            }
+            Object state = readData(stateType.get(), snapshot);
+            return Optional.of(new AggregateSnapshot(((Number) version).longValue(), state));
+        } catch (IOException e) {
+            log.error("Unable to deserialize snapshot for class:" + className, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the payload of an event or snapshot, as JSON or, for a binary serializer, as Smile. The
+     * metadata is always JSON.
+     */
+    private byte[] writeData(EventType eventType, Object value) throws IOException {
+        if (!binary) { return eventType.getWriter().writeValueAsBytes(value); }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = smileFactory.createGenerator(out)) {
+            eventType.getWriter().writeValue(generator, value);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads the payload of an event or snapshot with the codec it was written with, so JSON and Smile
+     * events can be read from the same stream whichever format this serializer writes.
+     */
+    private <T> T readData(EventType eventType, ReadEventData event) throws IOException {
+        if (event.isJson()) { return eventType.getReader().readValue(event.getData()); }
+
+        try (JsonParser parser = smileFactory.createParser(event.getData())) {
+            return eventType.getReader().readValue(parser);
+        }
+    }
 }
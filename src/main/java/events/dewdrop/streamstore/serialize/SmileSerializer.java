@@ -0,0 +1,21 @@
+package events.dewdrop.streamstore.serialize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * An EventSerializer that writes event and snapshot payloads in the Smile binary format and marks
+ * them as non-JSON in EventStore. Smile payloads are typically a third to a half smaller than JSON
+ * and faster to encode and decode. The metadata stays JSON.
+ * <p>
+ * Reads pick the codec per event from ReadEventData.isJson(), so a stream can hold both JSON events
+ * written before switching and Smile events written after.
+ */
+public class SmileSerializer extends JsonSerializer {
+    public SmileSerializer(ObjectMapper objectMapper) {
+        this(new EventTypeRegistry(objectMapper));
+    }
+
+    public SmileSerializer(EventTypeRegistry eventTypeRegistry) {
+        super(eventTypeRegistry, true);
+    }
+}
@@ -97,4 +97,18 @@ public class PrefixStreamNameGenerator implements StreamNameGenerator {
         return builder.toString();
     }
 
+    /**
+     * It takes the aggregate class name, and the ID and generates the name of the stream that holds the
+     * snapshots for that aggregate. Snapshots live in their own category so they never show up in the
+     * category stream of the aggregate. For Example:
+     * DewdropUserAggregateSnapshot-fc19e182-045a-4f91-9c61-ae081383ed36
+     *
+     * @param aggregateName The class name of the aggregate.
+     * @param id The id of the aggregate
+     * @return A string that is the name of the snapshot stream.
+     */
+    @Override
+    public String generateForSnapshot(String aggregateName, UUID id) {
+        return generateForAggregate(aggregateName + "Snapshot", id);
+    }
 }
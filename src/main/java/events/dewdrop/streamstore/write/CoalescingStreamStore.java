@@ -0,0 +1,249 @@
+package events.dewdrop.streamstore.write;
+
+import static java.util.Objects.requireNonNull;
+
+import events.dewdrop.structure.AppendFailedException;
+import events.dewdrop.structure.ConcurrencyConflictException;
+import events.dewdrop.structure.NoStreamException;
+import events.dewdrop.structure.datastore.StreamStore;
+import events.dewdrop.structure.events.StreamReadResults;
+import events.dewdrop.structure.read.ReadRequest;
+import events.dewdrop.structure.subscribe.SubscribeRequest;
+import events.dewdrop.structure.subscribe.SubscribeToAllRequest;
+import events.dewdrop.structure.write.WriteRequest;
+import events.dewdrop.utils.AsyncUtils;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.Builder;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * A StreamStore that groups the appends of many commands into one dispatch. Appends are collected
+ * until either the window has passed since the first pending append or the batch size is reached,
+ * and then sent to the wrapped StreamStore concurrently, with at most maxInFlight appends
+ * outstanding. Each caller's future completes with the result of its own append.
+ * <p>
+ * The window is the latency/throughput knob: a larger window collects more appends per dispatch at
+ * the cost of holding every append up to that long. Appends to the same stream are kept in the
+ * order they arrived and are never in flight at the same time, also across dispatches: the first
+ * append of a stream in a dispatch waits for the last one of the previous dispatch to complete.
+ * Reads and subscriptions go straight to the wrapped StreamStore.
+ */
+@Log4j2
+public class CoalescingStreamStore implements StreamStore {
+    private static final long DEFAULT_WINDOW_MILLIS = 1L;
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 16;
+    private static final long CLOSE_WAIT_MILLIS = 10000L;
+
+    private final StreamStore streamStore;
+    private final long windowMillis;
+    private final int batchSize;
+    private final Semaphore inFlight;
+    private final ScheduledExecutorService executorService;
+    private final Object lock = new Object();
+    // the last dispatched append of each stream that has one outstanding
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private List<PendingWrite> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    @Builder(buildMethodName = "create")
+    public CoalescingStreamStore(StreamStore streamStore, Long windowMillis, Integer batchSize, Integer maxInFlight) {
+        requireNonNull(streamStore, "StreamStore is required");
+
+        this.streamStore = streamStore;
+        this.windowMillis = Optional.ofNullable(windowMillis).filter(window -> window > 0).orElse(DEFAULT_WINDOW_MILLIS);
+        this.batchSize = Optional.ofNullable(batchSize).filter(size -> size > 0).orElse(DEFAULT_BATCH_SIZE);
+        this.inFlight = new Semaphore(Optional.ofNullable(maxInFlight).filter(max -> max > 0).orElse(DEFAULT_MAX_IN_FLIGHT));
+        this.executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dewdrop-append-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public StreamReadResults read(ReadRequest readRequest) throws NoStreamException {
+        return streamStore.read(readRequest);
+    }
+
+    @Override
+    public boolean subscribeToStream(SubscribeRequest subscribeRequest) throws NoStreamException {
+        return streamStore.subscribeToStream(subscribeRequest);
+    }
+
+    @Override
+    public boolean subscribeToAll(SubscribeToAllRequest subscribeToAllRequest) {
+        return streamStore.subscribeToAll(subscribeToAllRequest);
+    }
+
+    @Override
+    public CompletableFuture<StreamReadResults> readAsync(ReadRequest readRequest) {
+        return streamStore.readAsync(readRequest);
+    }
+
+    @Override
+    public Long appendToStream(WriteRequest writeRequest) {
+        try {
+            return appendToStreamAsync(writeRequest).get();
+        } catch (InterruptedException e) {
+            log.error("Append was interrupted", e);
+            Thread.currentThread().interrupt();
+            throw new AppendFailedException(writeRequest.getStreamName(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = AsyncUtils.unwrap(e);
+            if (cause instanceof ConcurrencyConflictException) { throw (ConcurrencyConflictException) cause; }
+            log.error("Append had an issue", e);
+            throw new AppendFailedException(writeRequest.getStreamName(), cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> appendToStreamAsync(WriteRequest writeRequest) {
+        requireNonNull(writeRequest, "WriteRequest is required");
+
+        PendingWrite write = new PendingWrite(writeRequest);
+        synchronized (lock) {
+            if (closed) { return CompletableFuture.failedFuture(new IllegalStateException("CoalescingStreamStore is closed")); }
+            pending.add(write);
+            if (pending.size() >= batchSize) {
+                cancelScheduledFlush();
+                executorService.execute(this::flush);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executorService.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        return write.result;
+    }
+
+    public int pendingSize() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Dispatches what is pending, stops the dispatch thread and waits up to CLOSE_WAIT_MILLIS for the
+     * outstanding appends to complete. Appends made after this fail right away.
+     */
+    public void close() {
+        synchronized (lock) {
+            if (closed) { return; }
+            closed = true;
+            // a cancelled delayed flush would otherwise hold up the termination until its window passes
+            cancelScheduledFlush();
+        }
+        executorService.execute(this::flush);
+        executorService.shutdown();
+
+        long deadline = System.currentTimeMillis() + CLOSE_WAIT_MILLIS;
+        try {
+            if (!executorService.awaitTermination(CLOSE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("Timed out dispatching the pending appends on close");
+                return;
+            }
+            CompletableFuture<?>[] outstanding = tails.values().toArray(new CompletableFuture<?>[0]);
+            CompletableFuture.allOf(outstanding).get(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            log.warn("Interrupted waiting for the outstanding appends on close");
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for the outstanding appends on close");
+        } catch (ExecutionException e) {
+            // the tails never complete exceptionally, a failed append only fails its own caller
+            log.error("Outstanding append had an issue on close", e);
+        }
+    }
+
+    /**
+     * Dispatches everything that is pending. The appends are grouped by stream, each group is chained
+     * behind the outstanding appends of its stream so its appends go out one after the other, and a
+     * group holds one of the in-flight permits until its last append completes. Waiting for a permit
+     * holds up the flush, which is what keeps the number of outstanding appends bounded.
+     */
+    synchronized void flush() {
+        List<PendingWrite> writes;
+        synchronized (lock) {
+            cancelScheduledFlush();
+            if (pending.isEmpty()) { return; }
+            writes = pending;
+            pending = new ArrayList<>();
+        }
+
+        Map<String, List<PendingWrite>> byStream = new LinkedHashMap<>();
+        for (PendingWrite write : writes) {
+            byStream.computeIfAbsent(write.writeRequest.getStreamName(), stream -> new ArrayList<>()).add(write);
+        }
+        log.debug("Dispatching {} appends to {} streams", writes.size(), byStream.size());
+
+        for (Map.Entry<String, List<PendingWrite>> streamWrites : byStream.entrySet()) {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                streamWrites.getValue().forEach(write -> write.result.completeExceptionally(e));
+                continue;
+            }
+            String stream = streamWrites.getKey();
+            CompletableFuture<Void> previous = tails.getOrDefault(stream, CompletableFuture.completedFuture(null));
+            CompletableFuture<Void> tail = dispatch(previous, streamWrites.getValue());
+            tails.put(stream, tail);
+            tail.whenComplete((done, e) -> {
+                tails.remove(stream, tail);
+                inFlight.release();
+            });
+        }
+    }
+
+    CompletableFuture<Void> dispatch(CompletableFuture<Void> previous, List<PendingWrite> streamWrites) {
+        for (PendingWrite write : streamWrites) {
+            previous = previous.thenCompose(done -> {
+                CompletableFuture<Long> append;
+                try {
+                    append = streamStore.appendToStreamAsync(write.writeRequest);
+                } catch (RuntimeException e) {
+                    append = CompletableFuture.failedFuture(e);
+                }
+                // a failed append only fails its own caller, the next append for the stream still goes out
+                return append.handle((revision, e) -> {
+                    if (e != null) {
+                        write.result.completeExceptionally(AsyncUtils.unwrap(e));
+                    } else {
+                        write.result.complete(revision);
+                    }
+                    return null;
+                });
+            });
+        }
+        return previous;
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    static class PendingWrite {
+        private final WriteRequest writeRequest;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        PendingWrite(WriteRequest writeRequest) {
+            this.writeRequest = writeRequest;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package events.dewdrop.streamstore.write;
 
 import events.dewdrop.aggregate.AggregateRoot;
 import events.dewdrop.read.readmodel.stream.StreamDetails;
+import events.dewdrop.streamstore.repository.AggregateSnapshotRepository;
 import events.dewdrop.structure.datastore.StreamStore;
 import events.dewdrop.structure.events.WriteEventData;
 import events.dewdrop.structure.serialize.EventSerializer;
@@ -14,6 +15,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.log4j.Log4j2;
 
 @Log4j2
@@ -28,6 +30,7 @@ public class StreamWriter {
     public static final String MESSAGE_ID = "messageId";
     public static final String CORRELATION_ID = "correlationId";
     public static final String CAUSATION_ID = "causationId";
+    public static final String AGGREGATE_VERSION = "aggregateVersion";
     private static final int READ_PAGE_SIZE = 500;
 
 
@@ -42,15 +45,96 @@ public class StreamWriter {
     }
 
     public void save(AggregateRoot aggregateRoot) {
+        UUID aggregateId = aggregateId(aggregateRoot);
+
+        long expectedVersion = aggregateRoot.getVersion();
+        WriteRequest request = writeRequest(aggregateRoot, expectedVersion);
+        streamStore.appendToStream(request);
+        saveSnapshotIfDue(aggregateRoot, aggregateId, expectedVersion);
+    }
+
+    /**
+     * The non-blocking version of {@link #save(AggregateRoot)}. A snapshot that is due is written in
+     * the background and never holds up or fails the save.
+     *
+     * @param aggregateRoot The aggregateRoot to save
+     * @return A future that completes with the revision of the last event written
+     */
+    public CompletableFuture<Long> saveAsync(AggregateRoot aggregateRoot) {
+        UUID aggregateId = aggregateId(aggregateRoot);
+
+        long expectedVersion = aggregateRoot.getVersion();
+        WriteRequest request = writeRequest(aggregateRoot, expectedVersion);
+        return streamStore.appendToStreamAsync(request).thenApply(revision -> {
+            saveSnapshotIfDueAsync(aggregateRoot, aggregateId, expectedVersion);
+            return revision;
+        });
+    }
+
+    /**
+     * Serializes the events the aggregateRoot recorded for the command it just executed and clears
+     * them, so the next command can run on the same aggregateRoot with its own correlation and
+     * causation. The version of the aggregateRoot moves past the taken events.
+     *
+     * @param aggregateRoot The aggregateRoot that executed a command
+     * @return The events ready to be appended
+     */
+    public List<WriteEventData> takeEventsToSave(AggregateRoot aggregateRoot) {
+        List<Message> newMessages = aggregateRoot.takeEvents();
+        return generateEventsToSave(aggregateRoot, newMessages);
+    }
+
+    /**
+     * Appends events that were taken with {@link #takeEventsToSave(AggregateRoot)} in a single write.
+     *
+     * @param aggregateRoot The aggregateRoot the events belong to
+     * @param expectedVersion The version of the aggregateRoot before the first event was taken
+     * @param events The events to append
+     * @return A future that completes with the revision of the last event written
+     */
+    public CompletableFuture<Long> saveAsync(AggregateRoot aggregateRoot, long expectedVersion, List<WriteEventData> events) {
+        UUID aggregateId = aggregateId(aggregateRoot);
+
+        WriteRequest request = new WriteRequest(streamDetails.getStreamName(), expectedVersion, events);
+        return streamStore.appendToStreamAsync(request).thenApply(revision -> {
+            saveSnapshotIfDueAsync(aggregateRoot, aggregateId, expectedVersion);
+            return revision;
+        });
+    }
+
+    UUID aggregateId(AggregateRoot aggregateRoot) {
         Optional<UUID> aggregateId = AggregateIdUtils.getAggregateId(aggregateRoot.getTarget());
 
         if (aggregateId.isEmpty()) { throw new IllegalArgumentException("There is no aggregateId to persist"); }
+        return aggregateId.get();
+    }
 
-        long expectedVersion = aggregateRoot.getVersion();
+    WriteRequest writeRequest(AggregateRoot aggregateRoot, long expectedVersion) {
         List<Message> newMessages = aggregateRoot.takeEvents();
         List<WriteEventData> eventsToSave = generateEventsToSave(aggregateRoot, newMessages);
-        WriteRequest request = new WriteRequest(streamDetails.getStreamName(), expectedVersion, eventsToSave);
-        streamStore.appendToStream(request);
+        return new WriteRequest(streamDetails.getStreamName(), expectedVersion, eventsToSave);
+    }
+
+    void saveSnapshotIfDue(AggregateRoot aggregateRoot, UUID aggregateId, long previousVersion) {
+        AggregateSnapshotRepository snapshotRepository = AggregateSnapshotRepository.getInstance(streamStore, eventSerializer, streamDetails.getStreamNameGenerator());
+        if (!snapshotRepository.isSnapshotDue(aggregateRoot, previousVersion)) { return; }
+
+        try {
+            snapshotRepository.save(aggregateRoot, aggregateId);
+        } catch (Exception e) {
+            // the events are already persisted, a missing snapshot only costs a longer replay
+            log.warn("Unable to save snapshot for aggregateRoot:{}, with ID:{}", aggregateRoot.getTargetClassName(), aggregateId, e);
+        }
+    }
+
+    void saveSnapshotIfDueAsync(AggregateRoot aggregateRoot, UUID aggregateId, long previousVersion) {
+        AggregateSnapshotRepository snapshotRepository = AggregateSnapshotRepository.getInstance(streamStore, eventSerializer, streamDetails.getStreamNameGenerator());
+        if (!snapshotRepository.isSnapshotDue(aggregateRoot, previousVersion)) { return; }
+
+        snapshotRepository.saveAsync(aggregateRoot, aggregateId).exceptionally(e -> {
+            log.warn("Unable to save snapshot for aggregateRoot:{}, with ID:{}", aggregateRoot.getTargetClassName(), aggregateId, e);
+            return null;
+        });
     }
 
     Map<String, Object> commitHeaders(AggregateRoot aggregateRoot) {
@@ -69,10 +153,11 @@ public class StreamWriter {
 
     List<WriteEventData> generateEventsToSave(AggregateRoot aggregateRoot, List<Message> newMessages) {
         Map<String, Object> commitHeaders = commitHeaders(aggregateRoot);
+        List<Optional<WriteEventData>> serialized = eventSerializer.serializeAll(newMessages, commitHeaders);
         List<WriteEventData> eventsToSave = new ArrayList<>();
-        for (Message message : newMessages) {
-            Optional<WriteEventData> serializedAggregate = eventSerializer.serialize(message, new HashMap<>(commitHeaders));
-            if (serializedAggregate.isEmpty()) { throw new IllegalStateException("Failed to serialize event: " + message.getClass().getSimpleName()); }
+        for (int i = 0; i < newMessages.size(); i++) {
+            Optional<WriteEventData> serializedAggregate = serialized.get(i);
+            if (serializedAggregate.isEmpty()) { throw new IllegalStateException("Failed to serialize event: " + newMessages.get(i).getClass().getSimpleName()); }
             eventsToSave.add(serializedAggregate.get());
         }
         return eventsToSave;
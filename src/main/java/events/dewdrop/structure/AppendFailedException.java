@@ -0,0 +1,18 @@
+package events.dewdrop.structure;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an append could not be confirmed for any reason other than a concurrency conflict,
+ * such as the store being unreachable or the calling thread being interrupted. None of the events
+ * can be assumed to be written.
+ */
+@Getter
+public class AppendFailedException extends RuntimeException {
+    private final String stream;
+
+    public AppendFailedException(String stream, Throwable cause) {
+        super("Unable to append to stream:" + stream, cause);
+        this.stream = stream;
+    }
+}
@@ -0,0 +1,30 @@
+package events.dewdrop.structure;
+
+import lombok.Data;
+
+/**
+ * Thrown when an append fails the optimistic concurrency check because another writer got to the
+ * stream first.
+ */
+@Data
+public class ConcurrencyConflictException extends RuntimeException {
+    private String stream;
+    private Long expectedVersion;
+    private Long actualVersion;
+
+    public ConcurrencyConflictException(String stream, Long expectedVersion, Long actualVersion) {
+        super(message(stream, expectedVersion, actualVersion));
+        this.stream = stream;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    public boolean isStreamAlreadyExists() {
+        return expectedVersion != null && expectedVersion < 0;
+    }
+
+    private static String message(String stream, Long expectedVersion, Long actualVersion) {
+        if (expectedVersion != null && expectedVersion < 0) { return "Stream:" + stream + " already exists - expected no stream, actualVersion:" + actualVersion; }
+        return "Concurrency conflict on stream:" + stream + " - expectedVersion:" + expectedVersion + ", actualVersion:" + actualVersion;
+    }
+}
@@ -10,4 +10,6 @@ public interface StreamNameGenerator {
     String generateForCategory(String category);
 
     String generateForEvent(String type);
+
+    String generateForSnapshot(String aggregateName, UUID id);
 }
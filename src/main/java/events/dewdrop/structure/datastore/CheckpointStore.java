@@ -0,0 +1,44 @@
+package events.dewdrop.structure.datastore;
+
+import events.dewdrop.structure.subscribe.AllPosition;
+import java.util.Optional;
+
+/**
+ * Remembers how far each read model has handled each of its streams, so a restart resumes the
+ * subscription from there instead of replaying the stream from the start. A position is the
+ * revision of the last event handled, the same value a SubscribeRequest checkpoint takes.
+ * <p>
+ * A stream that is read from $all has no revision to record, so the $all position of its last event
+ * handled is kept instead, as a commit and a prepare position under the key of the stream.
+ */
+public interface CheckpointStore {
+    String ALL_COMMIT_SUFFIX = "/$all/commit";
+    String ALL_PREPARE_SUFFIX = "/$all/prepare";
+
+    Optional<Long> load(String key);
+
+    // May only be buffered - it is durable once flush() has run
+    void save(String key, long position);
+
+    // Called before an event of the stream is handled, and followed by the save of its position once
+    // the event was handled - lets a store that keeps state with the positions wait for that save
+    default void handling(String key) {}
+
+    default Optional<AllPosition> loadAll(String key) {
+        Optional<Long> commit = load(key + ALL_COMMIT_SUFFIX);
+        Optional<Long> prepare = load(key + ALL_PREPARE_SUFFIX);
+        if (commit.isEmpty() || prepare.isEmpty()) { return Optional.empty(); }
+        return Optional.of(new AllPosition(commit.get(), prepare.get()));
+    }
+
+    // The commit position is saved first - if only it is flushed the loaded position pairs it with an
+    // older prepare position, which is before the saved one, so no event is skipped
+    default void saveAll(String key, AllPosition position) {
+        save(key + ALL_COMMIT_SUFFIX, position.getCommit());
+        save(key + ALL_PREPARE_SUFFIX, position.getPrepare());
+    }
+
+    void flush();
+
+    void close();
+}
@@ -4,12 +4,28 @@ import events.dewdrop.structure.NoStreamException;
 import events.dewdrop.structure.events.StreamReadResults;
 import events.dewdrop.structure.read.ReadRequest;
 import events.dewdrop.structure.subscribe.SubscribeRequest;
+import events.dewdrop.structure.subscribe.SubscribeToAllRequest;
 import events.dewdrop.structure.write.WriteRequest;
+import java.util.concurrent.CompletableFuture;
 
 public interface StreamStore {
     StreamReadResults read(ReadRequest readRequest) throws NoStreamException;
 
     boolean subscribeToStream(SubscribeRequest subscribeRequest) throws NoStreamException;
 
-    void appendToStream(WriteRequest writeRequest);
+    // Subscribes to $all with a server side filter - stores that cannot filter $all return false, and
+    // the subscriptions then fall back to their own streams
+    default boolean subscribeToAll(SubscribeToAllRequest subscribeToAllRequest) {
+        return false;
+    }
+
+    // Blocks until every event is written and returns the revision of the last one - a failed append
+    // throws, a ConcurrencyConflictException on a conflict and an AppendFailedException otherwise
+    Long appendToStream(WriteRequest writeRequest);
+
+    CompletableFuture<StreamReadResults> readAsync(ReadRequest readRequest);
+
+    // Completes with the revision of the last event written - a failed append fails the future with
+    // the same exceptions appendToStream throws
+    CompletableFuture<Long> appendToStreamAsync(WriteRequest writeRequest);
 }
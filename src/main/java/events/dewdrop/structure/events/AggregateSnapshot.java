@@ -0,0 +1,18 @@
+package events.dewdrop.structure.events;
+
+import static java.util.Objects.requireNonNull;
+
+import lombok.Getter;
+
+@Getter
+public class AggregateSnapshot {
+    private final long version;
+    private final Object state;
+
+    public AggregateSnapshot(long version, Object state) {
+        requireNonNull(state, "state is required");
+
+        this.version = version;
+        this.state = state;
+    }
+}
@@ -14,10 +14,16 @@ public class ReadEventData {
     protected byte[] metadata;
     private final String eventStreamId;
     private final long eventNumber;
+    // The position in the stream it was read from - the revision of the link for a projected stream
+    private final long position;
     private final Instant created;
     private final long createdEpoch;
 
     public ReadEventData(String eventStreamId, UUID eventId, long eventNumber, String eventType, byte[] data, byte[] metadata, boolean isJson, Instant created) {
+        this(eventStreamId, eventId, eventNumber, eventNumber, eventType, data, metadata, isJson, created);
+    }
+
+    public ReadEventData(String eventStreamId, UUID eventId, long eventNumber, long position, String eventType, byte[] data, byte[] metadata, boolean isJson, Instant created) {
         this.eventId = eventId;
         this.eventType = eventType;
         this.isJson = isJson;
@@ -25,6 +31,7 @@ public class ReadEventData {
         this.metadata = metadata;
         this.eventStreamId = eventStreamId;
         this.eventNumber = eventNumber;
+        this.position = position;
         this.created = created;
         this.createdEpoch = created.toEpochMilli();
     }
@@ -0,0 +1,73 @@
+package events.dewdrop.structure.read;
+
+import events.dewdrop.structure.api.Message;
+import java.util.List;
+import java.util.Objects;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A micro-batch of events handed to an @EventHandler method that takes an EventBatch instead of a
+ * single event, for example {@code @EventHandler void on(EventBatch<AccountCreated> batch)}. The
+ * batch comes with the position in the stream of the last event it covers, so a read model that
+ * writes to its own store can commit the batch and its checkpoint together.
+ * <p>
+ * When it is known, the batch also keeps the position of each of its events, which
+ * {@link #getPosition(int)} returns. A read model with batch handlers for several event types gets
+ * one batch per type, each ending at the position of its own last event.
+ * <p>
+ * The position is -1 when the batch did not come from a single stream, as with a subscription to
+ * $all.
+ */
+@Getter
+@ToString
+public class EventBatch<T extends Message> {
+    public static final long NO_POSITION = -1L;
+
+    private final List<T> events;
+    @Getter(AccessLevel.NONE)
+    private final long[] positions;
+    private final long lastPosition;
+
+    public EventBatch(List<T> events, long lastPosition) {
+        this.events = List.copyOf(events);
+        this.positions = null;
+        this.lastPosition = lastPosition;
+    }
+
+    /**
+     * A batch that knows the position of each of its events. Its last position is the position of its
+     * last event.
+     *
+     * @param events the events of the batch
+     * @param positions the position of each event, in the same order
+     */
+    public EventBatch(List<T> events, long[] positions) {
+        if (events.size() != positions.length) { throw new IllegalArgumentException("There has to be one position per event"); }
+
+        this.events = List.copyOf(events);
+        this.positions = positions.clone();
+        this.lastPosition = positions.length == 0 ? NO_POSITION : positions[positions.length - 1];
+    }
+
+    /**
+     * The position of an event of the batch, or NO_POSITION if it is not known.
+     *
+     * @param index the index of the event in the batch
+     * @return the position of the event
+     */
+    public long getPosition(int index) {
+        Objects.checkIndex(index, events.size());
+        if (positions != null) { return positions[index]; }
+        return index == events.size() - 1 ? lastPosition : NO_POSITION;
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+}
@@ -5,4 +5,7 @@ import events.dewdrop.structure.api.Message;
 public interface Handler<T extends Message> {
     void handle(T event);
 
+    // Called with each micro-batch after its events have been handled one by one
+    default void handleBatch(EventBatch<T> batch) {}
+
 }
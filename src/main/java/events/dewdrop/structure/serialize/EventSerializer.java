@@ -1,8 +1,12 @@
 package events.dewdrop.structure.serialize;
 
 import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.events.AggregateSnapshot;
 import events.dewdrop.structure.events.ReadEventData;
 import events.dewdrop.structure.events.WriteEventData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -11,6 +15,24 @@ public interface EventSerializer {
 
     Optional<WriteEventData> serialize(Object event);
 
+    /**
+     * Serializes the events of one commit, which all share the same headers.
+     *
+     * @param events the events of the commit
+     * @param headers the commit headers
+     * @return the serialized events in the same order, empty for an event that could not be serialized
+     */
+    default List<Optional<WriteEventData>> serializeAll(List<?> events, Map<String, Object> headers) {
+        List<Optional<WriteEventData>> serialized = new ArrayList<>(events.size());
+        for (Object event : events) {
+            serialized.add(serialize(event, new HashMap<>(Optional.ofNullable(headers).orElse(Map.of()))));
+        }
+        return serialized;
+    }
+
     <T extends Event> Optional<T> deserialize(ReadEventData event);
-}
 
+    Optional<WriteEventData> serializeSnapshot(AggregateSnapshot snapshot);
+
+    Optional<AggregateSnapshot> deserializeSnapshot(ReadEventData snapshot);
+}
@@ -0,0 +1,29 @@
+package events.dewdrop.structure.subscribe;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A position in the $all stream, made of the commit and prepare positions of an event in the
+ * transaction log. Positions are ordered by commit position and then by prepare position.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class AllPosition implements Comparable<AllPosition> {
+    private final long commit;
+    private final long prepare;
+
+    public AllPosition(long commit, long prepare) {
+        this.commit = commit;
+        this.prepare = prepare;
+    }
+
+    @Override
+    public int compareTo(AllPosition other) {
+        int byCommit = Long.compareUnsigned(commit, other.commit);
+        if (byCommit != 0) { return byCommit; }
+        return Long.compareUnsigned(prepare, other.prepare);
+    }
+}
@@ -0,0 +1,38 @@
+package events.dewdrop.structure.subscribe;
+
+import events.dewdrop.structure.events.ReadEventData;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * A subscription to the $all stream that the server filters either by event type or by stream name
+ * prefix. Events are read as they were written, without resolving links, and every event comes with
+ * its position in $all. The server also reports a checkpoint every so often while it skips over
+ * events that do not match the filter, so the position keeps moving on a quiet filter.
+ */
+@Data
+public class SubscribeToAllRequest {
+    private final List<String> eventTypes;
+    private final List<String> streamPrefixes;
+    // The position of the last event already handled, null to start from the beginning of $all
+    private final AllPosition lastCheckpoint;
+    private final BiConsumer<ReadEventData, AllPosition> consumeEvent;
+    private final Consumer<AllPosition> checkpointReached;
+
+    @Builder(buildMethodName = "create")
+    public SubscribeToAllRequest(List<String> eventTypes, List<String> streamPrefixes, AllPosition lastCheckpoint, BiConsumer<ReadEventData, AllPosition> consumeEvent, Consumer<AllPosition> checkpointReached) {
+        this.eventTypes = Optional.ofNullable(eventTypes).orElse(List.of());
+        this.streamPrefixes = Optional.ofNullable(streamPrefixes).orElse(List.of());
+        if (this.eventTypes.isEmpty() == this.streamPrefixes.isEmpty()) { throw new IllegalArgumentException("Either eventTypes or streamPrefixes is required to filter $all, but not both"); }
+        if (consumeEvent == null) { throw new IllegalArgumentException("consumeEvent is required"); }
+
+        this.lastCheckpoint = lastCheckpoint;
+        this.consumeEvent = consumeEvent;
+        this.checkpointReached = Optional.ofNullable(checkpointReached).orElse(position -> {
+        });
+    }
+}
@@ -2,13 +2,11 @@ package events.dewdrop.utils;
 
 import events.dewdrop.aggregate.AggregateRoot;
 import events.dewdrop.aggregate.annotation.AggregateId;
+import events.dewdrop.utils.FieldAccessors.FieldAccessor;
 import lombok.extern.log4j.Log4j2;
-import org.apache.commons.collections4.CollectionUtils;
 
-import java.lang.reflect.Field;
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 
 @Log4j2
@@ -20,34 +18,23 @@ public class AggregateIdUtils {
     }
 
     public static boolean hasAggregateId(Object target) {
-        Set<Field> annotatedFields = DewdropAnnotationUtils.getAnnotatedFields(target.getClass(), AggregateId.class);
-        return CollectionUtils.isNotEmpty(annotatedFields);
+        return !FieldAccessors.annotatedWith(target.getClass(), AggregateId.class).isEmpty();
     }
 
     public static Optional<UUID> getAggregateId(Object target) {
-        Set<Field> annotatedFields = DewdropAnnotationUtils.getAnnotatedFields(target.getClass(), AggregateId.class);
-        Class<?> superclass = target.getClass();
-
-        while (CollectionUtils.isEmpty(annotatedFields)) {
-            annotatedFields = DewdropAnnotationUtils.getAnnotatedFields(superclass, AggregateId.class);
-            superclass = superclass.getSuperclass();
-            if (superclass == null || superclass.getSimpleName().equals("Object")) {
-                break;
-            }
-        }
+        List<FieldAccessor> accessors = FieldAccessors.annotatedWith(target.getClass(), AggregateId.class);
 
-        if (CollectionUtils.isEmpty(annotatedFields)) {
+        if (accessors.isEmpty()) {
             log.error("No field was marked @AggregateId on {}", target.getClass().getSimpleName());
             throw new IllegalArgumentException("Missing @AggregateId annotation");
         }
 
-        if (annotatedFields.size() > 1) {
+        if (accessors.size() > 1) {
             log.error("Too many @AggregateId annotations were found on {}", target.getClass().getSimpleName());
             throw new IllegalArgumentException("Too many @AggregateId annotations");
         }
 
-        Field field = new ArrayList<>(annotatedFields).get(0);
-        UUID instance = DewdropReflectionUtils.readFieldValue(field, target);
+        UUID instance = accessors.get(0).read(target);
         if (instance != null) { return Optional.of(instance); }
         return Optional.empty();
 
@@ -88,4 +88,10 @@ public class AggregateUtils {
 
         return create(aggregateClass);
     }
+
+    public static int getSnapshotInterval(Class<?> aggregateClass) {
+        Aggregate aggregate = aggregateClass.getAnnotation(Aggregate.class);
+        if (aggregate == null) { return 0; }
+        return Math.max(aggregate.snapshotInterval(), 0);
+    }
 }
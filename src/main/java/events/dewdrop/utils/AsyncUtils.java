@@ -0,0 +1,35 @@
+package events.dewdrop.utils;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+public class AsyncUtils {
+    private AsyncUtils() {}
+
+    /**
+     * Strips the CompletionException/ExecutionException wrappers a CompletableFuture puts around the
+     * exception that actually failed the stage.
+     *
+     * @param throwable The throwable a stage completed with
+     * @return The underlying cause
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Unwraps the throwable and makes sure it can be carried by a {@code Result}.
+     *
+     * @param throwable The throwable a stage completed with
+     * @return The underlying cause as an Exception
+     */
+    public static Exception toException(Throwable throwable) {
+        Throwable cause = unwrap(throwable);
+        if (cause instanceof Exception) { return (Exception) cause; }
+        return new IllegalStateException(cause);
+    }
+}
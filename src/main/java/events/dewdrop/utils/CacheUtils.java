@@ -1,5 +1,6 @@
 package events.dewdrop.utils;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -10,7 +11,6 @@ import java.util.UUID;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
 
 import events.dewdrop.aggregate.annotation.AggregateId;
 import events.dewdrop.read.readmodel.annotation.CreationEvent;
@@ -18,10 +18,10 @@ import events.dewdrop.read.readmodel.annotation.ForeignCacheKey;
 import events.dewdrop.read.readmodel.annotation.PrimaryCacheKey;
 import events.dewdrop.structure.api.Event;
 import events.dewdrop.structure.api.Message;
+import events.dewdrop.utils.FieldAccessors.FieldAccessor;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.reflect.FieldUtils;
 
 @Log4j2
 public class CacheUtils {
@@ -35,7 +35,7 @@ public class CacheUtils {
         requireNonNull(cacheTarget, "CacheTarget is required");
 
         Set<String> primaryCacheKeys = new HashSet<>();
-        final Set<Field> fields = FieldUtils.getFieldsListWithAnnotation(cacheTarget, PrimaryCacheKey.class).stream().collect(toSet());
+        final List<Field> fields = getFields(cacheTarget, PrimaryCacheKey.class);
 
         if (fields.size() > 1) { throw new IllegalArgumentException("There were more than one PrimaryCacheKeys in your cached object. There should only be one."); }
 
@@ -50,8 +50,7 @@ public class CacheUtils {
     }
 
     public static Class<? extends Event> getCreationEventClass(Class<?> cacheTarget) {
-        final Set<Field> fields = FieldUtils.getFieldsListWithAnnotation(cacheTarget, PrimaryCacheKey.class).stream().collect(toSet());
-        Field field = fields.iterator().next();
+        Field field = getFields(cacheTarget, PrimaryCacheKey.class).get(0);
         Class<?> clazz = field.getDeclaredAnnotation(PrimaryCacheKey.class).creationEvent();
         if (Event.class.isAssignableFrom(clazz)) {
             Class<? extends Event> classWithAggregateId = getClassWithAggregateId(clazz);
@@ -63,7 +62,7 @@ public class CacheUtils {
     public static List<String> getForeignCacheKeys(Class<?> cacheTarget) {
         requireNonNull(cacheTarget, "CacheTarget is required");
 
-        List<Field> fields = FieldUtils.getFieldsListWithAnnotation(cacheTarget, ForeignCacheKey.class);
+        List<Field> fields = getFields(cacheTarget, ForeignCacheKey.class);
         return fields.stream().map(field -> {
             String keyName = field.getAnnotation(ForeignCacheKey.class).eventKeyField();
             return Optional.ofNullable(keyName).orElse(field.getName());
@@ -73,7 +72,7 @@ public class CacheUtils {
     public static List<Field> getForeignCacheKeyFields(Class<?> cacheTarget) {
         requireNonNull(cacheTarget, "CacheTarget is required");
 
-        return FieldUtils.getFieldsListWithAnnotation(cacheTarget, ForeignCacheKey.class);
+        return getFields(cacheTarget, ForeignCacheKey.class);
     }
 
     public static Optional<UUID> getTargetForeignKeyValue(Object dto, Field field) {
@@ -88,21 +87,18 @@ public class CacheUtils {
         requireNonNull(field, "Field is required");
 
         String keyName = field.getAnnotation(ForeignCacheKey.class).eventKeyField();
-        return DewdropReflectionUtils.readFieldValue(message, keyName);
+        return FieldAccessors.named(message.getClass(), keyName).map(accessor -> accessor.read(message));
     }
 
     public static Optional<UUID> getCacheRootKey(Message message) {
-        List<Field> fieldsListWithAnnotation = FieldUtils.getFieldsListWithAnnotation(message.getClass(), AggregateId.class);
-        if (CollectionUtils.isNotEmpty(fieldsListWithAnnotation)) {
-            Field field = fieldsListWithAnnotation.get(0);
-            return Optional.of(DewdropReflectionUtils.readFieldValue(field, message));
-        }
+        List<FieldAccessor> accessors = FieldAccessors.annotatedWith(message.getClass(), AggregateId.class);
+        if (!accessors.isEmpty()) { return Optional.of(accessors.get(0).read(message)); }
 
         return Optional.empty();
     }
 
     public static Class<? extends Event> getClassWithAggregateId(Class<?> clazz) {
-        List<Field> fieldsListWithAnnotation = FieldUtils.getFieldsListWithAnnotation(clazz, AggregateId.class);
+        List<Field> fieldsListWithAnnotation = getFields(clazz, AggregateId.class);
         if (CollectionUtils.isNotEmpty(fieldsListWithAnnotation)) {
             Field field = fieldsListWithAnnotation.get(0);
             Class<?> declaringClass = field.getDeclaringClass();
@@ -111,4 +107,8 @@ public class CacheUtils {
         }
         throw new IllegalStateException("No Fields in class or super annotated with @AggregateId");
     }
+
+    private static List<Field> getFields(Class<?> target, Class<? extends Annotation> annotation) {
+        return FieldAccessors.annotatedWith(target, annotation).stream().map(FieldAccessor::getField).collect(toList());
+    }
 }
@@ -59,6 +59,11 @@ public class CommandHandlerUtils {
         return annotation.value();
     }
 
+    public static boolean isCreationHandler(Method commandHandlerMethod) {
+        CommandHandler annotation = commandHandlerMethod.getAnnotation(CommandHandler.class);
+        return annotation != null && annotation.creates();
+    }
+
     public static List<Method> getCommandHandlersForAggregateRoot(Class<?> aggregateRootClass) {
         List<Method> methodsListWithAnnotation = MethodUtils.getMethodsListWithAnnotation(aggregateRootClass, CommandHandler.class);
         return methodsListWithAnnotation;
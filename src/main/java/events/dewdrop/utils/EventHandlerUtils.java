@@ -4,12 +4,19 @@ import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import lombok.extern.log4j.Log4j2;
 import events.dewdrop.read.readmodel.ReadModel;
@@ -18,9 +25,12 @@ import events.dewdrop.read.readmodel.annotation.OnEvent;
 import events.dewdrop.read.readmodel.cache.InMemoryCacheProcessor;
 import events.dewdrop.structure.api.Event;
 import events.dewdrop.structure.api.Message;
+import events.dewdrop.structure.read.EventBatch;
 
 @Log4j2
 public class EventHandlerUtils {
+    private static final Map<Class<?>, Map<Class<?>, Optional<EventHandlerInvoker>>> DISPATCH_TABLE = new ConcurrentHashMap<>();
+
     private EventHandlerUtils() {}
 
     public static List<Class<? extends Event>> getEventHandlers(ReadModel readModel) {
@@ -34,7 +44,7 @@ public class EventHandlerUtils {
     }
 
     public static Map<Class<? extends Event>, Method> getEventToHandlerMethod(Class<?> readModelClass, Class<? extends Annotation> annotationClass) {
-        return DewdropAnnotationUtils.getAnnotatedMethods(readModelClass, annotationClass).stream().filter(method -> {
+        return DewdropAnnotationUtils.getAnnotatedMethods(readModelClass, annotationClass).stream().filter(method -> !isBatchHandler(method)).filter(method -> {
             boolean noParameter = method.getParameterTypes().length > 0;
             if (!noParameter) {
                 String methodName = method.getName();
@@ -53,6 +63,41 @@ public class EventHandlerUtils {
         }).collect(toMap(method -> (Class<? extends Event>) method.getParameterTypes()[0], Function.identity()));
     }
 
+    /**
+     * Finds the @EventHandler methods that take an EventBatch of an event type, like
+     * {@code on(EventBatch<AccountCreated> batch)}, keyed by that event type.
+     *
+     * @param readModelClass the read model class to look at
+     * @return the batch handlers by event type
+     */
+    public static Map<Class<? extends Event>, Method> getEventToBatchEventHandlerMethod(Class<?> readModelClass) {
+        Map<Class<? extends Event>, Method> handlers = new HashMap<>();
+        DewdropAnnotationUtils.getAnnotatedMethods(readModelClass, EventHandler.class).stream().filter(EventHandlerUtils::isBatchHandler).forEach(method -> {
+            Optional<Class<? extends Event>> eventClass = batchEventType(method);
+            if (eventClass.isEmpty()) {
+                log.error("The method annotated with @EventHandler {}.{}(EventBatch batch) does not say which event it handles. Please declare the event like {}(EventBatch<ExampleEvent> batch) where ExampleEvent extends Event",
+                                method.getDeclaringClass(), method.getName(), method.getName());
+                return;
+            }
+            handlers.put(eventClass.get(), method);
+        });
+        return handlers;
+    }
+
+    static boolean isBatchHandler(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        return parameterTypes != null && parameterTypes.length == 1 && EventBatch.class.equals(parameterTypes[0]);
+    }
+
+    private static Optional<Class<? extends Event>> batchEventType(Method method) {
+        Type parameterType = method.getGenericParameterTypes()[0];
+        if (!(parameterType instanceof ParameterizedType)) { return Optional.empty(); }
+
+        Type eventType = ((ParameterizedType) parameterType).getActualTypeArguments()[0];
+        if (!(eventType instanceof Class) || !Event.class.isAssignableFrom((Class<?>) eventType)) { return Optional.empty(); }
+        return Optional.of((Class<? extends Event>) eventType);
+    }
+
     public static Map<Class<? extends Event>, Method> getEventToEventHandlerMethod(Class<?> readModelClass) {
         return getEventToHandlerMethod(readModelClass, EventHandler.class);
     }
@@ -65,29 +110,75 @@ public class EventHandlerUtils {
         callEventHandler(target, event, null);
     }
 
+    /**
+     * Calls the method annotated with @EventHandler on the target whose first parameter is the class of
+     * the event. The method is looked up the first time a target class sees an event class and the
+     * resulting invoker is kept in a dispatch table, so rehydrating an aggregate or updating a cache
+     * does not scan the target's methods for every event.
+     *
+     * @param target the object that handles the event
+     * @param event the event
+     * @param secondArg the optional second argument of the handler, for example the cache
+     */
     public static <T extends Message, R> void callEventHandler(Object target, T event, R secondArg) {
-        Optional<Method> targetMethod = getEventHandlerMethod(target.getClass(), event);
-        callEventMethod(target, event, secondArg, targetMethod, EventHandler.class);
-    }
-
-    private static <T extends Message, R> void callEventMethod(Object target, T event, R secondArg, Optional<Method> targetMethod, Class<? extends Annotation> annotation) {
-        if (targetMethod.isEmpty()) {
-            log.debug("Unable to find method annotated with @{} with method signature on({} event) on target class: {}", annotation.getSimpleName(), event.getClass().getSimpleName(), target.getClass().getSimpleName());
+        Optional<EventHandlerInvoker> invoker = getEventHandlerInvoker(target.getClass(), event.getClass());
+        if (invoker.isEmpty()) {
+            log.debug("Unable to find method annotated with @{} with method signature on({} event) on target class: {}", EventHandler.class.getSimpleName(), event.getClass().getSimpleName(), target.getClass().getSimpleName());
             return;
         }
 
         try {
-            Method method = targetMethod.get();
-            method.setAccessible(true);
-            if (method.getParameterTypes().length > 1) {
-                method.invoke(target, event, secondArg);
-            } else {
-                method.invoke(target, event);
-            }
+            invoker.get().invoke(target, event, secondArg);
+        } catch (Exception e) {
+            log.error("Unable to invoke method annotated with @{} with method signature on({} event) on {} - Make sure the method exists", EventHandler.class.getSimpleName(), event.getClass().getSimpleName(), target.getClass().getSimpleName(), e);
+        }
+    }
+
+    static Optional<EventHandlerInvoker> getEventHandlerInvoker(Class<?> targetClass, Class<?> eventClass) {
+        return DISPATCH_TABLE.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>()).computeIfAbsent(eventClass, key -> getMethodsWithAnnotationForEvent(targetClass, eventClass, EventHandler.class).map(EventHandlerUtils::invokerFor));
+    }
 
-        } catch (IllegalAccessException | InvocationTargetException | IllegalArgumentException e) {
-            log.error("Unable to invoke method annotated with @{} with method signature on({} event) on {} - Make sure the method exists", annotation.getSimpleName(), event.getClass().getSimpleName(), target.getClass().getSimpleName(), e);
+    static EventHandlerInvoker invokerFor(Method method) {
+        method.setAccessible(true);
+        boolean hasSecondArg = method.getParameterTypes().length > 1;
+        try {
+            Class<?> declaringClass = method.getDeclaringClass();
+            MethodType methodType = MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+            MethodHandle unreflected = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup()).findVirtual(declaringClass, method.getName(), methodType);
+            if (hasSecondArg) {
+                MethodHandle handle = unreflected.asType(MethodType.methodType(void.class, Object.class, Object.class, Object.class));
+                return (target, event, secondArg) -> {
+                    try {
+                        handle.invokeExact(target, event, secondArg);
+                    } catch (Throwable e) {
+                        throw asException(e);
+                    }
+                };
+            }
+            MethodHandle handle = unreflected.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (target, event, secondArg) -> {
+                try {
+                    handle.invokeExact(target, event);
+                } catch (Throwable e) {
+                    throw asException(e);
+                }
+            };
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            log.debug("Unable to create a MethodHandle for {} - falling back to reflection", method, e);
         }
+        if (hasSecondArg) { return (target, event, secondArg) -> method.invoke(target, event, secondArg); }
+        return (target, event, secondArg) -> method.invoke(target, event);
+    }
+
+    // MethodHandle.invokeExact declares Throwable - an Error is thrown on as it is
+    private static Exception asException(Throwable e) {
+        if (e instanceof Error) { throw (Error) e; }
+        if (e instanceof Exception) { return (Exception) e; }
+        return new UndeclaredThrowableException(e);
+    }
+
+    static void clearDispatchTable() {
+        DISPATCH_TABLE.clear();
     }
 
     public static <T extends Message> Optional<Method> getEventHandlerMethod(Class target, T event) {
@@ -99,7 +190,16 @@ public class EventHandlerUtils {
     }
 
     public static <T extends Message> Optional<Method> getMethodsWithAnnotationForEvent(Class target, T event, Class<? extends Annotation> annotation) {
+        return getMethodsWithAnnotationForEvent(target, event.getClass(), annotation);
+    }
+
+    static Optional<Method> getMethodsWithAnnotationForEvent(Class<?> target, Class<?> eventClass, Class<? extends Annotation> annotation) {
         Set<Method> methods = DewdropAnnotationUtils.getAnnotatedMethods(target, annotation);
-        return methods.stream().filter(method -> method.getParameterTypes()[0].equals(event.getClass())).findAny();
+        return methods.stream().filter(method -> method.getParameterTypes().length > 0 && method.getParameterTypes()[0].equals(eventClass)).findAny();
+    }
+
+    @FunctionalInterface
+    interface EventHandlerInvoker {
+        void invoke(Object target, Object event, Object secondArg) throws Exception;
     }
 }
@@ -0,0 +1,95 @@
+package events.dewdrop.utils;
+
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.reflect.FieldUtils;
+
+/**
+ * A registry of compiled field getters, keyed by class. The fields of a class annotated with a
+ * given annotation (@AggregateId, @PrimaryCacheKey, @ForeignCacheKey) and the fields looked up by
+ * name are resolved the first time they are asked for, so reading a key from a message, command or
+ * query afterwards is a map lookup plus a field read.
+ */
+@Log4j2
+public class FieldAccessors {
+    private static final Map<Class<?>, Map<Class<? extends Annotation>, List<FieldAccessor>>> ANNOTATED = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<String, Optional<FieldAccessor>>> NAMED = new ConcurrentHashMap<>();
+
+    private FieldAccessors() {}
+
+    /**
+     * The accessors of the fields of the class or its superclasses that are annotated with the
+     * annotation, in the order FieldUtils.getFieldsListWithAnnotation() returns them.
+     *
+     * @param targetClass the class to look at
+     * @param annotation the field annotation
+     * @return the accessors, empty if no field has the annotation
+     */
+    public static List<FieldAccessor> annotatedWith(Class<?> targetClass, Class<? extends Annotation> annotation) {
+        return ANNOTATED.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>()).computeIfAbsent(annotation,
+                        key -> FieldUtils.getFieldsListWithAnnotation(targetClass, annotation).stream().map(FieldAccessor::new).collect(toUnmodifiableList()));
+    }
+
+    /**
+     * The accessor of the field with the given name on the class or its superclasses.
+     *
+     * @param targetClass the class to look at
+     * @param name the name of the field
+     * @return the accessor, empty if the class has no such field
+     */
+    public static Optional<FieldAccessor> named(Class<?> targetClass, String name) {
+        return NAMED.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>()).computeIfAbsent(name, key -> Optional.ofNullable(FieldUtils.getField(targetClass, name, true)).map(FieldAccessor::new));
+    }
+
+    static void clear() {
+        ANNOTATED.clear();
+        NAMED.clear();
+    }
+
+    public static class FieldAccessor {
+        private final Field field;
+        private final MethodHandle getter;
+
+        FieldAccessor(Field field) {
+            this.field = field;
+            this.getter = getterFor(field);
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public <T> T read(Object instance) {
+            if (getter == null) { return DewdropReflectionUtils.readFieldValue(field, instance); }
+            try {
+                return (T) (Object) getter.invokeExact(instance);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                log.error("Unable to call field: {} on the target:{}", field, instance, e);
+                return null;
+            }
+        }
+
+        private static MethodHandle getterFor(Field field) {
+            try {
+                Class<?> declaringClass = field.getDeclaringClass();
+                MethodHandle getter = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup()).findGetter(declaringClass, field.getName(), field.getType());
+                return getter.asType(MethodType.methodType(Object.class, Object.class));
+            } catch (NoSuchFieldException | IllegalAccessException | RuntimeException e) {
+                log.debug("Unable to create a getter for {} - falling back to reflection", field, e);
+                return null;
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@ import events.dewdrop.read.readmodel.annotation.DewdropCache;
 import events.dewdrop.read.readmodel.annotation.ReadModel;
 import events.dewdrop.read.readmodel.cache.ImprovedMapBackedInMemoryCacheProcessor;
 import events.dewdrop.read.readmodel.cache.InMemoryCacheProcessor;
+import events.dewdrop.read.readmodel.cache.OffHeapInMemoryCacheProcessor;
 import events.dewdrop.read.readmodel.cache.SingleItemInMemoryCache;
 import events.dewdrop.read.readmodel.query.QueryHandler;
 import events.dewdrop.structure.api.Message;
@@ -63,7 +64,7 @@ public class ReadModelUtils {
         if (Map.class.equals(field.getType())) {
             ParameterizedType type = (ParameterizedType) field.getGenericType();
             Class<?> clazz = (Class<?>) type.getActualTypeArguments()[1];
-            inMemoryCacheProcessor = new ImprovedMapBackedInMemoryCacheProcessor<>(clazz);
+            inMemoryCacheProcessor = field.getAnnotation(DewdropCache.class).offHeap() ? new OffHeapInMemoryCacheProcessor<>(clazz) : new ImprovedMapBackedInMemoryCacheProcessor<>(clazz);
         } else {
             inMemoryCacheProcessor = new SingleItemInMemoryCache(field.getType());
         }
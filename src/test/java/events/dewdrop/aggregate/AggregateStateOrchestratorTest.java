@@ -12,7 +12,9 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.log4j.Log4j2;
 import events.dewdrop.api.result.Result;
 import events.dewdrop.api.validators.ValidationException;
@@ -70,6 +72,26 @@ class AggregateStateOrchestratorTest {
         verify(aggregateStateCommandProcessor, times(1)).processCommand(any(Command.class), any(Method.class));
     }
 
+    @Test
+    @DisplayName("executeCommandAsync() - Given a properly annotated DewDropAccountAggregate class and a valid command, the command is processed asynchronously")
+    void executeCommandAsync() {
+        doReturn(CompletableFuture.completedFuture(Result.of(true))).when(aggregateStateCommandProcessor).processCommandAsync(any(Command.class), any(Method.class));
+        doReturn(Optional.of(handleMethod)).when(commandMapper).getCommandHandlersThatSupportCommand(any(DewdropCreateAccountCommand.class));
+
+        Result<Boolean> results = aggregateStateOrchestrator.executeCommandAsync(dewdropCreateAccountCommand).join();
+        assertThat(results.get(), is(true));
+
+        verify(aggregateStateCommandProcessor, times(1)).processCommandAsync(any(Command.class), any(Method.class));
+    }
+
+    @Test
+    @DisplayName("executeCommandAsync() - Given that no valid commandHandlerMethods exist on the aggregate, an empty Result is returned.")
+    void executeCommandAsync_NoCommandHandlerMethod() {
+        doReturn(Optional.empty()).when(commandMapper).getCommandHandlersThatSupportCommand(any(Command.class));
+
+        assertThat(aggregateStateOrchestrator.executeCommandAsync(mock(Command.class)).join().isEmpty(), is(true));
+    }
+
     @Test
     @DisplayName("Given that no valid commandHandlerMethods exist on the aggregate, an empty ArrayList is returned.")
     void executeSubsequentCommand_NoCommandHandlerMethod() throws ValidationException {
@@ -94,4 +116,22 @@ class AggregateStateOrchestratorTest {
             assertThat(result.isEmpty(), is(false));
         }
     }
+
+    @Test
+    @DisplayName("executeCommands() - Given commands with and without a command handler, when executeCommands() is called, then the handled commands are processed as a batch and every command gets a Result in order")
+    void executeCommands() {
+        Command unhandled = mock(Command.class);
+        DewdropCreateAccountCommand second = mock(DewdropCreateAccountCommand.class);
+        doReturn(Optional.empty()).when(commandMapper).getCommandHandlersThatSupportCommand(unhandled);
+        doReturn(Optional.of(handleMethod)).when(commandMapper).getCommandHandlersThatSupportCommand(dewdropCreateAccountCommand);
+        doReturn(Optional.of(handleMethod)).when(commandMapper).getCommandHandlersThatSupportCommand(second);
+        doReturn(List.of(Result.of(true), Result.of(false))).when(aggregateStateCommandProcessor).processCommands(List.of(dewdropCreateAccountCommand, second), List.of(handleMethod, handleMethod));
+
+        List<Result<Boolean>> results = aggregateStateOrchestrator.executeCommands(List.of(dewdropCreateAccountCommand, unhandled, second));
+
+        assertThat(results.size(), is(3));
+        assertThat(results.get(0).get(), is(true));
+        assertThat(results.get(1).isEmpty(), is(true));
+        assertThat(results.get(2).get(), is(false));
+    }
 }
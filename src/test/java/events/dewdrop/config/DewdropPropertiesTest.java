@@ -1,7 +1,9 @@
 package events.dewdrop.config;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import events.dewdrop.read.readmodel.stream.subscription.OverflowPolicy;
 import org.junit.jupiter.api.Test;
 
 class DewdropPropertiesTest {
@@ -11,10 +13,26 @@ class DewdropPropertiesTest {
         String packageToScan = "events.dewdrop";
         String packageToExclude = "events.dewdrop.fixture.customized";
 
-        DewdropProperties dewdropProperties = DewdropProperties.builder().connectionString(connectionString).packageToScan(packageToScan).packageToExclude(packageToExclude).streamPrefix("").create();
+        DewdropProperties dewdropProperties = DewdropProperties.builder().connectionString(connectionString).packageToScan(packageToScan).packageToExclude(packageToExclude).streamPrefix("").aggregateCacheSize(100).appendCoalesceWindowMillis(2L)
+                        .binaryEvents(true).compressionThresholdBytes(1024).sharedSubscriptions(true).subscribeToAll(true).subscriptionBufferCapacity(256).subscriptionBatchSize(32).subscriptionOverflowPolicy(OverflowPolicy.DROP_OLDEST)
+                        .checkpointFile("/var/lib/dewdrop/checkpoints").checkpointFlushEvents(500).checkpointFlushIntervalMillis(2000L).cacheSnapshotDirectory("/var/lib/dewdrop/snapshots").cacheSnapshotIntervalMillis(30000L).create();
 
         assertEquals(connectionString, dewdropProperties.getConnectionString());
         assertEquals(packageToScan, dewdropProperties.getPackageToScan());
         assertEquals(packageToExclude, dewdropProperties.getPackageToExclude().get(0));
+        assertEquals(100, dewdropProperties.getAggregateCacheSize());
+        assertEquals(2L, dewdropProperties.getAppendCoalesceWindowMillis());
+        assertTrue(dewdropProperties.isBinaryEvents());
+        assertEquals(1024, dewdropProperties.getCompressionThresholdBytes());
+        assertTrue(dewdropProperties.isSharedSubscriptions());
+        assertTrue(dewdropProperties.isSubscribeToAll());
+        assertEquals(256, dewdropProperties.getSubscriptionBufferCapacity());
+        assertEquals(32, dewdropProperties.getSubscriptionBatchSize());
+        assertEquals(OverflowPolicy.DROP_OLDEST, dewdropProperties.getSubscriptionOverflowPolicy());
+        assertEquals("/var/lib/dewdrop/checkpoints", dewdropProperties.getCheckpointFile());
+        assertEquals(500, dewdropProperties.getCheckpointFlushEvents());
+        assertEquals(2000L, dewdropProperties.getCheckpointFlushIntervalMillis());
+        assertEquals("/var/lib/dewdrop/snapshots", dewdropProperties.getCacheSnapshotDirectory());
+        assertEquals(30000L, dewdropProperties.getCacheSnapshotIntervalMillis());
     }
 }
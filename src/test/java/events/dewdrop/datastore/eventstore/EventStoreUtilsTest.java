@@ -8,6 +8,8 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 
+import com.eventstore.dbclient.EventData;
+import com.eventstore.dbclient.ExpectedRevision;
 import com.eventstore.dbclient.Position;
 import com.eventstore.dbclient.ReadResult;
 import com.eventstore.dbclient.ReadStreamOptions;
@@ -15,13 +17,19 @@ import com.eventstore.dbclient.RecordedEvent;
 import com.eventstore.dbclient.ResolvedEvent;
 import com.eventstore.dbclient.Subscription;
 import com.eventstore.dbclient.SubscriptionListener;
+import com.eventstore.dbclient.WrongExpectedVersionException;
 import events.dewdrop.streamstore.eventstore.EventStoreUtils;
+import events.dewdrop.structure.ConcurrencyConflictException;
 import events.dewdrop.structure.events.ReadEventData;
 import events.dewdrop.structure.events.StreamReadResults;
+import events.dewdrop.structure.events.WriteEventData;
 import events.dewdrop.structure.read.Direction;
 import events.dewdrop.structure.read.ReadRequest;
+import events.dewdrop.structure.subscribe.AllPosition;
+import events.dewdrop.structure.subscribe.SubscribeToAllRequest;
 import java.lang.reflect.Constructor;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.UUID;
@@ -83,6 +91,45 @@ class EventStoreUtilsTest {
         assertThat(streamRevision, is(streamReadResults.getLastEventPosition()));
     }
 
+    @Test
+    @DisplayName("toStreamReadResults() - Given events read from an aggregate stream without links, when toStreamReadResults() is called, then the positions come from the event revision")
+    void toStreamReadResults_noLink() {
+        ReadRequest readRequest = new ReadRequest(streamName, start, count, forward);
+
+        List<ResolvedEvent> resolvedEvents = List.of(new ResolvedEvent(recordedEvent, null, mock(Position.class)));
+
+        ReadResult readResult = mock(ReadResult.class);
+        doReturn(resolvedEvents).when(readResult).getEvents();
+
+        StreamReadResults streamReadResults = EventStoreUtils.toStreamReadResults(readRequest, readResult);
+
+        assertThat(streamRevision + 1, is(streamReadResults.getNextEventPosition()));
+        assertThat(streamRevision, is(streamReadResults.getLastEventPosition()));
+    }
+
+    @Test
+    @DisplayName("toStreamReadResults() - Given an event read through a link in a projected stream, when toStreamReadResults() is called, then the event keeps its own revision and its position is the revision of the link")
+    void toStreamReadResults_linkPosition() {
+        ReadRequest readRequest = new ReadRequest("$ce-Test", start, count, forward);
+        RecordedEvent event = recordedEvent;
+        RecordedEvent link = recordedEvent("$ce-Test", 41L, UUID.randomUUID(), position, systemMetadata, eventData, userMetadata);
+        ReadResult readResult = mock(ReadResult.class);
+        doReturn(List.of(new ResolvedEvent(event, link, mock(Position.class)))).when(readResult).getEvents();
+
+        ReadEventData readEventData = EventStoreUtils.toStreamReadResults(readRequest, readResult).getEvents().get(0);
+
+        assertThat(readEventData.getEventNumber(), is(streamRevision));
+        assertThat(readEventData.getPosition(), is(41L));
+    }
+
+    @Test
+    @DisplayName("expectedRevision() - Given an expected version, when expectedRevision() is called, then null is any, a negative version is no stream, and anything else is that revision")
+    void expectedRevision() {
+        assertThat(EventStoreUtils.expectedRevision(null), is(ExpectedRevision.any()));
+        assertThat(EventStoreUtils.expectedRevision(-1L), is(ExpectedRevision.noStream()));
+        assertThat(EventStoreUtils.expectedRevision(5L), is(ExpectedRevision.expectedRevision(5L)));
+    }
+
     @Test
     void toReadEventData() {
 
@@ -100,6 +147,26 @@ class EventStoreUtilsTest {
         // assertThat(readEventData.getCreatedEpoch(), is(now));
     }
 
+    @Test
+    @DisplayName("toReadEventData() - Given an event EventStore recorded as binary, when toReadEventData() is called, then the ReadEventData is not JSON")
+    void toReadEventData_binary() {
+        systemMetadata.put("content-type", "application/octet-stream");
+        RecordedEvent binaryEvent = recordedEvent(eventStreamId, streamRevision, eventId, position, systemMetadata, eventData, userMetadata);
+
+        assertThat(EventStoreUtils.toReadEventData(binaryEvent).isJson(), is(false));
+    }
+
+    @Test
+    @DisplayName("toEventData() - Given JSON and binary WriteEventData, when toEventData() is called, then the content type follows isJson")
+    void toEventData() {
+        EventData json = EventStoreUtils.toEventData(new WriteEventData(UUID.randomUUID(), "TestEvent", true, eventData, userMetadata));
+        EventData binary = EventStoreUtils.toEventData(new WriteEventData(UUID.randomUUID(), "TestEvent", false, eventData, userMetadata));
+
+        assertThat(json.getContentType(), is("application/json"));
+        assertThat(binary.getContentType(), is("application/octet-stream"));
+        assertThat(binary.getUserMetadata(), is(userMetadata));
+    }
+
     @Test
     void options() {
         ReadRequest readRequest = new ReadRequest(streamName, start, count, forward);
@@ -133,6 +200,33 @@ class EventStoreUtilsTest {
         listener.onCancelled(subscription, mock(Throwable.class));
     }
 
+    @Test
+    @DisplayName("createAllListener() - Given an event from $all, when it arrives, then the event itself is read and handed over with its position")
+    void createAllListener() {
+        List<ReadEventData> received = new ArrayList<>();
+        List<AllPosition> positions = new ArrayList<>();
+        ResolvedEvent resolvedEvent = mock(ResolvedEvent.class);
+        doReturn(recordedEvent).when(resolvedEvent).getEvent();
+
+        EventStoreUtils.createAllListener((readEventData, allPosition) -> {
+            received.add(readEventData);
+            positions.add(allPosition);
+        }).onEvent(mock(Subscription.class), resolvedEvent);
+
+        assertThat(received.get(0).getEventStreamId(), is(eventStreamId));
+        assertThat(received.get(0).getEventType(), is("TestEvent"));
+        assertThat(positions.get(0), is(new AllPosition(4L, 3L)));
+    }
+
+    @Test
+    @DisplayName("filter() - Given a request filtered by stream prefixes, when filter() is called, then a filter is built")
+    void filter() {
+        SubscribeToAllRequest request = SubscribeToAllRequest.builder().streamPrefixes(List.of("DewdropUserAggregate-", "DewdropAccountAggregate-")).consumeEvent((readEventData, allPosition) -> {
+        }).create();
+
+        assertThat(EventStoreUtils.filter(request), is(Matchers.notNullValue()));
+    }
+
     private RecordedEvent recordedEvent(String eventStreamId, Long streamRevision, UUID eventId, Position position, HashMap<String, String> systemMetadata, byte[] eventData, byte[] userMetadata) {
         try {
             Constructor<RecordedEvent> constructor = (Constructor<RecordedEvent>) RecordedEvent.class.getDeclaredConstructors()[0];
@@ -144,4 +238,18 @@ class EventStoreUtilsTest {
         return recordedEvent;
     }
 
+
+    @Test
+    @DisplayName("toConcurrencyConflict() - Given a WrongExpectedVersionException, when toConcurrencyConflict() is called, then the stream, expected and actual versions are carried over")
+    void toConcurrencyConflict() {
+        WrongExpectedVersionException exception = mock(WrongExpectedVersionException.class);
+        doReturn(streamName).when(exception).getStreamName();
+        doReturn(ExpectedRevision.expectedRevision(7L)).when(exception).getActualVersion();
+
+        ConcurrencyConflictException conflict = EventStoreUtils.toConcurrencyConflict(exception, 5L);
+
+        assertThat(conflict.getStream(), is(streamName));
+        assertThat(conflict.getExpectedVersion(), is(5L));
+        assertThat(conflict.getActualVersion(), is(7L));
+    }
 }
@@ -0,0 +1,16 @@
+package events.dewdrop.fixture.automated;
+
+import events.dewdrop.aggregate.annotation.Aggregate;
+import events.dewdrop.aggregate.annotation.AggregateId;
+import java.util.UUID;
+import lombok.Data;
+
+@Data
+@Aggregate(snapshotInterval = 10)
+public class DewdropSnapshotAggregate {
+    @AggregateId
+    UUID snapshotId;
+    String name;
+
+    public DewdropSnapshotAggregate() {}
+}
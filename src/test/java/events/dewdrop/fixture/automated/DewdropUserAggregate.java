@@ -24,7 +24,7 @@ public class DewdropUserAggregate {
 
     public DewdropUserAggregate() {}
 
-    @CommandHandler
+    @CommandHandler(creates = true)
     public DewdropUserCreated createUser(@Valid DewdropCreateUserCommand command) {
         return new DewdropUserCreated(command.getUserId(), command.getUsername());
     }
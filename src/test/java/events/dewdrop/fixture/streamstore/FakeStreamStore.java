@@ -0,0 +1,84 @@
+package events.dewdrop.fixture.streamstore;
+
+import events.dewdrop.structure.datastore.StreamStore;
+import events.dewdrop.structure.events.ReadEventData;
+import events.dewdrop.structure.events.StreamReadResults;
+import events.dewdrop.structure.read.ReadRequest;
+import events.dewdrop.structure.subscribe.SubscribeRequest;
+import events.dewdrop.structure.subscribe.SubscribeToAllRequest;
+import events.dewdrop.structure.write.WriteRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An in-memory StreamStore for the tests that drive subscriptions and appends by hand. Reads are
+ * served from the stored events, the subscribe requests are kept so their consumers can be fed with
+ * publish(), and an append completes with the future registered for its WriteRequest or the
+ * fallback.
+ * <p>
+ * A Mockito mock of StreamStore cannot stand in here: once a test in the run has mocked
+ * java.lang.reflect.Method, the inline mock maker breaks the stubbing of every later interface
+ * mock.
+ */
+@Getter
+public class FakeStreamStore implements StreamStore {
+    private final List<ReadEventData> stored = new CopyOnWriteArrayList<>();
+    private final List<ReadRequest> readRequests = new CopyOnWriteArrayList<>();
+    private final List<SubscribeRequest> subscribeRequests = new CopyOnWriteArrayList<>();
+    private final List<SubscribeToAllRequest> subscribeToAllRequests = new CopyOnWriteArrayList<>();
+    private final Map<WriteRequest, CompletableFuture<Long>> appends = new ConcurrentHashMap<>();
+    private final List<WriteRequest> sent = new CopyOnWriteArrayList<>();
+    @Setter
+    private volatile boolean subscribed = true;
+    @Setter
+    private volatile boolean subscribeToAll = true;
+    @Setter
+    private volatile CompletableFuture<Long> fallback = CompletableFuture.completedFuture(null);
+
+    // hands the event to every stream subscription opened so far
+    public void publish(ReadEventData readEventData) {
+        subscribeRequests.forEach(request -> request.getConsumeEvent().accept(readEventData));
+    }
+
+    @Override
+    public StreamReadResults read(ReadRequest readRequest) {
+        readRequests.add(readRequest);
+        int start = readRequest.getStart().intValue();
+        List<ReadEventData> events = start < stored.size() ? new ArrayList<>(stored.subList(start, stored.size())) : List.of();
+        return new StreamReadResults(readRequest.getStreamName(), start, readRequest.getDirection(), events, stored.size(), stored.size() - 1L, true);
+    }
+
+    @Override
+    public boolean subscribeToStream(SubscribeRequest subscribeRequest) {
+        subscribeRequests.add(subscribeRequest);
+        return subscribed;
+    }
+
+    @Override
+    public boolean subscribeToAll(SubscribeToAllRequest subscribeToAllRequest) {
+        subscribeToAllRequests.add(subscribeToAllRequest);
+        return subscribeToAll;
+    }
+
+    @Override
+    public Long appendToStream(WriteRequest writeRequest) {
+        return appendToStreamAsync(writeRequest).join();
+    }
+
+    @Override
+    public CompletableFuture<StreamReadResults> readAsync(ReadRequest readRequest) {
+        return CompletableFuture.completedFuture(read(readRequest));
+    }
+
+    @Override
+    public CompletableFuture<Long> appendToStreamAsync(WriteRequest writeRequest) {
+        sent.add(writeRequest);
+        return appends.getOrDefault(writeRequest, fallback);
+    }
+}
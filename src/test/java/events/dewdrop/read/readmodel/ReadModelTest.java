@@ -29,6 +29,7 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
@@ -75,7 +76,7 @@ class ReadModelTest {
 
         ReadModelWrapper readModelWrapper = mock(ReadModelWrapper.class);
         doReturn(UsersReadModel.class).when(readModelWrapper).getOriginalReadModelClass();
-        doNothing().when(readModelWrapper).callEventHandlers(any(Event.class));
+        doReturn(true).when(readModelWrapper).callEventHandlers(any(Event.class));
         readModel.setReadModelWrapper(readModelWrapper);
         try (MockedStatic<CacheUtils> utilities = mockStatic(CacheUtils.class)) {
             utilities.when(() -> CacheUtils.getCacheRootKey(mock(Event.class))).thenReturn(Optional.of(UUID.randomUUID()));
@@ -85,6 +86,21 @@ class ReadModelTest {
         }
     }
 
+    @Test
+    @DisplayName("process() - Given an event handler that throws, when process() is called, then an EventHandlerFailedException is thrown after the cache processed the event")
+    void process_handlerFailed() {
+        DewdropFundsAddedToAccount event = new DewdropFundsAddedToAccount(UUID.randomUUID(), new BigDecimal(10));
+        doNothing().when(inMemoryCacheProcessor).process(any(Event.class));
+
+        ReadModelWrapper readModelWrapper = mock(ReadModelWrapper.class);
+        doReturn(UsersReadModel.class).when(readModelWrapper).getOriginalReadModelClass();
+        doReturn(false).when(readModelWrapper).callEventHandlers(any(Event.class));
+        readModel.setReadModelWrapper(readModelWrapper);
+
+        assertThrows(EventHandlerFailedException.class, () -> readModel.process(event));
+        verify(inMemoryCacheProcessor, times(1)).process(any(Event.class));
+    }
+
     @Test
     @DisplayName("handler() - Given an event, when handler is called, should call readModel.process()")
     void handler() {
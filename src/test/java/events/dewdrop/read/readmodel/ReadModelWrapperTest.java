@@ -1,11 +1,14 @@
 package events.dewdrop.read.readmodel;
 
+import events.dewdrop.api.result.Result;
 import events.dewdrop.fixture.events.DewdropAccountCreated;
 import events.dewdrop.fixture.events.DewdropFundsAddedToAccount;
 import events.dewdrop.fixture.readmodel.accountdetails.details.DewdropAccountDetails;
 import events.dewdrop.fixture.readmodel.accountdetails.details.DewdropAccountDetailsReadModel;
 import events.dewdrop.read.readmodel.annotation.AggregateStream;
+import events.dewdrop.read.readmodel.annotation.EventHandler;
 import events.dewdrop.read.readmodel.stream.StreamAnnotationDetails;
+import events.dewdrop.structure.read.EventBatch;
 import events.dewdrop.utils.DependencyInjectionUtils;
 import events.dewdrop.utils.DewdropReflectionUtils;
 import events.dewdrop.utils.ReadModelUtils;
@@ -18,6 +21,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +30,7 @@ import java.util.UUID;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mockStatic;
@@ -78,11 +83,22 @@ class ReadModelWrapperTest {
     void callEventHandlers() {
         ReadModelWrapper readModelWrapper = ReadModelWrapper.of(DewdropAccountDetailsReadModel.class).get();
         try (MockedStatic<DewdropReflectionUtils> utilities = mockStatic(DewdropReflectionUtils.class)) {
-            readModelWrapper.callEventHandlers(new DewdropAccountCreated(UUID.randomUUID(), "test", UUID.randomUUID()));
+            utilities.when(() -> DewdropReflectionUtils.callMethod(any(), any(Method.class), any(DewdropAccountCreated.class))).thenReturn(Result.empty());
+            assertThat(readModelWrapper.callEventHandlers(new DewdropAccountCreated(UUID.randomUUID(), "test", UUID.randomUUID())), is(true));
             utilities.verify(() -> DewdropReflectionUtils.callMethod(any(), any(Method.class), any(DewdropAccountCreated.class)), times(1));
         }
     }
 
+    @Test
+    @DisplayName("callEventHandlers() - Given an @EventHandler that throws, when we call callEventHandlers(), then false is returned")
+    void callEventHandlers_handlerThrows() {
+        ReadModelWrapper readModelWrapper = ReadModelWrapper.of(DewdropAccountDetailsReadModel.class).get();
+        try (MockedStatic<DewdropReflectionUtils> utilities = mockStatic(DewdropReflectionUtils.class)) {
+            utilities.when(() -> DewdropReflectionUtils.callMethod(any(), any(Method.class), any(DewdropAccountCreated.class))).thenReturn(Result.of(new IllegalStateException("boom")));
+            assertThat(readModelWrapper.callEventHandlers(new DewdropAccountCreated(UUID.randomUUID(), "test", UUID.randomUUID())), is(false));
+        }
+    }
+
     @Test
     @DisplayName("callEventHandlers() - Given an event that is the first parameter of @EventHandler, when we call callEventHandlers(), then confirm we called DewdropReflectionUtils.callMethod()")
     void callEventHandlers_eventNotSupported() {
@@ -121,7 +137,66 @@ class ReadModelWrapperTest {
         assertThat(readModelWrapper.getSupportedEvents(), is(List.of(DewdropAccountCreated.class)));
     }
 
+    @Test
+    @DisplayName("callBatchEventHandlers() - Given a read model with an @EventHandler taking an EventBatch, when a batch is handled, then the handler gets only the events of its type and the last position of the batch")
+    void callBatchEventHandlers() {
+        BatchAccountReadModel readModel = new BatchAccountReadModel();
+        ReadModelWrapper readModelWrapper;
+        try (MockedStatic<DependencyInjectionUtils> utilities = mockStatic(DependencyInjectionUtils.class)) {
+            utilities.when(() -> DependencyInjectionUtils.getInstance(any(Class.class))).thenReturn(Optional.of(readModel));
+            readModelWrapper = ReadModelWrapper.of(BatchAccountReadModel.class).get();
+        }
+        DewdropAccountCreated first = new DewdropAccountCreated(UUID.randomUUID(), "first", UUID.randomUUID());
+        DewdropAccountCreated second = new DewdropAccountCreated(UUID.randomUUID(), "second", UUID.randomUUID());
+
+        readModelWrapper.callBatchEventHandlers(new EventBatch<>(List.of(first, new DewdropFundsAddedToAccount(UUID.randomUUID(), new BigDecimal(100)), second), 42L));
+
+        assertThat(readModelWrapper.hasBatchEventHandlers(), is(true));
+        assertThat(readModelWrapper.getSupportedEvents(), containsInAnyOrder(DewdropAccountCreated.class, DewdropFundsAddedToAccount.class));
+        assertThat(readModel.batches.size(), is(1));
+        assertThat(readModel.batches.get(0).getEvents(), is(List.of(first, second)));
+        assertThat(readModel.batches.get(0).getLastPosition(), is(42L));
+    }
 
+    @Test
+    @DisplayName("callBatchEventHandlers() - Given batch handlers for two event types and a batch that knows the position of each event, when it is handled, then each handler gets its events in order and the position of its own last event")
+    void callBatchEventHandlers_positions() {
+        BatchAccountReadModel readModel = new BatchAccountReadModel();
+        ReadModelWrapper readModelWrapper;
+        try (MockedStatic<DependencyInjectionUtils> utilities = mockStatic(DependencyInjectionUtils.class)) {
+            utilities.when(() -> DependencyInjectionUtils.getInstance(any(Class.class))).thenReturn(Optional.of(readModel));
+            readModelWrapper = ReadModelWrapper.of(BatchAccountReadModel.class).get();
+        }
+        DewdropAccountCreated created = new DewdropAccountCreated(UUID.randomUUID(), "first", UUID.randomUUID());
+        DewdropFundsAddedToAccount funds = new DewdropFundsAddedToAccount(created.getAccountId(), new BigDecimal(100));
+        DewdropFundsAddedToAccount moreFunds = new DewdropFundsAddedToAccount(created.getAccountId(), new BigDecimal(5));
+        DewdropAccountCreated other = new DewdropAccountCreated(UUID.randomUUID(), "other", UUID.randomUUID());
+
+        boolean handled = readModelWrapper.callBatchEventHandlers(new EventBatch<>(List.of(created, funds, moreFunds, other), new long[] {40L, 41L, 42L, 43L}));
+
+        assertThat(handled, is(true));
+        assertThat(readModel.batches.get(0).getEvents(), is(List.of(created, other)));
+        assertThat(readModel.batches.get(0).getLastPosition(), is(43L));
+        assertThat(readModel.fundsBatches.get(0).getEvents(), is(List.of(funds, moreFunds)));
+        assertThat(readModel.fundsBatches.get(0).getLastPosition(), is(42L));
+        assertThat(readModel.fundsBatches.get(0).getPosition(0), is(41L));
+    }
+}
+
+
+class BatchAccountReadModel {
+    List<EventBatch<DewdropAccountCreated>> batches = new ArrayList<>();
+    List<EventBatch<DewdropFundsAddedToAccount>> fundsBatches = new ArrayList<>();
+
+    @EventHandler
+    public void on(EventBatch<DewdropAccountCreated> batch) {
+        batches.add(batch);
+    }
+
+    @EventHandler
+    public void onFunds(EventBatch<DewdropFundsAddedToAccount> batch) {
+        fundsBatches.add(batch);
+    }
 }
 
 
@@ -0,0 +1,154 @@
+package events.dewdrop.read.readmodel.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import events.dewdrop.fixture.events.DewdropAccountCreated;
+import events.dewdrop.fixture.events.DewdropFundsAddedToAccount;
+import events.dewdrop.fixture.events.DewdropUserCreated;
+import events.dewdrop.fixture.readmodel.accountdetails.details.DewdropAccountDetails;
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.subscribe.AllPosition;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CacheSnapshotterTest {
+    @TempDir
+    Path directory;
+
+    Path path;
+    CacheSnapshotCodec codec;
+    ImprovedMapBackedInMemoryCacheProcessor<DewdropAccountDetails> processor;
+    CacheSnapshotter<DewdropAccountDetails> snapshotter;
+
+    UUID accountId = UUID.randomUUID();
+    UUID userId = UUID.randomUUID();
+    UUID otherAccountId = UUID.randomUUID();
+    UUID otherUserId = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        path = directory.resolve("accounts.snapshot");
+        codec = new CacheSnapshotCodec(new ObjectMapper().registerModule(new JavaTimeModule()));
+        processor = new ImprovedMapBackedInMemoryCacheProcessor<>(DewdropAccountDetails.class);
+        snapshotter = CacheSnapshotter.<DewdropAccountDetails>builder().path(path).processor(processor).codec(codec).create();
+    }
+
+    @Test
+    @DisplayName("snapshot() - Given a processed cache, when the snapshot is loaded into a new processor, then the cache, the foreign key index, the stashed messages and the stream positions are restored")
+    void snapshot_load() {
+        process("accounts", new DewdropAccountCreated(accountId, "test", userId), 3L);
+        process("accounts", new DewdropFundsAddedToAccount(accountId, new BigDecimal(20)), 4L);
+        process("users", new DewdropUserCreated(userId, "tester"), 7L);
+        process("accounts", new DewdropFundsAddedToAccount(otherAccountId, new BigDecimal(5)), 5L);
+        process("users", new DewdropUserCreated(otherUserId, "waiting"), 8L);
+
+        snapshotter.snapshot();
+
+        ImprovedMapBackedInMemoryCacheProcessor<DewdropAccountDetails> restored = new ImprovedMapBackedInMemoryCacheProcessor<>(DewdropAccountDetails.class);
+        CacheSnapshotter<DewdropAccountDetails> reloaded = CacheSnapshotter.<DewdropAccountDetails>builder().path(path).processor(restored).codec(codec).create();
+        assertThat(reloaded.load(), is(true));
+
+        DewdropAccountDetails details = restored.getCache().get(accountId);
+        assertThat(details.getBalance(), is(new BigDecimal(20)));
+        assertThat(details.getUsername(), is("tester"));
+        assertThat(restored.getForeignCacheIndex().get(userId), is(accountId));
+        assertThat(restored.getPrimaryStashedMessages().get(otherAccountId).get(0), is(new DewdropFundsAddedToAccount(otherAccountId, new BigDecimal(5))));
+        assertThat(((DewdropUserCreated) restored.getForeignStashedMessages().get(otherUserId).get(0)).getUsername(), is("waiting"));
+        assertThat(reloaded.load("accounts"), is(Optional.of(5L)));
+        assertThat(reloaded.load("users"), is(Optional.of(8L)));
+
+        reloaded.process("accounts", new DewdropAccountCreated(otherAccountId, "other", otherUserId), restored::process);
+        assertThat(restored.getCache().get(otherAccountId).getBalance(), is(new BigDecimal(5)));
+        assertThat(restored.getCache().get(otherAccountId).getUsername(), is("waiting"));
+    }
+
+    @Test
+    @DisplayName("snapshot() - Given nothing was processed since the last snapshot, when snapshot() is called, then no snapshot is written")
+    void snapshot_unchanged() {
+        process("accounts", new DewdropAccountCreated(accountId, "test", userId), 0L);
+        snapshotter.snapshot();
+        snapshotter.snapshot();
+
+        assertThat(snapshotter.getSnapshots(), is(1L));
+        assertThat(Files.exists(directory.resolve("accounts.snapshot.tmp")), is(false));
+    }
+
+    @Test
+    @DisplayName("save() - Given a position from before the stream position, when it is saved, then the position does not move back")
+    void save_position() {
+        process("accounts", new DewdropAccountCreated(accountId, "test", userId), 10L);
+        process("accounts", new DewdropFundsAddedToAccount(accountId, new BigDecimal(1)), 2L);
+
+        assertThat(snapshotter.position("accounts"), is(Optional.of(10L)));
+        assertThat(snapshotter.position("users"), is(Optional.empty()));
+    }
+
+    @Test
+    @DisplayName("process() - Given an event carrying the revision in its aggregate stream, when it is processed, then the position of the stream is only taken from the checkpoint saved")
+    void process_eventPositionIgnored() {
+        DewdropAccountCreated event = new DewdropAccountCreated(accountId, "test", userId);
+        event.setPosition(0L);
+        snapshotter.handling("$ce-DewdropAccountAggregate");
+        snapshotter.process("$ce-DewdropAccountAggregate", event, processor::process);
+        assertThat(snapshotter.position("$ce-DewdropAccountAggregate"), is(Optional.empty()));
+
+        snapshotter.save("$ce-DewdropAccountAggregate", 41L);
+        assertThat(snapshotter.position("$ce-DewdropAccountAggregate"), is(Optional.of(41L)));
+    }
+
+    @Test
+    @DisplayName("snapshot() - Given an event in the cache whose position has not been saved, when snapshot() is called, then no snapshot is written until the position is saved")
+    void snapshot_unsaved() {
+        snapshotter.handling("accounts");
+        snapshotter.process("accounts", new DewdropAccountCreated(accountId, "test", userId), processor::process);
+
+        snapshotter.snapshot();
+        assertThat(snapshotter.getSnapshots(), is(0L));
+        assertThat(Files.exists(path), is(false));
+
+        snapshotter.save("accounts", 3L);
+        snapshotter.snapshot();
+        assertThat(snapshotter.getSnapshots(), is(1L));
+    }
+
+    @Test
+    @DisplayName("saveAll() - Given a stream read from $all, when its $all position is saved, then it is snapshotted and not moved back")
+    void saveAll_snapshot() {
+        process("accounts", new DewdropAccountCreated(accountId, "test", userId), 0L);
+        snapshotter.saveAll("$all-accounts", new AllPosition(20L, 18L));
+        snapshotter.saveAll("$all-accounts", new AllPosition(10L, 9L));
+        snapshotter.snapshot();
+
+        CacheSnapshotter<DewdropAccountDetails> reloaded = CacheSnapshotter.<DewdropAccountDetails>builder().path(path).processor(new ImprovedMapBackedInMemoryCacheProcessor<>(DewdropAccountDetails.class)).codec(codec).create();
+        assertThat(reloaded.load(), is(true));
+        assertThat(reloaded.loadAll("$all-accounts"), is(Optional.of(new AllPosition(20L, 18L))));
+    }
+
+    @Test
+    @DisplayName("load() - Given a snapshot that cannot be read, when it is loaded, then it is ignored and the cache stays empty")
+    void load_corrupt() throws IOException {
+        Files.write(path, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(snapshotter.load(), is(false));
+        assertThat(processor.getCache().isEmpty(), is(true));
+        assertThat(snapshotter.load("accounts"), is(Optional.empty()));
+    }
+
+    private void process(String streamName, Event event, long position) {
+        snapshotter.handling(streamName);
+        snapshotter.process(streamName, event, processor::process);
+        snapshotter.save(streamName, position);
+    }
+}
@@ -0,0 +1,169 @@
+package events.dewdrop.read.readmodel.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentUuidMapTest {
+    @Test
+    @DisplayName("put() - Given a new key, when put() is called, then the value can be read back and replaced")
+    void put() {
+        ConcurrentUuidMap<String> map = new ConcurrentUuidMap<>();
+        UUID id = UUID.randomUUID();
+
+        assertThat(map.put(id, "first"), is(nullValue()));
+        assertThat(map.put(id, "second"), is("first"));
+        assertThat(map.putIfAbsent(id, "third"), is("second"));
+
+        assertThat(map.get(id), is("second"));
+        assertThat(map.containsKey(id), is(true));
+        assertThat(map.containsKey(UUID.randomUUID()), is(false));
+        assertThat(map.get("not a uuid"), is(nullValue()));
+        assertThat(map.size(), is(1));
+    }
+
+    @Test
+    @DisplayName("put() - Given a null key or value, when put() is called, then a NullPointerException is thrown")
+    void put_null() {
+        ConcurrentUuidMap<String> map = new ConcurrentUuidMap<>();
+
+        assertThrows(NullPointerException.class, () -> map.put(null, "value"));
+        assertThrows(NullPointerException.class, () -> map.put(UUID.randomUUID(), null));
+    }
+
+    @Test
+    @DisplayName("put() - Given random puts and removes, when they are applied to the map and a HashMap, then both hold the same entries as the table grows")
+    void put_remove_random() {
+        ConcurrentUuidMap<Integer> map = new ConcurrentUuidMap<>();
+        Map<UUID, Integer> expected = new HashMap<>();
+        List<UUID> keys = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            keys.add(new UUID(random.nextInt(8), random.nextLong()));
+        }
+
+        for (int i = 0; i < 50000; i++) {
+            UUID key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key), is(expected.remove(key)));
+            } else {
+                assertThat(map.put(key, i), is(expected.put(key, i)));
+            }
+        }
+
+        assertThat(map.size(), is(expected.size()));
+        assertThat(map, is(expected));
+        assertThat(expected.equals(map), is(true));
+        keys.forEach(key -> assertThat(map.get(key), is(expected.get(key))));
+    }
+
+    @Test
+    @DisplayName("remove() - Given a key and a value, when remove() or replace() is called with a different value, then the map is not changed")
+    void remove_conditional() {
+        ConcurrentUuidMap<String> map = new ConcurrentUuidMap<>();
+        UUID id = UUID.randomUUID();
+        map.put(id, "value");
+
+        assertThat(map.remove(id, "other"), is(false));
+        assertThat(map.replace(id, "other", "new"), is(false));
+        assertThat(map.replace(id, "value", "new"), is(true));
+        assertThat(map.replace(UUID.randomUUID(), "missing"), is(nullValue()));
+        assertThat(map.remove(id, "new"), is(true));
+        assertThat(map.isEmpty(), is(true));
+    }
+
+    @Test
+    @DisplayName("entrySet() - Given entries, when they are iterated, then each entry is seen once and can be updated and removed through the iterator")
+    void entrySet() {
+        ConcurrentUuidMap<Integer> map = new ConcurrentUuidMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(UUID.randomUUID(), i);
+        }
+
+        map.entrySet().forEach(entry -> entry.setValue(entry.getValue() + 1000));
+        Iterator<Map.Entry<UUID, Integer>> iterator = map.entrySet().iterator();
+        int seen = 0;
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Integer> entry = iterator.next();
+            assertThat(map.get(entry.getKey()) >= 1000, is(true));
+            if (entry.getValue() % 2 == 0) {
+                iterator.remove();
+            }
+            seen++;
+        }
+
+        assertThat(seen, is(100));
+        assertThat(map.size(), is(50));
+        assertThat(map.values().stream().allMatch(value -> value % 2 == 1), is(true));
+    }
+
+    @Test
+    @DisplayName("ConcurrentUuidMap() - Given an expected size, when the map is created, then the table holds that many entries without growing")
+    void constructor_expectedSize() {
+        ConcurrentUuidMap<String> map = new ConcurrentUuidMap<>(1000);
+        int capacity = map.capacity();
+        for (int i = 0; i < 1000; i++) {
+            map.put(UUID.randomUUID(), "value");
+        }
+
+        assertThat(capacity, is(2048));
+        assertThat(map.capacity(), is(capacity));
+    }
+
+    @Test
+    @DisplayName("get() - Given a writer growing and shrinking the map, when readers look up keys that are never removed, then they always find them")
+    void get_concurrent() {
+        ConcurrentUuidMap<Integer> map = new ConcurrentUuidMap<>();
+        List<UUID> stable = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            UUID id = UUID.randomUUID();
+            stable.add(id);
+            map.put(id, i);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+        List<CompletableFuture<Void>> readers = new ArrayList<>();
+        for (int reader = 0; reader < 3; reader++) {
+            readers.add(CompletableFuture.runAsync(() -> {
+                while (running.get()) {
+                    for (int i = 0; i < stable.size(); i++) {
+                        Integer value = map.get(stable.get(i));
+                        if (value == null || value != i) {
+                            misses.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+
+        List<UUID> churn = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 2000; i++) {
+                UUID id = UUID.randomUUID();
+                churn.add(id);
+                map.put(id, -1);
+            }
+            churn.forEach(map::remove);
+            churn.clear();
+        }
+        running.set(false);
+        readers.forEach(CompletableFuture::join);
+
+        assertThat(misses.get(), is(0));
+        assertThat(map.size(), is(100));
+    }
+}
@@ -2,6 +2,7 @@ package events.dewdrop.read.readmodel.cache;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -57,6 +58,7 @@ class ImprovedMapBackedInMemoryCacheProcessorTest {
         DewdropAccountDetails result = sut.getCache().get(accountId);
         assertThat(result.getAccountId(), is(accountId));
         assertThat(result.getBalance(), is(message.getFunds()));
+        assertThat(sut.getPrimaryStashedMessages().containsKey(accountId), is(false));
     }
 
     @Test
@@ -75,7 +77,7 @@ class ImprovedMapBackedInMemoryCacheProcessorTest {
         sut.process(accountCreated);
         DewdropAccountDetails result = sut.getCache().get(accountId);
         assertThat(result.getUsername(), is(userCreated.getUsername()));
-        assertThat(sut.getForeignStashedMessages().get(userId).isEmpty(), is(true));
+        assertThat(sut.getForeignStashedMessages().containsKey(userId), is(false));
     }
 
     @Test
@@ -87,7 +89,30 @@ class ImprovedMapBackedInMemoryCacheProcessorTest {
         sut.process(accountCreated);
         DewdropAccountDetails result = sut.getCache().get(accountId);
         assertThat(result.getLastLogin(), is(login.getLogin()));
-        assertThat(sut.getForeignStashedMessages().get(userId).isEmpty(), is(true));
+        assertThat(sut.getForeignStashedMessages().containsKey(userId), is(false));
     }
 
+    @Test
+    @DisplayName("process() - Given foreign messages stashed for two keys, when an item references one of them, then only the messages for that key are released")
+    void process_foreignEvent_tooSoon_otherKeyStaysStashed() {
+        UUID otherUserId = UUID.randomUUID();
+        DewdropUserCreated otherUserCreated = new DewdropUserCreated(otherUserId, "other guy");
+        sut.process(otherUserCreated);
+        sut.process(userCreated);
+        sut.process(accountCreated);
+        DewdropAccountDetails result = sut.getCache().get(accountId);
+        assertThat(result.getUsername(), is(userCreated.getUsername()));
+        assertThat(sut.getForeignStashedMessages().containsKey(userId), is(false));
+        assertThat(sut.getForeignStashedMessages().get(otherUserId), is(List.of(otherUserCreated)));
+    }
+
+    @Test
+    @DisplayName("process() - Given several foreign messages stashed for a key, when an item references it, then they are applied in the order they arrived")
+    void process_foreignEvent_tooSoon_keepsArrivalOrder() {
+        sut.process(new DewdropUserCreated(userId, "first"));
+        sut.process(new DewdropUserCreated(userId, "second"));
+        sut.process(accountCreated);
+        DewdropAccountDetails result = sut.getCache().get(accountId);
+        assertThat(result.getUsername(), is("second"));
+    }
 }
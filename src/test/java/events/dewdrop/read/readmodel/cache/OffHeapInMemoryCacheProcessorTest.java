@@ -0,0 +1,53 @@
+package events.dewdrop.read.readmodel.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import events.dewdrop.fixture.events.DewdropAccountCreated;
+import events.dewdrop.fixture.events.DewdropFundsAddedToAccount;
+import events.dewdrop.fixture.events.DewdropUserCreated;
+import events.dewdrop.fixture.readmodel.accountdetails.details.DewdropAccountDetails;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class OffHeapInMemoryCacheProcessorTest {
+    private OffHeapInMemoryCacheProcessor<DewdropAccountDetails> sut;
+
+    UUID accountId = UUID.randomUUID();
+    UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        sut = new OffHeapInMemoryCacheProcessor<>(DewdropAccountDetails.class);
+    }
+
+    @Test
+    @DisplayName("process() - Given primary and foreign events, when they are processed, then each update is written back to the off-heap cache")
+    void process() {
+        sut.process(new DewdropAccountCreated(accountId, "test", userId));
+        sut.process(new DewdropFundsAddedToAccount(accountId, new BigDecimal(25)));
+        sut.process(new DewdropUserCreated(userId, "tester"));
+
+        DewdropAccountDetails result = sut.getCache().get(accountId);
+        assertThat(sut.getCache(), instanceOf(OffHeapUuidMap.class));
+        assertThat(result.getBalance(), is(new BigDecimal(25)));
+        assertThat(result.getUsername(), is("tester"));
+        assertThat(sut.getForeignCacheIndex().get(userId), is(accountId));
+    }
+
+    @Test
+    @DisplayName("process() - Given messages that arrive before their creation event, when the creation event is processed, then the stashed messages are applied to the off-heap cache")
+    void process_outOfOrder() {
+        sut.process(new DewdropUserCreated(userId, "tester"));
+        sut.process(new DewdropFundsAddedToAccount(accountId, new BigDecimal(5)));
+        sut.process(new DewdropAccountCreated(accountId, "test", userId));
+
+        DewdropAccountDetails result = sut.getCache().get(accountId);
+        assertThat(result.getBalance(), is(new BigDecimal(5)));
+        assertThat(result.getUsername(), is("tester"));
+    }
+}
@@ -0,0 +1,151 @@
+package events.dewdrop.read.readmodel.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import events.dewdrop.fixture.readmodel.accountdetails.details.DewdropAccountDetails;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class OffHeapUuidMapTest {
+    @Test
+    @DisplayName("put() - Given a value, when it is read back, then a copy with the same fields is returned")
+    void put_get() {
+        OffHeapUuidMap<DewdropAccountDetails> map = OffHeapUuidMap.<DewdropAccountDetails>builder().valueType(DewdropAccountDetails.class).create();
+        UUID accountId = UUID.randomUUID();
+        DewdropAccountDetails details = details(accountId, "test", 10);
+        details.setLastLogin(LocalDateTime.of(2022, 1, 2, 3, 4));
+
+        assertThat(map.put(accountId, details), is(nullValue()));
+        DewdropAccountDetails result = map.get(accountId);
+
+        assertThat(result, is(details));
+        assertThat(result, is(not(sameInstance(details))));
+        result.setBalance(new BigDecimal(99));
+        assertThat(map.get(accountId).getBalance(), is(new BigDecimal(10)));
+        assertThat(map.put(accountId, result).getBalance(), is(new BigDecimal(10)));
+        assertThat(map.get(accountId).getBalance(), is(new BigDecimal(99)));
+        assertThat(map.containsKey(accountId), is(true));
+        assertThat(map.getOffHeapBytes(), greaterThan(0L));
+    }
+
+    @Test
+    @DisplayName("put() - Given random puts of values that grow and removes, when they are applied to the map and a HashMap, then both hold the same entries as the values move and are compacted")
+    void put_remove_random() {
+        OffHeapUuidMap<String> map = OffHeapUuidMap.<String>builder().valueType(String.class).chunkSize(4096).create();
+        Map<UUID, String> expected = new HashMap<>();
+        List<UUID> keys = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            keys.add(UUID.randomUUID());
+        }
+
+        for (int i = 0; i < 20000; i++) {
+            UUID key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(4) == 0) {
+                assertThat(map.remove(key), is(expected.remove(key)));
+            } else {
+                String value = "v".repeat(1 + random.nextInt(64));
+                assertThat(map.put(key, value), is(expected.put(key, value)));
+            }
+        }
+
+        assertThat(map.size(), is(expected.size()));
+        assertThat(map, is(expected));
+        assertThat(map.getCompactions(), greaterThan(0L));
+        keys.forEach(key -> assertThat(map.get(key), is(expected.get(key))));
+    }
+
+    @Test
+    @DisplayName("set() - Given a key, when set() is called, then the value is stored without returning the previous one")
+    void set() {
+        OffHeapUuidMap<String> map = OffHeapUuidMap.<String>builder().valueType(String.class).create();
+        UUID id = UUID.randomUUID();
+
+        map.set(id, "first");
+        map.set(id, "second");
+
+        assertThat(map.get(id), is("second"));
+        assertThat(map.size(), is(1));
+        assertThat(map.putIfAbsent(id, "third"), is("second"));
+        assertThat(map.replace(id, "second", "third"), is(true));
+        assertThat(map.remove(id, "second"), is(false));
+        assertThat(map.remove(id, "third"), is(true));
+        assertThat(map.isEmpty(), is(true));
+    }
+
+    @Test
+    @DisplayName("entrySet() - Given entries, when they are iterated, then each entry is seen once and can be updated and removed through the iterator")
+    void entrySet() {
+        OffHeapUuidMap<Integer> map = OffHeapUuidMap.<Integer>builder().valueType(Integer.class).create();
+        for (int i = 0; i < 100; i++) {
+            map.put(UUID.randomUUID(), i);
+        }
+
+        map.entrySet().forEach(entry -> entry.setValue(entry.getValue() + 1000));
+        Iterator<Map.Entry<UUID, Integer>> iterator = map.entrySet().iterator();
+        int seen = 0;
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Integer> entry = iterator.next();
+            if (entry.getValue() % 2 == 0) {
+                iterator.remove();
+            }
+            seen++;
+        }
+
+        assertThat(seen, is(100));
+        assertThat(map.size(), is(50));
+        assertThat(map.values().stream().allMatch(value -> value >= 1000 && value % 2 == 1), is(true));
+    }
+
+    @Test
+    @DisplayName("entrySet() - Given an iteration in progress, when enough entries are put to resize the index, then the iteration goes on and sees each entry from before it started once")
+    void entrySet_resize() {
+        OffHeapUuidMap<Integer> map = OffHeapUuidMap.<Integer>builder().valueType(Integer.class).chunkSize(256).create();
+        Map<UUID, Integer> before = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            UUID key = UUID.randomUUID();
+            map.put(key, i);
+            before.put(key, i);
+        }
+
+        Iterator<Map.Entry<UUID, Integer>> iterator = map.entrySet().iterator();
+        Map<UUID, Integer> seen = new HashMap<>();
+        Map.Entry<UUID, Integer> first = iterator.next();
+        seen.put(first.getKey(), first.getValue());
+        for (int i = 0; i < 100; i++) {
+            map.put(UUID.randomUUID(), 100 + i);
+        }
+        int count = 1;
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Integer> entry = iterator.next();
+            seen.put(entry.getKey(), entry.getValue());
+            count++;
+        }
+
+        assertThat(count, is(10));
+        assertThat(seen, is(before));
+        assertThat(map.size(), is(110));
+    }
+
+    private DewdropAccountDetails details(UUID accountId, String name, int balance) {
+        DewdropAccountDetails details = new DewdropAccountDetails();
+        details.setAccountId(accountId);
+        details.setName(name);
+        details.setBalance(new BigDecimal(balance));
+        return details;
+    }
+}
@@ -1,14 +1,22 @@
 package events.dewdrop.read.readmodel.stream;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import events.dewdrop.aggregate.AggregateRoot;
 import events.dewdrop.fixture.automated.DewdropAccountAggregate;
 import events.dewdrop.fixture.events.DewdropAccountCreated;
+import events.dewdrop.fixture.readmodel.accountdetails.details.DewdropAccountDetails;
 import events.dewdrop.fixture.readmodel.accountdetails.details.DewdropAccountDetailsReadModel;
 import events.dewdrop.read.readmodel.ReadModel;
 import events.dewdrop.read.readmodel.ReadModelWrapper;
 import events.dewdrop.read.readmodel.annotation.CategoryStream;
+import events.dewdrop.read.readmodel.cache.CacheSnapshotCodec;
+import events.dewdrop.read.readmodel.cache.CacheSnapshotter;
+import events.dewdrop.read.readmodel.cache.ImprovedMapBackedInMemoryCacheProcessor;
 import events.dewdrop.read.readmodel.cache.InMemoryCacheProcessor;
 import events.dewdrop.read.readmodel.cache.MapBackedInMemoryCacheProcessor;
+import events.dewdrop.read.readmodel.stream.subscription.OverflowPolicy;
+import events.dewdrop.read.readmodel.stream.subscription.SubscriptionBufferSettings;
+import events.dewdrop.streamstore.checkpoint.FileCheckpointStore;
 import events.dewdrop.streamstore.stream.PrefixStreamNameGenerator;
 import events.dewdrop.structure.StreamNameGenerator;
 import events.dewdrop.structure.datastore.StreamStore;
@@ -20,10 +28,12 @@ import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -132,6 +142,60 @@ class StreamFactoryTest {
         }
     }
 
+    @Test
+    @DisplayName("fromStreamAnnotation() - Given a CheckpointStore, when we do not have an InMemoryCache or a StartPositionMethod, then the stream resumes from its checkpoint")
+    void fromStreamAnnotation_checkpoint(@TempDir Path directory) {
+        FileCheckpointStore checkpointStore = FileCheckpointStore.builder().path(directory.resolve("checkpoints")).create();
+        streamFactory = new StreamFactory(streamStore, eventSerializer, streamNameGenerator, null, null, checkpointStore);
+        readModel = new ReadModel(ReadModelWrapper.of(DewdropAccountDetailsReadModel.class).get(), Optional.empty());
+        try (MockedStatic<StreamUtils> utilities = mockStatic(StreamUtils.class)) {
+            utilities.when(() -> StreamUtils.getStreamStartPositionMethod(anyString(), any(StreamType.class), any())).thenReturn(Optional.empty());
+
+            StreamDetails streamDetails = streamFactory.fromStreamAnnotation(new StreamAnnotationDetails(streamAnnotation), readModel);
+
+            assertThat(streamDetails.getSubscriptionStartStrategy(), is(SubscriptionStartStrategy.START_FROM_CHECKPOINT));
+            assertThat(streamDetails.getCheckpoint().getKey(), is(DewdropAccountDetailsReadModel.class.getName() + "/" + streamDetails.getStreamName()));
+        } finally {
+            checkpointStore.close();
+        }
+    }
+
+    @Test
+    @DisplayName("constructor() - Given a CheckpointStore and subscription buffers that drop events, then throw an IllegalArgumentException")
+    void constructor_checkpointWithDropPolicy(@TempDir Path directory) {
+        FileCheckpointStore checkpointStore = FileCheckpointStore.builder().path(directory.resolve("checkpoints")).create();
+        SubscriptionBufferSettings dropping = SubscriptionBufferSettings.builder().capacity(16).overflowPolicy(OverflowPolicy.DROP_OLDEST).create();
+        SubscriptionBufferSettings blocking = SubscriptionBufferSettings.builder().capacity(16).overflowPolicy(OverflowPolicy.BLOCK).create();
+        try {
+            assertThrows(IllegalArgumentException.class, () -> new StreamFactory(streamStore, eventSerializer, streamNameGenerator, null, dropping, checkpointStore));
+            assertNotNull(new StreamFactory(streamStore, eventSerializer, streamNameGenerator, null, blocking, checkpointStore));
+            assertThat(new StreamFactory(streamStore, eventSerializer, streamNameGenerator, null, dropping, null).dropsEvents(), is(true));
+        } finally {
+            checkpointStore.close();
+        }
+    }
+
+    @Test
+    @DisplayName("fromStreamAnnotation() - Given a read model whose cache is snapshotted, when the stream is created, then it resumes from the snapshot position and records the positions of its events")
+    void fromStreamAnnotation_cacheSnapshot(@TempDir Path directory) {
+        CacheSnapshotter<DewdropAccountDetails> cacheSnapshotter = CacheSnapshotter.<DewdropAccountDetails>builder().path(directory.resolve("accounts.snapshot")).processor(new ImprovedMapBackedInMemoryCacheProcessor<>(DewdropAccountDetails.class))
+                        .codec(new CacheSnapshotCodec(new ObjectMapper())).create();
+        readModel.setCacheSnapshotter(cacheSnapshotter);
+
+        try (MockedStatic<EventHandlerUtils> eventHandlerUtils = mockStatic(EventHandlerUtils.class)) {
+            eventHandlerUtils.when(() -> EventHandlerUtils.getEventHandlers(readModel)).thenReturn(List.of(DewdropAccountCreated.class));
+
+            StreamDetails streamDetails = streamFactory.fromStreamAnnotation(new StreamAnnotationDetails(streamAnnotation), readModel);
+            DewdropAccountCreated event = new DewdropAccountCreated(UUID.randomUUID(), "test", UUID.randomUUID());
+            streamDetails.getEventHandler().accept(event);
+            streamDetails.getCheckpoint().save(12L);
+
+            assertThat(streamDetails.getSubscriptionStartStrategy(), is(SubscriptionStartStrategy.START_FROM_CHECKPOINT));
+            assertThat(streamDetails.getCheckpoint().getKey(), is(streamDetails.getStreamName()));
+            assertThat(streamDetails.getCheckpoint().load(), is(Optional.of(12L)));
+        }
+    }
+
     @Test
     @DisplayName("fromAggregateRoot() - Given an AggregateRoot and a UUID, when fromAggregateRoot() is called, then return StreamDetails")
     void fromAggregateRoot() {
@@ -4,15 +4,18 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import events.dewdrop.fixture.events.DewdropUserCreated;
+import events.dewdrop.fixture.events.DewdropUserDeactivate;
 import events.dewdrop.read.readmodel.stream.subscription.Subscription;
 import events.dewdrop.streamstore.eventstore.EventStore;
 import events.dewdrop.streamstore.serialize.JsonSerializer;
@@ -20,6 +23,7 @@ import events.dewdrop.structure.datastore.StreamStore;
 import events.dewdrop.structure.events.ReadEventData;
 import events.dewdrop.structure.serialize.EventSerializer;
 import events.dewdrop.structure.subscribe.SubscribeRequest;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
@@ -58,13 +62,13 @@ class StreamListenerTest {
     void onEvent() {
         DewdropUserCreated event = new DewdropUserCreated();
         when(eventSerializer.deserialize(any(ReadEventData.class))).thenReturn(Optional.of(event));
-        doNothing().when(subscription).publish(any(DewdropUserCreated.class));
+        doNothing().when(subscription).publish(any(DewdropUserCreated.class), anyLong());
         Consumer<ReadEventData> readEventDataConsumer = streamListener.onEvent(subscription);
         doReturn(50L).when(readEventData).getEventNumber();
         readEventDataConsumer.accept(readEventData);
 
         assertThat(streamListener.getStreamPosition().get(), is(50L));
-        verify(subscription, times(1)).publish(event);
+        verify(subscription, times(1)).publish(event, 50L);
     }
 
     @Test
@@ -78,7 +82,38 @@ class StreamListenerTest {
         readEventDataConsumer.accept(readEventData);
 
         assertThat(streamListener.getStreamPosition().get(), is(0L));
-        verify(subscription, times(0)).publish(event);
+        verify(subscription, times(0)).publish(eq(event), anyLong());
+    }
+
+    @Test
+    @DisplayName("onEvent() - Given a ReadEventData whose type the subscription does not handle, when it arrives, then it is skipped without being deserialized and the stream position still moves on")
+    void onEvent_unhandledEventType() {
+        doReturn(List.of(DewdropUserCreated.class)).when(subscription).getMessageTypes();
+        doReturn("DewdropAccountCreated").when(readEventData).getEventType();
+        doReturn(12L).when(readEventData).getEventNumber();
+
+        streamListener.onEvent(subscription).accept(readEventData);
+
+        verify(eventSerializer, never()).deserialize(any(ReadEventData.class));
+        verify(subscription, never()).publish(any(DewdropUserCreated.class), anyLong());
+        assertThat(streamListener.getSkippedEvents().get(), is(1L));
+        assertThat(streamListener.getDeserializedEvents().get(), is(0L));
+        assertThat(streamListener.getStreamPosition().get(), is(12L));
+    }
+
+    @Test
+    @DisplayName("onEvent() - Given a ReadEventData whose type the subscription handles, when it arrives, then it is deserialized and published")
+    void onEvent_handledEventType() {
+        DewdropUserCreated event = new DewdropUserCreated();
+        doReturn(List.of(DewdropUserCreated.class, DewdropUserDeactivate.class)).when(subscription).getMessageTypes();
+        doReturn("DewdropUserCreated").when(readEventData).getEventType();
+        doReturn(Optional.of(event)).when(eventSerializer).deserialize(readEventData);
+
+        streamListener.onEvent(subscription).accept(readEventData);
+
+        verify(subscription, times(1)).publish(eq(event), anyLong());
+        assertThat(streamListener.getSkippedEvents().get(), is(0L));
+        assertThat(streamListener.getDeserializedEvents().get(), is(1L));
     }
 
     @Test
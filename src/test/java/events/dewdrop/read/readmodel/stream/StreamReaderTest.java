@@ -1,22 +1,32 @@
 package events.dewdrop.read.readmodel.stream;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import events.dewdrop.aggregate.AggregateRoot;
 import events.dewdrop.api.result.Result;
+import events.dewdrop.fixture.automated.DewdropSnapshotAggregate;
 import events.dewdrop.fixture.automated.DewdropUserAggregate;
 import events.dewdrop.fixture.command.DewdropCreateUserCommand;
+import events.dewdrop.fixture.events.DewdropAccountCreated;
 import events.dewdrop.fixture.events.DewdropUserCreated;
 import events.dewdrop.fixture.events.DewdropUserEvent;
+import events.dewdrop.fixture.readmodel.accountdetails.details.DewdropAccountDetails;
 import events.dewdrop.fixture.readmodel.accountdetails.details.DewdropAccountDetailsReadModel;
+import events.dewdrop.read.readmodel.cache.CacheSnapshotCodec;
+import events.dewdrop.read.readmodel.cache.CacheSnapshotter;
+import events.dewdrop.read.readmodel.cache.ImprovedMapBackedInMemoryCacheProcessor;
 import events.dewdrop.streamstore.eventstore.EventStore;
+import events.dewdrop.streamstore.checkpoint.FileCheckpointStore;
 import events.dewdrop.streamstore.repository.StreamStoreGetByIDRequest;
 import events.dewdrop.streamstore.serialize.JsonSerializer;
 import events.dewdrop.streamstore.stream.PrefixStreamNameGenerator;
 import events.dewdrop.structure.StreamNameGenerator;
 import events.dewdrop.structure.api.Event;
 import events.dewdrop.structure.datastore.StreamStore;
+import events.dewdrop.structure.events.AggregateSnapshot;
 import events.dewdrop.structure.events.ReadEventData;
 import events.dewdrop.structure.events.StreamReadResults;
 import events.dewdrop.structure.read.Direction;
+import events.dewdrop.structure.read.EventBatch;
 import events.dewdrop.structure.read.ReadRequest;
 import events.dewdrop.structure.serialize.EventSerializer;
 import events.dewdrop.utils.DependencyInjectionUtils;
@@ -25,12 +35,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 
 import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
@@ -114,6 +130,27 @@ class StreamReaderTest {
         assertThat(streamReader.getStreamPosition().get(), is(11L));
     }
 
+    @Test
+    @DisplayName("read() - Given stream details with a batch event handler, when a page is read, then each event is handled and the page is handed to the batch event handler with the position of its last event")
+    void read_batchEventHandler() {
+        List<Event> handled = new ArrayList<>();
+        List<EventBatch<Event>> batches = new ArrayList<>();
+        streamDetails.setEventHandler((Consumer<Event>) handled::add);
+        streamDetails.setBatchEventHandler((Consumer<EventBatch<Event>>) batches::add);
+        DewdropUserCreated event = new DewdropUserCreated(UUID.randomUUID(), "userName");
+        doReturn(Optional.of(event)).when(eventSerializer).deserialize(any(ReadEventData.class));
+        ReadEventData data = results.getEvents().get(0);
+        doReturn(10L).when(data).getPosition();
+        doReturn(results).when(streamStore).read(any(ReadRequest.class));
+
+        streamReader.read(10L, null);
+
+        assertThat(batches.size(), is(1));
+        assertThat(batches.get(0).getEvents(), is(List.of(event)));
+        assertThat(batches.get(0).getLastPosition(), is(10L));
+        assertThat(handled, is(List.of(event)));
+    }
+
     @Test
     @DisplayName("read() - Given a start position, when stream does not exist, then set streamExists to false and return false")
     void read_streamDoesNotExist() {
@@ -210,6 +247,90 @@ class StreamReaderTest {
         verify(streamReader, times(0)).startFromEnd();
     }
 
+    @Test
+    @DisplayName("nameAndPosition() - Given a stream with a saved checkpoint, when the SubscriptionStartStrategy is START_FROM_CHECKPOINT, then it resumes from the checkpoint")
+    void nameAndPosition_checkpoint(@TempDir Path directory) {
+        FileCheckpointStore checkpointStore = FileCheckpointStore.builder().path(directory.resolve("checkpoints")).create();
+        checkpointStore.save("users", 41L);
+        streamDetails.setCheckpoint(new StreamCheckpoint(checkpointStore, "users"));
+        streamDetails.setSubscriptionStartStrategy(SubscriptionStartStrategy.START_FROM_CHECKPOINT);
+
+        NameAndPosition nameAndPosition = streamReader.nameAndPosition();
+
+        assertThat(nameAndPosition.getPosition(), is(41L));
+        assertThat(nameAndPosition.isComplete(), is(true));
+        checkpointStore.close();
+    }
+
+    @Test
+    @DisplayName("nameAndPosition() - Given a stream without a checkpoint yet, when the SubscriptionStartStrategy is START_FROM_CHECKPOINT, then it reads the whole stream")
+    void nameAndPosition_noCheckpoint(@TempDir Path directory) {
+        FileCheckpointStore checkpointStore = FileCheckpointStore.builder().path(directory.resolve("checkpoints")).create();
+        streamDetails.setCheckpoint(new StreamCheckpoint(checkpointStore, "users"));
+        streamDetails.setSubscriptionStartStrategy(SubscriptionStartStrategy.START_FROM_CHECKPOINT);
+
+        assertThat(streamReader.nameAndPosition().getPosition(), is(0L));
+        verify(streamReader, times(1)).readAll();
+        checkpointStore.close();
+    }
+
+    @Test
+    @DisplayName("read() - Given a checkpointed stream, when a page is read, then the position of its last event is saved as the checkpoint")
+    void read_checkpoint(@TempDir Path directory) {
+        FileCheckpointStore checkpointStore = FileCheckpointStore.builder().path(directory.resolve("checkpoints")).create();
+        streamDetails.setCheckpoint(new StreamCheckpoint(checkpointStore, "users"));
+        doReturn(results).when(streamStore).read(any(ReadRequest.class));
+        doNothing().when(streamReader).eventRead(any(ReadEventData.class));
+
+        streamReader.read(10L, null);
+
+        assertThat(checkpointStore.load("users"), is(Optional.of(10L)));
+        checkpointStore.close();
+    }
+
+    @Test
+    @DisplayName("read() - Given a category stream checkpointed by a cache snapshot, when an event at revision 0 of its aggregate is read at position 41 of the category, then the snapshot resumes the stream from 41")
+    void read_cacheSnapshotCheckpoint(@TempDir Path directory) {
+        ImprovedMapBackedInMemoryCacheProcessor<DewdropAccountDetails> processor = new ImprovedMapBackedInMemoryCacheProcessor<>(DewdropAccountDetails.class);
+        CacheSnapshotCodec codec = new CacheSnapshotCodec(new ObjectMapper());
+        CacheSnapshotter<DewdropAccountDetails> snapshotter = CacheSnapshotter.<DewdropAccountDetails>builder().path(directory.resolve("accounts.snapshot")).processor(processor).codec(codec).create();
+        streamDetails.setCheckpoint(new StreamCheckpoint(snapshotter, "$ce-DewdropAccountAggregate"));
+        streamDetails.setEventHandler((Consumer<Event>) event -> snapshotter.process("$ce-DewdropAccountAggregate", event, processor::process));
+        ReadEventData data = mock(ReadEventData.class);
+        doReturn(0L).when(data).getEventNumber();
+        DewdropAccountCreated event = new DewdropAccountCreated(UUID.randomUUID(), "test", UUID.randomUUID());
+        event.setPosition(0L);
+        doReturn(Optional.of(event)).when(eventSerializer).deserialize(data);
+        doReturn(new StreamReadResults("$ce-DewdropAccountAggregate", 41L, Direction.FORWARD, List.of(data), 42L, 41L, true)).when(streamStore).read(any(ReadRequest.class));
+
+        streamReader.read(41L, null);
+        snapshotter.snapshot();
+
+        CacheSnapshotter<DewdropAccountDetails> reloaded =
+                        CacheSnapshotter.<DewdropAccountDetails>builder().path(directory.resolve("accounts.snapshot")).processor(new ImprovedMapBackedInMemoryCacheProcessor<>(DewdropAccountDetails.class)).codec(codec).create();
+        assertThat(reloaded.load(), is(true));
+        assertThat(reloaded.load("$ce-DewdropAccountAggregate"), is(Optional.of(41L)));
+    }
+
+    @Test
+    @DisplayName("read() - Given a checkpointed stream, when the event handler throws, then the checkpoint is not moved past the event")
+    void read_checkpointHeld(@TempDir Path directory) {
+        FileCheckpointStore checkpointStore = FileCheckpointStore.builder().path(directory.resolve("checkpoints")).create();
+        StreamCheckpoint checkpoint = new StreamCheckpoint(checkpointStore, "users");
+        streamDetails.setCheckpoint(checkpoint);
+        streamDetails.setEventHandler(event -> {
+            throw new IllegalStateException("boom");
+        });
+        doReturn(results).when(streamStore).read(any(ReadRequest.class));
+        doReturn(Optional.of(new DewdropUserCreated(UUID.randomUUID(), "test"))).when(eventSerializer).deserialize(any(ReadEventData.class));
+
+        streamReader.read(10L, null);
+
+        assertThat(checkpoint.isHeld(), is(true));
+        assertThat(checkpointStore.load("users"), is(Optional.empty()));
+        checkpointStore.close();
+    }
+
     @Test
     @DisplayName("nameAndPosition() - Given a call to nameAndPosition(), when the SubscriptionStartStrategy is START_END_ONLY, then confirm startFromEnd() is called")
     void nameAndPosition_startFromEnd() {
@@ -414,6 +535,78 @@ class StreamReaderTest {
         verify(eventSerializer, times(1)).deserialize(any(ReadEventData.class));
     }
 
+    @Test
+    @DisplayName("getById() - Given an aggregate with a snapshot, when we getById(), confirm that the snapshot state is used and only the tail of the stream is read")
+    void getById_fromSnapshot() {
+        AggregateRoot aggregateRoot = new AggregateRoot(new DewdropSnapshotAggregate());
+        UUID id = UUID.randomUUID();
+        DewdropSnapshotAggregate state = new DewdropSnapshotAggregate();
+        state.setSnapshotId(id);
+        StreamReadResults snapshotResults = new StreamReadResults("Snapshot", 0L, Direction.BACKWARD, List.of(mock(ReadEventData.class)), 10L, 9L, true);
+        StreamReadResults tail = new StreamReadResults("Test", 10L, Direction.FORWARD, List.of(), 10L, 9L, true);
+        StreamNameGenerator streamNameGenerator = streamDetails.getStreamNameGenerator();
+        doReturn("DewdropSnapshotAggregateSnapshot").when(streamNameGenerator).generateForSnapshot(anyString(), any(UUID.class));
+        doReturn(snapshotResults).doReturn(tail).when(streamStore).read(any(ReadRequest.class));
+        doReturn(Optional.of(new AggregateSnapshot(9L, state))).when(eventSerializer).deserializeSnapshot(any(ReadEventData.class));
+
+        StreamStoreGetByIDRequest request = new StreamStoreGetByIDRequest(aggregateRoot, id, Integer.MAX_VALUE, new DewdropCreateUserCommand(id, "Test"));
+        AggregateRoot byId = streamReader.getById(request);
+
+        assertThat(byId.getTarget(), is(state));
+        assertThat(byId.getVersion(), is(9L));
+        ArgumentCaptor<ReadRequest> captor = ArgumentCaptor.forClass(ReadRequest.class);
+        verify(streamStore, times(2)).read(captor.capture());
+        assertThat(captor.getAllValues().get(1).getStart(), is(10L));
+    }
+
+    @Test
+    @DisplayName("getById() - Given an aggregate whose snapshot cannot be read, when we getById(), confirm that the whole stream is replayed")
+    void getById_snapshotFailure() {
+        AggregateRoot aggregateRoot = new AggregateRoot(new DewdropSnapshotAggregate());
+        UUID id = UUID.randomUUID();
+        StreamNameGenerator streamNameGenerator = streamDetails.getStreamNameGenerator();
+        doThrow(new RuntimeException("boom")).when(streamNameGenerator).generateForSnapshot(anyString(), any(UUID.class));
+        doReturn(results).when(streamStore).read(any(ReadRequest.class));
+
+        StreamStoreGetByIDRequest request = new StreamStoreGetByIDRequest(aggregateRoot, id, Integer.MAX_VALUE, null);
+        AggregateRoot byId = streamReader.getById(request);
+
+        assertThat(byId, is(aggregateRoot));
+        ArgumentCaptor<ReadRequest> captor = ArgumentCaptor.forClass(ReadRequest.class);
+        verify(streamStore, times(1)).read(captor.capture());
+        assertThat(captor.getValue().getStart(), is(0L));
+    }
+
+    @Test
+    @DisplayName("getByIdAsync() - Given an aggregate stream with two pages, when we getByIdAsync(), confirm that both pages are read in order and the aggregateRoot is hydrated")
+    void getByIdAsync() {
+        AggregateRoot aggregateRoot = new AggregateRoot(new DewdropUserAggregate());
+        UUID id = UUID.randomUUID();
+        StreamReadResults firstPage = new StreamReadResults("Test", 0L, Direction.FORWARD, List.of(mock(ReadEventData.class)), 1L, 0L, false);
+        StreamReadResults secondPage = new StreamReadResults("Test", 1L, Direction.FORWARD, List.of(mock(ReadEventData.class)), 2L, 1L, true);
+        doReturn(CompletableFuture.completedFuture(firstPage)).doReturn(CompletableFuture.completedFuture(secondPage)).when(streamStore).readAsync(any(ReadRequest.class));
+        doReturn(Optional.of(new DewdropUserCreated(id, "Test"))).when(eventSerializer).deserialize(any(ReadEventData.class));
+
+        StreamStoreGetByIDRequest request = new StreamStoreGetByIDRequest(aggregateRoot, id, Integer.MAX_VALUE, new DewdropCreateUserCommand(id, "Test"));
+        AggregateRoot byId = streamReader.getByIdAsync(request).join();
+
+        assertThat(byId.getVersion(), is(1L));
+        ArgumentCaptor<ReadRequest> captor = ArgumentCaptor.forClass(ReadRequest.class);
+        verify(streamStore, times(2)).readAsync(captor.capture());
+        assertThat(captor.getAllValues().get(0).getStart(), is(0L));
+        assertThat(captor.getAllValues().get(1).getStart(), is(1L));
+    }
+
+    @Test
+    @DisplayName("getByIdAsync() - Given an invalid version, when we getByIdAsync(), confirm that the future fails with an IllegalArgumentException")
+    void getByIdAsync_invalidVersion() {
+        AggregateRoot aggregateRoot = new AggregateRoot(new DewdropUserAggregate());
+        StreamStoreGetByIDRequest request = new StreamStoreGetByIDRequest(aggregateRoot, UUID.randomUUID(), -100, null);
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> streamReader.getByIdAsync(request).join());
+        assertThat(exception.getCause() instanceof IllegalArgumentException, is(true));
+    }
+
     @Test
     void moreToRead() {
         assertThat(streamReader.moreToRead(0L, 10L, true), is(false));
@@ -5,6 +5,7 @@ import events.dewdrop.fixture.command.DewdropAddFundsToAccountCommand;
 import events.dewdrop.fixture.events.DewdropUserCreated;
 import events.dewdrop.fixture.events.DewdropUserEvent;
 import events.dewdrop.read.readmodel.stream.subscription.Subscription;
+import events.dewdrop.streamstore.checkpoint.FileCheckpointStore;
 import events.dewdrop.streamstore.eventstore.EventStore;
 import events.dewdrop.streamstore.repository.StreamStoreGetByIDRequest;
 import events.dewdrop.streamstore.serialize.JsonSerializer;
@@ -14,16 +15,19 @@ import events.dewdrop.structure.StreamNameGenerator;
 import events.dewdrop.structure.api.Event;
 import events.dewdrop.structure.datastore.StreamStore;
 import events.dewdrop.structure.read.Direction;
+import events.dewdrop.structure.read.EventBatch;
 import events.dewdrop.structure.serialize.EventSerializer;
 import lombok.extern.log4j.Log4j2;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -101,6 +105,36 @@ class StreamTest {
         }
     }
 
+    @Test
+    @DisplayName("subscribe() - Given a stream that is already subscribed, when subscribe is called again, then the previous subscription is closed before it is replaced")
+    void subscribe_again() {
+        Subscription next = mock(Subscription.class);
+        doReturn(true).when(streamDetails).isSubscribed();
+        doReturn(true).when(subscription).subscribeByNameAndPosition(any(StreamReader.class));
+        doReturn(true).when(next).subscribeByNameAndPosition(any(StreamReader.class));
+
+        try (MockedStatic<Subscription> utilities = mockStatic(Subscription.class)) {
+            utilities.when(() -> Subscription.getInstance(any(Stream.class))).thenReturn(subscription).thenReturn(next);
+            stream.subscribe();
+            stream.subscribe();
+        }
+
+        verify(subscription, times(1)).close();
+        verify(next, times(0)).close();
+        assertThat(stream.getSubscription(), is(next));
+    }
+
+    @Test
+    @DisplayName("close() - Given a subscribed stream, when close() is called, then its subscription is closed and it stops polling for the stream")
+    void close() {
+        stream.setSubscription(subscription);
+
+        stream.close();
+
+        verify(subscription, times(1)).close();
+        assertThat(stream.getExecutorService().isShutdown(), is(true));
+    }
+
     @Test
     @DisplayName("Given a stream that is subscribed and subscribe is called, when it returns false, then confirm pollForCompletion() is called")
     void subscribe_pollForCompletion() {
@@ -142,6 +176,56 @@ class StreamTest {
         verify(streamDetails, times(1)).getEventHandler();
     }
 
+    @Test
+    @DisplayName("handleBatch() - Given a checkpointed stream, when a batch has been handled, then its last position is saved as the checkpoint")
+    void handleBatch_checkpoint(@TempDir Path directory) {
+        FileCheckpointStore checkpointStore = FileCheckpointStore.builder().path(directory.resolve("checkpoints")).create();
+        doReturn(new StreamCheckpoint(checkpointStore, "users")).when(streamDetails).getCheckpoint();
+
+        stream.handleBatch(new EventBatch<>(List.of(new DewdropUserCreated(UUID.randomUUID(), "test")), 25L));
+        stream.handleBatch(new EventBatch<>(List.of(new DewdropUserCreated(UUID.randomUUID(), "test")), EventBatch.NO_POSITION));
+
+        assertThat(checkpointStore.load("users"), is(Optional.of(25L)));
+        checkpointStore.close();
+    }
+
+    @Test
+    @DisplayName("handle() - Given a checkpointed stream, when a handler throws, then the checkpoint is held before the event and later batches do not move it")
+    void handle_failureHoldsCheckpoint(@TempDir Path directory) {
+        FileCheckpointStore checkpointStore = FileCheckpointStore.builder().path(directory.resolve("checkpoints")).create();
+        StreamCheckpoint checkpoint = new StreamCheckpoint(checkpointStore, "users");
+        doReturn(checkpoint).when(streamDetails).getCheckpoint();
+        Consumer<Event> consumer = event -> {
+            throw new IllegalStateException("boom");
+        };
+        doReturn(consumer).when(streamDetails).getEventHandler();
+
+        stream.handleBatch(new EventBatch<>(List.of(new DewdropUserCreated(UUID.randomUUID(), "test")), 25L));
+        assertThrows(IllegalStateException.class, () -> stream.handle(new DewdropUserCreated(UUID.randomUUID(), "test")));
+        stream.handleBatch(new EventBatch<>(List.of(new DewdropUserCreated(UUID.randomUUID(), "test")), 26L));
+        stream.handleBatch(new EventBatch<>(List.of(new DewdropUserCreated(UUID.randomUUID(), "test")), 27L));
+
+        assertThat(checkpoint.isHeld(), is(true));
+        assertThat(checkpointStore.load("users"), is(Optional.of(25L)));
+        checkpointStore.close();
+    }
+
+    @Test
+    @DisplayName("handleBatch() - Given a checkpointed stream, when the batch handler throws, then the checkpoint is not saved")
+    void handleBatch_failureHoldsCheckpoint(@TempDir Path directory) {
+        FileCheckpointStore checkpointStore = FileCheckpointStore.builder().path(directory.resolve("checkpoints")).create();
+        doReturn(new StreamCheckpoint(checkpointStore, "users")).when(streamDetails).getCheckpoint();
+        Consumer<EventBatch<Event>> batchHandler = batch -> {
+            throw new IllegalStateException("boom");
+        };
+        doReturn(batchHandler).when(streamDetails).getBatchEventHandler();
+
+        assertThrows(IllegalStateException.class, () -> stream.handleBatch(new EventBatch<>(List.of(new DewdropUserCreated(UUID.randomUUID(), "test")), 25L)));
+
+        assertThat(checkpointStore.load("users"), is(Optional.empty()));
+        checkpointStore.close();
+    }
+
     @Test
     @DisplayName("Given a call to updateState(), when the stream is not subscribed, confirm that stream.read() is called")
     void updateQueryState() {
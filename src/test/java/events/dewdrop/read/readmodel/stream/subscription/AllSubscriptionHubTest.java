@@ -0,0 +1,167 @@
+package events.dewdrop.read.readmodel.stream.subscription;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import events.dewdrop.fixture.events.DewdropAccountCreated;
+import events.dewdrop.fixture.events.DewdropUserCreated;
+import events.dewdrop.fixture.streamstore.FakeStreamStore;
+import events.dewdrop.read.readmodel.stream.Stream;
+import events.dewdrop.read.readmodel.stream.StreamCheckpoint;
+import events.dewdrop.read.readmodel.stream.StreamDetails;
+import events.dewdrop.streamstore.checkpoint.FileCheckpointStore;
+import events.dewdrop.streamstore.serialize.JsonSerializer;
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.events.ReadEventData;
+import events.dewdrop.structure.events.WriteEventData;
+import events.dewdrop.structure.read.EventBatch;
+import events.dewdrop.structure.subscribe.AllPosition;
+import events.dewdrop.structure.subscribe.SubscribeToAllRequest;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+class AllSubscriptionHubTest {
+    FakeStreamStore streamStore;
+    JsonSerializer serializer;
+    AllSubscriptionHub allSubscriptionHub;
+
+    @BeforeEach
+    void setup() {
+        streamStore = new FakeStreamStore();
+        serializer = spy(new JsonSerializer(new ObjectMapper()));
+        allSubscriptionHub = AllSubscriptionHub.getInstance(streamStore, serializer, null);
+    }
+
+    @Test
+    @DisplayName("start() - Given a category and an event type subscription, when start() is called, then one $all subscription filtered to their event types feeds each of them only its own events")
+    void start() {
+        Subscription<Event> category = subscription(DewdropUserCreated.class);
+        Subscription<Event> eventType = subscription(DewdropAccountCreated.class);
+        allSubscriptionHub.join("$ce-DewdropUserAggregate", 0L, category);
+        allSubscriptionHub.join("$et-DewdropAccountCreated", 0L, eventType);
+
+        assertThat(allSubscriptionHub.start(), is(true));
+        SubscribeToAllRequest request = streamStore.getSubscribeToAllRequests().get(0);
+        assertThat(request.getEventTypes(), is(List.of("DewdropAccountCreated", "DewdropUserCreated")));
+
+        DewdropUserCreated user = new DewdropUserCreated(UUID.randomUUID(), "user");
+        ReadEventData fromCategory = readEventData("DewdropUserAggregate-" + UUID.randomUUID(), user);
+        request.getConsumeEvent().accept(fromCategory, new AllPosition(10L, 10L));
+        request.getConsumeEvent().accept(readEventData("OtherAggregate-" + UUID.randomUUID(), user), new AllPosition(20L, 20L));
+        DewdropAccountCreated account = new DewdropAccountCreated(UUID.randomUUID(), "account", UUID.randomUUID());
+        request.getConsumeEvent().accept(readEventData("DewdropAccountAggregate-" + UUID.randomUUID(), account), new AllPosition(30L, 30L));
+
+        verify(category, times(1)).publish(eq(user), eq(EventBatch.NO_POSITION), any(Runnable.class));
+        verify(category, never()).publish(eq(account), anyLong(), any(Runnable.class));
+        verify(eventType, times(1)).publish(eq(account), eq(EventBatch.NO_POSITION), any(Runnable.class));
+        verify(serializer, times(1)).deserialize(fromCategory);
+        assertThat(streamStore.getSubscribeRequests().size(), is(0));
+        assertThat(allSubscriptionHub.getCheckpoint().get(), is(new AllPosition(30L, 30L)));
+    }
+
+    @Test
+    @DisplayName("start() - Given the server reports a checkpoint past the last event, when it arrives, then the checkpoint moves forward and never back")
+    void start_checkpoint() {
+        allSubscriptionHub.join("$ce-DewdropUserAggregate", 0L, subscription(DewdropUserCreated.class));
+        allSubscriptionHub.start();
+        SubscribeToAllRequest request = streamStore.getSubscribeToAllRequests().get(0);
+
+        request.getCheckpointReached().accept(new AllPosition(50L, 49L));
+        request.getCheckpointReached().accept(new AllPosition(40L, 40L));
+
+        assertThat(allSubscriptionHub.getCheckpoint().get(), is(new AllPosition(50L, 49L)));
+    }
+
+    @Test
+    @DisplayName("start() - Given checkpointed streams with saved $all positions, when start() is called, then $all is read from the one furthest behind, each stream skips what it handled and saves the position of each event it handles")
+    void start_resumeFromCheckpoints(@TempDir Path directory) {
+        FileCheckpointStore checkpointStore = FileCheckpointStore.builder().path(directory.resolve("checkpoints")).create();
+        checkpointStore.saveAll("users", new AllPosition(10L, 10L));
+        checkpointStore.saveAll("created", new AllPosition(30L, 30L));
+        Subscription<Event> users = subscription(DewdropUserCreated.class, new StreamCheckpoint(checkpointStore, "users"));
+        Subscription<Event> created = subscription(DewdropUserCreated.class, new StreamCheckpoint(checkpointStore, "created"));
+        allSubscriptionHub.join("$ce-DewdropUserAggregate", 0L, users);
+        allSubscriptionHub.join("$et-DewdropUserCreated", 0L, created);
+
+        allSubscriptionHub.start();
+        SubscribeToAllRequest request = streamStore.getSubscribeToAllRequests().get(0);
+        assertThat(request.getLastCheckpoint(), is(new AllPosition(10L, 10L)));
+
+        DewdropUserCreated user = new DewdropUserCreated(UUID.randomUUID(), "user");
+        request.getConsumeEvent().accept(readEventData("DewdropUserAggregate-" + UUID.randomUUID(), user), new AllPosition(20L, 20L));
+
+        ArgumentCaptor<Runnable> onHandled = ArgumentCaptor.forClass(Runnable.class);
+        verify(users, times(1)).publish(eq(user), eq(EventBatch.NO_POSITION), onHandled.capture());
+        verify(created, never()).publish(any(Event.class), anyLong(), any(Runnable.class));
+        assertThat(checkpointStore.loadAll("users"), is(Optional.of(new AllPosition(10L, 10L))));
+        onHandled.getValue().run();
+        assertThat(checkpointStore.loadAll("users"), is(Optional.of(new AllPosition(20L, 20L))));
+        checkpointStore.close();
+    }
+
+    @Test
+    @DisplayName("join() - Given a subscription that starts from a position in its stream, when it joins, then it gets a per-stream subscription instead")
+    void join_fromPosition() {
+        allSubscriptionHub.join("$ce-DewdropUserAggregate", 5L, subscription(DewdropUserCreated.class));
+
+        assertThat(allSubscriptionHub.memberCount(), is(0));
+        assertThat(streamStore.getSubscribeRequests().size(), is(1));
+    }
+
+    @Test
+    @DisplayName("start() - Given $all cannot be subscribed to, when start() is called, then every subscription falls back to its own stream")
+    void start_fallback() {
+        streamStore.setSubscribeToAll(false);
+        allSubscriptionHub.join("$ce-DewdropUserAggregate", 0L, subscription(DewdropUserCreated.class));
+        allSubscriptionHub.join("$et-DewdropAccountCreated", 0L, subscription(DewdropAccountCreated.class));
+
+        assertThat(allSubscriptionHub.start(), is(false));
+        assertThat(allSubscriptionHub.memberCount(), is(0));
+        assertThat(streamStore.getSubscribeRequests().size(), is(2));
+    }
+
+    @Test
+    @DisplayName("streamFilter() - Given a stream that is neither a category nor an event type stream, when streamFilter() is called, then it is empty")
+    void streamFilter_aggregate() {
+        assertThat(AllSubscriptionHub.streamFilter("DewdropUserAggregate-" + UUID.randomUUID()).isEmpty(), is(true));
+    }
+
+    private Subscription<Event> subscription(Class<? extends Event> messageType) {
+        Subscription<Event> subscription = mock(Subscription.class);
+        doReturn(List.of(messageType)).when(subscription).getMessageTypes();
+        return subscription;
+    }
+
+    private Subscription<Event> subscription(Class<? extends Event> messageType, StreamCheckpoint checkpoint) {
+        Subscription<Event> subscription = subscription(messageType);
+        Stream<Event> stream = mock(Stream.class);
+        StreamDetails streamDetails = mock(StreamDetails.class);
+        doReturn(checkpoint).when(streamDetails).getCheckpoint();
+        doReturn(streamDetails).when(stream).getStreamDetails();
+        doReturn(stream).when(subscription).getHandler();
+        return subscription;
+    }
+
+    private ReadEventData readEventData(String streamName, Event event) {
+        WriteEventData writeEventData = serializer.serialize(event).get();
+        return new ReadEventData(streamName, writeEventData.getEventId(), 0L, writeEventData.getEventType(), writeEventData.getData(), writeEventData.getMetadata(), true, Instant.now());
+    }
+}
@@ -0,0 +1,33 @@
+package events.dewdrop.read.readmodel.stream.subscription;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SubscriptionBufferSettingsTest {
+    @Test
+    @DisplayName("bufferFor() - Given a capacity of 0, when bufferFor() is called, then no buffer is created")
+    void bufferFor_disabled() {
+        SubscriptionBufferSettings settings = SubscriptionBufferSettings.builder().capacity(0).create();
+
+        assertThat(settings.bufferFor("test", event -> {
+        }).isPresent(), is(false));
+    }
+
+    @Test
+    @DisplayName("close() - Given buffers created by the settings, when close() is called, then every buffer is closed")
+    void close() {
+        SubscriptionBufferSettings settings = SubscriptionBufferSettings.builder().capacity(8).create();
+        SubscriptionBuffer first = settings.bufferFor("first", event -> {
+        }).get();
+        SubscriptionBuffer second = settings.bufferFor("second", event -> {
+        }).get();
+
+        settings.close();
+
+        assertThat(first.isClosed(), is(true));
+        assertThat(second.isClosed(), is(true));
+    }
+}
@@ -0,0 +1,172 @@
+package events.dewdrop.read.readmodel.stream.subscription;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import events.dewdrop.fixture.events.DewdropUserCreated;
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.read.EventBatch;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SubscriptionBufferTest {
+    SubscriptionBuffer buffer;
+
+    @AfterEach
+    void teardown() {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    @Test
+    @DisplayName("offer() - Given events offered from the callback, when the consumer drains them, then they are handled in order on another thread and counted")
+    void offer() {
+        List<Event> handled = new CopyOnWriteArrayList<>();
+        List<String> threads = new CopyOnWriteArrayList<>();
+        buffer = SubscriptionBuffer.builder().name("test").capacity(16).batchSize(4).handler(event -> {
+            handled.add(event);
+            threads.add(Thread.currentThread().getName());
+        }).create();
+        List<Event> events = events(10);
+
+        events.forEach(buffer::offer);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> handled.size() == 10);
+        assertThat(handled, is(events));
+        assertThat(threads.get(0), is("dewdrop-subscription-test"));
+        assertThat(buffer.getHandledEvents(), is(10L));
+        assertThat(buffer.getBatches(), greaterThan(0L));
+        assertThat(buffer.getQueueDepth(), is(0));
+    }
+
+    @Test
+    @DisplayName("offer() - Given a batch handler, when events are offered with their positions, then each micro-batch is handed to it with the position of each event")
+    void offer_batchHandler() {
+        List<EventBatch<Event>> batches = new CopyOnWriteArrayList<>();
+        buffer = SubscriptionBuffer.builder().capacity(16).batchSize(4).handler(event -> {
+        }).batchHandler(batches::add).create();
+        List<Event> events = events(6);
+
+        IntStream.range(0, events.size()).forEach(i -> buffer.offer(events.get(i), 100L + i));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> batches.stream().mapToInt(EventBatch::size).sum() == 6);
+        assertThat(batches.stream().flatMap(batch -> batch.getEvents().stream()).collect(Collectors.toList()), is(events));
+        assertThat(batches.get(batches.size() - 1).getLastPosition(), is(105L));
+        EventBatch<Event> last = batches.get(batches.size() - 1);
+        assertThat(last.getPosition(0), is(106L - last.size()));
+        assertThat(batches.size(), is((int) buffer.getBatches()));
+    }
+
+    @Test
+    @DisplayName("handle() - Given a handler that throws for one event, when the batch is handled, then the failure is counted and the rest of the batch is still handled")
+    void handle_failure() {
+        List<Event> handled = new CopyOnWriteArrayList<>();
+        List<Event> events = events(3);
+        buffer = SubscriptionBuffer.builder().capacity(4).handler(event -> {
+            if (event == events.get(1)) { throw new IllegalStateException("boom"); }
+            handled.add(event);
+        }).create();
+
+        buffer.handle(events);
+
+        assertThat(handled, is(List.of(events.get(0), events.get(2))));
+        assertThat(buffer.getFailedEvents(), is(1L));
+        assertThat(buffer.getHandledEvents(), is(2L));
+    }
+
+    @Test
+    @DisplayName("offer() - Given events offered with a callback, when their batch is handled, then the callbacks run in order, and not when a handler of the batch throws")
+    void offer_onHandled() {
+        List<Event> events = events(3);
+        List<Event> completed = new CopyOnWriteArrayList<>();
+        CountDownLatch failed = new CountDownLatch(1);
+        buffer = SubscriptionBuffer.builder().capacity(16).batchSize(1).handler(event -> {
+            if (event == events.get(1)) {
+                failed.countDown();
+                throw new IllegalStateException("boom");
+            }
+        }).create();
+
+        events.forEach(event -> buffer.offer(event, EventBatch.NO_POSITION, () -> completed.add(event)));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> completed.size() == 2);
+        assertThat(failed.getCount(), is(0L));
+        assertThat(completed, is(List.of(events.get(0), events.get(2))));
+    }
+
+    @Test
+    @DisplayName("offer() - Given a full buffer with DROP_NEWEST, when another event is offered, then it is dropped and counted")
+    void offer_dropNewest() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Event> handled = new CopyOnWriteArrayList<>();
+        buffer = SubscriptionBuffer.builder().capacity(1).batchSize(1).overflowPolicy(OverflowPolicy.DROP_NEWEST).handler(event -> {
+            waitFor(release);
+            handled.add(event);
+        }).create();
+        List<Event> events = events(3);
+
+        buffer.offer(events.get(0));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> buffer.getQueueDepth() == 0);
+        assertThat(buffer.offer(events.get(1)), is(true));
+        assertThat(buffer.offer(events.get(2)), is(false));
+        release.countDown();
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> handled.size() == 2);
+        assertThat(handled, is(List.of(events.get(0), events.get(1))));
+        assertThat(buffer.getDroppedEvents(), is(1L));
+        assertThat(buffer.getMaxQueueDepth(), is(1L));
+    }
+
+    @Test
+    @DisplayName("offer() - Given a full buffer with DROP_OLDEST, when another event is offered, then the oldest queued event is dropped")
+    void offer_dropOldest() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Event> handled = new CopyOnWriteArrayList<>();
+        buffer = SubscriptionBuffer.builder().capacity(1).batchSize(1).overflowPolicy(OverflowPolicy.DROP_OLDEST).handler(event -> {
+            waitFor(release);
+            handled.add(event);
+        }).create();
+        List<Event> events = events(3);
+
+        buffer.offer(events.get(0));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> buffer.getQueueDepth() == 0);
+        buffer.offer(events.get(1));
+        assertThat(buffer.offer(events.get(2)), is(true));
+        release.countDown();
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> handled.size() == 2);
+        assertThat(handled, is(List.of(events.get(0), events.get(2))));
+        assertThat(buffer.getDroppedEvents(), is(1L));
+    }
+
+    @Test
+    @DisplayName("SubscriptionBuffer() - Given a capacity of 0, when the buffer is created, then an IllegalArgumentException is thrown")
+    void create_noCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> SubscriptionBuffer.builder().capacity(0).handler(event -> {
+        }).create());
+    }
+
+    private static void waitFor(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Event> events(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new DewdropUserCreated(UUID.randomUUID(), "user" + i)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,166 @@
+package events.dewdrop.read.readmodel.stream.subscription;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import events.dewdrop.fixture.events.DewdropAccountCreated;
+import events.dewdrop.fixture.events.DewdropUserCreated;
+import events.dewdrop.fixture.streamstore.FakeStreamStore;
+import events.dewdrop.streamstore.serialize.JsonSerializer;
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.events.ReadEventData;
+import events.dewdrop.structure.events.WriteEventData;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class SubscriptionHubTest {
+    static final String STREAM = "$ce-DewdropUserAggregate";
+    FakeStreamStore streamStore;
+    JsonSerializer serializer;
+    SubscriptionHub subscriptionHub;
+
+    @BeforeEach
+    void setup() {
+        streamStore = new FakeStreamStore();
+        serializer = spy(new JsonSerializer(new ObjectMapper()));
+        subscriptionHub = SubscriptionHub.getInstance(streamStore, serializer);
+    }
+
+    @Test
+    @DisplayName("join() - Given two subscriptions on the same stream, when an event arrives, then there is one server subscription and the event is deserialized once and published to both")
+    void join_shared() {
+        Subscription<Event> first = subscription(DewdropUserCreated.class);
+        Subscription<Event> second = subscription(DewdropUserCreated.class);
+
+        assertThat(subscriptionHub.join(STREAM, 0L, first), is(true));
+        assertThat(subscriptionHub.join(STREAM, 0L, second), is(true));
+        ReadEventData readEventData = readEventData(0L, new DewdropUserCreated(UUID.randomUUID(), "user"));
+        streamStore.publish(readEventData);
+
+        assertThat(streamStore.getSubscribeRequests().size(), is(1));
+        assertThat(subscriptionHub.subscriptionCount(STREAM), is(2));
+        verify(serializer, times(1)).deserialize(readEventData);
+        verify(first, times(1)).publish(any(DewdropUserCreated.class), eq(0L));
+        verify(second, times(1)).publish(any(DewdropUserCreated.class), eq(0L));
+    }
+
+    @Test
+    @DisplayName("join() - Given a subscription behind the shared subscription, when it joins, then it catches up from the stream and then receives the live events without duplicates")
+    void join_catchUp() {
+        DewdropUserCreated zero = new DewdropUserCreated(UUID.randomUUID(), "zero");
+        DewdropUserCreated one = new DewdropUserCreated(UUID.randomUUID(), "one");
+        DewdropUserCreated two = new DewdropUserCreated(UUID.randomUUID(), "two");
+        DewdropUserCreated three = new DewdropUserCreated(UUID.randomUUID(), "three");
+        streamStore.getStored().addAll(List.of(readEventData(0L, zero), readEventData(1L, one), readEventData(2L, two)));
+        Subscription<Event> live = subscription(DewdropUserCreated.class);
+        Subscription<Event> behind = subscription(DewdropUserCreated.class);
+
+        subscriptionHub.join(STREAM, 2L, live);
+        subscriptionHub.join(STREAM, 0L, behind);
+        streamStore.publish(readEventData(2L, two));
+        streamStore.publish(readEventData(3L, three));
+
+        InOrder inOrder = inOrder(behind);
+        inOrder.verify(behind).publish(zero, 0L);
+        inOrder.verify(behind).publish(one, 1L);
+        inOrder.verify(behind).publish(two, 2L);
+        inOrder.verify(behind).publish(three, 3L);
+        verify(behind, times(4)).publish(any(Event.class), anyLong());
+        verify(live, never()).publish(eq(two), anyLong());
+        verify(live, times(1)).publish(three, 3L);
+    }
+
+    @Test
+    @DisplayName("join() - Given a shared subscription that already published events, when a subscription joins from the same start position, then it catches up on those events before going live")
+    void join_catchUpAfterDelivered() {
+        DewdropUserCreated zero = new DewdropUserCreated(UUID.randomUUID(), "zero");
+        DewdropUserCreated one = new DewdropUserCreated(UUID.randomUUID(), "one");
+        DewdropUserCreated two = new DewdropUserCreated(UUID.randomUUID(), "two");
+        streamStore.getStored().addAll(List.of(readEventData(0L, zero), readEventData(1L, one)));
+        Subscription<Event> first = subscription(DewdropUserCreated.class);
+        Subscription<Event> second = subscription(DewdropUserCreated.class);
+
+        subscriptionHub.join(STREAM, 0L, first);
+        streamStore.publish(readEventData(0L, zero));
+        streamStore.publish(readEventData(1L, one));
+        subscriptionHub.join(STREAM, 0L, second);
+        streamStore.getStored().add(readEventData(2L, two));
+        streamStore.publish(readEventData(2L, two));
+
+        InOrder inOrder = inOrder(second);
+        inOrder.verify(second).publish(zero, 0L);
+        inOrder.verify(second).publish(one, 1L);
+        inOrder.verify(second).publish(two, 2L);
+        verify(second, times(3)).publish(any(Event.class), anyLong());
+        verify(first, times(3)).publish(any(Event.class), anyLong());
+    }
+
+    @Test
+    @DisplayName("join() - Given two subscriptions on the same stream, when the first one throws, then the event is still published to the second")
+    void join_memberThrows() {
+        Subscription<Event> first = subscription(DewdropUserCreated.class);
+        Subscription<Event> second = subscription(DewdropUserCreated.class);
+        doThrow(new IllegalStateException("boom")).when(first).publish(any(Event.class), anyLong());
+        subscriptionHub.join(STREAM, 0L, first);
+        subscriptionHub.join(STREAM, 0L, second);
+
+        streamStore.publish(readEventData(0L, new DewdropUserCreated(UUID.randomUUID(), "user")));
+        streamStore.publish(readEventData(1L, new DewdropUserCreated(UUID.randomUUID(), "user")));
+
+        verify(first, times(2)).publish(any(DewdropUserCreated.class), anyLong());
+        verify(second, times(1)).publish(any(DewdropUserCreated.class), eq(0L));
+        verify(second, times(1)).publish(any(DewdropUserCreated.class), eq(1L));
+    }
+
+    @Test
+    @DisplayName("join() - Given events no subscription handles, when they arrive, then they are not deserialized")
+    void join_unhandledEventType() {
+        Subscription<Event> subscription = subscription(DewdropUserCreated.class);
+        subscriptionHub.join(STREAM, 0L, subscription);
+
+        streamStore.publish(readEventData(0L, new DewdropAccountCreated(UUID.randomUUID(), "account", UUID.randomUUID())));
+
+        verify(serializer, never()).deserialize(any(ReadEventData.class));
+        verify(subscription, never()).publish(any(Event.class), anyLong());
+    }
+
+    @Test
+    @DisplayName("join() - Given a stream that cannot be subscribed to, when join() is called, then false is returned and the next join() tries again")
+    void join_notSubscribed() {
+        streamStore.setSubscribed(false);
+        assertThat(subscriptionHub.join(STREAM, 0L, subscription(DewdropUserCreated.class)), is(false));
+        assertThat(subscriptionHub.subscriptionCount(STREAM), is(0));
+
+        streamStore.setSubscribed(true);
+        assertThat(subscriptionHub.join(STREAM, 0L, subscription(DewdropUserCreated.class)), is(true));
+        assertThat(streamStore.getSubscribeRequests().size(), is(2));
+    }
+
+    private Subscription<Event> subscription(Class<? extends Event> messageType) {
+        Subscription<Event> subscription = mock(Subscription.class);
+        doReturn(List.of(messageType)).when(subscription).getMessageTypes();
+        return subscription;
+    }
+
+    private ReadEventData readEventData(long eventNumber, Event event) {
+        WriteEventData writeEventData = serializer.serialize(event).get();
+        return new ReadEventData(STREAM, writeEventData.getEventId(), eventNumber, writeEventData.getEventType(), writeEventData.getData(), writeEventData.getMetadata(), true, Instant.now());
+    }
+}
@@ -3,11 +3,13 @@ package events.dewdrop.read.readmodel.stream.subscription;
 import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -21,12 +23,16 @@ import events.dewdrop.structure.subscribe.EventProcessor;
 import events.dewdrop.read.readmodel.stream.StreamListener;
 import events.dewdrop.read.readmodel.stream.StreamReader;
 import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.read.EventBatch;
 import events.dewdrop.structure.read.Handler;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
@@ -88,6 +94,65 @@ class SubscriptionTest {
         verify(eventProcessor, times(1)).process(event);
     }
 
+    @Test
+    @DisplayName("publish() - Given an event and its position, when it is published without a buffer, then the handler is also given a batch of the event ending at that position")
+    void publish_position() {
+        DewdropUserCreated event = new DewdropUserCreated(UUID.randomUUID(), "userName");
+        doReturn(List.of()).when(subscription).getHandlesFor(any(Class.class));
+
+        subscription.publish(event, 7L);
+
+        ArgumentCaptor<EventBatch<DewdropUserEvent>> captor = ArgumentCaptor.forClass(EventBatch.class);
+        verify(handler, times(1)).handleBatch(captor.capture());
+        assertThat(captor.getValue().getEvents(), is(List.of(event)));
+        assertThat(captor.getValue().getLastPosition(), is(7L));
+    }
+
+    @Test
+    @DisplayName("publish() - Given a callback, when the event is published without a buffer, then the callback runs after the batch was handled, and not when a handler throws")
+    void publish_onHandled() {
+        DewdropUserCreated event = new DewdropUserCreated(UUID.randomUUID(), "userName");
+        EventProcessor eventProcessor = mock(EventProcessor.class);
+        doReturn(List.of(eventProcessor)).when(subscription).getHandlesFor(any(Class.class));
+        AtomicInteger completed = new AtomicInteger();
+
+        subscription.publish(event, 7L, completed::incrementAndGet);
+        doThrow(new IllegalStateException("boom")).when(eventProcessor).process(event);
+        assertThrows(IllegalStateException.class, () -> subscription.publish(event, 8L, completed::incrementAndGet));
+
+        assertThat(completed.get(), is(1));
+        verify(handler, times(1)).handleBatch(any(EventBatch.class));
+    }
+
+    @Test
+    @DisplayName("publish() - Given a subscription with a buffer, when an event is published, then it is handled on the buffer's consumer thread")
+    void publish_buffered() {
+        DewdropUserCreated event = new DewdropUserCreated(UUID.randomUUID(), "userName");
+        EventProcessor eventProcessor = mock(EventProcessor.class);
+        doReturn(List.of(eventProcessor)).when(subscription).getHandlesFor(any(Class.class));
+        SubscriptionBuffer buffer = SubscriptionBufferSettings.builder().capacity(8).create().bufferFor("test", event1 -> subscription.dispatch((DewdropUserEvent) event1)).get();
+        subscription.setBuffer(buffer);
+
+        subscription.publish(event);
+
+        await().atMost(2, TimeUnit.SECONDS).untilAsserted(() -> verify(eventProcessor, times(1)).process(event));
+        assertThat(buffer.getHandledEvents(), is(1L));
+        buffer.close();
+    }
+
+    @Test
+    @DisplayName("close() - Given a subscription with a buffer, when close() is called, then the buffer is closed and refuses further events")
+    void close_buffered() {
+        SubscriptionBuffer buffer = SubscriptionBufferSettings.builder().capacity(8).create().bufferFor("test", event -> {
+        }).get();
+        subscription.setBuffer(buffer);
+
+        subscription.close();
+
+        assertThat(buffer.isClosed(), is(true));
+        assertThat(buffer.offer(new DewdropUserCreated(UUID.randomUUID(), "userName")), is(false));
+    }
+
     @Test
     @Disabled
     void subscribeByNameAndPosition() {
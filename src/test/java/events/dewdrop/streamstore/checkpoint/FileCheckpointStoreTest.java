@@ -0,0 +1,105 @@
+package events.dewdrop.streamstore.checkpoint;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import events.dewdrop.structure.subscribe.AllPosition;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileCheckpointStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("save() - Given checkpoints saved and flushed, when the file is opened again, then the last position of each key is loaded")
+    void save_reload() {
+        Path path = directory.resolve("checkpoints");
+        FileCheckpointStore store = FileCheckpointStore.builder().path(path).create();
+        store.save("users", 10L);
+        store.save("accounts", 4L);
+        store.flush();
+        store.save("users", 12L);
+        store.close();
+
+        FileCheckpointStore reopened = FileCheckpointStore.builder().path(path).create();
+
+        assertThat(reopened.load("users"), is(Optional.of(12L)));
+        assertThat(reopened.load("accounts"), is(Optional.of(4L)));
+        assertThat(reopened.load("missing"), is(Optional.empty()));
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("saveAll() - Given a $all position saved and flushed, when the file is opened again, then the position is loaded for the key")
+    void saveAll_reload() {
+        Path path = directory.resolve("checkpoints");
+        FileCheckpointStore store = FileCheckpointStore.builder().path(path).create();
+        store.saveAll("users", new AllPosition(20L, 18L));
+        store.close();
+
+        FileCheckpointStore reopened = FileCheckpointStore.builder().path(path).create();
+
+        assertThat(reopened.loadAll("users"), is(Optional.of(new AllPosition(20L, 18L))));
+        assertThat(reopened.loadAll("missing"), is(Optional.empty()));
+        assertThat(reopened.load("users"), is(Optional.empty()));
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("save() - Given flushEvery of 2, when two checkpoints are saved, then they are written without waiting for the interval")
+    void save_flushEvery() throws IOException {
+        Path path = directory.resolve("checkpoints");
+        FileCheckpointStore store = FileCheckpointStore.builder().path(path).flushEvery(2).flushIntervalMillis(60000L).create();
+
+        store.save("users", 1L);
+        assertThat(store.getFlushes(), is(0L));
+        store.save("users", 2L);
+
+        assertThat(store.getFlushes(), is(1L));
+        assertThat(Files.readString(path), is("2 users\n"));
+        store.close();
+    }
+
+    @Test
+    @DisplayName("FileCheckpointStore() - Given a file that ends with a line cut short by a crash, when it is opened, then the partial line is dropped and new checkpoints are readable")
+    void load_partialLine() throws IOException {
+        Path path = directory.resolve("checkpoints");
+        Files.write(path, "7 users\n9 use".getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
+
+        FileCheckpointStore store = FileCheckpointStore.builder().path(path).create();
+        assertThat(store.load("users"), is(Optional.of(7L)));
+        store.save("accounts", 3L);
+        store.close();
+
+        FileCheckpointStore reopened = FileCheckpointStore.builder().path(path).create();
+        assertThat(reopened.load("users"), is(Optional.of(7L)));
+        assertThat(reopened.load("accounts"), is(Optional.of(3L)));
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("flush() - Given many flushes of the same keys, when the file holds far more lines than keys, then it is compacted to one line per key")
+    void flush_compact() throws IOException {
+        Path path = directory.resolve("checkpoints");
+        FileCheckpointStore store = FileCheckpointStore.builder().path(path).flushEvery(1).create();
+
+        for (long position = 0; position < 3000; position++) {
+            store.save("users", position);
+        }
+
+        assertThat(Files.readAllLines(path).size(), lessThan(1100));
+        store.close();
+        FileCheckpointStore reopened = FileCheckpointStore.builder().path(path).create();
+        assertThat(reopened.load("users"), is(Optional.of(2999L)));
+        reopened.close();
+    }
+}
@@ -4,6 +4,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isA;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -17,8 +18,8 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import com.eventstore.dbclient.AppendToStreamOptions;
-import com.eventstore.dbclient.EventData;
 import com.eventstore.dbclient.EventStoreDBClient;
+import com.eventstore.dbclient.ExpectedRevision;
 import com.eventstore.dbclient.ReadResult;
 import com.eventstore.dbclient.ReadStreamOptions;
 import com.eventstore.dbclient.RecordedEvent;
@@ -26,6 +27,10 @@ import com.eventstore.dbclient.ResolvedEvent;
 import com.eventstore.dbclient.StreamNotFoundException;
 import com.eventstore.dbclient.SubscribeToStreamOptions;
 import com.eventstore.dbclient.SubscriptionListener;
+import com.eventstore.dbclient.WriteResult;
+import com.eventstore.dbclient.WrongExpectedVersionException;
+import events.dewdrop.structure.AppendFailedException;
+import events.dewdrop.structure.ConcurrencyConflictException;
 import events.dewdrop.structure.NoStreamException;
 import events.dewdrop.structure.events.StreamReadResults;
 import events.dewdrop.structure.events.WriteEventData;
@@ -37,12 +42,16 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
-import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
@@ -284,62 +293,160 @@ class EventStoreTest {
     }
 
     @Test
+    @DisplayName("appendToStream() - Given a single batch of events, when appendToStream() is called, then the batch is appended and the revision of the last event is returned")
     void appendToStream() {
-        Integer currentBatchSize = EventStore.BATCH_SIZE + 1;
-        WriteRequest writeRequest = mock(WriteRequest.class);
-        List<WriteEventData> list = spy(new ArrayList<>());
-        doReturn(list).when(writeRequest).getEvents();
-        doReturn("streamName").when(writeRequest).getStreamName();
-        doReturn(currentBatchSize).when(list).size();
-        try (MockedStatic<ListUtils> listUtils = mockStatic(ListUtils.class)) {
-            List<EventData> eventData = spy(new ArrayList<>());
-            listUtils.when(() -> ListUtils.partition(any(List.class), anyInt())).thenReturn(List.of(List.of(eventData)));
-            doReturn(mock(ListIterator.class)).when(eventData).listIterator();
-
-            doReturn(mock(CompletableFuture.class)).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
-
-            eventStore.appendToStream(writeRequest);
-            verify(eventStoreDBClient, times(1)).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+        WriteRequest writeRequest = new WriteRequest("streamName", 4L, events(1));
+        WriteResult writeResult = mock(WriteResult.class);
+        doReturn(ExpectedRevision.expectedRevision(5L)).when(writeResult).getNextExpectedRevision();
+        doReturn(CompletableFuture.completedFuture(writeResult)).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+
+        Long revision = eventStore.appendToStream(writeRequest);
+
+        assertThat(revision, is(5L));
+        verify(eventStoreDBClient, times(1)).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+    }
+
+    @Test
+    @DisplayName("appendToStream() - Given more events than fit in one batch, when appendToStream() is called, then every batch is awaited with the revision of the previous one and the final revision is returned")
+    void appendToStream_batches() throws IllegalAccessException {
+        WriteRequest writeRequest = new WriteRequest("streamName", 4L, events(EventStore.BATCH_SIZE * 2 + 1));
+        WriteResult first = mock(WriteResult.class);
+        doReturn(ExpectedRevision.expectedRevision(4L + EventStore.BATCH_SIZE)).when(first).getNextExpectedRevision();
+        WriteResult second = mock(WriteResult.class);
+        doReturn(ExpectedRevision.expectedRevision(4L + EventStore.BATCH_SIZE * 2)).when(second).getNextExpectedRevision();
+        WriteResult third = mock(WriteResult.class);
+        doReturn(ExpectedRevision.expectedRevision(5L + EventStore.BATCH_SIZE * 2)).when(third).getNextExpectedRevision();
+        doReturn(CompletableFuture.completedFuture(first)).doReturn(CompletableFuture.completedFuture(second)).doReturn(CompletableFuture.completedFuture(third)).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class),
+                        any(ListIterator.class));
+
+        Long revision = eventStore.appendToStream(writeRequest);
+
+        assertThat(revision, is(5L + EventStore.BATCH_SIZE * 2));
+        ArgumentCaptor<AppendToStreamOptions> captor = ArgumentCaptor.forClass(AppendToStreamOptions.class);
+        verify(eventStoreDBClient, times(3)).appendToStream(anyString(), captor.capture(), any(ListIterator.class));
+        List<Long> expectedRevisions = new ArrayList<>();
+        for (AppendToStreamOptions options : captor.getAllValues()) {
+            expectedRevisions.add(((ExpectedRevision) FieldUtils.readField(options, "expectedRevision", true)).toRawLong());
         }
+        assertThat(expectedRevisions, is(List.of(4L, 4L + EventStore.BATCH_SIZE, 4L + EventStore.BATCH_SIZE * 2)));
     }
 
     @Test
-    void appendToStream_InterruptedException() throws ExecutionException, InterruptedException {
-        WriteRequest writeRequest = mock(WriteRequest.class);
-        List<WriteEventData> list = spy(new ArrayList<>());
-        doReturn(list).when(writeRequest).getEvents();
-        doReturn("streamName").when(writeRequest).getStreamName();
-        try (MockedStatic<ListUtils> listUtils = mockStatic(ListUtils.class)) {
-            List<EventData> eventData = spy(new ArrayList<>());
-            listUtils.when(() -> ListUtils.partition(any(List.class), anyInt())).thenReturn(List.of(List.of(eventData)));
-            doReturn(mock(ListIterator.class)).when(eventData).listIterator();
-
-            doReturn(completableFuture).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+    @DisplayName("appendToStream() - Given a first batch that fails, when appendToStream() is called, then the remaining batches are not sent")
+    void appendToStream_batchFailure() {
+        WriteRequest writeRequest = new WriteRequest("streamName", 4L, events(EventStore.BATCH_SIZE + 1));
+        doReturn(CompletableFuture.failedFuture(new NullPointerException())).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
 
-            doThrow(InterruptedException.class).when(completableFuture).get();
+        assertThrows(AppendFailedException.class, () -> eventStore.appendToStream(writeRequest));
+        verify(eventStoreDBClient, times(1)).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+    }
 
-            eventStore.appendToStream(writeRequest);
-        }
+    @Test
+    void appendToStream_InterruptedException() {
+        WriteRequest writeRequest = new WriteRequest("streamName", 4L, events(1));
+        doReturn(new CompletableFuture<>()).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+
+        Thread.currentThread().interrupt();
+        assertThrows(AppendFailedException.class, () -> eventStore.appendToStream(writeRequest));
+        assertThat(Thread.interrupted(), is(true));
     }
 
     @Test
-    void appendToStream_ExecutionException() throws ExecutionException, InterruptedException {
-        WriteRequest writeRequest = mock(WriteRequest.class);
-        doReturn(new ArrayList<>()).when(writeRequest).getEvents();
-        doReturn("streamName").when(writeRequest).getStreamName();
-        ExecutionException exception = new ExecutionException("", new NullPointerException());
-        try (MockedStatic<ListUtils> listUtils = mockStatic(ListUtils.class)) {
-            List<EventData> eventData = spy(new ArrayList<>());
-            listUtils.when(() -> ListUtils.partition(any(List.class), anyInt())).thenReturn(List.of(List.of(eventData)));
-            doReturn(mock(ListIterator.class)).when(eventData).listIterator();
+    void appendToStream_ExecutionException() {
+        WriteRequest writeRequest = new WriteRequest("streamName", 4L, events(1));
+        doReturn(CompletableFuture.failedFuture(new NullPointerException())).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+
+        AppendFailedException exception = assertThrows(AppendFailedException.class, () -> eventStore.appendToStream(writeRequest));
+        assertThat(exception.getStream(), is("streamName"));
+        assertThat(exception.getCause() instanceof NullPointerException, is(true));
+    }
+
+    @Test
+    @DisplayName("readAsync() - Given a stream that does not exist, when readAsync() is called, then the future completes with a noStream result")
+    void readAsync_noStream() {
+        ReadRequest request = new ReadRequest("streamName", 0L, 10L, Direction.FORWARD);
+        doReturn(CompletableFuture.failedFuture(new CompletionException(mock(StreamNotFoundException.class)))).when(eventStoreDBClient).readStream(anyString(), any(ReadStreamOptions.class));
 
-            doReturn(completableFuture).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+        StreamReadResults results = eventStore.readAsync(request).join();
 
-            doThrow(exception).when(completableFuture).get();
+        assertThat(results.isStreamExists(), is(false));
+    }
 
-            eventStore.appendToStream(writeRequest);
+    @Test
+    @DisplayName("readAsync() - Given a stream, when readAsync() is called, then the future completes with the converted results")
+    void readAsync() {
+        ReadRequest request = new ReadRequest("streamName", 0L, 10L, Direction.FORWARD);
+        doReturn(CompletableFuture.completedFuture(readResult)).when(eventStoreDBClient).readStream(anyString(), any(ReadStreamOptions.class));
+        try (MockedStatic<EventStoreUtils> utilities = mockStatic(EventStoreUtils.class)) {
+            utilities.when(() -> EventStoreUtils.options(any(ReadRequest.class))).thenReturn(ReadStreamOptions.get());
+            utilities.when(() -> EventStoreUtils.toStreamReadResults(any(ReadRequest.class), any(ReadResult.class))).thenReturn(streamReadResults);
+
+            assertThat(eventStore.readAsync(request).join(), is(streamReadResults));
         }
     }
 
+    @Test
+    @DisplayName("appendToStreamAsync() - Given more events than fit in one batch, when appendToStreamAsync() is called, then each batch is sent after the previous one and the final revision is returned")
+    void appendToStreamAsync_batches() throws IllegalAccessException {
+        WriteRequest writeRequest = new WriteRequest("streamName", 4L, events(EventStore.BATCH_SIZE + 1));
+        WriteResult first = mock(WriteResult.class);
+        doReturn(ExpectedRevision.expectedRevision(4L + EventStore.BATCH_SIZE)).when(first).getNextExpectedRevision();
+        WriteResult second = mock(WriteResult.class);
+        doReturn(ExpectedRevision.expectedRevision(5L + EventStore.BATCH_SIZE)).when(second).getNextExpectedRevision();
+        doReturn(CompletableFuture.completedFuture(first)).doReturn(CompletableFuture.completedFuture(second)).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+
+        Long revision = eventStore.appendToStreamAsync(writeRequest).join();
+
+        assertThat(revision, is(5L + EventStore.BATCH_SIZE));
+        ArgumentCaptor<AppendToStreamOptions> captor = ArgumentCaptor.forClass(AppendToStreamOptions.class);
+        verify(eventStoreDBClient, times(2)).appendToStream(anyString(), captor.capture(), any(ListIterator.class));
+        ExpectedRevision secondBatchRevision = (ExpectedRevision) FieldUtils.readField(captor.getAllValues().get(1), "expectedRevision", true);
+        assertThat(secondBatchRevision.toRawLong(), is(4L + EventStore.BATCH_SIZE));
+    }
+
+    @Test
+    @DisplayName("appendToStream() - Given an append that fails the expected version check, when appendToStream() is called, then a ConcurrencyConflictException is thrown")
+    void appendToStream_wrongExpectedVersion() {
+        WriteRequest writeRequest = new WriteRequest("streamName", 4L, events(1));
+        WrongExpectedVersionException wrongExpectedVersion = mock(WrongExpectedVersionException.class);
+        doReturn("streamName").when(wrongExpectedVersion).getStreamName();
+        doReturn(CompletableFuture.failedFuture(wrongExpectedVersion)).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+
+        ConcurrencyConflictException conflict = assertThrows(ConcurrencyConflictException.class, () -> eventStore.appendToStream(writeRequest));
+        assertThat(conflict.getStream(), is("streamName"));
+        assertThat(conflict.getExpectedVersion(), is(4L));
+    }
 
+    @Test
+    @DisplayName("appendToStreamAsync() - Given an append that fails the expected version check, when appendToStreamAsync() is called, then the future fails with a ConcurrencyConflictException")
+    void appendToStreamAsync_wrongExpectedVersion() {
+        WriteRequest writeRequest = new WriteRequest("streamName", 4L, events(1));
+        WrongExpectedVersionException wrongExpectedVersion = mock(WrongExpectedVersionException.class);
+        doReturn("streamName").when(wrongExpectedVersion).getStreamName();
+        doReturn(CompletableFuture.failedFuture(wrongExpectedVersion)).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> eventStore.appendToStreamAsync(writeRequest).join());
+        assertThat(exception.getCause() instanceof ConcurrencyConflictException, is(true));
+    }
+
+    @Test
+    @DisplayName("appendToStreamAsync() - Given an append that fails for another reason than a conflict, when appendToStreamAsync() is called, then the future fails with an AppendFailedException like appendToStream() throws")
+    void appendToStreamAsync_failed() {
+        WriteRequest writeRequest = new WriteRequest("streamName", 4L, events(1));
+        IllegalStateException unavailable = new IllegalStateException("unavailable");
+        doReturn(CompletableFuture.failedFuture(unavailable)).when(eventStoreDBClient).appendToStream(anyString(), any(AppendToStreamOptions.class), any(ListIterator.class));
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> eventStore.appendToStreamAsync(writeRequest).join());
+        assertThat(exception.getCause() instanceof AppendFailedException, is(true));
+        assertThat(((AppendFailedException) exception.getCause()).getStream(), is("streamName"));
+        assertThat(exception.getCause().getCause(), is(unavailable));
+    }
+
+    private List<WriteEventData> events(int count) {
+        List<WriteEventData> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(new WriteEventData(UUID.randomUUID(), "TestEvent", true, "{}".getBytes(), "{}".getBytes()));
+        }
+        return events;
+    }
 }
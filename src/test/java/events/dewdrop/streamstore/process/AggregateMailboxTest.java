@@ -0,0 +1,142 @@
+package events.dewdrop.streamstore.process;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import events.dewdrop.api.validators.ValidationException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AggregateMailboxTest {
+    AggregateMailbox aggregateMailbox;
+    ExecutorService executorService;
+
+    @BeforeEach
+    void setup() {
+        aggregateMailbox = new AggregateMailbox();
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("execute() - Given two commands for the same aggregate, when the first one is still running, then the second one waits for it")
+    void execute_sameAggregate() throws Exception {
+        UUID id = UUID.randomUUID();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Future<String> first = executorService.submit(() -> aggregateMailbox.execute(id, () -> {
+            firstStarted.countDown();
+            releaseFirst.await(5, TimeUnit.SECONDS);
+            order.add("first");
+            return "first";
+        }));
+        firstStarted.await(5, TimeUnit.SECONDS);
+        Future<String> second = executorService.submit(() -> aggregateMailbox.execute(id, () -> {
+            order.add("second");
+            return "second";
+        }));
+
+        Thread.sleep(50);
+        assertThat(order.isEmpty(), is(true));
+        releaseFirst.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS), is("first"));
+        assertThat(second.get(5, TimeUnit.SECONDS), is("second"));
+        assertThat(order, is(List.of("first", "second")));
+        assertThat(aggregateMailbox.size(), is(0));
+    }
+
+    @Test
+    @DisplayName("execute() - Given two commands for different aggregates, when the first one is still running, then the second one runs in parallel")
+    void execute_differentAggregates() throws Exception {
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        Future<String> first = executorService.submit(() -> aggregateMailbox.execute(UUID.randomUUID(), () -> {
+            releaseFirst.await(5, TimeUnit.SECONDS);
+            return "first";
+        }));
+        String second = aggregateMailbox.execute(UUID.randomUUID(), () -> "second");
+
+        assertThat(second, is("second"));
+        releaseFirst.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS), is("first"));
+    }
+
+    @Test
+    @DisplayName("execute() - Given a command that sends a command to its own aggregate, when execute() is called, then the nested command runs inline instead of deadlocking")
+    void execute_reentrant() {
+        UUID id = UUID.randomUUID();
+
+        String result = aggregateMailbox.execute(id, () -> aggregateMailbox.execute(id, () -> "nested"));
+
+        assertThat(result, is("nested"));
+    }
+
+    @Test
+    @DisplayName("submit() - Given a command that sends an async command to its own aggregate and waits for it, when execute() is called, then the nested command starts right away instead of deadlocking")
+    void submit_reentrant() {
+        UUID id = UUID.randomUUID();
+
+        String result = assertTimeoutPreemptively(Duration.ofSeconds(2), () -> aggregateMailbox.execute(id, () -> aggregateMailbox.submit(id, () -> CompletableFuture.completedFuture("nested")).join()));
+
+        assertThat(result, is("nested"));
+        assertThat(aggregateMailbox.size(), is(0));
+    }
+
+    @Test
+    @DisplayName("execute() - Given a failing command, when execute() is called, then the exception is rethrown and the next command still runs")
+    void execute_exception() {
+        UUID id = UUID.randomUUID();
+
+        assertThrows(ValidationException.class, () -> aggregateMailbox.execute(id, () -> {
+            throw ValidationException.of("invalid");
+        }));
+        assertThat(aggregateMailbox.execute(id, () -> "next"), is("next"));
+    }
+
+    @Test
+    @DisplayName("submit() - Given two async commands for the same aggregate, when the first one has not completed, then the second one is not started")
+    void submit_sameAggregate() {
+        UUID id = UUID.randomUUID();
+        CompletableFuture<String> firstWork = new CompletableFuture<>();
+        List<String> started = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<String> first = aggregateMailbox.submit(id, () -> {
+            started.add("first");
+            return firstWork;
+        });
+        CompletableFuture<String> second = aggregateMailbox.submit(id, () -> {
+            started.add("second");
+            return CompletableFuture.completedFuture("second");
+        });
+
+        assertThat(started, is(List.of("first")));
+        firstWork.completeExceptionally(new IllegalStateException("boom"));
+
+        assertThrows(CompletionException.class, first::join);
+        assertThat(second.join(), is("second"));
+        assertThat(started, is(List.of("first", "second")));
+        assertThat(aggregateMailbox.size(), is(0));
+    }
+}
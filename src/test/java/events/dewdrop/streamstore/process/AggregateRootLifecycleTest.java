@@ -2,15 +2,19 @@ package events.dewdrop.streamstore.process;
 
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.times;
@@ -24,11 +28,18 @@ import events.dewdrop.fixture.automated.DewdropUserAggregate;
 import events.dewdrop.fixture.command.DewdropCreateUserCommand;
 import events.dewdrop.fixture.events.DewdropUserCreated;
 import events.dewdrop.read.readmodel.stream.Stream;
+import events.dewdrop.read.readmodel.stream.StreamDetails;
 import events.dewdrop.read.readmodel.stream.StreamFactory;
+import events.dewdrop.streamstore.repository.AggregateRootCache;
 import events.dewdrop.streamstore.repository.StreamStoreGetByIDRequest;
+import events.dewdrop.streamstore.serialize.JsonSerializer;
+import events.dewdrop.structure.AppendFailedException;
+import events.dewdrop.structure.ConcurrencyConflictException;
 import events.dewdrop.structure.api.Command;
 import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.events.WriteEventData;
 import events.dewdrop.utils.CommandHandlerUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.reflect.MethodUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -137,6 +148,227 @@ class AggregateRootLifecycleTest {
         verify(aggregateRootLifecycle, times(1)).save(any(Stream.class), any(AggregateRoot.class));
     }
 
+    @Test
+    @DisplayName("process() - Given an enabled aggregate cache, when process() is called twice for the same stream, then the second call hydrates the cached aggregateRoot")
+    void process_cachedAggregateRoot() throws ValidationException {
+        AggregateRootLifecycle cachingLifecycle = Mockito.spy(new AggregateRootLifecycle(streamFactory, AggregateRootCache.getInstance(10)));
+        AggregateRoot cached = new AggregateRoot(new DewdropUserAggregate());
+        AggregateRoot fresh = new AggregateRoot(new DewdropUserAggregate());
+        StreamDetails streamDetails = mock(StreamDetails.class);
+        doReturn("DewdropUserAggregate-1").when(streamDetails).getStreamName();
+        doReturn(streamDetails).when(stream).getStreamDetails();
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+        doReturn(cached).doReturn(cached).when(cachingLifecycle).getById(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+        doReturn(cached).when(cachingLifecycle).executeCommand(any(Command.class), any(Method.class), any(AggregateRoot.class));
+        doReturn(cached).when(cachingLifecycle).save(any(Stream.class), any(AggregateRoot.class));
+
+        cachingLifecycle.process(command, method, fresh, UUID.randomUUID());
+        cachingLifecycle.process(command, method, fresh, UUID.randomUUID());
+
+        verify(cachingLifecycle, times(1)).getById(any(Stream.class), any(Command.class), same(fresh), any(UUID.class));
+        verify(cachingLifecycle, times(1)).getById(any(Stream.class), any(Command.class), same(cached), any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("processAsync() - Given a command, a commandHandlerMethod, an AggregateRoot and a UUID, when processAsync() is called, then getByIdAsync(), executeCommand() and saveAsync() are composed and a successful Result is returned")
+    void processAsync() throws ValidationException {
+        doReturn(CompletableFuture.completedFuture(aggregateRoot)).when(aggregateRootLifecycle).getByIdAsync(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+        doReturn(aggregateRoot).when(aggregateRootLifecycle).executeCommand(any(Command.class), any(Method.class), any(AggregateRoot.class));
+        doReturn(CompletableFuture.completedFuture(aggregateRoot)).when(aggregateRootLifecycle).saveAsync(any(Stream.class), any(AggregateRoot.class));
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+
+        Result<Boolean> result = aggregateRootLifecycle.processAsync(command, method, aggregateRoot, UUID.randomUUID()).join();
+
+        assertThat(result.get(), is(true));
+        verify(aggregateRootLifecycle, times(1)).getByIdAsync(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+        verify(aggregateRootLifecycle, times(1)).saveAsync(any(Stream.class), any(AggregateRoot.class));
+    }
+
+    @Test
+    @DisplayName("processAsync() - Given a command handler that fails validation, when processAsync() is called, then nothing is saved and the Result carries the ValidationException")
+    void processAsync_validationException() throws ValidationException {
+        doReturn(CompletableFuture.completedFuture(aggregateRoot)).when(aggregateRootLifecycle).getByIdAsync(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+        doThrow(ValidationException.of("invalid")).when(aggregateRootLifecycle).executeCommand(any(Command.class), any(Method.class), any(AggregateRoot.class));
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+
+        Result<Boolean> result = aggregateRootLifecycle.processAsync(command, method, aggregateRoot, UUID.randomUUID()).join();
+
+        assertThat(result.getException() instanceof ValidationException, is(true));
+        verify(aggregateRootLifecycle, times(0)).saveAsync(any(Stream.class), any(AggregateRoot.class));
+    }
+
+    @Test
+    @DisplayName("process() - Given a retry policy and a save that conflicts once, when process() is called, then the aggregateRoot is restored, the command is executed again and the Result is successful")
+    void process_concurrencyConflictRetried() throws ValidationException {
+        AggregateRootLifecycle retryingLifecycle = Mockito.spy(new AggregateRootLifecycle(streamFactory, AggregateRootCache.disabled(), RetryPolicy.builder().maxAttempts(3).initialBackoffMillis(1L).create()));
+        AggregateRoot restored = new AggregateRoot(new DewdropUserAggregate());
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+        doReturn(aggregateRoot).when(retryingLifecycle).getById(any(Stream.class), any(Command.class), same(aggregateRoot), any(UUID.class));
+        doReturn(restored).when(retryingLifecycle).getById(any(Stream.class), any(Command.class), same(restored), any(UUID.class));
+        doReturn(Optional.empty()).when(retryingLifecycle).memento(any(Stream.class), any(AggregateRoot.class));
+        doReturn(restored).when(retryingLifecycle).restore(any(Stream.class), any(Optional.class), any(AggregateRoot.class));
+        doReturn(aggregateRoot).when(retryingLifecycle).executeCommand(any(Command.class), any(Method.class), same(aggregateRoot));
+        doReturn(restored).when(retryingLifecycle).executeCommand(any(Command.class), any(Method.class), same(restored));
+        doThrow(new ConcurrencyConflictException("DewdropUserAggregate-1", 1L, 2L)).when(retryingLifecycle).save(any(Stream.class), same(aggregateRoot));
+        doReturn(restored).when(retryingLifecycle).save(any(Stream.class), same(restored));
+
+        Result<Boolean> result = retryingLifecycle.process(command, method, aggregateRoot, UUID.randomUUID());
+
+        assertThat(result.get(), is(true));
+        verify(retryingLifecycle, times(1)).restore(any(Stream.class), any(Optional.class), same(aggregateRoot));
+        verify(retryingLifecycle, times(1)).save(any(Stream.class), same(restored));
+    }
+
+    @Test
+    @DisplayName("process() - Given a save that keeps conflicting, when process() is called, then the command is attempted maxAttempts times and the Result carries the ConcurrencyConflictException")
+    void process_concurrencyConflictExhausted() throws ValidationException {
+        AggregateRootLifecycle retryingLifecycle = Mockito.spy(new AggregateRootLifecycle(streamFactory, AggregateRootCache.disabled(), RetryPolicy.builder().maxAttempts(2).initialBackoffMillis(1L).create()));
+        ConcurrencyConflictException conflict = new ConcurrencyConflictException("DewdropUserAggregate-1", 1L, 2L);
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+        doReturn(aggregateRoot).when(retryingLifecycle).getById(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+        doReturn(Optional.empty()).when(retryingLifecycle).memento(any(Stream.class), any(AggregateRoot.class));
+        doReturn(aggregateRoot).when(retryingLifecycle).restore(any(Stream.class), any(Optional.class), any(AggregateRoot.class));
+        doReturn(aggregateRoot).when(retryingLifecycle).executeCommand(any(Command.class), any(Method.class), any(AggregateRoot.class));
+        doThrow(conflict).when(retryingLifecycle).save(any(Stream.class), any(AggregateRoot.class));
+
+        Result<Boolean> result = retryingLifecycle.process(command, method, aggregateRoot, UUID.randomUUID());
+
+        assertThat(result.getException(), is(conflict));
+        verify(retryingLifecycle, times(2)).save(any(Stream.class), any(AggregateRoot.class));
+    }
+
+    @Test
+    @DisplayName("process() - Given an enabled aggregate cache and a save that fails, when process() is called, then the Result carries the AppendFailedException and the aggregateRoot is not cached")
+    void process_appendFailed() throws ValidationException {
+        AggregateRootCache aggregateRootCache = AggregateRootCache.getInstance(10);
+        AggregateRootLifecycle cachingLifecycle = Mockito.spy(new AggregateRootLifecycle(streamFactory, aggregateRootCache));
+        AggregateRoot executed = new AggregateRoot(new DewdropUserAggregate());
+        StreamDetails streamDetails = mock(StreamDetails.class);
+        doReturn("DewdropUserAggregate-1").when(streamDetails).getStreamName();
+        doReturn(streamDetails).when(stream).getStreamDetails();
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+        doReturn(executed).when(cachingLifecycle).getById(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+        doReturn(executed).when(cachingLifecycle).executeCommand(any(Command.class), any(Method.class), any(AggregateRoot.class));
+        doThrow(new AppendFailedException("DewdropUserAggregate-1", new IllegalStateException())).when(cachingLifecycle).save(any(Stream.class), any(AggregateRoot.class));
+
+        Result<Boolean> result = cachingLifecycle.process(command, method, executed, UUID.randomUUID());
+
+        assertThat(result.getException() instanceof AppendFailedException, is(true));
+        assertThat(aggregateRootCache.checkout("DewdropUserAggregate-1").isPresent(), is(false));
+    }
+
+    @Test
+    @DisplayName("process() - Given no retry policy and a save that conflicts, when process() is called, then the command is not retried")
+    void process_concurrencyConflictNoRetry() throws ValidationException {
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+        doReturn(aggregateRoot).when(aggregateRootLifecycle).getById(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+        doReturn(aggregateRoot).when(aggregateRootLifecycle).executeCommand(any(Command.class), any(Method.class), any(AggregateRoot.class));
+        doThrow(new ConcurrencyConflictException("DewdropUserAggregate-1", 1L, 2L)).when(aggregateRootLifecycle).save(any(Stream.class), any(AggregateRoot.class));
+
+        Result<Boolean> result = aggregateRootLifecycle.process(command, method, aggregateRoot, UUID.randomUUID());
+
+        assertThat(result.getException() instanceof ConcurrencyConflictException, is(true));
+        verify(aggregateRootLifecycle, times(1)).save(any(Stream.class), any(AggregateRoot.class));
+    }
+
+    @Test
+    @DisplayName("processAsync() - Given a retry policy and a saveAsync that conflicts once, when processAsync() is called, then the command is retried on the restored aggregateRoot and the Result is successful")
+    void processAsync_concurrencyConflictRetried() throws ValidationException {
+        AggregateRootLifecycle retryingLifecycle = Mockito.spy(new AggregateRootLifecycle(streamFactory, AggregateRootCache.disabled(), RetryPolicy.builder().maxAttempts(2).initialBackoffMillis(1L).create()));
+        AggregateRoot restored = new AggregateRoot(new DewdropUserAggregate());
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+        doReturn(CompletableFuture.completedFuture(aggregateRoot)).when(retryingLifecycle).getByIdAsync(any(Stream.class), any(Command.class), same(aggregateRoot), any(UUID.class));
+        doReturn(CompletableFuture.completedFuture(restored)).when(retryingLifecycle).getByIdAsync(any(Stream.class), any(Command.class), same(restored), any(UUID.class));
+        doReturn(Optional.empty()).when(retryingLifecycle).memento(any(Stream.class), any(AggregateRoot.class));
+        doReturn(restored).when(retryingLifecycle).restore(any(Stream.class), any(Optional.class), any(AggregateRoot.class));
+        doReturn(aggregateRoot).when(retryingLifecycle).executeCommand(any(Command.class), any(Method.class), same(aggregateRoot));
+        doReturn(restored).when(retryingLifecycle).executeCommand(any(Command.class), any(Method.class), same(restored));
+        doReturn(CompletableFuture.failedFuture(new ConcurrencyConflictException("DewdropUserAggregate-1", 1L, 2L))).when(retryingLifecycle).saveAsync(any(Stream.class), same(aggregateRoot));
+        doReturn(CompletableFuture.completedFuture(restored)).when(retryingLifecycle).saveAsync(any(Stream.class), same(restored));
+
+        Result<Boolean> result = retryingLifecycle.processAsync(command, method, aggregateRoot, UUID.randomUUID()).join();
+
+        assertThat(result.get(), is(true));
+        verify(retryingLifecycle, times(1)).saveAsync(any(Stream.class), same(restored));
+    }
+
+    @Test
+    @DisplayName("restore() - Given a memento taken with the JsonSerializer, when restore() is called, then a new aggregateRoot with the captured state and version is returned")
+    void restore() {
+        AggregateRootLifecycle retryingLifecycle = new AggregateRootLifecycle(streamFactory, AggregateRootCache.disabled(), RetryPolicy.builder().maxAttempts(2).create());
+        DewdropUserAggregate target = new DewdropUserAggregate();
+        target.setUsername("test");
+        AggregateRoot hydrated = new AggregateRoot(target);
+        hydrated.setVersion(4);
+        doReturn(new JsonSerializer(new ObjectMapper())).when(stream).getEventSerializer();
+
+        Optional<WriteEventData> memento = retryingLifecycle.memento(stream, hydrated);
+        AggregateRoot restored = retryingLifecycle.restore(stream, memento, hydrated);
+
+        assertThat(memento.isPresent(), is(true));
+        assertThat(restored == hydrated, is(false));
+        assertThat(restored.getVersion(), is(4L));
+        assertThat(((DewdropUserAggregate) restored.getTarget()).getUsername(), is("test"));
+    }
+
+    @Test
+    @DisplayName("restore() - Given no memento, when restore() is called, then a fresh aggregateRoot is created so the whole stream is replayed")
+    void restore_noMemento() {
+        AggregateRoot hydrated = new AggregateRoot(new DewdropUserAggregate());
+        hydrated.setVersion(4);
+
+        AggregateRoot restored = aggregateRootLifecycle.restore(stream, Optional.empty(), hydrated);
+
+        assertThat(restored.getVersion(), is(-1L));
+        assertThat(restored.getTarget() instanceof DewdropUserAggregate, is(true));
+    }
+
+    @Test
+    @DisplayName("process() - Given a creation command handler, when process() is called, then the stream is not read and the new aggregateRoot is saved")
+    void process_creation() throws ValidationException {
+        Method createUser = MethodUtils.getMatchingMethod(DewdropUserAggregate.class, "createUser", DewdropCreateUserCommand.class);
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+        doReturn(aggregateRoot).when(aggregateRootLifecycle).executeCommand(any(Command.class), any(Method.class), any(AggregateRoot.class));
+        doReturn(aggregateRoot).when(aggregateRootLifecycle).save(any(Stream.class), any(AggregateRoot.class));
+
+        Result<Boolean> result = aggregateRootLifecycle.process(command, createUser, aggregateRoot, UUID.randomUUID());
+
+        assertThat(result.get(), is(true));
+        verify(aggregateRootLifecycle, times(0)).getById(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+        verify(aggregateRootLifecycle, times(1)).save(any(Stream.class), same(aggregateRoot));
+    }
+
+    @Test
+    @DisplayName("process() - Given a creation command handler for a stream that already exists, when process() is called, then the conflict is returned without a retry")
+    void process_creationDuplicate() throws ValidationException {
+        AggregateRootLifecycle retryingLifecycle = Mockito.spy(new AggregateRootLifecycle(streamFactory, AggregateRootCache.disabled(), RetryPolicy.builder().maxAttempts(3).initialBackoffMillis(1L).create()));
+        Method createUser = MethodUtils.getMatchingMethod(DewdropUserAggregate.class, "createUser", DewdropCreateUserCommand.class);
+        ConcurrencyConflictException conflict = new ConcurrencyConflictException("DewdropUserAggregate-1", -1L, 0L);
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+        doReturn(aggregateRoot).when(retryingLifecycle).executeCommand(any(Command.class), any(Method.class), any(AggregateRoot.class));
+        doThrow(conflict).when(retryingLifecycle).save(any(Stream.class), any(AggregateRoot.class));
+
+        Result<Boolean> result = retryingLifecycle.process(command, createUser, aggregateRoot, UUID.randomUUID());
+
+        assertThat(result.getException(), is(conflict));
+        assertThat(conflict.isStreamAlreadyExists(), is(true));
+        verify(retryingLifecycle, times(1)).save(any(Stream.class), any(AggregateRoot.class));
+        verify(retryingLifecycle, times(0)).getById(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("processAsync() - Given a creation command handler, when processAsync() is called, then the stream is not read and the new aggregateRoot is saved")
+    void processAsync_creation() throws ValidationException {
+        Method createUser = MethodUtils.getMatchingMethod(DewdropUserAggregate.class, "createUser", DewdropCreateUserCommand.class);
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+        doReturn(aggregateRoot).when(aggregateRootLifecycle).executeCommand(any(Command.class), any(Method.class), any(AggregateRoot.class));
+        doReturn(CompletableFuture.failedFuture(new ConcurrencyConflictException("DewdropUserAggregate-1", -1L, 0L))).when(aggregateRootLifecycle).saveAsync(any(Stream.class), any(AggregateRoot.class));
+
+        Result<Boolean> result = aggregateRootLifecycle.processAsync(command, createUser, aggregateRoot, UUID.randomUUID()).join();
+
+        assertThat(result.getException() instanceof ConcurrencyConflictException, is(true));
+        verify(aggregateRootLifecycle, times(0)).getByIdAsync(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+    }
 
     @Test
     void validateCommand() throws ValidationException {
@@ -146,4 +378,46 @@ class AggregateRootLifecycleTest {
         List<ValidationError> validationErrors = validationException.getValidationResult().get();
         assertThat(validationErrors.size(), is(2));
     }
+
+    @Test
+    @DisplayName("processBatchAsync() - Given two valid commands and one that fails validation, when processBatchAsync() is called, then the aggregateRoot is read once, the events are saved in one write and each command gets its own Result")
+    void processBatchAsync() throws ValidationException {
+        Command invalid = new DewdropCreateUserCommand(UUID.randomUUID(), "invalid");
+        Command second = new DewdropCreateUserCommand(UUID.randomUUID(), "second");
+        List<WriteEventData> firstEvents = List.of(mock(WriteEventData.class));
+        List<WriteEventData> secondEvents = List.of(mock(WriteEventData.class));
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+        doReturn(CompletableFuture.completedFuture(aggregateRoot)).when(aggregateRootLifecycle).getByIdAsync(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+        doReturn(4L).when(aggregateRoot).getVersion();
+        doReturn(aggregateRoot).when(aggregateRootLifecycle).executeCommand(any(Command.class), any(Method.class), any(AggregateRoot.class));
+        doThrow(ValidationException.of("invalid")).when(aggregateRootLifecycle).executeCommand(same(invalid), any(Method.class), any(AggregateRoot.class));
+        doReturn(firstEvents).doReturn(secondEvents).when(stream).takeEventsToSave(aggregateRoot);
+        doReturn(CompletableFuture.completedFuture(6L)).when(stream).saveAsync(any(AggregateRoot.class), any(Long.class), any(List.class));
+
+        List<Result<Boolean>> results = aggregateRootLifecycle.processBatchAsync(List.of(command, invalid, second), List.of(method, method, method), aggregateRoot, UUID.randomUUID()).join();
+
+        assertThat(results.get(0).get(), is(true));
+        assertThat(results.get(1).getException() instanceof ValidationException, is(true));
+        assertThat(results.get(2).get(), is(true));
+        verify(aggregateRootLifecycle, times(1)).getByIdAsync(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(stream, times(1)).saveAsync(same(aggregateRoot), Mockito.eq(4L), captor.capture());
+        assertThat(captor.getValue().size(), is(2));
+    }
+
+    @Test
+    @DisplayName("processBatchAsync() - Given a write that fails, when processBatchAsync() is called, then every executed command gets the failure")
+    void processBatchAsync_saveFails() throws ValidationException {
+        Command second = new DewdropCreateUserCommand(UUID.randomUUID(), "second");
+        doReturn(stream).when(streamFactory).constructStreamFromAggregateRoot(any(AggregateRoot.class), any(UUID.class));
+        doReturn(CompletableFuture.completedFuture(aggregateRoot)).when(aggregateRootLifecycle).getByIdAsync(any(Stream.class), any(Command.class), any(AggregateRoot.class), any(UUID.class));
+        doReturn(aggregateRoot).when(aggregateRootLifecycle).executeCommand(any(Command.class), any(Method.class), any(AggregateRoot.class));
+        doReturn(List.of(mock(WriteEventData.class))).when(stream).takeEventsToSave(aggregateRoot);
+        doReturn(CompletableFuture.failedFuture(new ConcurrencyConflictException("DewdropUserAggregate-1", 1L, 2L))).when(stream).saveAsync(any(AggregateRoot.class), any(Long.class), any(List.class));
+
+        List<Result<Boolean>> results = aggregateRootLifecycle.processBatchAsync(List.of(command, second), List.of(method, method), aggregateRoot, UUID.randomUUID()).join();
+
+        assertThat(results.get(0).getException() instanceof ConcurrencyConflictException, is(true));
+        assertThat(results.get(1).getException() instanceof ConcurrencyConflictException, is(true));
+    }
 }
@@ -4,6 +4,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
@@ -15,12 +16,16 @@ import events.dewdrop.aggregate.AggregateRoot;
 import events.dewdrop.api.result.Result;
 import events.dewdrop.api.validators.ValidationException;
 import events.dewdrop.utils.AggregateUtils;
+import events.dewdrop.fixture.automated.DewdropUserAggregate;
 import events.dewdrop.fixture.command.DewdropCreateUserCommand;
 import events.dewdrop.structure.api.Command;
 import events.dewdrop.utils.AggregateIdUtils;
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.apache.commons.lang3.reflect.MethodUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -98,4 +103,74 @@ class AggregateStateCommandProcessorTest {
             }
         }
     }
+
+    @Test
+    @DisplayName("process() - Given the needed parameters, when process() is called, then streamProcessor.process() runs through the mailbox of the aggregate")
+    void process_mailbox() throws ValidationException {
+        AggregateMailbox aggregateMailbox = spy(new AggregateMailbox());
+        AggregateStateCommandProcessor processor = new AggregateStateCommandProcessor(streamProcessor, aggregateMailbox);
+        UUID id = UUID.randomUUID();
+        doReturn(Result.of(true)).when(streamProcessor).process(any(), any(Method.class), any(AggregateRoot.class), any(UUID.class));
+
+        Result<Boolean> result = processor.process(new DewdropCreateUserCommand(id, "test"), mock(Method.class), mock(AggregateRoot.class), id);
+
+        assertThat(result.get(), is(true));
+        verify(aggregateMailbox, times(1)).execute(eq(id), any());
+    }
+
+    @Test
+    @DisplayName("processCommandAsync() - Given valid parameters, when processCommandAsync() is called, then streamProcessor.processAsync() runs through the mailbox of the aggregate")
+    void processCommandAsync() {
+        AggregateRoot aggregateRoot = mock(AggregateRoot.class);
+        AggregateMailbox aggregateMailbox = spy(new AggregateMailbox());
+        AggregateStateCommandProcessor processor = new AggregateStateCommandProcessor(streamProcessor, aggregateMailbox);
+        UUID id = UUID.randomUUID();
+        doReturn(CompletableFuture.completedFuture(Result.of(true))).when(streamProcessor).processAsync(any(), any(Method.class), any(AggregateRoot.class), any(UUID.class));
+
+        try (MockedStatic<AggregateUtils> utilities = mockStatic(AggregateUtils.class)) {
+            utilities.when(() -> AggregateUtils.createFromCommandHandlerMethod(any(Method.class))).thenReturn(Optional.of(aggregateRoot));
+            try (MockedStatic<AggregateIdUtils> idUtils = mockStatic(AggregateIdUtils.class)) {
+                idUtils.when(() -> AggregateIdUtils.getAggregateId(any(Command.class))).thenReturn(Optional.of(id));
+
+                Result<Boolean> result = processor.processCommandAsync(new DewdropCreateUserCommand(id, "test"), mock(Method.class)).join();
+
+                assertThat(result.get(), is(true));
+                verify(aggregateMailbox, times(1)).submit(eq(id), any());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("processCommands() - Given commands for two aggregates, when processCommands() is called, then each aggregate is processed once with its commands in order and the Results line up with the commands")
+    void processCommands() {
+        Method createUser = MethodUtils.getMatchingMethod(DewdropUserAggregate.class, "createUser", DewdropCreateUserCommand.class);
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        DewdropCreateUserCommand first = new DewdropCreateUserCommand(firstId, "first");
+        DewdropCreateUserCommand second = new DewdropCreateUserCommand(secondId, "second");
+        DewdropCreateUserCommand third = new DewdropCreateUserCommand(firstId, "third");
+        doReturn(CompletableFuture.completedFuture(List.of(Result.of(true), Result.of(new IllegalStateException())))).when(streamProcessor).processBatchAsync(eq(List.of(first, third)), any(List.class), any(AggregateRoot.class), eq(firstId));
+        doReturn(CompletableFuture.completedFuture(List.of(Result.of(true)))).when(streamProcessor).processBatchAsync(eq(List.of(second)), any(List.class), any(AggregateRoot.class), eq(secondId));
+
+        List<Result<Boolean>> results = aggregateStateCommandProcessor.processCommands(List.of(first, second, third), List.of(createUser, createUser, createUser));
+
+        assertThat(results.get(0).get(), is(true));
+        assertThat(results.get(1).get(), is(true));
+        assertThat(results.get(2).isExceptionPresent(), is(true));
+        verify(streamProcessor, times(2)).processBatchAsync(any(List.class), any(List.class), any(AggregateRoot.class), any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("processCommands() - Given a command without an aggregate id, when processCommands() is called, then its Result is false and the lifecycle is not called")
+    void processCommands_noId() {
+        try (MockedStatic<AggregateIdUtils> idUtils = mockStatic(AggregateIdUtils.class)) {
+            idUtils.when(() -> AggregateIdUtils.getAggregateId(any(Command.class))).thenReturn(Optional.empty());
+            Method createUser = MethodUtils.getMatchingMethod(DewdropUserAggregate.class, "createUser", DewdropCreateUserCommand.class);
+
+            List<Result<Boolean>> results = aggregateStateCommandProcessor.processCommands(List.of(new DewdropCreateUserCommand(UUID.randomUUID(), "test")), List.of(createUser));
+
+            assertThat(results.get(0).get(), is(false));
+            verify(streamProcessor, times(0)).processBatchAsync(any(List.class), any(List.class), any(AggregateRoot.class), any(UUID.class));
+        }
+    }
 }
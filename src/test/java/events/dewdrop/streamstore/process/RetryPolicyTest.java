@@ -0,0 +1,53 @@
+package events.dewdrop.streamstore.process;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+    @Test
+    @DisplayName("none() - Given no arguments, when none() is called, then a policy with a single attempt that is not enabled is returned")
+    void none() {
+        RetryPolicy retryPolicy = RetryPolicy.none();
+        assertThat(retryPolicy.getMaxAttempts(), is(1));
+        assertThat(retryPolicy.isEnabled(), is(false));
+        assertThat(retryPolicy.shouldRetry(1), is(false));
+    }
+
+    @Test
+    @DisplayName("builder() - Given null or invalid values, when create() is called, then the defaults are used")
+    void builder_defaults() {
+        RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(0).initialBackoffMillis(-1L).create();
+        assertThat(retryPolicy.getMaxAttempts(), is(1));
+        assertThat(retryPolicy.getInitialBackoffMillis(), is(10L));
+        assertThat(retryPolicy.getMaxBackoffMillis(), is(1000L));
+    }
+
+    @Test
+    @DisplayName("shouldRetry() - Given a policy with three attempts, when shouldRetry() is called, then it is true until the third attempt")
+    void shouldRetry() {
+        RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(3).create();
+        assertThat(retryPolicy.isEnabled(), is(true));
+        assertThat(retryPolicy.shouldRetry(1), is(true));
+        assertThat(retryPolicy.shouldRetry(2), is(true));
+        assertThat(retryPolicy.shouldRetry(3), is(false));
+    }
+
+    @Test
+    @DisplayName("backoffMillis() - Given an attempt, when backoffMillis() is called, then the wait is jittered within the exponential window and capped by maxBackoffMillis")
+    void backoffMillis() {
+        RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(10).initialBackoffMillis(10L).maxBackoffMillis(50L).create();
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryPolicy.backoffMillis(1), is(lessThanOrEqualTo(10L)));
+            assertThat(retryPolicy.backoffMillis(2), is(lessThanOrEqualTo(20L)));
+            long capped = retryPolicy.backoffMillis(30);
+            assertThat(capped, is(greaterThanOrEqualTo(0L)));
+            assertThat(capped, is(lessThanOrEqualTo(50L)));
+        }
+    }
+}
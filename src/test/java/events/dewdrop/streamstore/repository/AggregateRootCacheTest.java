@@ -0,0 +1,76 @@
+package events.dewdrop.streamstore.repository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import events.dewdrop.aggregate.AggregateRoot;
+import events.dewdrop.fixture.automated.DewdropUserAggregate;
+import events.dewdrop.fixture.events.DewdropUserCreated;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AggregateRootCacheTest {
+    AggregateRootCache aggregateRootCache;
+    AggregateRoot aggregateRoot;
+
+    @BeforeEach
+    void setup() {
+        aggregateRootCache = AggregateRootCache.getInstance(2);
+        aggregateRoot = new AggregateRoot(new DewdropUserAggregate());
+        aggregateRoot.setVersion(3L);
+    }
+
+    @Test
+    @DisplayName("checkout() - Given a cached aggregateRoot, when checkout() is called, then it is returned and removed from the cache")
+    void checkout() {
+        aggregateRootCache.checkin("stream", aggregateRoot);
+
+        assertThat(aggregateRootCache.checkout("stream"), is(Optional.of(aggregateRoot)));
+        assertThat(aggregateRootCache.checkout("stream"), is(Optional.empty()));
+        assertThat(aggregateRootCache.size(), is(0));
+    }
+
+    @Test
+    @DisplayName("checkin() - Given more aggregateRoots than the max size, when checkin() is called, then the least recently used one is evicted")
+    void checkin_evictsLeastRecentlyUsed() {
+        aggregateRootCache.checkin("first", aggregateRoot);
+        aggregateRootCache.checkin("second", new AggregateRoot(new DewdropUserAggregate()));
+        aggregateRootCache.checkin("third", new AggregateRoot(new DewdropUserAggregate()));
+
+        assertThat(aggregateRootCache.size(), is(2));
+        assertThat(aggregateRootCache.checkout("first"), is(Optional.empty()));
+    }
+
+    @Test
+    @DisplayName("checkin() - Given a newer version of the stream is already cached, when checkin() is called with an older version, then the newer version is kept")
+    void checkin_keepsNewerVersion() {
+        AggregateRoot newer = new AggregateRoot(new DewdropUserAggregate());
+        newer.setVersion(10L);
+        aggregateRootCache.checkin("stream", newer);
+        aggregateRootCache.checkin("stream", aggregateRoot);
+
+        assertThat(aggregateRootCache.checkout("stream").get().getVersion(), is(10L));
+    }
+
+    @Test
+    @DisplayName("checkin() - Given an aggregateRoot with unsaved events, when checkin() is called, then it is not cached")
+    void checkin_unsavedEvents() {
+        aggregateRoot.getRecorder().recordEvent(new DewdropUserCreated(UUID.randomUUID(), "test"));
+        aggregateRootCache.checkin("stream", aggregateRoot);
+
+        assertThat(aggregateRootCache.size(), is(0));
+    }
+
+    @Test
+    @DisplayName("disabled() - Given a disabled cache, when checkin() and checkout() are called, then nothing is cached")
+    void disabled() {
+        AggregateRootCache disabled = AggregateRootCache.disabled();
+        disabled.checkin("stream", aggregateRoot);
+
+        assertThat(disabled.isEnabled(), is(false));
+        assertThat(disabled.checkout("stream"), is(Optional.empty()));
+    }
+}
@@ -0,0 +1,135 @@
+package events.dewdrop.streamstore.repository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import events.dewdrop.aggregate.AggregateRoot;
+import events.dewdrop.fixture.automated.DewdropSnapshotAggregate;
+import events.dewdrop.fixture.automated.DewdropUserAggregate;
+import events.dewdrop.fixture.customized.DewdropAccountAggregateSubclass;
+import events.dewdrop.streamstore.eventstore.EventStore;
+import events.dewdrop.streamstore.serialize.JsonSerializer;
+import events.dewdrop.streamstore.stream.PrefixStreamNameGenerator;
+import events.dewdrop.structure.datastore.StreamStore;
+import events.dewdrop.structure.events.AggregateSnapshot;
+import events.dewdrop.structure.events.ReadEventData;
+import events.dewdrop.structure.events.StreamReadResults;
+import events.dewdrop.structure.events.WriteEventData;
+import events.dewdrop.structure.read.Direction;
+import events.dewdrop.structure.read.ReadRequest;
+import events.dewdrop.structure.serialize.EventSerializer;
+import events.dewdrop.structure.write.WriteRequest;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class AggregateSnapshotRepositoryTest {
+    StreamStore streamStore;
+    EventSerializer eventSerializer;
+    AggregateSnapshotRepository snapshotRepository;
+    AggregateRoot aggregateRoot;
+    UUID id;
+
+    @BeforeEach
+    void setup() {
+        streamStore = mock(EventStore.class);
+        eventSerializer = mock(JsonSerializer.class);
+        snapshotRepository = AggregateSnapshotRepository.getInstance(streamStore, eventSerializer, new PrefixStreamNameGenerator());
+        aggregateRoot = new AggregateRoot(new DewdropSnapshotAggregate());
+        id = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("isEnabled() - Given aggregates with and without a snapshotInterval, when isEnabled() is called, then only the aggregate that opted in is enabled")
+    void isEnabled() {
+        assertThat(snapshotRepository.isEnabled(aggregateRoot), is(true));
+        assertThat(snapshotRepository.isEnabled(new AggregateRoot(new DewdropUserAggregate())), is(false));
+        assertThat(snapshotRepository.isEnabled(new DewdropAccountAggregateSubclass()), is(false));
+    }
+
+    @Test
+    @DisplayName("isSnapshotDue() - Given a snapshotInterval of 10, when the save crosses an interval boundary, then a snapshot is due")
+    void isSnapshotDue() {
+        aggregateRoot.setVersion(9L);
+        assertThat(snapshotRepository.isSnapshotDue(aggregateRoot, -1L), is(true));
+        aggregateRoot.setVersion(8L);
+        assertThat(snapshotRepository.isSnapshotDue(aggregateRoot, -1L), is(false));
+        aggregateRoot.setVersion(12L);
+        assertThat(snapshotRepository.isSnapshotDue(aggregateRoot, 10L), is(false));
+        aggregateRoot.setVersion(21L);
+        assertThat(snapshotRepository.isSnapshotDue(aggregateRoot, 18L), is(true));
+    }
+
+    @Test
+    @DisplayName("getLatest() - Given a snapshot stream, when getLatest() is called, then the last snapshot is read backwards and returned")
+    void getLatest() {
+        AggregateSnapshot snapshot = new AggregateSnapshot(9L, new DewdropSnapshotAggregate());
+        StreamReadResults results = new StreamReadResults("Test", 0L, Direction.BACKWARD, List.of(mock(ReadEventData.class)), 10L, 9L, true);
+        doReturn(results).when(streamStore).read(any(ReadRequest.class));
+        doReturn(Optional.of(snapshot)).when(eventSerializer).deserializeSnapshot(any(ReadEventData.class));
+
+        assertThat(snapshotRepository.getLatest(aggregateRoot, id), is(Optional.of(snapshot)));
+
+        ArgumentCaptor<ReadRequest> captor = ArgumentCaptor.forClass(ReadRequest.class);
+        verify(streamStore, times(1)).read(captor.capture());
+        assertThat(captor.getValue().getStreamName(), is("DewdropSnapshotAggregateSnapshot-" + id));
+        assertThat(captor.getValue().getDirection(), is(Direction.BACKWARD));
+        assertThat(captor.getValue().getCount(), is(1L));
+    }
+
+    @Test
+    @DisplayName("getLatest() - Given a snapshot of a different aggregate type, when getLatest() is called, then the snapshot is ignored")
+    void getLatest_wrongType() {
+        StreamReadResults results = new StreamReadResults("Test", 0L, Direction.BACKWARD, List.of(mock(ReadEventData.class)), 10L, 9L, true);
+        doReturn(results).when(streamStore).read(any(ReadRequest.class));
+        doReturn(Optional.of(new AggregateSnapshot(9L, new DewdropUserAggregate()))).when(eventSerializer).deserializeSnapshot(any(ReadEventData.class));
+
+        assertThat(snapshotRepository.getLatest(aggregateRoot, id).isEmpty(), is(true));
+    }
+
+    @Test
+    @DisplayName("getLatest() - Given no snapshot stream, when getLatest() is called, then nothing is deserialized and an empty Optional is returned")
+    void getLatest_noStream() {
+        doReturn(StreamReadResults.noStream()).when(streamStore).read(any(ReadRequest.class));
+
+        assertThat(snapshotRepository.getLatest(aggregateRoot, id).isEmpty(), is(true));
+        verify(eventSerializer, never()).deserializeSnapshot(any(ReadEventData.class));
+    }
+
+    @Test
+    @DisplayName("save() - Given an aggregateRoot, when save() is called, then the snapshot is appended to the snapshot stream without an expected version")
+    void save() {
+        WriteEventData writeEventData = mock(WriteEventData.class);
+        doReturn(Optional.of(writeEventData)).when(eventSerializer).serializeSnapshot(any(AggregateSnapshot.class));
+        aggregateRoot.setVersion(19L);
+
+        snapshotRepository.save(aggregateRoot, id);
+
+        ArgumentCaptor<WriteRequest> captor = ArgumentCaptor.forClass(WriteRequest.class);
+        verify(streamStore, times(1)).appendToStream(captor.capture());
+        assertThat(captor.getValue().getStreamName(), is("DewdropSnapshotAggregateSnapshot-" + id));
+        assertThat(captor.getValue().getExpectedVersion(), is(nullValue()));
+        assertThat(captor.getValue().getEvents(), is(List.of(writeEventData)));
+    }
+
+    @Test
+    @DisplayName("save() - Given an aggregateRoot that cannot be serialized, when save() is called, then nothing is appended")
+    void save_unableToSerialize() {
+        doReturn(Optional.empty()).when(eventSerializer).serializeSnapshot(any(AggregateSnapshot.class));
+
+        snapshotRepository.save(aggregateRoot, id);
+
+        verify(streamStore, never()).appendToStream(any(WriteRequest.class));
+    }
+}
@@ -0,0 +1,107 @@
+package events.dewdrop.streamstore.serialize;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import events.dewdrop.fixture.automated.DewdropSnapshotAggregate;
+import events.dewdrop.fixture.events.DewdropAccountCreated;
+import events.dewdrop.streamstore.write.StreamWriter;
+import events.dewdrop.structure.events.AggregateSnapshot;
+import events.dewdrop.structure.events.ReadEventData;
+import events.dewdrop.structure.events.WriteEventData;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CompressingEventSerializerTest {
+    ObjectMapper objectMapper;
+    JsonSerializer jsonSerializer;
+    CompressingEventSerializer compressingEventSerializer;
+
+    @BeforeEach
+    void setup() {
+        objectMapper = new ObjectMapper();
+        jsonSerializer = new JsonSerializer(objectMapper);
+        compressingEventSerializer = CompressingEventSerializer.builder().eventSerializer(jsonSerializer).objectMapper(objectMapper).thresholdBytes(512).create();
+    }
+
+    @Test
+    @DisplayName("serializeAll() - Given an event above the threshold, when it is serialized and deserialized, then it is stored compressed as binary with the flag in the metadata and read back unchanged")
+    void serializeAll_aboveThreshold() throws Exception {
+        UUID correlationId = UUID.randomUUID();
+        DewdropAccountCreated event = new DewdropAccountCreated(UUID.randomUUID(), StringUtils.repeat("large document ", 200), UUID.randomUUID());
+        int uncompressed = objectMapper.writeValueAsBytes(event).length;
+
+        WriteEventData written = compressingEventSerializer.serializeAll(List.of(event), Map.of(StreamWriter.CORRELATION_ID, correlationId)).get(0).get();
+        Map<String, Object> metadata = objectMapper.readValue(written.getMetadata(), Map.class);
+
+        assertThat(written.isJson(), is(false));
+        assertThat(written.getData().length, is(lessThan(uncompressed)));
+        assertThat(metadata.get(CompressingEventSerializer.COMPRESSION), is("deflate"));
+        assertThat(metadata.get(CompressingEventSerializer.COMPRESSED_JSON), is(true));
+        assertThat(metadata.get(CompressingEventSerializer.UNCOMPRESSED_LENGTH), is(uncompressed));
+
+        DewdropAccountCreated result = compressingEventSerializer.<DewdropAccountCreated>deserialize(read(written)).get();
+        assertThat(result.getName(), is(event.getName()));
+        assertThat(result.getCorrelationId(), is(correlationId));
+    }
+
+    @Test
+    @DisplayName("serialize() - Given an event below the threshold, when serialize() is called, then the payload is left uncompressed and is read by the wrapped serializer")
+    void serialize_belowThreshold() {
+        DewdropAccountCreated event = new DewdropAccountCreated(UUID.randomUUID(), "small", UUID.randomUUID());
+        WriteEventData plain = jsonSerializer.serialize(event).get();
+        WriteEventData written = compressingEventSerializer.serialize(event).get();
+
+        assertThat(written.isJson(), is(true));
+        assertThat(written.getData(), is(plain.getData()));
+        assertThat(compressingEventSerializer.<DewdropAccountCreated>deserialize(read(written)).get().getName(), is("small"));
+    }
+
+    @Test
+    @DisplayName("compress() - Given a payload that does not get smaller, when compress() is called, then the original WriteEventData is returned")
+    void compress_incompressible() {
+        byte[] random = new byte[2048];
+        new java.util.Random(7).nextBytes(random);
+        WriteEventData eventData = new WriteEventData(UUID.randomUUID(), "TestEvent", false, random, "{}".getBytes());
+
+        assertThat(compressingEventSerializer.compress(eventData), is(sameInstance(eventData)));
+    }
+
+    @Test
+    @DisplayName("deserialize() - Given a compressed payload that is corrupt, when deserialize() is called, then an empty Optional is returned")
+    void deserialize_corrupt() {
+        byte[] metadata = "{\"compression\":\"deflate\",\"compressedJson\":true,\"uncompressedLength\":10}".getBytes();
+        ReadEventData eventData = new ReadEventData(UUID.randomUUID().toString(), UUID.randomUUID(), 1L, "TestEvent", "not deflate".getBytes(), metadata, false, Instant.now());
+
+        assertThat(compressingEventSerializer.deserialize(eventData).isEmpty(), is(true));
+    }
+
+    @Test
+    @DisplayName("serializeSnapshot() - Given a large snapshot on top of a Smile serializer, when it is serialized and deserialized, then it is compressed and restored")
+    void serializeSnapshot() {
+        CompressingEventSerializer serializer = CompressingEventSerializer.builder().eventSerializer(new SmileSerializer(objectMapper)).objectMapper(objectMapper).thresholdBytes(64).create();
+        DewdropSnapshotAggregate aggregate = new DewdropSnapshotAggregate();
+        aggregate.setSnapshotId(UUID.randomUUID());
+        aggregate.setName(StringUtils.repeat("state ", 100));
+
+        WriteEventData written = serializer.serializeSnapshot(new AggregateSnapshot(9L, aggregate)).get();
+        Optional<AggregateSnapshot> snapshot = serializer.deserializeSnapshot(read(written));
+
+        assertThat(snapshot.get().getVersion(), is(9L));
+        assertThat(snapshot.get().getState(), is(aggregate));
+    }
+
+    private ReadEventData read(WriteEventData written) {
+        return new ReadEventData(UUID.randomUUID().toString(), written.getEventId(), 1L, written.getEventType(), written.getData(), written.getMetadata(), written.isJson(), Instant.now());
+    }
+}
@@ -0,0 +1,93 @@
+package events.dewdrop.streamstore.serialize;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import events.dewdrop.streamstore.serialize.EventMetadataCodec.CommitMetadata;
+import events.dewdrop.streamstore.serialize.EventMetadataCodec.EventMetadata;
+import events.dewdrop.streamstore.write.StreamWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EventMetadataCodecTest {
+    ObjectMapper objectMapper;
+    EventMetadataCodec codec;
+
+    @BeforeEach
+    void setup() {
+        objectMapper = new ObjectMapper();
+        codec = new EventMetadataCodec(objectMapper);
+    }
+
+    @Test
+    @DisplayName("decode() - Given metadata with the class name, causationId, correlationId and other headers, when decode() is called, then the three fields are read and the rest is skipped")
+    void decode() throws IOException {
+        UUID causationId = UUID.randomUUID();
+        UUID correlationId = UUID.randomUUID();
+        Map<String, Object> headers = new LinkedHashMap<>();
+        headers.put(StreamWriter.COMMIT_ID_HEADER, UUID.randomUUID().toString());
+        headers.put("nested", Map.of("list", List.of(1, 2, 3)));
+        headers.put(JsonSerializer.EVENT_CLASS, "events.dewdrop.Test");
+        headers.put(StreamWriter.CAUSATION_ID, causationId.toString());
+        headers.put(StreamWriter.CORRELATION_ID, correlationId.toString());
+
+        EventMetadata metadata = codec.decode(objectMapper.writeValueAsBytes(headers));
+
+        assertThat(metadata.getClassName(), is("events.dewdrop.Test"));
+        assertThat(metadata.getCausationId(), is(causationId));
+        assertThat(metadata.getCorrelationId(), is(correlationId));
+    }
+
+    @Test
+    @DisplayName("decode() - Given metadata that is not a JSON object, when decode() is called, then every field is null")
+    void decode_notAnObject() throws IOException {
+        EventMetadata metadata = codec.decode("null".getBytes());
+
+        assertThat(metadata.getClassName(), is(nullValue()));
+        assertThat(metadata.getCausationId(), is(nullValue()));
+    }
+
+    @Test
+    @DisplayName("encodeCommit() - Given commit headers, when the metadata for an event is built, then it holds the event's class name and every commit header")
+    void encodeCommit() throws IOException {
+        UUID commitId = UUID.randomUUID();
+        Map<String, Object> headers = Map.of(StreamWriter.COMMIT_ID_HEADER, commitId, StreamWriter.AGGREGATE_CLR_TYPE_NAME, "events.dewdrop.Aggregate");
+
+        CommitMetadata commitMetadata = codec.encodeCommit(headers);
+        Map<String, Object> metadata = codec.read(commitMetadata.forEvent(codec.classNameHeader("events.dewdrop.Test")));
+
+        assertThat(metadata.get(JsonSerializer.EVENT_CLASS), is("events.dewdrop.Test"));
+        assertThat(metadata.get(StreamWriter.COMMIT_ID_HEADER), is(commitId.toString()));
+        assertThat(metadata.get(StreamWriter.AGGREGATE_CLR_TYPE_NAME), is("events.dewdrop.Aggregate"));
+        assertThat(metadata.size(), is(3));
+    }
+
+    @Test
+    @DisplayName("encodeCommit() - Given no commit headers, when the metadata for an event is built, then it only holds the event's class name")
+    void encodeCommit_noHeaders() throws IOException {
+        CommitMetadata commitMetadata = codec.encodeCommit(Map.of());
+        Map<String, Object> metadata = codec.read(commitMetadata.forEvent(codec.classNameHeader("events.dewdrop.Test")));
+
+        assertThat(metadata, is(Map.of(JsonSerializer.EVENT_CLASS, "events.dewdrop.Test")));
+    }
+
+    @Test
+    @DisplayName("encodeCommit() - Given commit headers that already hold the class name, when the metadata for an event is built, then the headers are used as they are")
+    void encodeCommit_classNameInHeaders() throws IOException {
+        CommitMetadata commitMetadata = codec.encodeCommit(Map.of(JsonSerializer.EVENT_CLASS, "events.dewdrop.Other"));
+        byte[] first = commitMetadata.forEvent(codec.classNameHeader("events.dewdrop.Test"));
+        byte[] second = commitMetadata.forEvent(codec.classNameHeader("events.dewdrop.Test"));
+
+        assertThat(codec.read(first).get(JsonSerializer.EVENT_CLASS), is("events.dewdrop.Other"));
+        assertThat(second, is(sameInstance(first)));
+    }
+}
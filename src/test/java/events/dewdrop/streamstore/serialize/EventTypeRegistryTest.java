@@ -0,0 +1,79 @@
+package events.dewdrop.streamstore.serialize;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import events.dewdrop.fixture.events.DewdropAccountCreated;
+import events.dewdrop.fixture.events.DewdropUserCreated;
+import events.dewdrop.streamstore.serialize.EventTypeRegistry.EventType;
+import events.dewdrop.structure.api.Event;
+import events.dewdrop.utils.ReflectionsConfigUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EventTypeRegistryTest {
+    EventTypeRegistry eventTypeRegistry;
+
+    @BeforeEach
+    void setup() {
+        eventTypeRegistry = new EventTypeRegistry(new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("fromScannedEvents() - Given the scanned packages, when fromScannedEvents() is called, then the Event subclasses are registered by class name and event type")
+    void fromScannedEvents() {
+        ReflectionsConfigUtils.init("events.dewdrop");
+        EventTypeRegistry registry = EventTypeRegistry.fromScannedEvents(new ObjectMapper());
+
+        assertThat(registry.size(), is(greaterThan(0)));
+        assertThat(registry.forClassName(DewdropUserCreated.class.getName()).get().getType(), is(DewdropUserCreated.class));
+        assertThat(registry.forEventType(DewdropUserCreated.class.getSimpleName()).get().getType(), is(DewdropUserCreated.class));
+    }
+
+    @Test
+    @DisplayName("register() - Given a class that is already registered, when register() is called again, then the same EventType is returned")
+    void register_twice() {
+        EventType first = eventTypeRegistry.register(DewdropAccountCreated.class);
+        EventType second = eventTypeRegistry.register(DewdropAccountCreated.class);
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(eventTypeRegistry.forClass(DewdropAccountCreated.class), is(sameInstance(first)));
+        assertThat(eventTypeRegistry.size(), is(1));
+    }
+
+    @Test
+    @DisplayName("forClassName() - Given a class name that is not registered, when forClassName() is called, then the class is loaded and registered")
+    void forClassName_notRegistered() {
+        EventType eventType = eventTypeRegistry.forClassName(DewdropAccountCreated.class.getName()).get();
+
+        assertThat(eventType.getType(), is(DewdropAccountCreated.class));
+        assertThat(eventType.getEventType(), is("DewdropAccountCreated"));
+        assertThat(eventTypeRegistry.forEventType("DewdropAccountCreated").get(), is(sameInstance(eventType)));
+    }
+
+    @Test
+    @DisplayName("forClassName() - Given a class name that does not exist, when forClassName() is called, then an empty Optional is returned")
+    void forClassName_classNotFound() {
+        assertThat(eventTypeRegistry.forClassName("events.dewdrop.DoesNotExist").isPresent(), is(false));
+        assertThat(eventTypeRegistry.size(), is(0));
+    }
+
+    @Test
+    @DisplayName("forEventType() - Given two classes with the same simple name, when forEventType() is called, then the event type is ambiguous and an empty Optional is returned")
+    void forEventType_ambiguous() {
+        eventTypeRegistry.register(DewdropAccountCreated.class);
+        eventTypeRegistry.register(Other.DewdropAccountCreated.class);
+
+        assertThat(eventTypeRegistry.forEventType("DewdropAccountCreated").isPresent(), is(false));
+        assertThat(eventTypeRegistry.forClass(Other.DewdropAccountCreated.class).getType(), is(Other.DewdropAccountCreated.class));
+    }
+
+    static class Other {
+        static class DewdropAccountCreated extends Event {
+        }
+    }
+}
@@ -3,6 +3,7 @@ package events.dewdrop.streamstore.serialize;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,21 +13,24 @@ import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import events.dewdrop.fixture.automated.DewdropSnapshotAggregate;
 import events.dewdrop.fixture.events.DewdropAccountCreated;
+import events.dewdrop.fixture.events.DewdropUserCreated;
+import events.dewdrop.streamstore.write.StreamWriter;
+import events.dewdrop.structure.events.AggregateSnapshot;
+import events.dewdrop.structure.api.Event;
 import events.dewdrop.structure.api.Message;
 import events.dewdrop.structure.events.ReadEventData;
 import events.dewdrop.structure.events.WriteEventData;
 import org.apache.commons.collections4.map.HashedMap;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -79,10 +83,8 @@ class JsonSerializerTest {
     }
 
     @Test
-    void serialize_mappingException() throws JsonProcessingException {
-        doThrow(JsonProcessingException.class).when(objectMapper).writeValueAsBytes(anyMap());
-
-        assertThat(jsonSerializer.serialize(message).isEmpty(), is(true));
+    void serialize_mappingException() {
+        assertThat(jsonSerializer.serialize(new UnserializableEvent()).isEmpty(), is(true));
     }
 
 
@@ -102,26 +104,22 @@ class JsonSerializerTest {
 
     @Test
     void deserialize_exception() throws IOException {
-        doThrow(IOException.class).when(objectMapper).readValue(any(byte[].class), any(Class.class));
         Optional<DewdropAccountCreated> result = jsonSerializer.deserialize(readEventData);
         assertThat(result.isEmpty(), is(true));
 
-        doReturn(null).when(objectMapper).writeValueAsBytes(anyMap());
-        Optional<WriteEventData> eventData = new JsonSerializer(objectMapper).serialize(message, new HashMap<>());
-        Optional<DewdropAccountCreated> response = jsonSerializer.deserialize(readEventData);
+        ReadEventData invalidData = new ReadEventData(UUID.randomUUID().toString(), UUID.randomUUID(), 3L, "TestEvent", "test".getBytes(), objectMapper.writeValueAsBytes(commitHeaders), true, Instant.now());
+        Optional<DewdropAccountCreated> response = jsonSerializer.deserialize(invalidData);
         assertThat(response.isEmpty(), is(true));
     }
 
     @Test
     void deserialize_exception_metadataHasBytes() throws IOException {
-        doThrow(IOException.class).when(objectMapper).readValue(any(byte[].class), any(Class.class));
         ReadEventData readEventData = mock(ReadEventData.class);
         doReturn("test".getBytes()).when(readEventData).getMetadata();
 
         Optional<DewdropAccountCreated> result = jsonSerializer.deserialize(readEventData);
         assertThat(result.isEmpty(), is(true));
 
-        doThrow(IOException.class).when(objectMapper).readValue(any(byte[].class), any(Class.class));
         doReturn("test".getBytes()).doReturn(null).when(readEventData).getMetadata();
         Optional<DewdropAccountCreated> response = jsonSerializer.deserialize(readEventData);
         assertThat(response.isEmpty(), is(true));
@@ -129,8 +127,8 @@ class JsonSerializerTest {
 
     @Test
     void deserializeEvent() throws IOException {
-        doThrow(IOException.class).when(objectMapper).readValue(any(byte[].class), any(Class.class));
-        Object result = jsonSerializer.deserializeEvent(readEventData, message.getClass().getName(), new HashedMap<>());
+        ReadEventData invalidData = new ReadEventData(UUID.randomUUID().toString(), UUID.randomUUID(), 3L, "TestEvent", "test".getBytes(), objectMapper.writeValueAsBytes(commitHeaders), true, Instant.now());
+        Object result = jsonSerializer.deserializeEvent(invalidData, message.getClass().getName(), new HashedMap<>());
         assertThat(result, is(Optional.empty()));
     }
 
@@ -151,4 +149,75 @@ class JsonSerializerTest {
         assertThat(testEvent.getName(), is("test"));
         assertThat(testEvent.getAccountId(), is(((DewdropAccountCreated) message).getAccountId()));
     }
+
+    @Test
+    @DisplayName("serializeSnapshot() - Given an aggregate snapshot, when it is serialized and deserialized, then the state and version are restored")
+    void serializeSnapshot() {
+        DewdropSnapshotAggregate aggregate = new DewdropSnapshotAggregate();
+        aggregate.setSnapshotId(UUID.randomUUID());
+        aggregate.setName("test");
+
+        WriteEventData eventData = jsonSerializer.serializeSnapshot(new AggregateSnapshot(19L, aggregate)).orElse(null);
+        assertThat(eventData.getEventType(), is("DewdropSnapshotAggregateSnapshot"));
+
+        ReadEventData readEventData = new ReadEventData(UUID.randomUUID().toString(), eventData.getEventId(), 1L, eventData.getEventType(), eventData.getData(), eventData.getMetadata(), true, Instant.now());
+        AggregateSnapshot snapshot = jsonSerializer.deserializeSnapshot(readEventData).orElse(null);
+
+        assertThat(snapshot.getVersion(), is(19L));
+        assertThat(snapshot.getState(), is(aggregate));
+    }
+
+    @Test
+    @DisplayName("deserializeSnapshot() - Given snapshot metadata without a version, when deserializeSnapshot() is called, then an empty Optional is returned")
+    void deserializeSnapshot_missingVersion() throws JsonProcessingException {
+        ReadEventData eventData = new ReadEventData(UUID.randomUUID().toString(), UUID.randomUUID(), 3L, "TestSnapshot", objectMapper.writeValueAsBytes(message), objectMapper.writeValueAsBytes(commitHeaders), true, Instant.now());
+
+        assertThat(jsonSerializer.deserializeSnapshot(eventData).isEmpty(), is(true));
+    }
+
+    @Test
+    @DisplayName("deserialize() - Given metadata without the class name, when the event type is registered, then the event is deserialized by its event type")
+    void deserialize_byEventType() throws JsonProcessingException {
+        EventTypeRegistry eventTypeRegistry = new EventTypeRegistry(objectMapper);
+        eventTypeRegistry.register(DewdropAccountCreated.class);
+        JsonSerializer serializer = new JsonSerializer(eventTypeRegistry);
+        ReadEventData eventData =
+                        new ReadEventData(UUID.randomUUID().toString(), UUID.randomUUID(), 3L, DewdropAccountCreated.class.getSimpleName(), objectMapper.writeValueAsBytes(message), objectMapper.writeValueAsBytes(Map.of()), true, Instant.now());
+
+        DewdropAccountCreated result = serializer.<DewdropAccountCreated>deserialize(eventData).orElse(null);
+        assertThat(result.getAccountId(), is(((DewdropAccountCreated) message).getAccountId()));
+    }
+
+    @Test
+    @DisplayName("serializeAll() - Given the events of a commit and its headers, when serializeAll() is called, then each event is serialized with its own class name and the shared headers and can be deserialized")
+    void serializeAll() {
+        UUID correlationId = UUID.randomUUID();
+        Map<String, Object> headers = Map.of(StreamWriter.CORRELATION_ID, correlationId, StreamWriter.COMMIT_ID_HEADER, UUID.randomUUID());
+        DewdropUserCreated userCreated = new DewdropUserCreated(UUID.randomUUID(), "test");
+
+        List<Optional<WriteEventData>> serialized = jsonSerializer.serializeAll(List.of(message, userCreated), headers);
+
+        assertThat(serialized.size(), is(2));
+        WriteEventData second = serialized.get(1).get();
+        assertThat(second.getEventType(), is(DewdropUserCreated.class.getSimpleName()));
+        ReadEventData readEventData = new ReadEventData(UUID.randomUUID().toString(), second.getEventId(), 1L, second.getEventType(), second.getData(), second.getMetadata(), true, Instant.now());
+        DewdropUserCreated result = jsonSerializer.<DewdropUserCreated>deserialize(readEventData).orElse(null);
+        assertThat(result.getUserId(), is(userCreated.getUserId()));
+        assertThat(result.getCorrelationId(), is(correlationId));
+    }
+
+    @Test
+    @DisplayName("serializeAll() - Given an event that cannot be serialized, when serializeAll() is called, then only that event is empty")
+    void serializeAll_failure() {
+        List<Optional<WriteEventData>> serialized = jsonSerializer.serializeAll(List.of(new UnserializableEvent(), message), Map.of());
+
+        assertThat(serialized.get(0).isEmpty(), is(true));
+        assertThat(serialized.get(1).isPresent(), is(true));
+    }
+
+    private static class UnserializableEvent extends Event {
+        public String getBroken() {
+            throw new IllegalStateException("broken");
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package events.dewdrop.streamstore.serialize;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import events.dewdrop.fixture.automated.DewdropSnapshotAggregate;
+import events.dewdrop.fixture.events.DewdropAccountCreated;
+import events.dewdrop.streamstore.write.StreamWriter;
+import events.dewdrop.structure.events.AggregateSnapshot;
+import events.dewdrop.structure.events.ReadEventData;
+import events.dewdrop.structure.events.WriteEventData;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SmileSerializerTest {
+    ObjectMapper objectMapper;
+    SmileSerializer smileSerializer;
+    DewdropAccountCreated event;
+
+    @BeforeEach
+    void setup() {
+        objectMapper = new ObjectMapper();
+        smileSerializer = new SmileSerializer(objectMapper);
+        event = new DewdropAccountCreated(UUID.randomUUID(), "test", UUID.randomUUID());
+    }
+
+    @Test
+    @DisplayName("serialize() - Given an event, when serialize() is called, then the payload is Smile, marked as not JSON, and the metadata is still JSON")
+    void serialize() throws Exception {
+        WriteEventData eventData = smileSerializer.serialize(event).get();
+
+        assertThat(eventData.isJson(), is(false));
+        assertThat(eventData.getData().length, is(lessThan(objectMapper.writeValueAsBytes(event).length)));
+        assertThat(objectMapper.readValue(eventData.getMetadata(), Map.class).get(JsonSerializer.EVENT_CLASS), is(DewdropAccountCreated.class.getName()));
+    }
+
+    @Test
+    @DisplayName("deserialize() - Given a stream with a JSON event and a Smile event, when deserialize() is called on each, then both are read with their own codec")
+    void deserialize_mixedFormats() {
+        UUID correlationId = UUID.randomUUID();
+        WriteEventData json = new JsonSerializer(objectMapper).serializeAll(List.of(event), Map.of(StreamWriter.CORRELATION_ID, correlationId)).get(0).get();
+        WriteEventData smile = smileSerializer.serializeAll(List.of(event), Map.of(StreamWriter.CORRELATION_ID, correlationId)).get(0).get();
+
+        for (WriteEventData written : List.of(json, smile)) {
+            Optional<DewdropAccountCreated> result = smileSerializer.deserialize(read(written));
+            assertThat(result.get().getAccountId(), is(event.getAccountId()));
+            assertThat(result.get().getName(), is("test"));
+            assertThat(result.get().getCorrelationId(), is(correlationId));
+        }
+        assertThat(new JsonSerializer(objectMapper).<DewdropAccountCreated>deserialize(read(smile)).get().getAccountId(), is(event.getAccountId()));
+    }
+
+    @Test
+    @DisplayName("serializeSnapshot() - Given an aggregate snapshot, when it is serialized and deserialized, then the state is written as Smile and restored")
+    void serializeSnapshot() {
+        DewdropSnapshotAggregate aggregate = new DewdropSnapshotAggregate();
+        aggregate.setSnapshotId(UUID.randomUUID());
+        aggregate.setName("test");
+
+        WriteEventData eventData = smileSerializer.serializeSnapshot(new AggregateSnapshot(3L, aggregate)).get();
+        AggregateSnapshot snapshot = smileSerializer.deserializeSnapshot(read(eventData)).get();
+
+        assertThat(eventData.isJson(), is(false));
+        assertThat(snapshot.getVersion(), is(3L));
+        assertThat(snapshot.getState(), is(aggregate));
+    }
+
+    private ReadEventData read(WriteEventData written) {
+        return new ReadEventData(UUID.randomUUID().toString(), written.getEventId(), 1L, written.getEventType(), written.getData(), written.getMetadata(), written.isJson(), Instant.now());
+    }
+}
@@ -40,4 +40,12 @@ class PrefixStreamNameGeneratorTest {
         assertThat(nameGenerator.generateForEvent(DewdropUserCreated.class.getSimpleName()), is("$et-DewdropUserCreated"));
         assertThat(prefixedNameGenerator.generateForEvent(DewdropUserCreated.class.getSimpleName()), is("$et-DewdropUserCreated"));
     }
+
+    @Test
+    @DisplayName("Snapshots get their own category so they never show up in the aggregate category stream")
+    void generateForSnapshot() {
+        UUID id = UUID.randomUUID();
+        assertThat(nameGenerator.generateForSnapshot(DewdropUserAggregate.class.getSimpleName(), id), is("DewdropUserAggregateSnapshot-" + id));
+        assertThat(prefixedNameGenerator.generateForSnapshot(DewdropUserAggregate.class.getSimpleName(), id), is("test.DewdropUserAggregateSnapshot-" + id));
+    }
 }
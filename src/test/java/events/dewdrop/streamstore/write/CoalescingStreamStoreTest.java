@@ -0,0 +1,214 @@
+package events.dewdrop.streamstore.write;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import events.dewdrop.fixture.streamstore.FakeStreamStore;
+import events.dewdrop.structure.AppendFailedException;
+import events.dewdrop.structure.ConcurrencyConflictException;
+import events.dewdrop.structure.NoStreamException;
+import events.dewdrop.structure.events.StreamReadResults;
+import events.dewdrop.structure.events.WriteEventData;
+import events.dewdrop.structure.read.Direction;
+import events.dewdrop.structure.read.ReadRequest;
+import events.dewdrop.structure.write.WriteRequest;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CoalescingStreamStoreTest {
+    FakeStreamStore streamStore;
+
+    @BeforeEach
+    void setup() {
+        streamStore = new FakeStreamStore();
+    }
+
+    @Test
+    @DisplayName("appendToStreamAsync() - Given appends for different streams, when the batch size is reached, then every append is dispatched and each caller gets its own revision")
+    void appendToStreamAsync_batchSize() {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).windowMillis(60000L).batchSize(2).create();
+        WriteRequest first = new WriteRequest("first", 1L, events());
+        WriteRequest second = new WriteRequest("second", 3L, events());
+        streamStore.getAppends().put(first, CompletableFuture.completedFuture(2L));
+        streamStore.getAppends().put(second, CompletableFuture.completedFuture(4L));
+
+        CompletableFuture<Long> firstResult = coalescingStreamStore.appendToStreamAsync(first);
+        CompletableFuture<Long> secondResult = coalescingStreamStore.appendToStreamAsync(second);
+
+        assertThat(firstResult.join(), is(2L));
+        assertThat(secondResult.join(), is(4L));
+        assertThat(coalescingStreamStore.pendingSize(), is(0));
+    }
+
+    @Test
+    @DisplayName("appendToStreamAsync() - Given a single append, when the window passes, then the append is dispatched")
+    void appendToStreamAsync_window() {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).windowMillis(5L).batchSize(100).create();
+        WriteRequest writeRequest = new WriteRequest("first", 1L, events());
+        streamStore.setFallback(CompletableFuture.completedFuture(2L));
+
+        assertThat(coalescingStreamStore.appendToStreamAsync(writeRequest).join(), is(2L));
+    }
+
+    @Test
+    @DisplayName("flush() - Given two appends for the same stream, when flush() is called, then the second append is only sent once the first one completes")
+    void flush_sameStreamInOrder() {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).windowMillis(60000L).batchSize(100).create();
+        WriteRequest first = new WriteRequest("stream", 1L, events());
+        WriteRequest second = new WriteRequest("stream", 2L, events());
+        CompletableFuture<Long> firstAppend = new CompletableFuture<>();
+        streamStore.getAppends().put(first, firstAppend);
+        streamStore.getAppends().put(second, CompletableFuture.completedFuture(3L));
+
+        coalescingStreamStore.appendToStreamAsync(first);
+        CompletableFuture<Long> secondResult = coalescingStreamStore.appendToStreamAsync(second);
+        coalescingStreamStore.flush();
+
+        assertThat(streamStore.getSent().contains(second), is(false));
+        firstAppend.complete(2L);
+        assertThat(secondResult.join(), is(3L));
+    }
+
+    @Test
+    @DisplayName("flush() - Given an append for a stream still in flight from a previous flush, when the next append is flushed, then it is only sent once the first one completes")
+    void flush_sameStreamAcrossFlushes() {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).windowMillis(60000L).batchSize(100).create();
+        WriteRequest first = new WriteRequest("stream", 1L, events());
+        WriteRequest second = new WriteRequest("stream", 2L, events());
+        CompletableFuture<Long> firstAppend = new CompletableFuture<>();
+        streamStore.getAppends().put(first, firstAppend);
+        streamStore.getAppends().put(second, CompletableFuture.completedFuture(3L));
+
+        coalescingStreamStore.appendToStreamAsync(first);
+        coalescingStreamStore.flush();
+        CompletableFuture<Long> secondResult = coalescingStreamStore.appendToStreamAsync(second);
+        coalescingStreamStore.flush();
+
+        assertThat(streamStore.getSent().contains(second), is(false));
+        firstAppend.complete(2L);
+        assertThat(secondResult.join(), is(3L));
+    }
+
+    @Test
+    @DisplayName("close() - Given a pending append, when close() is called, then the pending append is dispatched and later appends fail")
+    void close() {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).windowMillis(60000L).batchSize(100).create();
+        streamStore.setFallback(CompletableFuture.completedFuture(2L));
+        CompletableFuture<Long> pending = coalescingStreamStore.appendToStreamAsync(new WriteRequest("stream", 1L, events()));
+
+        coalescingStreamStore.close();
+
+        assertThat(pending.join(), is(2L));
+        CompletableFuture<Long> afterClose = coalescingStreamStore.appendToStreamAsync(new WriteRequest("stream", 2L, events()));
+        CompletionException exception = assertThrows(CompletionException.class, afterClose::join);
+        assertThat(exception.getCause() instanceof IllegalStateException, is(true));
+    }
+
+    @Test
+    @DisplayName("close() - Given a pending append that completes later, when close() is called, then it returns once the append has completed")
+    void close_waitsForOutstanding() {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).windowMillis(60000L).batchSize(100).create();
+        CompletableFuture<Long> append = new CompletableFuture<>();
+        streamStore.setFallback(append);
+        CompletableFuture<Long> pending = coalescingStreamStore.appendToStreamAsync(new WriteRequest("stream", 1L, events()));
+        CompletableFuture.delayedExecutor(200L, TimeUnit.MILLISECONDS).execute(() -> append.complete(2L));
+
+        coalescingStreamStore.close();
+
+        assertThat(pending.isDone(), is(true));
+        assertThat(pending.join(), is(2L));
+    }
+
+    @Test
+    @DisplayName("flush() - Given a maxInFlight of 1, when appends for two streams are flushed, then the second stream is dispatched only after the first one completes")
+    void flush_maxInFlight() throws InterruptedException {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).windowMillis(60000L).batchSize(100).maxInFlight(1).create();
+        WriteRequest first = new WriteRequest("first", 1L, events());
+        WriteRequest second = new WriteRequest("second", 1L, events());
+        CompletableFuture<Long> firstAppend = new CompletableFuture<>();
+        streamStore.getAppends().put(first, firstAppend);
+        streamStore.getAppends().put(second, CompletableFuture.completedFuture(2L));
+
+        coalescingStreamStore.appendToStreamAsync(first);
+        CompletableFuture<Long> secondResult = coalescingStreamStore.appendToStreamAsync(second);
+        Thread flush = new Thread(coalescingStreamStore::flush);
+        flush.start();
+
+        await().atMost(1, TimeUnit.SECONDS).until(() -> streamStore.getSent().contains(first));
+        assertThat(streamStore.getSent().contains(second), is(false));
+        firstAppend.complete(2L);
+        assertThat(secondResult.join(), is(2L));
+        flush.join(1000);
+    }
+
+    @Test
+    @DisplayName("appendToStreamAsync() - Given an append that fails, when it is dispatched, then only its own caller fails")
+    void appendToStreamAsync_failure() {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).windowMillis(60000L).batchSize(2).create();
+        WriteRequest first = new WriteRequest("first", 1L, events());
+        WriteRequest second = new WriteRequest("second", 1L, events());
+        streamStore.getAppends().put(first, CompletableFuture.failedFuture(new ConcurrencyConflictException("first", 1L, 2L)));
+        streamStore.getAppends().put(second, CompletableFuture.completedFuture(2L));
+
+        CompletableFuture<Long> firstResult = coalescingStreamStore.appendToStreamAsync(first);
+        CompletableFuture<Long> secondResult = coalescingStreamStore.appendToStreamAsync(second);
+
+        CompletionException exception = assertThrows(CompletionException.class, firstResult::join);
+        assertThat(exception.getCause() instanceof ConcurrencyConflictException, is(true));
+        assertThat(secondResult.join(), is(2L));
+    }
+
+    @Test
+    @DisplayName("appendToStream() - Given an append that conflicts, when appendToStream() is called, then the ConcurrencyConflictException is thrown to the caller")
+    void appendToStream_conflict() {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).windowMillis(1L).create();
+        WriteRequest writeRequest = new WriteRequest("first", 1L, events());
+        streamStore.setFallback(CompletableFuture.failedFuture(new ConcurrencyConflictException("first", 1L, 2L)));
+
+        assertThrows(ConcurrencyConflictException.class, () -> coalescingStreamStore.appendToStream(writeRequest));
+    }
+
+    @Test
+    @DisplayName("appendToStream() - Given an append that fails without a conflict, when appendToStream() is called, then an AppendFailedException is thrown to the caller")
+    void appendToStream_failure() {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).windowMillis(1L).create();
+        WriteRequest writeRequest = new WriteRequest("first", 1L, events());
+        streamStore.setFallback(CompletableFuture.failedFuture(new IllegalStateException("unavailable")));
+
+        AppendFailedException exception = assertThrows(AppendFailedException.class, () -> coalescingStreamStore.appendToStream(writeRequest));
+        assertThat(exception.getStream(), is("first"));
+    }
+
+    @Test
+    @DisplayName("appendToStream() - Given an append, when appendToStream() is called, then it blocks until the coalesced append completes and returns the revision")
+    void appendToStream() {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).windowMillis(1L).create();
+        streamStore.setFallback(CompletableFuture.completedFuture(7L));
+
+        assertThat(coalescingStreamStore.appendToStream(new WriteRequest("first", 6L, events())), is(7L));
+    }
+
+    @Test
+    @DisplayName("read() - Given a read request, when read() is called, then the wrapped StreamStore is read directly")
+    void read() throws NoStreamException {
+        CoalescingStreamStore coalescingStreamStore = CoalescingStreamStore.builder().streamStore(streamStore).create();
+        ReadRequest readRequest = new ReadRequest("first", 0L, 10L, Direction.FORWARD);
+
+        StreamReadResults readResults = coalescingStreamStore.read(readRequest);
+
+        assertThat(streamStore.getReadRequests(), is(List.of(readRequest)));
+        assertThat(readResults.getStreamName(), is("first"));
+    }
+
+    private List<WriteEventData> events() {
+        return List.of(new WriteEventData(UUID.randomUUID(), "TestEvent", true, "{}".getBytes(), "{}".getBytes()));
+    }
+}
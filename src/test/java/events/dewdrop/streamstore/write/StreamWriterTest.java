@@ -12,7 +12,6 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyMap;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
@@ -21,6 +20,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import events.dewdrop.aggregate.AggregateRoot;
+import events.dewdrop.fixture.automated.DewdropSnapshotAggregate;
 import events.dewdrop.fixture.automated.DewdropUserAggregate;
 import events.dewdrop.read.readmodel.stream.StreamDetails;
 import events.dewdrop.utils.AggregateIdUtils;
@@ -28,7 +28,8 @@ import events.dewdrop.fixture.command.DewdropCreateUserCommand;
 import events.dewdrop.fixture.events.DewdropUserCreated;
 import events.dewdrop.streamstore.eventstore.EventStore;
 import events.dewdrop.streamstore.serialize.JsonSerializer;
-import events.dewdrop.structure.api.Message;
+import events.dewdrop.streamstore.stream.PrefixStreamNameGenerator;
+import events.dewdrop.structure.events.AggregateSnapshot;
 import events.dewdrop.structure.datastore.StreamStore;
 import events.dewdrop.structure.events.WriteEventData;
 import events.dewdrop.structure.serialize.EventSerializer;
@@ -38,6 +39,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.log4j.Log4j2;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -73,7 +75,7 @@ class StreamWriterTest {
     @DisplayName("save() - Given a valid AggregateRoot, it should save the event to the stream")
     void save() {
         doReturn("Test").when(streamDetails).getStreamName();
-        doNothing().when(streamStore).appendToStream(any(WriteRequest.class));
+        doReturn(0L).when(streamStore).appendToStream(any(WriteRequest.class));
         doReturn(List.of(writeEventData)).when(streamWriter).generateEventsToSave(any(AggregateRoot.class), anyList());
         UUID id = UUID.randomUUID();
         try (MockedStatic<AggregateIdUtils> utilities = mockStatic(AggregateIdUtils.class)) {
@@ -90,6 +92,79 @@ class StreamWriterTest {
         }
     }
 
+    @Test
+    @DisplayName("save() - Given an AggregateRoot with a snapshotInterval, when the save crosses the interval, then a snapshot is appended after the events")
+    void save_snapshotDue() {
+        AggregateRoot snapshotRoot = new AggregateRoot(new DewdropSnapshotAggregate());
+        snapshotRoot.setVersion(8L);
+        snapshotRoot.getRecorder().recordEvent(event);
+        UUID id = UUID.randomUUID();
+        doReturn("Test").when(streamDetails).getStreamName();
+        doReturn(new PrefixStreamNameGenerator()).when(streamDetails).getStreamNameGenerator();
+        doReturn(List.of(writeEventData)).when(streamWriter).generateEventsToSave(any(AggregateRoot.class), anyList());
+        doReturn(Optional.of(writeEventData)).when(eventSerializer).serializeSnapshot(any(AggregateSnapshot.class));
+        try (MockedStatic<AggregateIdUtils> utilities = mockStatic(AggregateIdUtils.class)) {
+            utilities.when(() -> AggregateIdUtils.getAggregateId(any(DewdropSnapshotAggregate.class))).thenReturn(Optional.of(id));
+            streamWriter.save(snapshotRoot);
+
+            ArgumentCaptor<WriteRequest> captor = ArgumentCaptor.forClass(WriteRequest.class);
+            verify(streamStore, times(2)).appendToStream(captor.capture());
+
+            WriteRequest snapshotRequest = captor.getAllValues().get(1);
+            assertThat(snapshotRequest.getStreamName(), is("DewdropSnapshotAggregateSnapshot-" + id));
+            assertThat(snapshotRequest.getExpectedVersion(), is(nullValue()));
+        }
+    }
+
+    @Test
+    @DisplayName("saveAsync() - Given a valid AggregateRoot, when saveAsync() is called, then the events are appended without blocking and the revision is returned")
+    void saveAsync() {
+        doReturn("Test").when(streamDetails).getStreamName();
+        doReturn(CompletableFuture.completedFuture(34L)).when(streamStore).appendToStreamAsync(any(WriteRequest.class));
+        doReturn(List.of(writeEventData)).when(streamWriter).generateEventsToSave(any(AggregateRoot.class), anyList());
+        UUID id = UUID.randomUUID();
+        try (MockedStatic<AggregateIdUtils> utilities = mockStatic(AggregateIdUtils.class)) {
+            utilities.when(() -> AggregateIdUtils.getAggregateId(any(DewdropUserAggregate.class))).thenReturn(Optional.of(id));
+
+            assertThat(streamWriter.saveAsync(aggregateRoot).join(), is(34L));
+
+            ArgumentCaptor<WriteRequest> captor = ArgumentCaptor.forClass(WriteRequest.class);
+            verify(streamStore, times(1)).appendToStreamAsync(captor.capture());
+            assertThat(captor.getValue().getStreamName(), is("Test"));
+            assertThat(captor.getValue().getExpectedVersion(), is(33L));
+        }
+    }
+
+    @Test
+    @DisplayName("takeEventsToSave() - Given an AggregateRoot with recorded events, when takeEventsToSave() is called, then the events are serialized, cleared and the version moves past them")
+    void takeEventsToSave() {
+        doReturn(List.of(writeEventData)).when(streamWriter).generateEventsToSave(any(AggregateRoot.class), anyList());
+        aggregateRoot.getRecorder().recordEvent(event);
+
+        List<WriteEventData> events = streamWriter.takeEventsToSave(aggregateRoot);
+
+        assertThat(events, is(List.of(writeEventData)));
+        assertThat(aggregateRoot.getRecorder().hasRecordedEvents(), is(false));
+        assertThat(aggregateRoot.getVersion(), is(34L));
+    }
+
+    @Test
+    @DisplayName("saveAsync() - Given events taken from an AggregateRoot and the version before them, when saveAsync() is called, then they are appended in one write with that expected version")
+    void saveAsync_takenEvents() {
+        doReturn("Test").when(streamDetails).getStreamName();
+        doReturn(CompletableFuture.completedFuture(35L)).when(streamStore).appendToStreamAsync(any(WriteRequest.class));
+        try (MockedStatic<AggregateIdUtils> utilities = mockStatic(AggregateIdUtils.class)) {
+            utilities.when(() -> AggregateIdUtils.getAggregateId(any(DewdropUserAggregate.class))).thenReturn(Optional.of(UUID.randomUUID()));
+
+            assertThat(streamWriter.saveAsync(aggregateRoot, 31L, List.of(writeEventData, writeEventData)).join(), is(35L));
+
+            ArgumentCaptor<WriteRequest> captor = ArgumentCaptor.forClass(WriteRequest.class);
+            verify(streamStore, times(1)).appendToStreamAsync(captor.capture());
+            assertThat(captor.getValue().getExpectedVersion(), is(31L));
+            assertThat(captor.getValue().getEvents().size(), is(2));
+        }
+    }
+
     @Test
     @DisplayName("save() - Given a valid AggregateRoot with no aggregateRootId, throw an IllegalArgumentException")
     void save_noAggregateId() {
@@ -130,20 +205,20 @@ class StreamWriterTest {
     @DisplayName("generateEventsToSave() - Given a valid aggregate root and a list of events, we should generate a list of events to save, confirm we generate the commitHeaders, serialize the events and return the list")
     void getEventsToSave() {
         doReturn(new HashMap<>()).when(streamWriter).commitHeaders(any(AggregateRoot.class));
-        doReturn(Optional.of(writeEventData)).when(eventSerializer).serialize(any(Message.class), anyMap());
+        doReturn(List.of(Optional.of(writeEventData))).when(eventSerializer).serializeAll(anyList(), anyMap());
 
         List<WriteEventData> eventData = streamWriter.generateEventsToSave(aggregateRoot, List.of(event));
 
         assertThat(eventData.size(), is(1));
         assertThat(eventData.get(0), is(writeEventData));
         verify(streamWriter, times(1)).commitHeaders(any(AggregateRoot.class));
-        verify(eventSerializer, times(1)).serialize(any(Message.class), anyMap());
+        verify(eventSerializer, times(1)).serializeAll(anyList(), anyMap());
     }
 
     @Test
     @DisplayName("generateEventsToSave() - Given a valid aggregate root but an event we can't deserialize, we should throw an IllegalStateException")
     void getEventsToSave_IllegalStateException() {
-        doReturn(Optional.empty()).when(eventSerializer).serialize(any(Message.class), anyMap());
+        doReturn(List.of(Optional.empty())).when(eventSerializer).serializeAll(anyList(), anyMap());
         doReturn(new HashMap()).when(streamWriter).commitHeaders(any(AggregateRoot.class));
         assertThrows(IllegalStateException.class, () -> streamWriter.generateEventsToSave(aggregateRoot, List.of(event)));
     }
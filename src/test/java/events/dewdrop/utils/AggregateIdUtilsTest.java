@@ -74,11 +74,14 @@ class AggregateIdUtilsTest {
     @Test
     @DisplayName("AggregateIdUtils.getAggregateId() - Given an AggregateRoot when we read the field value for the AggregateId we get an IllegalAccessException")
     void getAggregateId_exception() {
+        FieldAccessors.clear();
         try (MockedStatic<FieldUtils> utilities = mockStatic(FieldUtils.class)) {
             utilities.when(() -> FieldUtils.readField(any(Field.class), any(Object.class), anyBoolean())).thenThrow(new IllegalAccessException());
 
             DewdropCreateUserCommand command = new DewdropCreateUserCommand(UUID.randomUUID(), "Test");
             assertThrows(RuntimeException.class, () -> AggregateIdUtils.getAggregateId(command));
+        } finally {
+            FieldAccessors.clear();
         }
     }
 
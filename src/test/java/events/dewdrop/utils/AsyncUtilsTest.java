@@ -0,0 +1,26 @@
+package events.dewdrop.utils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AsyncUtilsTest {
+    @Test
+    @DisplayName("unwrap() - Given nested CompletionException and ExecutionException wrappers, when unwrap() is called, then the root cause is returned")
+    void unwrap() {
+        IllegalStateException cause = new IllegalStateException("boom");
+        assertThat(AsyncUtils.unwrap(new CompletionException(new ExecutionException(cause))), is(cause));
+        assertThat(AsyncUtils.unwrap(cause), is(cause));
+    }
+
+    @Test
+    @DisplayName("toException() - Given an Error, when toException() is called, then it is wrapped so it can be carried by a Result")
+    void toException() {
+        assertThat(AsyncUtils.toException(new CompletionException(new AssertionError("boom"))), instanceOf(IllegalStateException.class));
+    }
+}
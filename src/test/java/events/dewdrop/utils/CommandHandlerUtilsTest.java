@@ -13,6 +13,7 @@ import events.dewdrop.command.CommandHandler;
 import events.dewdrop.fixture.automated.DewdropUserAggregate;
 import events.dewdrop.fixture.command.DewdropAddFundsToAccountCommand;
 import events.dewdrop.fixture.command.DewdropCreateUserCommand;
+import events.dewdrop.fixture.command.DewdropDeactivateUserCommand;
 import events.dewdrop.fixture.customized.DewdropCommandService;
 import events.dewdrop.fixture.events.DewdropUserCreated;
 import events.dewdrop.fixture.events.DewdropFundsAddedToAccount;
@@ -78,4 +79,11 @@ class CommandHandlerUtilsTest {
         Result<List<DewdropFundsAddedToAccount>> events = CommandHandlerUtils.executeCommand(new DewdropCommandService(), method, command, aggregateRoot.get());
         assertThat(events.get().get(0).getFunds(), is(command.getFunds()));
     }
+
+    @Test
+    @DisplayName("isCreationHandler() - Given command handlers with and without creates = true, when isCreationHandler() is called, then only the creation handler is reported")
+    void isCreationHandler() {
+        assertThat(CommandHandlerUtils.isCreationHandler(commandMethods.get(DewdropCreateUserCommand.class)), is(true));
+        assertThat(CommandHandlerUtils.isCreationHandler(commandMethods.get(DewdropDeactivateUserCommand.class)), is(false));
+    }
 }
@@ -14,11 +14,14 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
 
 import events.dewdrop.fixture.events.DewdropAccountCreated;
 import events.dewdrop.fixture.events.DewdropFundsAddedToAccount;
@@ -32,7 +35,9 @@ import events.dewdrop.read.readmodel.ReadModelWrapper;
 import events.dewdrop.read.readmodel.annotation.EventHandler;
 import events.dewdrop.read.readmodel.cache.MapBackedInMemoryCacheProcessor;
 import events.dewdrop.structure.api.Event;
+import events.dewdrop.structure.read.EventBatch;
 import lombok.Data;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -42,6 +47,12 @@ class EventHandlerUtilsTest {
     @BeforeEach
     void setup() {
         ReflectionsConfigUtils.init("events.dewdrop");
+        EventHandlerUtils.clearDispatchTable();
+    }
+
+    @AfterEach
+    void teardown() {
+        EventHandlerUtils.clearDispatchTable();
     }
 
     @Test
@@ -97,6 +108,23 @@ class EventHandlerUtilsTest {
         assertThat(eventToHandlerMethod.isEmpty(), is(true));
     }
 
+    @Test
+    @DisplayName("getEventToBatchEventHandlerMethod() - Given a class with an @EventHandler taking an EventBatch, when getEventToBatchEventHandlerMethod() is called, then it is keyed by the event of the batch and is not a single event handler")
+    void getEventToBatchEventHandlerMethod() {
+        Map<Class<? extends Event>, Method> batchHandlers = EventHandlerUtils.getEventToBatchEventHandlerMethod(BatchEventHandler.class);
+        assertThat(batchHandlers.size(), is(1));
+        assertThat(batchHandlers.get(DewdropUserCreated.class).getName(), is("onBatch"));
+
+        Map<Class<? extends Event>, Method> eventHandlers = EventHandlerUtils.getEventToEventHandlerMethod(BatchEventHandler.class);
+        assertThat(eventHandlers.keySet(), is(Set.of(DewdropAccountCreated.class)));
+    }
+
+    @Test
+    @DisplayName("getEventToBatchEventHandlerMethod() - Given an @EventHandler taking a raw EventBatch, when getEventToBatchEventHandlerMethod() is called, then it is filtered out as the event it handles is unknown")
+    void getEventToBatchEventHandlerMethod_rawBatch() {
+        assertThat(EventHandlerUtils.getEventToBatchEventHandlerMethod(RawBatchEventHandler.class).isEmpty(), is(true));
+    }
+
     @Test
     @DisplayName("callEventHandler() - Given an object with a method annotated with @EventHandler and an event, the object will call the method annotated with @EventHandler")
     void callEventHandler() {
@@ -144,6 +172,47 @@ class EventHandlerUtilsTest {
         assertThat(instance.getUsers(), is(notNullValue()));
     }
 
+    @Test
+    @DisplayName("callEventHandler() - Given the same target class and event class, when callEventHandler() is called repeatedly, then the handler method is only looked up once")
+    void callEventHandler_dispatchTable() {
+        DewdropUserCreated event = new DewdropUserCreated(UUID.randomUUID(), "test");
+
+        try (MockedStatic<DewdropAnnotationUtils> utilities = mockStatic(DewdropAnnotationUtils.class, CALLS_REAL_METHODS)) {
+            DewdropUser first = new DewdropUser();
+            DewdropUser second = new DewdropUser();
+            EventHandlerUtils.callEventHandler(first, event);
+            EventHandlerUtils.callEventHandler(second, event);
+
+            assertThat(second.getUserId(), is(event.getUserId()));
+            utilities.verify(() -> DewdropAnnotationUtils.getAnnotatedMethods(DewdropUser.class, EventHandler.class), times(1));
+        }
+    }
+
+    @Test
+    @DisplayName("callEventHandler() - Given an event handler that throws, when callEventHandler() is called, then the exception is logged and not rethrown")
+    void callEventHandler_handlerThrows() {
+        ThrowingEventHandler instance = new ThrowingEventHandler();
+        DewdropUserCreated event = new DewdropUserCreated(UUID.randomUUID(), "test");
+
+        EventHandlerUtils.callEventHandler(instance, event);
+        assertThat(instance.isCalled(), is(true));
+    }
+
+    @Test
+    @DisplayName("callEventHandler() - Given an event handler that throws an Error, when callEventHandler() is called, then the Error is not swallowed")
+    void callEventHandler_handlerThrowsError() {
+        ErrorEventHandler instance = new ErrorEventHandler();
+        DewdropUserCreated event = new DewdropUserCreated(UUID.randomUUID(), "test");
+
+        assertThrows(StackOverflowError.class, () -> EventHandlerUtils.callEventHandler(instance, event));
+    }
+
+    @Test
+    @DisplayName("getEventHandlerInvoker() - Given a target class without a handler for the event, when getEventHandlerInvoker() is called, then an empty Optional is returned")
+    void getEventHandlerInvoker_noHandler() {
+        assertThat(EventHandlerUtils.getEventHandlerInvoker(NoMethodEventHandler.class, DewdropUserCreated.class).isPresent(), is(false));
+    }
+
     @Test
     @DisplayName("getOnEventMethod() - Given an object with a method annotated with @OnEvent and an event, when getOnEventMethod() is called, the method annotated with @OnEvent and the first parameter is the event is returned")
     void getOnEventMethod() {
@@ -152,6 +221,19 @@ class EventHandlerUtilsTest {
     }
 
 
+    private class BatchEventHandler {
+        @EventHandler
+        public void onBatch(EventBatch<DewdropUserCreated> batch) {}
+
+        @EventHandler
+        public void on(DewdropAccountCreated event) {}
+    }
+
+    private class RawBatchEventHandler {
+        @EventHandler
+        public void onBatch(EventBatch batch) {}
+    }
+
     private class NoParameterEventHandler {
         @EventHandler
         public void on() {}
@@ -171,6 +253,24 @@ class EventHandlerUtilsTest {
         }
     }
 
+    @Data
+    private class ThrowingEventHandler {
+        boolean called;
+
+        @EventHandler
+        public void on(DewdropUserCreated event) {
+            this.called = true;
+            throw new IllegalStateException("handler failed");
+        }
+    }
+
+    private class ErrorEventHandler {
+        @EventHandler
+        public void on(DewdropUserCreated event) {
+            throw new StackOverflowError();
+        }
+    }
+
     @Data
     private class TwoParameterEventHandler {
         UUID userId;
@@ -0,0 +1,69 @@
+package events.dewdrop.utils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import events.dewdrop.aggregate.annotation.AggregateId;
+import events.dewdrop.fixture.command.DewdropCreateUserCommand;
+import events.dewdrop.utils.FieldAccessors.FieldAccessor;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class FieldAccessorsTest {
+    @AfterEach
+    void teardown() {
+        FieldAccessors.clear();
+    }
+
+    @Test
+    @DisplayName("annotatedWith() - Given a class with a field annotated with @AggregateId, when annotatedWith() is called, then an accessor that reads the field is returned")
+    void annotatedWith() {
+        DewdropCreateUserCommand command = new DewdropCreateUserCommand(UUID.randomUUID(), "Test");
+
+        List<FieldAccessor> accessors = FieldAccessors.annotatedWith(DewdropCreateUserCommand.class, AggregateId.class);
+        assertThat(accessors.size(), is(1));
+        assertThat(accessors.get(0).read(command), is(command.getUserId()));
+    }
+
+    @Test
+    @DisplayName("annotatedWith() - Given the same class and annotation, when annotatedWith() is called twice, then the accessors are only resolved once")
+    void annotatedWith_cached() {
+        List<FieldAccessor> first = FieldAccessors.annotatedWith(DewdropCreateUserCommand.class, AggregateId.class);
+        List<FieldAccessor> second = FieldAccessors.annotatedWith(DewdropCreateUserCommand.class, AggregateId.class);
+        assertThat(second, is(sameInstance(first)));
+    }
+
+    @Test
+    @DisplayName("annotatedWith() - Given a class without the annotation, when annotatedWith() is called, then an empty list is returned")
+    void annotatedWith_none() {
+        assertThat(FieldAccessors.annotatedWith(String.class, AggregateId.class).isEmpty(), is(true));
+    }
+
+    @Test
+    @DisplayName("named() - Given a private class with a private field, when named() is called, then an accessor that reads the field is returned")
+    void named() {
+        PrivateKey privateKey = new PrivateKey(UUID.randomUUID());
+
+        Optional<FieldAccessor> accessor = FieldAccessors.named(PrivateKey.class, "key");
+        assertThat(accessor.get().read(privateKey), is(privateKey.key));
+        assertThat(accessor.get().read(new PrivateKey(null)), is(nullValue()));
+    }
+
+    @Test
+    @DisplayName("named() - Given a class without the field, when named() is called, then an empty Optional is returned")
+    void named_missing() {
+        assertThat(FieldAccessors.named(PrivateKey.class, "missing").isPresent(), is(false));
+    }
+
+    @AllArgsConstructor
+    private static class PrivateKey {
+        private UUID key;
+    }
+}
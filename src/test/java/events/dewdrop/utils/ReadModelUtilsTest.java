@@ -19,6 +19,7 @@ import events.dewdrop.fixture.readmodel.users.DewdropUser;
 import events.dewdrop.fixture.readmodel.users.DewdropUsersReadModel;
 import events.dewdrop.read.readmodel.cache.ImprovedMapBackedInMemoryCacheProcessor;
 import events.dewdrop.read.readmodel.cache.MapBackedInMemoryCacheProcessor;
+import events.dewdrop.read.readmodel.cache.OffHeapInMemoryCacheProcessor;
 import events.dewdrop.read.readmodel.cache.SingleItemInMemoryCache;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -26,6 +27,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.UUID;
 import lombok.extern.log4j.Log4j2;
@@ -134,6 +136,12 @@ class ReadModelUtilsTest {
         assertThat(ReadModelUtils.createInMemoryCache(DewdropUsersReadModel.class).get().getClass(), is(ImprovedMapBackedInMemoryCacheProcessor.class));
     }
 
+    @Test
+    @DisplayName("createInMemoryCache() - Given a read model class with an off-heap @DewdropCache of a map, create an OffHeapInMemoryCacheProcessor cache")
+    void createInMemoryCache_offHeap() {
+        assertThat(ReadModelUtils.createInMemoryCache(OffHeapDewdropCache.class).get().getClass(), is(OffHeapInMemoryCacheProcessor.class));
+    }
+
     @Test
     @DisplayName("createInMemoryCache() - Given a read model class with an @DewdropCache of a single item, create an SingleItemInMemoryCache cache")
     void createInMemoryCache_singleItemInMemoryCache() {
@@ -165,6 +173,11 @@ class ReadModelUtilsTest {
         assertThat(ReadModelUtils.isEphemeral(String.class), is(false));
     }
 
+    private class OffHeapDewdropCache {
+        @DewdropCache(offHeap = true)
+        Map<UUID, DewdropAccountDetails> cache;
+    }
+
     private class TooManyDewdropCaches {
         @DewdropCache
         String test;